@@ -0,0 +1,152 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.portfolio.loanaccount.domain.transactionprocessor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.stellar.bnkbiz.portfolio.loanaccount.domain.ChangedTransactionDetail;
+import com.stellar.bnkbiz.portfolio.loanaccount.domain.LoanRepaymentScheduleInstallment;
+import com.stellar.bnkbiz.portfolio.loanaccount.domain.LoanTransaction;
+import com.stellar.bnkbiz.portfolio.loanaccount.domain.transactionprocessor.impl.CreocoreLoanRepaymentScheduleTransactionProcessor;
+import com.stellar.bnkbiz.portfolio.loanaccount.domain.transactionprocessor.impl.EarlyPaymentLoanRepaymentScheduleTransactionProcessor;
+import com.stellar.bnkbiz.portfolio.loanaccount.domain.transactionprocessor.impl.FineractStyleLoanRepaymentScheduleTransactionProcessor;
+import com.stellar.bnkbiz.portfolio.loanaccount.domain.transactionprocessor.impl.HeavensFamilyLoanRepaymentScheduleTransactionProcessor;
+import com.stellar.bnkbiz.portfolio.loanaccount.domain.transactionprocessor.impl.InterestPrincipalPenaltyFeesOrderLoanRepaymentScheduleTransactionProcessor;
+import com.stellar.bnkbiz.portfolio.loanaccount.domain.transactionprocessor.impl.PrincipalInterestPenaltyFeesOrderLoanRepaymentScheduleTransactionProcessor;
+import com.stellar.bnkbiz.portfolio.loanaccount.domain.transactionprocessor.impl.RBILoanRepaymentScheduleTransactionProcessor;
+import com.stellar.bnkbiz.portfolio.loanaccount.loanschedule.domain.LoanBenchmarkFixture;
+import com.stellar.bnkbiz.portfolio.loanaccount.loanschedule.domain.LoanBenchmarkFixture.Scenario;
+import com.stellar.bnkbiz.portfolio.loanaccount.loanschedule.domain.LoanScheduleModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Replay of the repayments of a loan over its schedule, as done on every
+ * repayment, adjustment and reversal, for each repayment strategy.
+ *
+ * The replay changes the repayments, so they are rebuilt before every
+ * invocation; the installments reset themselves at the start of a replay.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoanRepaymentScheduleTransactionProcessorBenchmark {
+
+    public enum Strategy {
+        FINERACT_STYLE {
+
+            @Override
+            LoanRepaymentScheduleTransactionProcessor newProcessor() {
+                return new FineractStyleLoanRepaymentScheduleTransactionProcessor();
+            }
+        },
+        HEAVENS_FAMILY {
+
+            @Override
+            LoanRepaymentScheduleTransactionProcessor newProcessor() {
+                return new HeavensFamilyLoanRepaymentScheduleTransactionProcessor();
+            }
+        },
+        CREOCORE {
+
+            @Override
+            LoanRepaymentScheduleTransactionProcessor newProcessor() {
+                return new CreocoreLoanRepaymentScheduleTransactionProcessor();
+            }
+        },
+        RBI {
+
+            @Override
+            LoanRepaymentScheduleTransactionProcessor newProcessor() {
+                return new RBILoanRepaymentScheduleTransactionProcessor();
+            }
+        },
+        PRINCIPAL_INTEREST_PENALTY_FEES_ORDER {
+
+            @Override
+            LoanRepaymentScheduleTransactionProcessor newProcessor() {
+                return new PrincipalInterestPenaltyFeesOrderLoanRepaymentScheduleTransactionProcessor();
+            }
+        },
+        INTEREST_PRINCIPAL_PENALTY_FEES_ORDER {
+
+            @Override
+            LoanRepaymentScheduleTransactionProcessor newProcessor() {
+                return new InterestPrincipalPenaltyFeesOrderLoanRepaymentScheduleTransactionProcessor();
+            }
+        },
+        EARLY_PAYMENT {
+
+            @Override
+            LoanRepaymentScheduleTransactionProcessor newProcessor() {
+                return new EarlyPaymentLoanRepaymentScheduleTransactionProcessor();
+            }
+        };
+
+        abstract LoanRepaymentScheduleTransactionProcessor newProcessor();
+    }
+
+    @Param({ "12", "60", "120", "360" })
+    public int numberOfRepayments;
+
+    @Param({ "FLAT", "DECLINING_BALANCE" })
+    public Scenario scenario;
+
+    @Param({ "FINERACT_STYLE", "HEAVENS_FAMILY", "CREOCORE", "RBI", "PRINCIPAL_INTEREST_PENALTY_FEES_ORDER",
+            "INTEREST_PRINCIPAL_PENALTY_FEES_ORDER", "EARLY_PAYMENT" })
+    public Strategy strategy;
+
+    private LoanBenchmarkFixture fixture;
+    private LoanRepaymentScheduleTransactionProcessor loanRepaymentScheduleTransactionProcessor;
+    private List<LoanRepaymentScheduleInstallment> installments;
+    private List<LoanTransaction> repayments;
+
+    @Setup
+    public void setUp() {
+        this.fixture = new LoanBenchmarkFixture(this.scenario, this.numberOfRepayments);
+        final LoanScheduleModel loanScheduleModel = this.fixture.generate();
+        this.loanRepaymentScheduleTransactionProcessor = this.strategy.newProcessor();
+        this.installments = this.fixture.installmentsOf(loanScheduleModel);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        this.repayments = this.fixture.newRepayments(this.installments);
+    }
+
+    @Benchmark
+    public ChangedTransactionDetail handleTransaction() {
+        return this.loanRepaymentScheduleTransactionProcessor.handleTransaction(this.fixture.getDisbursementDate(), this.repayments,
+                this.fixture.getCurrency(), this.installments, this.fixture.getCharges());
+    }
+}
@@ -0,0 +1,264 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.portfolio.loanaccount.loanschedule.domain;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.stellar.bnkbiz.infrastructure.core.api.JsonCommand;
+import com.stellar.bnkbiz.infrastructure.core.serialization.FromJsonHelper;
+import com.stellar.bnkbiz.infrastructure.core.service.DateUtils;
+import com.stellar.bnkbiz.organisation.holiday.domain.Holiday;
+import com.stellar.bnkbiz.organisation.monetary.domain.ApplicationCurrency;
+import com.stellar.bnkbiz.organisation.monetary.domain.MonetaryCurrency;
+import com.stellar.bnkbiz.organisation.monetary.domain.Money;
+import com.stellar.bnkbiz.organisation.monetary.domain.MoneyHelper;
+import com.stellar.bnkbiz.organisation.office.domain.Office;
+import com.stellar.bnkbiz.organisation.workingdays.domain.RepaymentRescheduleType;
+import com.stellar.bnkbiz.organisation.workingdays.domain.WorkingDays;
+import com.stellar.bnkbiz.portfolio.common.domain.DayOfWeekType;
+import com.stellar.bnkbiz.portfolio.common.domain.DaysInMonthType;
+import com.stellar.bnkbiz.portfolio.common.domain.DaysInYearType;
+import com.stellar.bnkbiz.portfolio.common.domain.NthDayType;
+import com.stellar.bnkbiz.portfolio.common.domain.PeriodFrequencyType;
+import com.stellar.bnkbiz.portfolio.loanaccount.data.DisbursementData;
+import com.stellar.bnkbiz.portfolio.loanaccount.data.HolidayDetailDTO;
+import com.stellar.bnkbiz.portfolio.loanaccount.data.LoanTermVariationsData;
+import com.stellar.bnkbiz.portfolio.loanaccount.domain.LoanCharge;
+import com.stellar.bnkbiz.portfolio.loanaccount.domain.LoanRepaymentScheduleInstallment;
+import com.stellar.bnkbiz.portfolio.loanaccount.domain.LoanTermVariationType;
+import com.stellar.bnkbiz.portfolio.loanaccount.domain.LoanTransaction;
+import com.stellar.bnkbiz.portfolio.loanproduct.domain.AmortizationMethod;
+import com.stellar.bnkbiz.portfolio.loanproduct.domain.InterestCalculationPeriodMethod;
+import com.stellar.bnkbiz.portfolio.loanproduct.domain.InterestMethod;
+import com.stellar.bnkbiz.portfolio.loanproduct.domain.InterestRecalculationCompoundingMethod;
+import com.stellar.bnkbiz.portfolio.loanproduct.domain.LoanPreClosureInterestCalculationStrategy;
+import com.stellar.bnkbiz.portfolio.loanproduct.domain.LoanProductRelatedDetail;
+import com.stellar.bnkbiz.portfolio.loanproduct.domain.LoanRescheduleStrategyMethod;
+import com.stellar.bnkbiz.portfolio.loanproduct.domain.RecalculationFrequencyType;
+import com.stellar.bnkbiz.portfolio.loanproduct.service.LoanEnumerations;
+import java.time.LocalDate;
+
+/**
+ * Monthly loans of a given number of installments built the way
+ * {@link LoanScheduleAssembler} and {@link com.stellar.bnkbiz.portfolio.loanaccount.domain.Loan}
+ * build them, without a Spring context or database.
+ *
+ * {@link LoanApplicationTerms} is changed by schedule generation, so every
+ * call of {@link #newLoanApplicationTerms()} returns fresh terms.
+ */
+public final class LoanBenchmarkFixture {
+
+    public enum Scenario {
+        FLAT, //
+        DECLINING_BALANCE, //
+        MULTI_TRANCHE, //
+        INTEREST_RECALCULATION, //
+        HOLIDAYS, //
+        VARIABLE_INSTALLMENTS;
+    }
+
+    private static final ApplicationCurrency CURRENCY = new ApplicationCurrency("USD", "US Dollar", 2, null, "currency.USD", "$");
+    private static final BigDecimal PRINCIPAL = BigDecimal.valueOf(1000000);
+    private static final LocalDate DISBURSEMENT_DATE = new LocalDate(2015, 1, 5);
+    private static final String WORKING_DAYS_RECURRENCE = "FREQ=WEEKLY;INTERVAL=1;BYDAY=MO,TU,WE,TH,FR";
+
+    static {
+        MoneyHelper.initializeRoundingMode(RoundingMode.HALF_EVEN);
+    }
+
+    private final Scenario scenario;
+    private final int numberOfRepayments;
+    private final MonetaryCurrency currency;
+    private final MathContext mathContext;
+    private final HolidayDetailDTO holidayDetailDTO;
+    private final LoanScheduleGenerator loanScheduleGenerator;
+    private final Set<LoanCharge> charges;
+
+    public LoanBenchmarkFixture(final Scenario scenario, final int numberOfRepayments) {
+        this.scenario = scenario;
+        this.numberOfRepayments = numberOfRepayments;
+        this.currency = new MonetaryCurrency(CURRENCY.getCode(), CURRENCY.getDecimalPlaces(), CURRENCY.getCurrencyInMultiplesOf());
+        this.mathContext = new MathContext(8, MoneyHelper.getRoundingMode());
+        this.holidayDetailDTO = new HolidayDetailDTO(scenario == Scenario.HOLIDAYS, holidays(numberOfRepayments), workingDays());
+        this.loanScheduleGenerator = new DefaultLoanScheduleGeneratorFactory().create(interestMethod());
+        this.charges = new HashSet<>();
+    }
+
+    public LoanApplicationTerms newLoanApplicationTerms() {
+        final boolean interestRecalculation = this.scenario == Scenario.INTEREST_RECALCULATION;
+        final boolean multiDisburseLoan = this.scenario == Scenario.MULTI_TRANCHE;
+        final InterestCalculationPeriodMethod interestCalculationPeriodMethod = interestRecalculation ? InterestCalculationPeriodMethod.DAILY
+                : InterestCalculationPeriodMethod.SAME_AS_REPAYMENT_PERIOD;
+        final BigDecimal annualNominalInterestRate = BigDecimal.valueOf(12);
+
+        final LoanProductRelatedDetail loanProductRelatedDetail = new LoanProductRelatedDetail(this.currency, PRINCIPAL, BigDecimal.ONE,
+                PeriodFrequencyType.MONTHS, annualNominalInterestRate, interestMethod(), interestCalculationPeriodMethod, false, 1,
+                PeriodFrequencyType.MONTHS, this.numberOfRepayments, null, null, null, AmortizationMethod.EQUAL_INSTALLMENTS, null, null,
+                DaysInMonthType.ACTUAL.getValue(), DaysInYearType.ACTUAL.getValue(), interestRecalculation);
+
+        final List<DisbursementData> disbursementDatas = new ArrayList<>();
+        if (multiDisburseLoan) {
+            disbursementDatas.add(new DisbursementData(1L, DISBURSEMENT_DATE, null, BigDecimal.valueOf(500000), null, null));
+            disbursementDatas.add(new DisbursementData(2L, DISBURSEMENT_DATE.plusMonths(1), null, BigDecimal.valueOf(300000), null, null));
+            disbursementDatas.add(new DisbursementData(3L, DISBURSEMENT_DATE.plusMonths(3), null, BigDecimal.valueOf(200000), null, null));
+        }
+
+        final RecalculationFrequencyType recalculationFrequencyType = interestRecalculation ? RecalculationFrequencyType.SAME_AS_REPAYMENT_PERIOD
+                : null;
+        final InterestRecalculationCompoundingMethod compoundingMethod = interestRecalculation ? InterestRecalculationCompoundingMethod.NONE
+                : null;
+        final LoanRescheduleStrategyMethod rescheduleStrategyMethod = interestRecalculation ? LoanRescheduleStrategyMethod.REDUCE_EMI_AMOUNT
+                : null;
+        final LoanPreClosureInterestCalculationStrategy preClosureInterestCalculationStrategy = interestRecalculation ? LoanPreClosureInterestCalculationStrategy.TILL_PRE_CLOSURE_DATE
+                : LoanPreClosureInterestCalculationStrategy.NONE;
+
+        return LoanApplicationTerms.assembleFrom(CURRENCY, this.numberOfRepayments, PeriodFrequencyType.MONTHS, NthDayType.INVALID,
+                DayOfWeekType.INVALID, DISBURSEMENT_DATE, null, DISBURSEMENT_DATE.plusMonths(1), Money.zero(this.currency),
+                loanProductRelatedDetail, multiDisburseLoan, null, disbursementDatas, multiDisburseLoan ? PRINCIPAL : null, null, null,
+                null, recalculationFrequencyType, null, compoundingMethod, null, null, preClosureInterestCalculationStrategy,
+                rescheduleStrategyMethod, null, PRINCIPAL, annualNominalInterestRate, loanTermVariations());
+    }
+
+    public LoanScheduleModel generate() {
+        return this.loanScheduleGenerator.generate(this.mathContext, newLoanApplicationTerms(), this.charges, this.holidayDetailDTO);
+    }
+
+    public List<LoanRepaymentScheduleInstallment> installmentsOf(final LoanScheduleModel loanScheduleModel) {
+        final List<LoanRepaymentScheduleInstallment> installments = new ArrayList<>();
+        for (final LoanScheduleModelPeriod period : loanScheduleModel.getPeriods()) {
+            if (period.isRepaymentPeriod()) {
+                installments.add(new LoanRepaymentScheduleInstallment(null, period.periodNumber(), period.periodFromDate(), period
+                        .periodDueDate(), period.principalDue(), period.interestDue(), period.feeChargesDue(), period.penaltyChargesDue(),
+                        period.isRecalculatedInterestComponent()));
+            }
+        }
+        return installments;
+    }
+
+    /**
+     * Repayments of the first half of the installments: most paid in full on
+     * their due date, every fifth ten days late and every seventh only in
+     * part, the rest of which is paid with the next installment.
+     */
+    public List<LoanTransaction> newRepayments(final List<LoanRepaymentScheduleInstallment> installments) {
+        final List<LoanTransaction> repayments = new ArrayList<>();
+        Money carriedOver = Money.zero(this.currency);
+        for (int i = 0; i < installments.size() / 2; i++) {
+            final LoanRepaymentScheduleInstallment installment = installments.get(i);
+            Money amount = installment.getPrincipal(this.currency).plus(installment.getInterestCharged(this.currency)).plus(carriedOver);
+            carriedOver = Money.zero(this.currency);
+            if ((i + 1) % 7 == 0) {
+                carriedOver = amount.dividedBy(2, MoneyHelper.getRoundingMode());
+                amount = amount.minus(carriedOver);
+            }
+            LocalDate paidOn = installment.getDueDate();
+            if ((i + 1) % 5 == 0) {
+                paidOn = paidOn.plusDays(10);
+            }
+            repayments.add(LoanTransaction.repayment(null, amount, null, paidOn, null, DateUtils.getLocalDateTimeOfTenant(), null));
+        }
+        return repayments;
+    }
+
+    public LocalDate getDisbursementDate() {
+        return DISBURSEMENT_DATE;
+    }
+
+    public MonetaryCurrency getCurrency() {
+        return this.currency;
+    }
+
+    public MathContext getMathContext() {
+        return this.mathContext;
+    }
+
+    public HolidayDetailDTO getHolidayDetailDTO() {
+        return this.holidayDetailDTO;
+    }
+
+    public LoanScheduleGenerator getLoanScheduleGenerator() {
+        return this.loanScheduleGenerator;
+    }
+
+    public Set<LoanCharge> getCharges() {
+        return this.charges;
+    }
+
+    private InterestMethod interestMethod() {
+        return this.scenario == Scenario.FLAT ? InterestMethod.FLAT : InterestMethod.DECLINING_BALANCE;
+    }
+
+    /**
+     * Raises the instalment amount of every sixth installment, as variable
+     * installments entered on a loan do.
+     */
+    private List<LoanTermVariationsData> loanTermVariations() {
+        if (this.scenario != Scenario.VARIABLE_INSTALLMENTS) { return new ArrayList<>(); }
+
+        final List<LoanTermVariationsData> loanTermVariations = new ArrayList<>();
+        final BigDecimal raisedInstallmentAmount = PRINCIPAL.multiply(BigDecimal.valueOf(2)).divide(
+                BigDecimal.valueOf(this.numberOfRepayments), 2, RoundingMode.HALF_EVEN);
+        for (int installmentNumber = 6; installmentNumber < this.numberOfRepayments; installmentNumber += 6) {
+            loanTermVariations.add(new LoanTermVariationsData(LoanEnumerations.loanvariationType(LoanTermVariationType.EMI_AMOUNT),
+                    DISBURSEMENT_DATE.plusMonths(installmentNumber), raisedInstallmentAmount, null, true));
+        }
+        return loanTermVariations;
+    }
+
+    /**
+     * A year end and a mid year holiday for every year of the loan, each
+     * falling on a repayment date.
+     */
+    private static List<Holiday> holidays(final int numberOfRepayments) {
+        final FromJsonHelper fromJsonHelper = new FromJsonHelper();
+        final Set<Office> offices = Collections.emptySet();
+        final List<Holiday> holidays = new ArrayList<>();
+        final int lastYear = DISBURSEMENT_DATE.getYear() + numberOfRepayments / 12 + 1;
+        for (int year = DISBURSEMENT_DATE.getYear(); year <= lastYear; year++) {
+            holidays.add(activeHoliday(fromJsonHelper, offices, "Year end " + year, year - 1 + "-12-24", year + "-01-06", year + "-01-07"));
+            holidays.add(activeHoliday(fromJsonHelper, offices, "Mid year " + year, year + "-07-04", year + "-07-05", year + "-07-06"));
+        }
+        return holidays;
+    }
+
+    private static Holiday activeHoliday(final FromJsonHelper fromJsonHelper, final Set<Office> offices, final String name,
+            final String fromDate, final String toDate, final String repaymentsRescheduledTo) {
+        final String json = "{\"name\":\"" + name + "\",\"description\":\"" + name + "\",\"fromDate\":\"" + fromDate + "\",\"toDate\":\""
+                + toDate + "\",\"repaymentsRescheduledTo\":\"" + repaymentsRescheduledTo
+                + "\",\"dateFormat\":\"yyyy-MM-dd\",\"locale\":\"en\"}";
+        final JsonCommand command = JsonCommand.from(json, fromJsonHelper.parse(json), fromJsonHelper, "HOLIDAY", null, null, null, null,
+                null, null, null, null, null);
+        final Holiday holiday = Holiday.createNew(offices, command);
+        holiday.activate();
+        return holiday;
+    }
+
+    private static WorkingDays workingDays() {
+        return new WorkingDays(WORKING_DAYS_RECURRENCE, RepaymentRescheduleType.MOVE_TO_NEXT_WORKING_DAY.getValue(), false) {
+            //
+        };
+    }
+}
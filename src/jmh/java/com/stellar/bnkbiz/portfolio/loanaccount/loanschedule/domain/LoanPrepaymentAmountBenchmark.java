@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.portfolio.loanaccount.loanschedule.domain;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.stellar.bnkbiz.portfolio.loanaccount.domain.LoanRepaymentScheduleInstallment;
+import com.stellar.bnkbiz.portfolio.loanaccount.domain.LoanTransaction;
+import com.stellar.bnkbiz.portfolio.loanaccount.domain.transactionprocessor.LoanRepaymentScheduleTransactionProcessor;
+import com.stellar.bnkbiz.portfolio.loanaccount.domain.transactionprocessor.impl.FineractStyleLoanRepaymentScheduleTransactionProcessor;
+import com.stellar.bnkbiz.portfolio.loanaccount.loanschedule.domain.LoanBenchmarkFixture.Scenario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.time.LocalDate;
+
+/**
+ * Amount to close an interest recalculation loan half way through its term,
+ * which reschedules the remaining installments and replays the repayments
+ * made so far.
+ *
+ * The replay changes the repayments and installments, so both are rebuilt
+ * before every invocation; an invocation takes long enough for that to add
+ * no noticeable overhead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoanPrepaymentAmountBenchmark {
+
+    @Param({ "12", "60", "120", "360" })
+    public int numberOfRepayments;
+
+    private LoanBenchmarkFixture fixture;
+    private LoanScheduleModel loanScheduleModel;
+    private LoanRepaymentScheduleTransactionProcessor loanRepaymentScheduleTransactionProcessor;
+    private List<LoanRepaymentScheduleInstallment> installments;
+    private List<LoanTransaction> repayments;
+
+    @Setup
+    public void setUp() {
+        this.fixture = new LoanBenchmarkFixture(Scenario.INTEREST_RECALCULATION, this.numberOfRepayments);
+        this.loanScheduleModel = this.fixture.generate();
+        this.loanRepaymentScheduleTransactionProcessor = new FineractStyleLoanRepaymentScheduleTransactionProcessor();
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        this.installments = this.fixture.installmentsOf(this.loanScheduleModel);
+        this.repayments = this.fixture.newRepayments(this.installments);
+    }
+
+    @Benchmark
+    public LoanRepaymentScheduleInstallment calculatePrepaymentAmount() {
+        final LoanApplicationTerms loanApplicationTerms = this.fixture.newLoanApplicationTerms();
+        return this.fixture.getLoanScheduleGenerator().calculatePrepaymentAmount(this.fixture.getCurrency(), prepaymentDate(),
+                loanApplicationTerms, this.fixture.getMathContext(), this.fixture.getCharges(), this.fixture.getHolidayDetailDTO(),
+                this.repayments, this.loanRepaymentScheduleTransactionProcessor, this.installments);
+    }
+
+    private LocalDate prepaymentDate() {
+        return this.installments.get(this.installments.size() / 2).getDueDate().minusDays(10);
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.portfolio.loanaccount.loanschedule.domain;
+
+import java.util.concurrent.TimeUnit;
+
+import com.stellar.bnkbiz.portfolio.loanaccount.loanschedule.domain.LoanBenchmarkFixture.Scenario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Generation of the repayment schedule of a new loan, including the
+ * assembly of its {@link LoanApplicationTerms} as
+ * {@link com.stellar.bnkbiz.portfolio.loanaccount.loanschedule.service.LoanScheduleAssembler}
+ * does on every calculation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoanScheduleGeneratorBenchmark {
+
+    @Param({ "12", "60", "120", "360" })
+    public int numberOfRepayments;
+
+    @Param({ "FLAT", "DECLINING_BALANCE", "MULTI_TRANCHE", "INTEREST_RECALCULATION", "HOLIDAYS", "VARIABLE_INSTALLMENTS" })
+    public Scenario scenario;
+
+    private LoanBenchmarkFixture fixture;
+
+    @Setup
+    public void setUp() {
+        this.fixture = new LoanBenchmarkFixture(this.scenario, this.numberOfRepayments);
+    }
+
+    @Benchmark
+    public LoanScheduleModel generate() {
+        return this.fixture.generate();
+    }
+}
@@ -49,6 +49,7 @@ import com.stellar.bnkbiz.infrastructure.core.exception.UnrecognizedQueryParamEx
 import com.stellar.bnkbiz.infrastructure.core.serialization.ApiRequestJsonSerializationSettings;
 import com.stellar.bnkbiz.infrastructure.core.serialization.DefaultToApiJsonSerializer;
 import com.stellar.bnkbiz.infrastructure.core.service.Page;
+import com.stellar.bnkbiz.infrastructure.core.service.PageCountMode;
 import com.stellar.bnkbiz.infrastructure.core.service.SearchParameters;
 import com.stellar.bnkbiz.infrastructure.security.service.PlatformSecurityContext;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -96,7 +97,8 @@ public class JournalEntriesApiResource {
             @QueryParam("orderBy") final String orderBy, @QueryParam("sortOrder") final String sortOrder,
             @QueryParam("locale") final String locale, @QueryParam("dateFormat") final String dateFormat,
             @QueryParam("loanId") final Long loanId, @QueryParam("savingsId") final Long savingsId,
-            @QueryParam("runningBalance") final boolean runningBalance, @QueryParam("transactionDetails") final boolean transactionDetails) {
+            @QueryParam("runningBalance") final boolean runningBalance, @QueryParam("transactionDetails") final boolean transactionDetails,
+            @QueryParam("continuationToken") final String continuationToken, @QueryParam("countMode") final String countMode) {
 
         this.context.authenticatedUser().validateHasReadPermission(this.resourceNameForPermission);
 
@@ -110,7 +112,7 @@ public class JournalEntriesApiResource {
         }
 
         final SearchParameters searchParameters = SearchParameters.forJournalEntries(officeId, offset, limit, orderBy, sortOrder, loanId,
-                savingsId);
+                savingsId).withContinuation(continuationToken, PageCountMode.fromString(countMode));
         JournalEntryAssociationParametersData associationParametersData = new JournalEntryAssociationParametersData(transactionDetails,
                 runningBalance);
 
@@ -26,7 +26,9 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
 import com.stellar.bnkbiz.accounting.common.AccountingEnumerations;
@@ -45,6 +47,7 @@ import com.stellar.bnkbiz.infrastructure.core.data.EnumOptionData;
 import com.stellar.bnkbiz.infrastructure.core.domain.JdbcSupport;
 import com.stellar.bnkbiz.infrastructure.core.exception.GeneralPlatformDomainRuleException;
 import com.stellar.bnkbiz.infrastructure.core.service.DateUtils;
+import com.stellar.bnkbiz.infrastructure.core.service.KeysetPagination;
 import com.stellar.bnkbiz.infrastructure.core.service.Page;
 import com.stellar.bnkbiz.infrastructure.core.service.PaginationHelper;
 import com.stellar.bnkbiz.infrastructure.core.service.RoutingDataSource;
@@ -71,6 +74,17 @@ import org.springframework.util.CollectionUtils;
 @Service
 public class JournalEntryReadPlatformServiceImpl implements JournalEntryReadPlatformService {
 
+    // keyset paging seeks on the (entry_date, id) index, or on the id alone;
+    // any other order is paged by offset
+    private final static String DEFAULT_KEYSET_SORT_COLUMN = "journalEntry.entry_date";
+    private final static Map<String, String> keysetSortColumns = new HashMap<>();
+    static {
+        keysetSortColumns.put("transactionDate", "journalEntry.entry_date");
+        keysetSortColumns.put("journalEntry.entry_date", "journalEntry.entry_date");
+        keysetSortColumns.put("id", null);
+        keysetSortColumns.put("journalEntry.id", null);
+    }
+
     private final JdbcTemplate jdbcTemplate;
     private final GLAccountReadPlatformService glAccountReadPlatformService;
     private final OfficeReadPlatformService officeReadPlatformService;
@@ -247,16 +261,14 @@ public class JournalEntryReadPlatformServiceImpl implements JournalEntryReadPlat
             final JournalEntryAssociationParametersData associationParametersData) {
 
         GLJournalEntryMapper rm = new GLJournalEntryMapper(associationParametersData);
-        final StringBuilder sqlBuilder = new StringBuilder(200);
-        sqlBuilder.append("select SQL_CALC_FOUND_ROWS ");
-        sqlBuilder.append(rm.schema());
+        final StringBuilder criteriaBuilder = new StringBuilder(200);
 
         final Object[] objectArray = new Object[15];
         int arrayPos = 0;
         String whereClose = " where ";
 
         if (StringUtils.isNotBlank(transactionId)) {
-            sqlBuilder.append(whereClose + " journalEntry.transaction_id = ?");
+            criteriaBuilder.append(whereClose + " journalEntry.transaction_id = ?");
             objectArray[arrayPos] = transactionId;
             arrayPos = arrayPos + 1;
 
@@ -265,7 +277,7 @@ public class JournalEntryReadPlatformServiceImpl implements JournalEntryReadPlat
 
         if (entityType != null && entityType != 0 && (onlyManualEntries == null)) {
 
-            sqlBuilder.append(whereClose + " journalEntry.entity_type_enum = ?");
+            criteriaBuilder.append(whereClose + " journalEntry.entity_type_enum = ?");
 
             objectArray[arrayPos] = entityType;
             arrayPos = arrayPos + 1;
@@ -274,7 +286,7 @@ public class JournalEntryReadPlatformServiceImpl implements JournalEntryReadPlat
         }
 
         if (searchParameters.isOfficeIdPassed()) {
-            sqlBuilder.append(whereClose + " journalEntry.office_id = ?");
+            criteriaBuilder.append(whereClose + " journalEntry.office_id = ?");
             objectArray[arrayPos] = searchParameters.getOfficeId();
             arrayPos = arrayPos + 1;
 
@@ -282,7 +294,7 @@ public class JournalEntryReadPlatformServiceImpl implements JournalEntryReadPlat
         }
 
         if (searchParameters.isCurrencyCodePassed()) {
-            sqlBuilder.append(whereClose + " journalEntry.currency_code = ?");
+            criteriaBuilder.append(whereClose + " journalEntry.currency_code = ?");
             objectArray[arrayPos] = searchParameters.getCurrencyCode();
             arrayPos = arrayPos + 1;
 
@@ -290,7 +302,7 @@ public class JournalEntryReadPlatformServiceImpl implements JournalEntryReadPlat
         }
 
         if (glAccountId != null && glAccountId != 0) {
-            sqlBuilder.append(whereClose + " journalEntry.account_id = ?");
+            criteriaBuilder.append(whereClose + " journalEntry.account_id = ?");
             objectArray[arrayPos] = glAccountId;
             arrayPos = arrayPos + 1;
 
@@ -302,7 +314,7 @@ public class JournalEntryReadPlatformServiceImpl implements JournalEntryReadPlat
             String fromDateString = null;
             String toDateString = null;
             if (fromDate != null && toDate != null) {
-                sqlBuilder.append(whereClose + " journalEntry.entry_date between ? and ? ");
+                criteriaBuilder.append(whereClose + " journalEntry.entry_date between ? and ? ");
 
                 whereClose = " and ";
 
@@ -313,14 +325,14 @@ public class JournalEntryReadPlatformServiceImpl implements JournalEntryReadPlat
                 objectArray[arrayPos] = toDateString;
                 arrayPos = arrayPos + 1;
             } else if (fromDate != null) {
-                sqlBuilder.append(whereClose + " journalEntry.entry_date >= ? ");
+                criteriaBuilder.append(whereClose + " journalEntry.entry_date >= ? ");
                 fromDateString = df.format(fromDate);
                 objectArray[arrayPos] = fromDateString;
                 arrayPos = arrayPos + 1;
                 whereClose = " and ";
 
             } else if (toDate != null) {
-                sqlBuilder.append(whereClose + " journalEntry.entry_date <= ? ");
+                criteriaBuilder.append(whereClose + " journalEntry.entry_date <= ? ");
                 toDateString = df.format(toDate);
                 objectArray[arrayPos] = toDateString;
                 arrayPos = arrayPos + 1;
@@ -331,21 +343,21 @@ public class JournalEntryReadPlatformServiceImpl implements JournalEntryReadPlat
 
         if (onlyManualEntries != null) {
             if (onlyManualEntries) {
-                sqlBuilder.append(whereClose + " journalEntry.manual_entry = 1");
+                criteriaBuilder.append(whereClose + " journalEntry.manual_entry = 1");
 
                 whereClose = " and ";
             }
         }
 
         if (searchParameters.isLoanIdPassed()) {
-            sqlBuilder.append(whereClose + " journalEntry.loan_transaction_id  in (select id from m_loan_transaction where loan_id = ?)");
+            criteriaBuilder.append(whereClose + " journalEntry.loan_transaction_id  in (select id from m_loan_transaction where loan_id = ?)");
             objectArray[arrayPos] = searchParameters.getLoanId();
             arrayPos = arrayPos + 1;
 
             whereClose = " and ";
         }
         if (searchParameters.isSavingsIdPassed()) {
-            sqlBuilder
+            criteriaBuilder
                     .append(whereClose
                             + " journalEntry.savings_transaction_id in (select id from m_savings_account_transaction where savings_account_id = ?)");
             objectArray[arrayPos] = searchParameters.getSavingsId();
@@ -354,6 +366,20 @@ public class JournalEntryReadPlatformServiceImpl implements JournalEntryReadPlat
             whereClose = " and ";
         }
 
+        final Object[] finalObjectArray = Arrays.copyOf(objectArray, arrayPos);
+        if (searchParameters.isKeysetPaged()) {
+            final KeysetPagination keyset = KeysetPagination.instance(keysetSortColumns, DEFAULT_KEYSET_SORT_COLUMN, "journalEntry.id",
+                    searchParameters.getOrderBy(), searchParameters.getSortOrder(), searchParameters.getContinuationToken(),
+                    searchParameters.getLimit(), searchParameters.getCountMode());
+            if (keyset != null) { return retrieveJournalEntriesAfter(rm, criteriaBuilder.toString(), whereClose, finalObjectArray,
+                    keyset); }
+        }
+
+        final StringBuilder sqlBuilder = new StringBuilder(200);
+        sqlBuilder.append("select SQL_CALC_FOUND_ROWS ");
+        sqlBuilder.append(rm.schema());
+        sqlBuilder.append(criteriaBuilder);
+
         if (searchParameters.isOrderByRequested()) {
             sqlBuilder.append(" order by ").append(searchParameters.getOrderBy());
 
@@ -371,11 +397,30 @@ public class JournalEntryReadPlatformServiceImpl implements JournalEntryReadPlat
             }
         }
 
-        final Object[] finalObjectArray = Arrays.copyOf(objectArray, arrayPos);
         final String sqlCountRows = "SELECT FOUND_ROWS()";
         return this.paginationHelper.fetchPage(this.jdbcTemplate, sqlCountRows, sqlBuilder.toString(), finalObjectArray, rm);
     }
 
+    private Page<JournalEntryData> retrieveJournalEntriesAfter(final GLJournalEntryMapper rm, final String criteria,
+            final String whereClose, final Object[] criteriaArgs, final KeysetPagination keyset) {
+
+        final StringBuilder sqlBuilder = new StringBuilder(200);
+        sqlBuilder.append("select").append(keyset.selectColumnsSql());
+        sqlBuilder.append(rm.schema());
+        sqlBuilder.append(criteria);
+
+        if (keyset.hasPosition()) {
+            sqlBuilder.append(whereClose).append(keyset.positionSql());
+        }
+
+        // the criteria only refer to journalEntry so the total needs none of
+        // the joins of the page query
+        final String sqlCountFrom = " from acc_gl_journal_entry as journalEntry " + criteria;
+
+        return this.paginationHelper.fetchPage(this.jdbcTemplate, sqlCountFrom, criteriaArgs, sqlBuilder.toString(),
+                keyset.fetchArgs(criteriaArgs), keyset, rm);
+    }
+
     @Override
     public JournalEntryData retrieveGLJournalEntryById(final long glJournalEntryId,
             JournalEntryAssociationParametersData associationParametersData) {
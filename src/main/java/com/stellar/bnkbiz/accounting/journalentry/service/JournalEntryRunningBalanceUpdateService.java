@@ -20,10 +20,11 @@ package com.stellar.bnkbiz.accounting.journalentry.service;
 
 import com.stellar.bnkbiz.infrastructure.core.api.JsonCommand;
 import com.stellar.bnkbiz.infrastructure.core.data.CommandProcessingResult;
+import com.stellar.bnkbiz.infrastructure.jobs.exception.JobExecutionException;
 
 public interface JournalEntryRunningBalanceUpdateService {
 
-    void updateRunningBalance();
+    void updateRunningBalance() throws JobExecutionException;
 
     CommandProcessingResult updateOfficeRunningBalance(JsonCommand command);
 
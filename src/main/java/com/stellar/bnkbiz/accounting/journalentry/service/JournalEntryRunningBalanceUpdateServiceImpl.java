@@ -21,25 +21,30 @@ package com.stellar.bnkbiz.accounting.journalentry.service;
 import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import com.stellar.bnkbiz.accounting.common.AccountingEnumerations;
 import com.stellar.bnkbiz.accounting.glaccount.domain.GLAccountType;
 import com.stellar.bnkbiz.accounting.journalentry.api.JournalEntryJsonInputParams;
-import com.stellar.bnkbiz.accounting.journalentry.data.JournalEntryData;
 import com.stellar.bnkbiz.accounting.journalentry.data.JournalEntryDataValidator;
 import com.stellar.bnkbiz.accounting.journalentry.domain.JournalEntryType;
+import com.stellar.bnkbiz.infrastructure.configuration.domain.ConfigurationDomainService;
 import com.stellar.bnkbiz.infrastructure.core.api.JsonCommand;
 import com.stellar.bnkbiz.infrastructure.core.data.CommandProcessingResult;
 import com.stellar.bnkbiz.infrastructure.core.data.CommandProcessingResultBuilder;
-import com.stellar.bnkbiz.infrastructure.core.data.EnumOptionData;
 import com.stellar.bnkbiz.infrastructure.core.domain.JdbcSupport;
+import com.stellar.bnkbiz.infrastructure.core.exception.PlatformInternalServerException;
 import com.stellar.bnkbiz.infrastructure.core.serialization.FromJsonHelper;
+import com.stellar.bnkbiz.infrastructure.core.service.ContextAwareExecutor;
 import com.stellar.bnkbiz.infrastructure.core.service.RoutingDataSource;
 import com.stellar.bnkbiz.infrastructure.jobs.annotation.CronTarget;
+import com.stellar.bnkbiz.infrastructure.jobs.exception.JobExecutionException;
+import com.stellar.bnkbiz.infrastructure.jobs.service.JobCheckpointService;
 import com.stellar.bnkbiz.infrastructure.jobs.service.JobName;
 import com.stellar.bnkbiz.organisation.office.domain.Office;
 import com.stellar.bnkbiz.organisation.office.domain.OfficeRepository;
@@ -51,7 +56,22 @@ import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Maintains the organization and office running balances of
+ * <code>acc_gl_journal_entry</code>.
+ * 
+ * Running balances of different GL accounts are independent of each other, so
+ * the scheduled job processes the accounts in parallel. For every account a
+ * checkpoint holds the highest journal entry id already balanced; a run only
+ * recalculates the account from the earliest entry date of the entries created
+ * after that checkpoint. Entries are read in (entry_date, id) keyset pages and
+ * written back with a prepared batch update, one transaction per page.
+ */
 @Service
 public class JournalEntryRunningBalanceUpdateServiceImpl implements JournalEntryRunningBalanceUpdateService {
 
@@ -65,48 +85,56 @@ public class JournalEntryRunningBalanceUpdateServiceImpl implements JournalEntry
 
     private final FromJsonHelper fromApiJsonHelper;
 
-    private final GLJournalEntryMapper entryMapper = new GLJournalEntryMapper();
-    
+    private final JobCheckpointService jobCheckpointService;
+
+    private final ConfigurationDomainService configurationDomainService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final RunningBalanceEntryMapper entryMapper = new RunningBalanceEntryMapper();
+
     // if a limit is not added to the running balance select statements below and the resultset is more than 400,000, 
     // the script will eat up all of the server memory
     private final String selectRunningBalanceSqlLimit = "limit 0, 10000";
-    
+
     private final String officeRunningBalanceSql = "select je.office_running_balance as runningBalance,je.account_id as accountId from acc_gl_journal_entry je "
             + "inner join (select max(id) as id from acc_gl_journal_entry where office_id=?  and entry_date < ? group by account_id,entry_date) je2 "
             + "inner join (select max(entry_date) as date from acc_gl_journal_entry where office_id=? and entry_date < ? group by account_id) je3 "
             + "where je2.id = je.id and je.entry_date = je3.date group by je.id order by je.entry_date DESC " + selectRunningBalanceSqlLimit;
 
-    private final String organizationRunningBalanceSql = "select je.organization_running_balance as runningBalance,je.account_id as accountId from acc_gl_journal_entry je "
-            + "inner join (select max(id) as id from acc_gl_journal_entry where entry_date < ? group by account_id,entry_date) je2 "
-            + "inner join (select max(entry_date) as date from acc_gl_journal_entry where entry_date < ? group by account_id) je3 "
-            + "where je2.id = je.id and je.entry_date = je3.date group by je.id order by je.entry_date DESC " + selectRunningBalanceSqlLimit;
+    private final String accountRunningBalanceSql = "select je.organization_running_balance from acc_gl_journal_entry je "
+            + "where je.account_id = ? and je.entry_date < ? order by je.entry_date desc, je.id desc limit 1";
 
-    private final String officesRunningBalanceSql = "select je.office_running_balance as runningBalance,je.account_id as accountId,je.office_id as officeId "
-            + "from acc_gl_journal_entry je "
-            + "inner join (select max(id) as id from acc_gl_journal_entry where entry_date < ? group by office_id,account_id,entry_date) je2 "
-            + "inner join (select max(entry_date) as date from acc_gl_journal_entry where entry_date < ? group by office_id,account_id) je3 "
-            + "where je2.id = je.id and je.entry_date = je3.date group by je.id order by je.entry_date DESC " + selectRunningBalanceSqlLimit;
+    private final String accountOfficesRunningBalanceSql = "select je.office_id as officeId, je.office_running_balance as runningBalance "
+            + "from acc_gl_journal_entry je inner join (select office_id, max(entry_date) as entry_date from acc_gl_journal_entry "
+            + "where account_id = ? and entry_date < ? group by office_id) last on last.office_id = je.office_id and last.entry_date = je.entry_date "
+            + "where je.account_id = ? order by je.office_id, je.id";
+
+    private final String updateRunningBalanceSql = "UPDATE acc_gl_journal_entry SET is_running_balance_calculated=1, "
+            + "organization_running_balance=?, office_running_balance=? WHERE id=?";
+
+    private final String updateOfficeRunningBalanceSql = "UPDATE acc_gl_journal_entry SET office_running_balance=? WHERE id=?";
 
     @Autowired
     public JournalEntryRunningBalanceUpdateServiceImpl(final RoutingDataSource dataSource, final OfficeRepository officeRepository,
-            final JournalEntryDataValidator dataValidator, final FromJsonHelper fromApiJsonHelper) {
+            final JournalEntryDataValidator dataValidator, final FromJsonHelper fromApiJsonHelper,
+            final JobCheckpointService jobCheckpointService, final ConfigurationDomainService configurationDomainService,
+            final PlatformTransactionManager transactionManager) {
         this.jdbcTemplate = new JdbcTemplate(dataSource);
         this.officeRepository = officeRepository;
         this.dataValidator = dataValidator;
         this.fromApiJsonHelper = fromApiJsonHelper;
+        this.jobCheckpointService = jobCheckpointService;
+        this.configurationDomainService = configurationDomainService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
     @CronTarget(jobName = JobName.ACCOUNTING_RUNNING_BALANCE_UPDATE)
-    public void updateRunningBalance() {
-        String dateFinder = "select MIN(je.entry_date) as entityDate from acc_gl_journal_entry  je "
-                + "where je.is_running_balance_calculated=0 ";
-        try {
-            Date entityDate = this.jdbcTemplate.queryForObject(dateFinder, Date.class);
-            updateOrganizationRunningBalance(entityDate);
-        } catch (EmptyResultDataAccessException e) {
-            logger.debug("No results found for updation of running balance ");
-        }
+    public void updateRunningBalance() throws JobExecutionException {
+        final int failedAccounts = updateOrganizationRunningBalance();
+        if (failedAccounts > 0) { throw new JobExecutionException("failed to update running balance of " + failedAccounts
+                + " gl accounts, see job_item_failure"); }
     }
 
     @Override
@@ -117,7 +145,9 @@ public class JournalEntryRunningBalanceUpdateServiceImpl implements JournalEntry
         CommandProcessingResultBuilder commandProcessingResultBuilder = new CommandProcessingResultBuilder().withCommandId(command
                 .commandId());
         if (officeId == null) {
-            updateRunningBalance();
+            final int failedAccounts = updateOrganizationRunningBalance();
+            if (failedAccounts > 0) { throw new PlatformInternalServerException("error.msg.running.balance.update.failed",
+                    "Running balance update failed for " + failedAccounts + " gl accounts", failedAccounts); }
         } else {
             final Office office = this.officeRepository.findOne(officeId);
             if (office == null) { throw new OfficeNotFoundException(officeId); }
@@ -126,7 +156,9 @@ public class JournalEntryRunningBalanceUpdateServiceImpl implements JournalEntry
                     + "where je.is_running_balance_calculated=0  and je.office_id=?";
             try {
                 Date entityDate = this.jdbcTemplate.queryForObject(dateFinder, Date.class, officeId);
-                updateRunningBalance(officeId, entityDate);
+                if (entityDate != null) {
+                    updateRunningBalance(officeId, entityDate);
+                }
             } catch (EmptyResultDataAccessException e) {
                 logger.debug("No results found for updation of office running balance with office id:" + officeId);
             }
@@ -135,68 +167,99 @@ public class JournalEntryRunningBalanceUpdateServiceImpl implements JournalEntry
         return commandProcessingResultBuilder.build();
     }
 
-    private void updateOrganizationRunningBalance(Date entityDate) {
-        Map<Long, BigDecimal> runningBalanceMap = new HashMap<>(5);
-        Map<Long, Map<Long, BigDecimal>> officesRunningBalance = new HashMap<>();
+    /**
+     * @return number of gl accounts whose running balance could not be
+     *         updated
+     */
+    private int updateOrganizationRunningBalance() {
+        final List<Map<String, Object>> glAccounts = this.jdbcTemplate
+                .queryForList("select ga.id as id, ga.classification_enum as classification from acc_gl_account ga order by ga.id");
+        final int threadPoolSize = this.configurationDomainService.retrieveJobThreadPoolSize();
+        final AtomicInteger failedAccounts = new AtomicInteger();
+        try (ContextAwareExecutor executor = ContextAwareExecutor.newFixedPool("running-balance-update", threadPoolSize,
+                threadPoolSize * 2)) {
+            for (final Map<String, Object> glAccount : glAccounts) {
+                final Long glAccountId = ((Number) glAccount.get("id")).longValue();
+                final GLAccountType accountType = GLAccountType.fromInt(((Number) glAccount.get("classification")).intValue());
+                executor.submit(new Callable<Void>() {
 
-        List<Map<String, Object>> list = jdbcTemplate.queryForList(organizationRunningBalanceSql, entityDate, entityDate);
-        for (Map<String, Object> entries : list) {
-            Long accountId = (Long) entries.get("accountId");
-            if (!runningBalanceMap.containsKey(accountId)) {
-                runningBalanceMap.put(accountId, (BigDecimal) entries.get("runningBalance"));
+                    @Override
+                    public Void call() {
+                        try {
+                            updateRunningBalanceOfAccount(glAccountId, accountType);
+                        } catch (final RuntimeException e) {
+                            failedAccounts.incrementAndGet();
+                            logger.error("Running balance update failed for gl account " + glAccountId, e);
+                            JournalEntryRunningBalanceUpdateServiceImpl.this.jobCheckpointService.recordFailure(
+                                    JobName.ACCOUNTING_RUNNING_BALANCE_UPDATE, String.valueOf(glAccountId), glAccountId, e);
+                        }
+                        return null;
+                    }
+                });
             }
         }
+        return failedAccounts.get();
+    }
+
+    private void updateRunningBalanceOfAccount(final Long glAccountId, final GLAccountType accountType) {
+        final String partitionKey = String.valueOf(glAccountId);
+        final Long checkpoint = this.jobCheckpointService.retrieveCheckpoint(JobName.ACCOUNTING_RUNNING_BALANCE_UPDATE, partitionKey);
+
+        final Map<String, Object> pending;
+        if (checkpoint == null) {
+            // first run for this account, fall back on the calculated flag
+            pending = this.jdbcTemplate.queryForMap("select min(case when je.is_running_balance_calculated=0 then je.entry_date end) "
+                    + "as fromDate, max(je.id) as toId from acc_gl_journal_entry je where je.account_id = ?", glAccountId);
+        } else {
+            pending = this.jdbcTemplate.queryForMap("select min(je.entry_date) as fromDate, max(je.id) as toId "
+                    + "from acc_gl_journal_entry je where je.account_id = ? and je.id > ?", glAccountId, checkpoint);
+        }
+        final Date fromDate = (Date) pending.get("fromDate");
+        final Number toId = (Number) pending.get("toId");
+        if (toId == null) { return; }
 
-        List<Map<String, Object>> officesRunningBalanceList = jdbcTemplate.queryForList(officesRunningBalanceSql, entityDate, entityDate);
-        for (Map<String, Object> entries : officesRunningBalanceList) {
-            Long accountId = (Long) entries.get("accountId");
-            Long officeId = (Long) entries.get("officeId");
-            Map<Long, BigDecimal> runningBalance = null;
-            if (officesRunningBalance.containsKey(officeId)) {
-                runningBalance = officesRunningBalance.get(officeId);
-            } else {
-                runningBalance = new HashMap<>();
-                officesRunningBalance.put(officeId, runningBalance);
+        if (fromDate != null) {
+            final List<BigDecimal> openingBalance = this.jdbcTemplate.queryForList(this.accountRunningBalanceSql, BigDecimal.class,
+                    glAccountId, fromDate);
+            final Map<Long, BigDecimal> organizationRunningBalance = new HashMap<>(1);
+            if (!openingBalance.isEmpty() && openingBalance.get(0) != null) {
+                organizationRunningBalance.put(glAccountId, openingBalance.get(0));
             }
-            if (!runningBalance.containsKey(accountId)) {
-                runningBalance.put(accountId, (BigDecimal) entries.get("runningBalance"));
+            final Map<Long, BigDecimal> officesRunningBalance = new HashMap<>();
+            final List<Map<String, Object>> officeBalances = this.jdbcTemplate.queryForList(this.accountOfficesRunningBalanceSql,
+                    glAccountId, fromDate, glAccountId);
+            for (final Map<String, Object> officeBalance : officeBalances) {
+                // ordered by id, so the last entry of the day wins
+                officesRunningBalance.put(((Number) officeBalance.get("officeId")).longValue(),
+                        (BigDecimal) officeBalance.get("runningBalance"));
             }
-        }
 
-        List<JournalEntryData> entryDatas = jdbcTemplate.query(entryMapper.organizationRunningBalanceSchema(), entryMapper,
-                new Object[] { entityDate });
-        if (entryDatas.size() > 0) {
-            // run a batch update of 1000 SQL statements at a time
-            final Integer batchUpdateSize = 1000;
-            final Integer batchUpdateSizeMinusOne = batchUpdateSize - 1;
-            String[] updateSql = new String[batchUpdateSize];
-            int i = 0;
-            for (JournalEntryData entryData : entryDatas) {
-                Map<Long, BigDecimal> officeRunningBalanceMap = null;
-                if (officesRunningBalance.containsKey(entryData.getOfficeId())) {
-                    officeRunningBalanceMap = officesRunningBalance.get(entryData.getOfficeId());
-                } else {
-                    officeRunningBalanceMap = new HashMap<>();
-                    officesRunningBalance.put(entryData.getOfficeId(), officeRunningBalanceMap);
-                }
-                BigDecimal officeRunningBalance = calculateRunningBalance(entryData, officeRunningBalanceMap);
-                BigDecimal runningBalance = calculateRunningBalance(entryData, runningBalanceMap);
-                String sql = "UPDATE acc_gl_journal_entry je SET je.is_running_balance_calculated=1, je.organization_running_balance="
-                        + runningBalance + ",je.office_running_balance=" + officeRunningBalance + " WHERE  je.id=" + entryData.getId();
-                updateSql[i++] = sql;
-                
-                if (i == batchUpdateSizeMinusOne) {
-                    // run a batch update of the 1000 update SQL statements
-                    this.jdbcTemplate.batchUpdate(updateSql);
-                    
-                    // reset counter and string array
-                    i = 0;
-                    updateSql = new String[batchUpdateSize];
+            final int pageSize = this.configurationDomainService.retrieveJobChunkSize();
+            Date lastDate = fromDate;
+            Long lastId = Long.valueOf(0);
+            List<RunningBalanceEntry> entries = this.jdbcTemplate.query(this.entryMapper.accountSchema(), this.entryMapper, glAccountId,
+                    lastDate, lastDate, lastId, pageSize);
+            while (!entries.isEmpty()) {
+                final List<Object[]> batchArgs = new ArrayList<>(entries.size());
+                for (final RunningBalanceEntry entry : entries) {
+                    final boolean isIncrease = isIncrease(accountType, entry.entryType);
+                    final BigDecimal runningBalance = calculateRunningBalance(glAccountId, entry.amount, isIncrease,
+                            organizationRunningBalance);
+                    final BigDecimal officeRunningBalance = calculateRunningBalance(entry.officeId, entry.amount, isIncrease,
+                            officesRunningBalance);
+                    batchArgs.add(new Object[] { runningBalance, officeRunningBalance, entry.id });
                 }
+                batchUpdate(this.updateRunningBalanceSql, batchArgs);
+
+                final RunningBalanceEntry last = entries.get(entries.size() - 1);
+                lastDate = last.entryDate;
+                lastId = last.id;
+                entries = this.jdbcTemplate.query(this.entryMapper.accountSchema(), this.entryMapper, glAccountId, lastDate, lastDate,
+                        lastId, pageSize);
             }
-            this.jdbcTemplate.batchUpdate(updateSql);
         }
 
+        this.jobCheckpointService.saveCheckpoint(JobName.ACCOUNTING_RUNNING_BALANCE_UPDATE, partitionKey, toId.longValue());
     }
 
     private void updateRunningBalance(Long officeId, Date entityDate) {
@@ -209,26 +272,55 @@ public class JournalEntryRunningBalanceUpdateServiceImpl implements JournalEntry
                 runningBalanceMap.put(accountId, (BigDecimal) entries.get("runningBalance"));
             }
         }
-        List<JournalEntryData> entryDatas = jdbcTemplate.query(entryMapper.officeRunningBalanceSchema(), entryMapper, new Object[] {
-                officeId, entityDate });
-        String[] updateSql = new String[entryDatas.size()];
-        int i = 0;
-        for (JournalEntryData entryData : entryDatas) {
-            BigDecimal runningBalance = calculateRunningBalance(entryData, runningBalanceMap);
-            String sql = "UPDATE acc_gl_journal_entry je SET je.office_running_balance=" + runningBalance + " WHERE  je.id="
-                    + entryData.getId();
-            updateSql[i++] = sql;
+
+        final int pageSize = this.configurationDomainService.retrieveJobChunkSize();
+        Date lastDate = entityDate;
+        Long lastId = Long.valueOf(0);
+        List<RunningBalanceEntry> entries = this.jdbcTemplate.query(this.entryMapper.officeSchema(), this.entryMapper, officeId, lastDate,
+                lastDate, lastId, pageSize);
+        while (!entries.isEmpty()) {
+            final List<Object[]> batchArgs = new ArrayList<>(entries.size());
+            for (final RunningBalanceEntry entry : entries) {
+                final boolean isIncrease = isIncrease(entry.accountType, entry.entryType);
+                final BigDecimal runningBalance = calculateRunningBalance(entry.glAccountId, entry.amount, isIncrease, runningBalanceMap);
+                batchArgs.add(new Object[] { runningBalance, entry.id });
+            }
+            batchUpdate(this.updateOfficeRunningBalanceSql, batchArgs);
+
+            final RunningBalanceEntry last = entries.get(entries.size() - 1);
+            lastDate = last.entryDate;
+            lastId = last.id;
+            entries = this.jdbcTemplate.query(this.entryMapper.officeSchema(), this.entryMapper, officeId, lastDate, lastDate, lastId,
+                    pageSize);
         }
-        this.jdbcTemplate.batchUpdate(updateSql);
     }
 
-    private BigDecimal calculateRunningBalance(JournalEntryData entry, Map<Long, BigDecimal> runningBalanceMap) {
+    private void batchUpdate(final String sql, final List<Object[]> batchArgs) {
+        this.transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+
+            @Override
+            protected void doInTransactionWithoutResult(@SuppressWarnings("unused") final TransactionStatus status) {
+                JournalEntryRunningBalanceUpdateServiceImpl.this.jdbcTemplate.batchUpdate(sql, batchArgs);
+            }
+        });
+    }
+
+    private BigDecimal calculateRunningBalance(final Long key, final BigDecimal amount, final boolean isIncrease,
+            final Map<Long, BigDecimal> runningBalanceMap) {
         BigDecimal runningBalance = BigDecimal.ZERO;
-        if (runningBalanceMap.containsKey(entry.getGlAccountId())) {
-            runningBalance = runningBalanceMap.get(entry.getGlAccountId());
+        if (runningBalanceMap.containsKey(key)) {
+            runningBalance = runningBalanceMap.get(key);
+        }
+        if (isIncrease) {
+            runningBalance = runningBalance.add(amount);
+        } else {
+            runningBalance = runningBalance.subtract(amount);
         }
-        GLAccountType accounttype = GLAccountType.fromInt(entry.getGlAccountType().getId().intValue());
-        JournalEntryType entryType = JournalEntryType.fromInt(entry.getEntryType().getId().intValue());
+        runningBalanceMap.put(key, runningBalance);
+        return runningBalance;
+    }
+
+    private static boolean isIncrease(final GLAccountType accounttype, final JournalEntryType entryType) {
         boolean isIncrease = false;
         switch (accounttype) {
             case ASSET:
@@ -257,45 +349,61 @@ public class JournalEntryRunningBalanceUpdateServiceImpl implements JournalEntry
                 }
             break;
         }
-        if (isIncrease) {
-            runningBalance = runningBalance.add(entry.getAmount());
-        } else {
-            runningBalance = runningBalance.subtract(entry.getAmount());
+        return isIncrease;
+    }
+
+    private static final class RunningBalanceEntry {
+
+        private final Long id;
+        private final Long glAccountId;
+        private final GLAccountType accountType;
+        private final Long officeId;
+        private final JournalEntryType entryType;
+        private final BigDecimal amount;
+        private final Date entryDate;
+
+        RunningBalanceEntry(final Long id, final Long glAccountId, final GLAccountType accountType, final Long officeId,
+                final JournalEntryType entryType, final BigDecimal amount, final Date entryDate) {
+            this.id = id;
+            this.glAccountId = glAccountId;
+            this.accountType = accountType;
+            this.officeId = officeId;
+            this.entryType = entryType;
+            this.amount = amount;
+            this.entryDate = entryDate;
         }
-        runningBalanceMap.put(entry.getGlAccountId(), runningBalance);
-        return runningBalance;
     }
 
-    private static final class GLJournalEntryMapper implements RowMapper<JournalEntryData> {
+    private static final class RunningBalanceEntryMapper implements RowMapper<RunningBalanceEntry> {
+
+        private static final String schema = "select je.id as id,je.account_id as glAccountId,je.type_enum as entryType,je.amount as amount, "
+                + "glAccount.classification_enum as classification,je.office_id as officeId,je.entry_date as entryDate "
+                + "from acc_gl_journal_entry je inner join acc_gl_account glAccount on glAccount.id = je.account_id ";
+
+        private static final String nextPage = " and (je.entry_date > ? or (je.entry_date = ? and je.id > ?)) "
+                + "order by je.entry_date,je.id limit ?";
 
-        public String officeRunningBalanceSchema() {
-            return "select je.id as id,je.account_id as glAccountId,je.type_enum as entryType,je.amount as amount, "
-                    + "glAccount.classification_enum as classification,je.office_id as officeId "
-                    + "from acc_gl_journal_entry je , acc_gl_account glAccount " + "where je.account_id = glAccount.id "
-                    + "and je.office_id=? and je.entry_date >= ? order by je.entry_date,je.id";
+        public String accountSchema() {
+            return schema + "where je.account_id=?" + nextPage;
         }
 
-        public String organizationRunningBalanceSchema() {
-            return "select je.id as id,je.account_id as glAccountId," + "je.type_enum as entryType,je.amount as amount, "
-                    + "glAccount.classification_enum as classification,je.office_id as officeId  "
-                    + "from acc_gl_journal_entry je , acc_gl_account glAccount " + "where je.account_id = glAccount.id "
-                    + "and je.entry_date >= ? order by je.entry_date,je.id";
+        public String officeSchema() {
+            return schema + "where je.office_id=?" + nextPage;
         }
 
         @Override
-        public JournalEntryData mapRow(final ResultSet rs, @SuppressWarnings("unused") final int rowNum) throws SQLException {
+        public RunningBalanceEntry mapRow(final ResultSet rs, @SuppressWarnings("unused") final int rowNum) throws SQLException {
 
             final Long id = rs.getLong("id");
             final Long glAccountId = rs.getLong("glAccountId");
             final Long officeId = rs.getLong("officeId");
             final int accountTypeId = JdbcSupport.getInteger(rs, "classification");
-            final EnumOptionData accountType = AccountingEnumerations.gLAccountType(accountTypeId);
             final BigDecimal amount = rs.getBigDecimal("amount");
             final int entryTypeId = JdbcSupport.getInteger(rs, "entryType");
-            final EnumOptionData entryType = AccountingEnumerations.journalEntryType(entryTypeId);
+            final Date entryDate = rs.getDate("entryDate");
 
-            return new JournalEntryData(id, officeId, null, null, glAccountId, null, accountType, null, entryType, amount, null, null,
-                    null, null, null, null, null, null, null, null, null, null, null, null, null);
+            return new RunningBalanceEntry(id, glAccountId, GLAccountType.fromInt(accountTypeId), officeId,
+                    JournalEntryType.fromInt(entryTypeId), amount, entryDate);
         }
     }
 
@@ -18,9 +18,11 @@
  */
 package com.stellar.bnkbiz.accounting.journalentry.service;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.Map;
 
+import com.stellar.bnkbiz.accounting.provisioning.domain.LoanProductProvisioningEntry;
 import com.stellar.bnkbiz.accounting.provisioning.domain.ProvisioningEntry;
 import com.stellar.bnkbiz.infrastructure.core.api.JsonCommand;
 import com.stellar.bnkbiz.infrastructure.core.data.CommandProcessingResult;
@@ -42,4 +44,11 @@ public interface JournalEntryWritePlatformService {
     public String revertProvisioningJournalEntries(final Date reversalTransactionDate, final Long entityId, final Integer entityType) ;
 
     public String createProvisioningJournalEntries(ProvisioningEntry entry) ;
+
+    /**
+     * Posts the journal entries of <code>entry</code> for
+     * <code>provisioningEntries</code>, for entries whose lines were
+     * inserted outside of the entity's collection.
+     */
+    public String createProvisioningJournalEntries(ProvisioningEntry entry, Collection<LoanProductProvisioningEntry> provisioningEntries) ;
 }
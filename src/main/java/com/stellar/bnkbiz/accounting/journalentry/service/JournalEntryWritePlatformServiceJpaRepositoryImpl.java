@@ -386,7 +386,12 @@ public class JournalEntryWritePlatformServiceJpaRepositoryImpl implements Journa
 
     @Override
     public String createProvisioningJournalEntries(ProvisioningEntry provisioningEntry) {
-        Collection<LoanProductProvisioningEntry> provisioningEntries = provisioningEntry.getLoanProductProvisioningEntries();
+        return createProvisioningJournalEntries(provisioningEntry, provisioningEntry.getLoanProductProvisioningEntries());
+    }
+
+    @Override
+    public String createProvisioningJournalEntries(ProvisioningEntry provisioningEntry,
+            Collection<LoanProductProvisioningEntry> provisioningEntries) {
         Map<OfficeCurrencyKey, List<LoanProductProvisioningEntry>> officeMap = new HashMap<>();
 
         for (LoanProductProvisioningEntry entry : provisioningEntries) {
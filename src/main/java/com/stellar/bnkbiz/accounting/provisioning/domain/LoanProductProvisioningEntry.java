@@ -115,6 +115,34 @@ public class LoanProductProvisioningEntry extends AbstractPersistable<Long> {
     public GLAccount getExpenseAccount() {
         return this.expenseAccount ;
     }
+
+    public LoanProduct getLoanProduct() {
+        return this.loanProduct ;
+    }
+
+    public ProvisioningCategory getProvisioningCategory() {
+        return this.provisioningCategory ;
+    }
+
+    public Long getOverdueInDays() {
+        return this.overdueInDays ;
+    }
+
+    public Long getCriteriaId() {
+        return this.criteriaId ;
+    }
+
+    /**
+     * Takes over the computed values of <code>entry</code>, an entry for the
+     * same office, product, currency and category generated again.
+     */
+    public void update(final LoanProductProvisioningEntry entry) {
+        this.criteriaId = entry.criteriaId ;
+        this.overdueInDays = entry.overdueInDays ;
+        this.reservedAmount = entry.reservedAmount ;
+        this.liabilityAccount = entry.liabilityAccount ;
+        this.expenseAccount = entry.expenseAccount ;
+    }
     
     @Override
     public boolean equals(Object obj) {
@@ -125,4 +153,12 @@ public class LoanProductProvisioningEntry extends AbstractPersistable<Long> {
                 && entry.office.getId().equals(this.office.getId())
                 && entry.getCurrencyCode().equals(this.getCurrencyCode());
     }
+
+    @Override
+    public int hashCode() {
+        int result = this.loanProduct.getId().hashCode();
+        result = 31 * result + this.provisioningCategory.getId().hashCode();
+        result = 31 * result + this.office.getId().hashCode();
+        return 31 * result + this.currencyCode.hashCode();
+    }
 }
@@ -21,7 +21,6 @@ package com.stellar.bnkbiz.accounting.provisioning.service;
 import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
@@ -56,33 +55,41 @@ public class ProvisioningEntriesReadPlatformServiceImpl implements ProvisioningE
 
     @Override
     public Collection<LoanProductProvisioningEntryData> retrieveLoanProductsProvisioningData(Date date) {
-        String formattedDate = new SimpleDateFormat("yyyy-MM-dd").format(date);
-        formattedDate = "'" + formattedDate + "'";
-        LoanProductProvisioningEntryMapper mapper = new LoanProductProvisioningEntryMapper(formattedDate);
+        LoanProductProvisioningEntryMapper mapper = new LoanProductProvisioningEntryMapper();
         final String sql = mapper.schema();
-        return this.jdbcTemplate.query(sql, mapper, new Object[] {});
+        return this.jdbcTemplate.query(sql, mapper, new Object[] { date });
     }
 
+    /**
+     * Sums up the outstanding balance of the active loans per office, product,
+     * currency and provisioning category in the database. The oldest unpaid
+     * installment of every loan is found in one grouped pass over the
+     * schedule, and its days overdue are matched against the age ranges of
+     * the criteria definitions of the product.
+     */
     private static final class LoanProductProvisioningEntryMapper implements RowMapper<LoanProductProvisioningEntryData> {
 
         private final StringBuilder sqlQuery;
 
-        protected LoanProductProvisioningEntryMapper(String formattedDate) {
+        protected LoanProductProvisioningEntryMapper() {
             sqlQuery = new StringBuilder()
-                    .append("select if(loan.loan_type_enum=1, mclient.office_id, mgroup.office_id) as office_id, loan.loan_type_enum, pcd.criteria_id as criteriaid, loan.product_id,loan.currency_code,")
-                    .append("GREATEST(datediff(")
-                    .append(formattedDate)
-                    .append(",sch.duedate),0) as numberofdaysoverdue,sch.duedate, pcd.category_id, pcd.provision_percentage,")
-                    .append("loan.total_outstanding_derived as outstandingbalance, pcd.liability_account, pcd.expense_account from m_loan_repayment_schedule sch")
-                    .append(" LEFT JOIN m_loan loan on sch.loan_id = loan.id")
-                    .append(" JOIN m_loanproduct_provisioning_mapping lpm on lpm.product_id = loan.product_id")
-                    .append(" JOIN m_provisioning_criteria_definition pcd on pcd.criteria_id = lpm.criteria_id and ")
-                    .append("(pcd.min_age <= GREATEST(datediff(").append(formattedDate).append(",sch.duedate),0) and ")
-                    .append("GREATEST(datediff(").append(formattedDate).append(",sch.duedate),0) <= pcd.max_age) and ")
-                    .append("pcd.criteria_id is not null ").append("LEFT JOIN m_client mclient ON mclient.id = loan.client_id ")
+                    .append("select overdue.office_id, overdue.product_id, overdue.currency_code, pcd.criteria_id as criteriaid, pcd.category_id, ")
+                    .append("pcd.provision_percentage, pcd.liability_account, pcd.expense_account, ")
+                    .append("MAX(overdue.numberofdaysoverdue) as numberofdaysoverdue, SUM(overdue.outstandingbalance) as outstandingbalance from ")
+                    .append("(select if(loan.loan_type_enum=1, mclient.office_id, mgroup.office_id) as office_id, loan.product_id, loan.currency_code, ")
+                    .append("lpm.criteria_id, GREATEST(datediff(?, sch.duedate),0) as numberofdaysoverdue, ")
+                    .append("loan.total_outstanding_derived as outstandingbalance ")
+                    .append("from (select sch1.loan_id, MIN(sch1.duedate) as duedate from m_loan_repayment_schedule sch1 ")
+                    .append("where sch1.completed_derived=false group by sch1.loan_id) sch ")
+                    .append("JOIN m_loan loan on loan.id = sch.loan_id ")
+                    .append("JOIN m_loanproduct_provisioning_mapping lpm on lpm.product_id = loan.product_id ")
+                    .append("LEFT JOIN m_client mclient ON mclient.id = loan.client_id ")
                     .append("LEFT JOIN m_group mgroup ON mgroup.id = loan.group_id ")
-                    .append("where loan.loan_status_id=300 and sch.duedate = ")
-                    .append("(select MIN(sch1.duedate) from m_loan_repayment_schedule sch1 where sch1.loan_id=loan.id and sch1.completed_derived=false)");
+                    .append("where loan.loan_status_id=300) overdue ")
+                    .append("JOIN m_provisioning_criteria_definition pcd on pcd.criteria_id = overdue.criteria_id and ")
+                    .append("pcd.min_age <= overdue.numberofdaysoverdue and overdue.numberofdaysoverdue <= pcd.max_age ")
+                    .append("group by overdue.office_id, overdue.product_id, overdue.currency_code, pcd.criteria_id, pcd.category_id, ")
+                    .append("pcd.provision_percentage, pcd.liability_account, pcd.expense_account");
         }
 
         @Override
@@ -18,9 +18,12 @@
  */
 package com.stellar.bnkbiz.accounting.provisioning.service;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import com.stellar.bnkbiz.accounting.glaccount.domain.GLAccount;
@@ -42,6 +45,7 @@ import com.stellar.bnkbiz.infrastructure.core.data.CommandProcessingResult;
 import com.stellar.bnkbiz.infrastructure.core.data.CommandProcessingResultBuilder;
 import com.stellar.bnkbiz.infrastructure.core.serialization.FromJsonHelper;
 import com.stellar.bnkbiz.infrastructure.core.service.DateUtils;
+import com.stellar.bnkbiz.infrastructure.core.service.RoutingDataSource;
 import com.stellar.bnkbiz.infrastructure.jobs.annotation.CronTarget;
 import com.stellar.bnkbiz.infrastructure.jobs.service.JobName;
 import com.stellar.bnkbiz.infrastructure.security.service.PlatformSecurityContext;
@@ -62,7 +66,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.google.gson.JsonObject;
 
@@ -71,6 +80,10 @@ public class ProvisioningEntriesWritePlatformServiceJpaRepositoryImpl implements
 
     private final static Logger logger = LoggerFactory.getLogger(ProvisioningEntriesWritePlatformServiceJpaRepositoryImpl.class);
 
+    private static final String ENTRY_INSERT = "insert into m_loanproduct_provisioning_entry (history_id, criteria_id, office_id, "
+            + "currency_code, product_id, category_id, overdue_in_days, reseve_amount, liability_account, expense_account) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
     private final ProvisioningEntriesReadPlatformService provisioningEntriesReadPlatformService;
     private final ProvisioningCriteriaReadPlatformService provisioningCriteriaReadPlatformService ;
     private final LoanProductRepository loanProductRepository;
@@ -82,6 +95,8 @@ public class ProvisioningEntriesWritePlatformServiceJpaRepositoryImpl implements
     private final JournalEntryWritePlatformService journalEntryWritePlatformService;
     private final ProvisioningEntriesDefinitionJsonDeserializer fromApiJsonDeserializer;
     private final FromJsonHelper fromApiJsonHelper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
     
     @Autowired
     public ProvisioningEntriesWritePlatformServiceJpaRepositoryImpl(
@@ -91,7 +106,8 @@ public class ProvisioningEntriesWritePlatformServiceJpaRepositoryImpl implements
             final OfficeRepository officeRepository, final ProvisioningCategoryRepository provisioningCategoryRepository,
             final PlatformSecurityContext platformSecurityContext, final ProvisioningEntryRepository provisioningEntryRepository,
             final JournalEntryWritePlatformService journalEntryWritePlatformService,
-            final ProvisioningEntriesDefinitionJsonDeserializer fromApiJsonDeserializer, final FromJsonHelper fromApiJsonHelper) {
+            final ProvisioningEntriesDefinitionJsonDeserializer fromApiJsonDeserializer, final FromJsonHelper fromApiJsonHelper,
+            final RoutingDataSource dataSource, final PlatformTransactionManager transactionManager) {
         this.provisioningEntriesReadPlatformService = provisioningEntriesReadPlatformService;
         this.provisioningCriteriaReadPlatformService = provisioningCriteriaReadPlatformService ;
         this.loanProductRepository = loanProductRepository;
@@ -103,6 +119,8 @@ public class ProvisioningEntriesWritePlatformServiceJpaRepositoryImpl implements
         this.journalEntryWritePlatformService = journalEntryWritePlatformService;
         this.fromApiJsonDeserializer = fromApiJsonDeserializer;
         this.fromApiJsonHelper = fromApiJsonHelper;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
@@ -112,24 +130,25 @@ public class ProvisioningEntriesWritePlatformServiceJpaRepositoryImpl implements
 
         ProvisioningEntryData exisProvisioningEntryData = this.provisioningEntriesReadPlatformService
                 .retrieveExistingProvisioningIdDateWithJournals();
-        revertAndAddJournalEntries(exisProvisioningEntryData, requestedEntry);
+        revertAndAddJournalEntries(exisProvisioningEntryData, requestedEntry, requestedEntry.getLoanProductProvisioningEntries());
         return new CommandProcessingResultBuilder().withCommandId(command.commandId()).withEntityId(requestedEntry.getId()).build();
     }
 
-    private void revertAndAddJournalEntries(ProvisioningEntryData existingEntryData, ProvisioningEntry requestedEntry) {
+    private void revertAndAddJournalEntries(ProvisioningEntryData existingEntryData, ProvisioningEntry requestedEntry,
+            Collection<LoanProductProvisioningEntry> entries) {
         if (existingEntryData != null) {
             validateForCreateJournalEntry(existingEntryData, requestedEntry);
             this.journalEntryWritePlatformService.revertProvisioningJournalEntries(requestedEntry.getCreatedDate(),
                     existingEntryData.getId(), PortfolioProductType.PROVISIONING.getValue());
         }
-        if(requestedEntry.getLoanProductProvisioningEntries() == null || requestedEntry.getLoanProductProvisioningEntries().size() == 0) {
+        if(entries == null || entries.size() == 0) {
             requestedEntry.setJournalEntryCreated(Boolean.FALSE);    
         }else {
             requestedEntry.setJournalEntryCreated(Boolean.TRUE);
         }
         
         this.provisioningEntryRepository.save(requestedEntry);
-        this.journalEntryWritePlatformService.createProvisioningJournalEntries(requestedEntry);
+        this.journalEntryWritePlatformService.createProvisioningJournalEntries(requestedEntry, entries);
     }
 
     private void validateForCreateJournalEntry(ProvisioningEntryData existingEntry, ProvisioningEntry requested) {
@@ -156,15 +175,24 @@ public class ProvisioningEntriesWritePlatformServiceJpaRepositoryImpl implements
     @Override
     @CronTarget(jobName = JobName.GENERATE_LOANLOSS_PROVISIONING)
     public void generateLoanLossProvisioningAmount() {
-        Date currentDate  = DateUtils.getLocalDateOfTenant().toDate() ;
-        boolean addJournalEntries = true;
+        final Date currentDate  = DateUtils.getLocalDateOfTenant().toDate() ;
+        final boolean addJournalEntries = true;
+        Collection<ProvisioningCriteriaData> criteriaCollection = this.provisioningCriteriaReadPlatformService.retrieveAllProvisioningCriterias() ; 
+        if(criteriaCollection == null || criteriaCollection.size() == 0){
+            return ;
+            //FIXME: Do we need to throw NoProvisioningCriteriaDefinitionFound()?
+        }
+        // the entry, its rows and its journal entries are written in one
+        // transaction; a concurrent run that created the entry of the day
+        // first rolls it back as a whole and is not a failure of the job
         try {
-            Collection<ProvisioningCriteriaData> criteriaCollection = this.provisioningCriteriaReadPlatformService.retrieveAllProvisioningCriterias() ; 
-            if(criteriaCollection == null || criteriaCollection.size() == 0){
-                return ;
-                //FIXME: Do we need to throw NoProvisioningCriteriaDefinitionFound()?
-            }
-            createProvsioningEntry(currentDate, addJournalEntries);
+            this.transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+
+                @Override
+                protected void doInTransactionWithoutResult(@SuppressWarnings("unused") final TransactionStatus status) {
+                    createProvsioningEntry(currentDate, addJournalEntries);
+                }
+            });
         } catch (ProvisioningEntryAlreadyCreatedException peace) {} catch (DataIntegrityViolationException dive) {}
     }
 
@@ -192,42 +220,95 @@ public class ProvisioningEntriesWritePlatformServiceJpaRepositoryImpl implements
         AppUser currentUser = this.platformSecurityContext.authenticatedUser();
         AppUser lastModifiedBy = null;
         Date lastModifiedDate = null;
-        Collection<LoanProductProvisioningEntry> nullEntries = null;
-        ProvisioningEntry requestedEntry = new ProvisioningEntry(currentUser, date, lastModifiedBy, lastModifiedDate, nullEntries);
+        Collection<LoanProductProvisioningEntry> noEntries = new ArrayList<>();
+        ProvisioningEntry requestedEntry = new ProvisioningEntry(currentUser, date, lastModifiedBy, lastModifiedDate, noEntries);
         Collection<LoanProductProvisioningEntry> entries = generateLoanProvisioningEntry(requestedEntry, date);
-        requestedEntry.setProvisioningEntries(entries);
+        this.provisioningEntryRepository.saveAndFlush(requestedEntry);
+        insertProvisioningEntries(requestedEntry, entries);
         if (addJournalEntries) {
             ProvisioningEntryData exisProvisioningEntryData = this.provisioningEntriesReadPlatformService
                     .retrieveExistingProvisioningIdDateWithJournals();
-            revertAndAddJournalEntries(exisProvisioningEntryData, requestedEntry);
-        } else {
-            this.provisioningEntryRepository.save(requestedEntry);
+            revertAndAddJournalEntries(exisProvisioningEntryData, requestedEntry, entries);
         }
         return requestedEntry;
     }
 
+    /**
+     * The entries of a new provisioning entry are inserted in one batch
+     * rather than cascaded one insert at a time from the entity.
+     */
+    private void insertProvisioningEntries(ProvisioningEntry parent, Collection<LoanProductProvisioningEntry> entries) {
+        List<Object[]> rows = new ArrayList<>(entries.size());
+        for (LoanProductProvisioningEntry entry : entries) {
+            rows.add(new Object[] { parent.getId(), entry.getCriteriaId(), entry.getOffice().getId(), entry.getCurrencyCode(),
+                    entry.getLoanProduct().getId(), entry.getProvisioningCategory().getId(), entry.getOverdueInDays(),
+                    entry.getReservedAmount(), entry.getLiabilityAccount().getId(), entry.getExpenseAccount().getId() });
+        }
+        if (!rows.isEmpty()) {
+            this.jdbcTemplate.batchUpdate(ENTRY_INSERT, rows);
+        }
+    }
+
+    /**
+     * Regenerates the entries of an existing provisioning entry, writing only
+     * the difference: entries that changed are updated, new ones added and
+     * those no longer generated removed.
+     */
     @Override
     public CommandProcessingResult reCreateProvisioningEntries(Long provisioningEntryId, JsonCommand command) {
         ProvisioningEntry requestedEntry = this.provisioningEntryRepository.findOne(provisioningEntryId);
         if (requestedEntry == null) { throw new ProvisioningEntryNotfoundException(provisioningEntryId); }
-        requestedEntry.getLoanProductProvisioningEntries().clear();
-        this.provisioningEntryRepository.save(requestedEntry);
-        Collection<LoanProductProvisioningEntry> entries = generateLoanProvisioningEntry(requestedEntry, requestedEntry.getCreatedDate());
-        requestedEntry.setProvisioningEntries(entries);
+        Map<LoanProductProvisioningEntry, LoanProductProvisioningEntry> generatedEntries = new HashMap<>();
+        for (LoanProductProvisioningEntry entry : generateLoanProvisioningEntry(requestedEntry, requestedEntry.getCreatedDate())) {
+            generatedEntries.put(entry, entry);
+        }
+        Iterator<LoanProductProvisioningEntry> existingEntries = requestedEntry.getLoanProductProvisioningEntries().iterator();
+        while (existingEntries.hasNext()) {
+            LoanProductProvisioningEntry existingEntry = existingEntries.next();
+            LoanProductProvisioningEntry generatedEntry = generatedEntries.remove(existingEntry);
+            if (generatedEntry == null) {
+                existingEntries.remove();
+            } else {
+                existingEntry.update(generatedEntry);
+            }
+        }
+        requestedEntry.setProvisioningEntries(generatedEntries.values());
         this.provisioningEntryRepository.save(requestedEntry);
         return new CommandProcessingResultBuilder().withCommandId(command.commandId()).withEntityId(requestedEntry.getId()).build();
     }
 
+    /**
+     * The balances arrive summed up per office, product, currency and
+     * category, so the reserve is computed once per entry; products,
+     * offices, categories and accounts repeat across entries and are looked
+     * up once each.
+     */
     private Collection<LoanProductProvisioningEntry> generateLoanProvisioningEntry(ProvisioningEntry parent, Date date) {
         Collection<LoanProductProvisioningEntryData> entries = this.provisioningEntriesReadPlatformService
                 .retrieveLoanProductsProvisioningData(date);
+        Map<Long, LoanProduct> loanProducts = new HashMap<>();
+        Map<Long, Office> offices = new HashMap<>();
+        Map<Long, ProvisioningCategory> provisioningCategories = new HashMap<>();
+        Map<Long, GLAccount> glAccounts = new HashMap<>();
         Map<LoanProductProvisioningEntry, LoanProductProvisioningEntry> provisioningEntries = new HashMap<>();
         for (LoanProductProvisioningEntryData data : entries) {
-            LoanProduct loanProduct = this.loanProductRepository.findOne(data.getProductId());
-            Office office = this.officeRepository.findOne(data.getOfficeId());
-            ProvisioningCategory provisioningCategory = provisioningCategoryRepository.findOne(data.getCategoryId());
-            GLAccount liabilityAccount = glAccountRepository.findOne(data.getLiablityAccount());
-            GLAccount expenseAccount = glAccountRepository.findOne(data.getExpenseAccount());
+            LoanProduct loanProduct = loanProducts.get(data.getProductId());
+            if (loanProduct == null) {
+                loanProduct = this.loanProductRepository.findOne(data.getProductId());
+                loanProducts.put(data.getProductId(), loanProduct);
+            }
+            Office office = offices.get(data.getOfficeId());
+            if (office == null) {
+                office = this.officeRepository.findOne(data.getOfficeId());
+                offices.put(data.getOfficeId(), office);
+            }
+            ProvisioningCategory provisioningCategory = provisioningCategories.get(data.getCategoryId());
+            if (provisioningCategory == null) {
+                provisioningCategory = this.provisioningCategoryRepository.findOne(data.getCategoryId());
+                provisioningCategories.put(data.getCategoryId(), provisioningCategory);
+            }
+            GLAccount liabilityAccount = retrieveGLAccount(glAccounts, data.getLiablityAccount());
+            GLAccount expenseAccount = retrieveGLAccount(glAccounts, data.getExpenseAccount());
             MonetaryCurrency currency = loanProduct.getPrincipalAmount().getCurrency();
             Money money = Money.of(currency, data.getOutstandingBalance());
             Money amountToReserve = money.percentageOf(data.getPercentage(), MoneyHelper.getRoundingMode());
@@ -244,4 +325,13 @@ public class ProvisioningEntriesWritePlatformServiceJpaRepositoryImpl implements
         }
         return provisioningEntries.values();
     }
+
+    private GLAccount retrieveGLAccount(Map<Long, GLAccount> glAccounts, Long glAccountId) {
+        GLAccount glAccount = glAccounts.get(glAccountId);
+        if (glAccount == null) {
+            glAccount = this.glAccountRepository.findOne(glAccountId);
+            glAccounts.put(glAccountId, glAccount);
+        }
+        return glAccount;
+    }
 }
@@ -91,6 +91,7 @@ public class BatchApiResource {
      * 
      * @param jsonRequestString
      * @param enclosingTransaction
+     * @param parallel
      * @param uriInfo
      * @return serialized JSON
      */
@@ -98,7 +99,8 @@ public class BatchApiResource {
     @Consumes({ MediaType.APPLICATION_JSON })
     @Produces({ MediaType.APPLICATION_JSON })
     public String handleBatchRequests(@DefaultValue("false") @QueryParam("enclosingTransaction") final boolean enclosingTransaction,
-            final String jsonRequestString, @Context UriInfo uriInfo) {
+            @DefaultValue("false") @QueryParam("parallel") final boolean parallel, final String jsonRequestString,
+            @Context UriInfo uriInfo) {
 
         // Handles user authentication
         this.context.authenticatedUser();
@@ -110,11 +112,12 @@ public class BatchApiResource {
         List<BatchResponse> result = new ArrayList<>();
 
         // If the request is to be handled as a Transaction. All requests will
-        // be rolled back on error
+        // be rolled back on error. A transaction is bound to a single thread
+        // so parallel execution only applies without one
         if (enclosingTransaction) {
             result = service.handleBatchRequestsWithEnclosingTransaction(requestList, uriInfo);
         } else {
-            result = service.handleBatchRequestsWithoutEnclosingTransaction(requestList, uriInfo);
+            result = service.handleBatchRequestsWithoutEnclosingTransaction(requestList, uriInfo, parallel);
         }
 
         return this.toApiJsonSerializer.serialize(result);
@@ -49,6 +49,22 @@ public interface BatchApiService {
      */
     List<BatchResponse> handleBatchRequestsWithoutEnclosingTransaction(List<BatchRequest> requestList, UriInfo uriInfo);
 
+    /**
+     * Same as
+     * {@link #handleBatchRequestsWithoutEnclosingTransaction(List, UriInfo)}
+     * but when <code>parallel</code> is set, requests that do not depend on
+     * each other are executed concurrently. Requests with a "reference" are
+     * still executed after the request they depend on. It will be used when
+     * the Query Parameter "parallel" is set to 'true'.
+     * 
+     * @param requestList
+     * @param uriInfo
+     * @param parallel
+     * @return List<BatchResponse>
+     */
+    List<BatchResponse> handleBatchRequestsWithoutEnclosingTransaction(List<BatchRequest> requestList, UriInfo uriInfo,
+            boolean parallel);
+
     /**
      * returns a list of {@link com.stellar.bnkbiz.batch.domain.BatchResponse}s
      * by getting the appropriate CommandStrategy for every
@@ -20,8 +20,15 @@ package com.stellar.bnkbiz.batch.service;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import javax.annotation.PreDestroy;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriInfo;
@@ -31,9 +38,11 @@ import com.stellar.bnkbiz.batch.command.CommandStrategy;
 import com.stellar.bnkbiz.batch.command.CommandStrategyProvider;
 import com.stellar.bnkbiz.batch.domain.BatchRequest;
 import com.stellar.bnkbiz.batch.domain.BatchResponse;
+import com.stellar.bnkbiz.batch.domain.Header;
 import com.stellar.bnkbiz.batch.exception.ErrorHandler;
 import com.stellar.bnkbiz.batch.exception.ErrorInfo;
 import com.stellar.bnkbiz.batch.service.ResolutionHelper.BatchRequestNode;
+import com.stellar.bnkbiz.infrastructure.core.service.ContextAwareExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.TransactionException;
@@ -59,9 +68,18 @@ import edu.emory.mathcs.backport.java.util.Collections;
 @Service
 public class BatchApiServiceImpl implements BatchApiService {
 
+    /**
+     * Response header carrying the time in milliseconds spent executing a
+     * request, excluding the time its children took.
+     */
+    public static final String DURATION_HEADER = "X-Fineract-Batch-Duration-Millis";
+
+    private static final int PARALLEL_THREADS = 8;
+
     private final CommandStrategyProvider strategyProvider;
     private final ResolutionHelper resolutionHelper;
     private final TransactionTemplate transactionTemplate;
+    private final ContextAwareExecutor parallelExecutor;
     private List<BatchResponse> checkList = new ArrayList<>();
 
     /**
@@ -78,6 +96,12 @@ public class BatchApiServiceImpl implements BatchApiService {
         this.strategyProvider = strategyProvider;
         this.resolutionHelper = resolutionHelper;
         this.transactionTemplate = transactionTemplate;
+        this.parallelExecutor = ContextAwareExecutor.newFixedPool("batch-api", PARALLEL_THREADS, 2 * PARALLEL_THREADS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.parallelExecutor.close();
     }
 
     /**
@@ -85,25 +109,29 @@ public class BatchApiServiceImpl implements BatchApiService {
      * {@link com.stellar.bnkbiz.batch.command.CommandStrategy}. execute() method
      * of acquired commandStrategy is then provided with the separate Request.
      * 
+     * When <code>parallel</code> is set the root requests, which never depend
+     * on each other, are executed concurrently. The children of a root request
+     * are still executed one after the other on the same thread once their
+     * parent has completed.
+     * 
      * @param requestList
      * @param uriInfo
+     * @param parallel
      * @return List<BatchResponse>
      */
-    private List<BatchResponse> handleBatchRequests(final List<BatchRequest> requestList, final UriInfo uriInfo) {
+    private List<BatchResponse> handleBatchRequests(final List<BatchRequest> requestList, final UriInfo uriInfo, final boolean parallel) {
 
         final List<BatchResponse> responseList = new ArrayList<>(requestList.size());
 
         final List<BatchRequestNode> batchRequestNodes = this.resolutionHelper.getDependingRequests(requestList);
         checkList.clear();
 
-        for (BatchRequestNode rootNode : batchRequestNodes) {
-            final BatchRequest rootRequest = rootNode.getRequest();
-            final CommandStrategy commandStrategy = this.strategyProvider.getCommandStrategy(CommandContext
-                    .resource(rootRequest.getRelativeUrl()).method(rootRequest.getMethod()).build());
-            final BatchResponse rootResponse = commandStrategy.execute(rootRequest, uriInfo);
-
-            responseList.add(rootResponse);
-            responseList.addAll(this.processChildRequests(rootNode, rootResponse, uriInfo));
+        if (parallel && batchRequestNodes.size() > 1) {
+            responseList.addAll(this.processRootRequestsInParallel(batchRequestNodes, uriInfo));
+        } else {
+            for (BatchRequestNode rootNode : batchRequestNodes) {
+                responseList.addAll(this.processRootRequest(rootNode, uriInfo));
+            }
         }
 
         Collections.sort(responseList, new Comparator<BatchResponse>() {
@@ -119,6 +147,72 @@ public class BatchApiServiceImpl implements BatchApiService {
 
     }
 
+    private List<BatchResponse> processRootRequest(final BatchRequestNode rootNode, final UriInfo uriInfo) {
+
+        final List<BatchResponse> responses = new ArrayList<>();
+
+        final BatchRequest rootRequest = rootNode.getRequest();
+        final long startTime = System.nanoTime();
+        final CommandStrategy commandStrategy = this.strategyProvider.getCommandStrategy(CommandContext
+                .resource(rootRequest.getRelativeUrl()).method(rootRequest.getMethod()).build());
+        final BatchResponse rootResponse = commandStrategy.execute(rootRequest, uriInfo);
+        addDurationHeader(rootResponse, startTime);
+
+        responses.add(rootResponse);
+        responses.addAll(this.processChildRequests(rootNode, rootResponse, uriInfo));
+
+        return responses;
+    }
+
+    private List<BatchResponse> processRootRequestsInParallel(final List<BatchRequestNode> rootNodes, final UriInfo uriInfo) {
+
+        final List<Future<List<BatchResponse>>> futures = new ArrayList<>(rootNodes.size());
+        for (final BatchRequestNode rootNode : rootNodes) {
+            futures.add(this.parallelExecutor.submit(new Callable<List<BatchResponse>>() {
+
+                @Override
+                public List<BatchResponse> call() {
+                    return processRootRequest(rootNode, uriInfo);
+                }
+            }));
+        }
+
+        final List<BatchResponse> responses = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            final BatchRequestNode rootNode = rootNodes.get(i);
+            try {
+                responses.addAll(futures.get(i).get());
+            } catch (final ExecutionException e) {
+                // one failing request must not hide the responses of the
+                // others, its children are answered with a conflict
+                final Throwable cause = e.getCause() == null ? e : e.getCause();
+                final BatchResponse rootResponse = new BatchResponse();
+                rootResponse.setRequestId(rootNode.getRequest().getRequestId());
+                rootResponse.setStatusCode(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
+                rootResponse.setBody(cause.getMessage());
+
+                responses.add(rootResponse);
+                responses.addAll(this.processChildRequests(rootNode, rootResponse, uriInfo));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for batch requests to complete", e);
+            }
+        }
+        return responses;
+    }
+
+    private static void addDurationHeader(final BatchResponse response, final long startTime) {
+        final long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        // strategies hand back the request headers, so copy them rather than
+        // adding to the request
+        final Set<Header> headers = new HashSet<>();
+        if (response.getHeaders() != null) {
+            headers.addAll(response.getHeaders());
+        }
+        headers.add(new Header(DURATION_HEADER, String.valueOf(duration)));
+        response.setHeaders(headers);
+    }
+
     private List<BatchResponse> processChildRequests(final BatchRequestNode rootRequest, BatchResponse rootResponse, UriInfo uriInfo) {
 
         final List<BatchResponse> childResponses = new ArrayList<>();
@@ -132,11 +226,13 @@ public class BatchApiServiceImpl implements BatchApiService {
                 try {
 
                     if (rootResponse.getStatusCode().equals(200)) {
+                        final long startTime = System.nanoTime();
                         childRequest = this.resolutionHelper.resoluteRequest(childRequest, rootResponse);
                         final CommandStrategy commandStrategy = this.strategyProvider.getCommandStrategy(CommandContext
                                 .resource(childRequest.getRelativeUrl()).method(childRequest.getMethod()).build());
 
                         childResponse = commandStrategy.execute(childRequest, uriInfo);
+                        addDurationHeader(childResponse, startTime);
 
                     } else {
                         // Something went wrong with the parent request, create
@@ -170,7 +266,14 @@ public class BatchApiServiceImpl implements BatchApiService {
     @Override
     public List<BatchResponse> handleBatchRequestsWithoutEnclosingTransaction(final List<BatchRequest> requestList, UriInfo uriInfo) {
 
-        return handleBatchRequests(requestList, uriInfo);
+        return handleBatchRequests(requestList, uriInfo, false);
+    }
+
+    @Override
+    public List<BatchResponse> handleBatchRequestsWithoutEnclosingTransaction(final List<BatchRequest> requestList,
+            final UriInfo uriInfo, final boolean parallel) {
+
+        return handleBatchRequests(requestList, uriInfo, parallel);
     }
 
     @Override
@@ -182,7 +285,7 @@ public class BatchApiServiceImpl implements BatchApiService {
                 @Override
                 public List<BatchResponse> doInTransaction(TransactionStatus status) {
                     try {
-                        return handleBatchRequests(requestList, uriInfo);
+                        return handleBatchRequests(requestList, uriInfo, false);
                     } catch (RuntimeException ex) {
 
                         ErrorInfo e = ErrorHandler.handler(ex);
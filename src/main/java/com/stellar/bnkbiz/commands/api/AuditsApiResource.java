@@ -43,6 +43,7 @@ import com.stellar.bnkbiz.infrastructure.core.data.PaginationParameters;
 import com.stellar.bnkbiz.infrastructure.core.serialization.ApiRequestJsonSerializationSettings;
 import com.stellar.bnkbiz.infrastructure.core.serialization.DefaultToApiJsonSerializer;
 import com.stellar.bnkbiz.infrastructure.core.service.Page;
+import com.stellar.bnkbiz.infrastructure.core.service.PageCountMode;
 import com.stellar.bnkbiz.infrastructure.security.service.PlatformSecurityContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Scope;
@@ -89,10 +90,12 @@ public class AuditsApiResource {
             @QueryParam("groupId") final Integer groupId, @QueryParam("clientId") final Integer clientId,
             @QueryParam("loanid") final Integer loanId, @QueryParam("savingsAccountId") final Integer savingsAccountId,
             @QueryParam("paged") final Boolean paged, @QueryParam("offset") final Integer offset, @QueryParam("limit") final Integer limit,
-            @QueryParam("orderBy") final String orderBy, @QueryParam("sortOrder") final String sortOrder) {
+            @QueryParam("orderBy") final String orderBy, @QueryParam("sortOrder") final String sortOrder,
+            @QueryParam("continuationToken") final String continuationToken, @QueryParam("countMode") final String countMode) {
 
         this.context.authenticatedUser().validateHasReadPermission(this.resourceNameForPermissions);
-        final PaginationParameters parameters = PaginationParameters.instance(paged, offset, limit, orderBy, sortOrder);
+        final PaginationParameters parameters = PaginationParameters.instance(paged, offset, limit, orderBy, sortOrder,
+                continuationToken, PageCountMode.fromString(countMode));
         final String extraCriteria = getExtraCriteria(actionName, entityName, resourceId, makerId, makerDateTimeFrom, makerDateTimeTo,
                 checkerId, checkerDateTimeFrom, checkerDateTimeTo, processingResult, officeId, groupId, clientId, loanId, savingsAccountId);
 
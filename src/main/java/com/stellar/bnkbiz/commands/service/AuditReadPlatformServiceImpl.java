@@ -23,6 +23,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -37,6 +38,7 @@ import com.stellar.bnkbiz.infrastructure.core.data.PaginationParametersDataValid
 import com.stellar.bnkbiz.infrastructure.core.domain.JdbcSupport;
 import com.stellar.bnkbiz.infrastructure.core.exception.PlatformDataIntegrityException;
 import com.stellar.bnkbiz.infrastructure.core.serialization.FromJsonHelper;
+import com.stellar.bnkbiz.infrastructure.core.service.KeysetPagination;
 import com.stellar.bnkbiz.infrastructure.core.service.Page;
 import com.stellar.bnkbiz.infrastructure.core.service.PaginationHelper;
 import com.stellar.bnkbiz.infrastructure.core.service.RoutingDataSource;
@@ -78,6 +80,13 @@ public class AuditReadPlatformServiceImpl implements AuditReadPlatformService {
     private final static Set<String> supportedOrderByValues = new HashSet<>(
             Arrays.asList("id", "actionName", "entityName", "resourceId", "subresourceId", "madeOnDate", "checkedOnDate", "officeName",
                     "groupName", "clientName", "loanAccountNo", "savingsAccountNo", "clientId", "loanId"));
+    // keyset paging seeks on the (made_on_date, id) index, or on the id
+    // alone; any other order is paged by offset
+    private final static Map<String, String> keysetSortColumns = new HashMap<>();
+    static {
+        keysetSortColumns.put("madeOnDate", "aud.made_on_date");
+        keysetSortColumns.put("id", null);
+    }
 
     private final JdbcTemplate jdbcTemplate;
     private final PlatformSecurityContext context;
@@ -135,13 +144,14 @@ public class AuditReadPlatformServiceImpl implements AuditReadPlatformService {
                     + " left join m_loan l on l.id = aud.loan_id" + " left join m_savings_account s on s.id = aud.savings_account_id"
                     + " left join r_enum_value ev on ev.enum_name = 'processing_result_enum' and ev.enum_id = aud.processing_result_enum";
 
+            return partSql + hierarchySql(hierarchy);
+        }
+
+        public static String hierarchySql(final String hierarchy) {
             // data scoping: head office (hierarchy = ".") can see all audit
             // entries
-            if (!(hierarchy.equals("."))) {
-                partSql += " join m_office o2 on o2.id = aud.office_id and o2.hierarchy like '" + hierarchy + "%' ";
-            }
-
-            return partSql;
+            if (hierarchy.equals(".")) { return ""; }
+            return " join m_office o2 on o2.id = aud.office_id and o2.hierarchy like '" + hierarchy + "%' ";
         }
 
         @Override
@@ -206,6 +216,14 @@ public class AuditReadPlatformServiceImpl implements AuditReadPlatformService {
             updatedExtraCriteria = " where (" + extraCriteria + ")";
         }
 
+        if (parameters.isKeysetPaged()) {
+            // newest first unless asked otherwise, as with offset paging
+            final String sortOrder = parameters.isOrderByRequested() ? parameters.getSortOrder() : "DESC";
+            final KeysetPagination keyset = KeysetPagination.instance(keysetSortColumns, null, "aud.id", parameters.getOrderBy(),
+                    sortOrder, parameters.getContinuationToken(), parameters.getLimit(), parameters.getCountMode());
+            if (keyset != null) { return retrieveAuditEntriesAfter(updatedExtraCriteria, includeJson, hierarchy, keyset); }
+        }
+
         final AuditMapper rm = new AuditMapper();
         final StringBuilder sqlBuilder = new StringBuilder(200);
         sqlBuilder.append("select SQL_CALC_FOUND_ROWS ");
@@ -228,6 +246,29 @@ public class AuditReadPlatformServiceImpl implements AuditReadPlatformService {
         return this.paginationHelper.fetchPage(this.jdbcTemplate, sqlCountRows, sqlBuilder.toString(), new Object[] {}, rm);
     }
 
+    private Page<AuditData> retrieveAuditEntriesAfter(final String whereCriteria, final boolean includeJson, final String hierarchy,
+            final KeysetPagination keyset) {
+
+        final AuditMapper rm = new AuditMapper();
+        final StringBuilder sqlBuilder = new StringBuilder(200);
+        sqlBuilder.append("select").append(keyset.selectColumnsSql());
+        sqlBuilder.append(rm.schema(includeJson, hierarchy));
+        sqlBuilder.append(' ').append(whereCriteria);
+
+        Object[] fetchArgs = new Object[] {};
+        if (keyset.hasPosition()) {
+            sqlBuilder.append(StringUtils.isBlank(whereCriteria) ? " where" : " and").append(keyset.positionSql());
+            fetchArgs = keyset.positionArgs();
+        }
+
+        // the criteria only refer to aud so the total needs none of the
+        // joins of the page query
+        final String sqlCountFrom = " from m_portfolio_command_source aud" + AuditMapper.hierarchySql(hierarchy) + " " + whereCriteria;
+
+        return this.paginationHelper.fetchPage(this.jdbcTemplate, sqlCountFrom, new Object[] {}, sqlBuilder.toString(), fetchArgs,
+                keyset, rm);
+    }
+
     @Override
     public Collection<AuditData> retrieveAllEntriesToBeChecked(final String extraCriteria, final boolean includeJson) {
 
@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.commands.service;
+
+import com.stellar.bnkbiz.commands.domain.CommandWrapper;
+
+/**
+ * Runs the commands on one loan, savings account or client one after the
+ * other, in the order they arrive, while commands on different aggregates
+ * run side by side. Commands that would otherwise collide on the version of
+ * the same aggregate wait for their turn instead of failing with an
+ * optimistic lock or deadlock and being retried.
+ * 
+ * Within a node the commands queue on a fair lock per aggregate. With
+ * <code>fineract.commands.sequencer-mode=cluster</code> each command also
+ * locks the row of its aggregate in <code>m_command_aggregate_lock</code>
+ * inside its transaction, which orders the commands of all nodes.
+ */
+public interface CommandSequencer {
+
+    /**
+     * @return the key of the aggregate the command acts on, or
+     *         <code>null</code> when it acts on none that is sequenced
+     */
+    String aggregateKeyOf(CommandWrapper wrapper);
+
+    /**
+     * Waits until the commands on the aggregate that entered before are
+     * done; every successful call must be paired with {@link #exit(String)}.
+     * 
+     * @return <code>false</code> when the turn did not come within the
+     *         configured wait, the command then runs unsequenced
+     */
+    boolean enter(String aggregateKey);
+
+    void exit(String aggregateKey);
+
+    /**
+     * Locks the aggregate across nodes until the current transaction ends;
+     * does nothing unless the sequencer runs in cluster mode.
+     */
+    void lockForTransaction(String aggregateKey);
+}
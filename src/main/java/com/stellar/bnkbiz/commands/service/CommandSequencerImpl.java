@@ -0,0 +1,156 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.commands.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.stellar.bnkbiz.commands.domain.CommandWrapper;
+import com.stellar.bnkbiz.infrastructure.core.service.RoutingDataSource;
+import com.stellar.bnkbiz.infrastructure.core.service.ThreadLocalContextUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+@Service
+public class CommandSequencerImpl implements CommandSequencer {
+
+    private final static Logger logger = LoggerFactory.getLogger(CommandSequencerImpl.class);
+
+    public final static String SEQUENCER_MODE = "fineract.commands.sequencer-mode";
+    public final static String SEQUENCER_WAIT_SECONDS = "fineract.commands.sequencer-wait-seconds";
+
+    private final static String MODE_NONE = "none";
+    private final static String MODE_CLUSTER = "cluster";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String mode;
+    private final int waitSeconds;
+    private final Map<String, AggregateQueue> queues = new HashMap<>();
+
+    @Autowired
+    public CommandSequencerImpl(final RoutingDataSource dataSource, @Value("${" + SEQUENCER_MODE + ":local}") final String mode,
+            @Value("${" + SEQUENCER_WAIT_SECONDS + ":30}") final int waitSeconds) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.mode = mode.trim().toLowerCase();
+        this.waitSeconds = waitSeconds;
+    }
+
+    @Override
+    public String aggregateKeyOf(final CommandWrapper wrapper) {
+        if (MODE_NONE.equals(this.mode)) { return null; }
+
+        final String entityName = wrapper.getEntityName();
+        Long loanId = wrapper.getLoanId();
+        Long savingsId = wrapper.getSavingsId();
+        Long clientId = wrapper.getClientId();
+        if ("LOAN".equals(entityName) && loanId == null) {
+            loanId = wrapper.getEntityId();
+        } else if ("SAVINGSACCOUNT".equals(entityName) && savingsId == null) {
+            savingsId = wrapper.getEntityId();
+        } else if ("CLIENT".equals(entityName) && clientId == null) {
+            clientId = wrapper.getEntityId();
+        }
+
+        if (loanId != null) { return "LOAN:" + loanId; }
+        if (savingsId != null) { return "SAVINGSACCOUNT:" + savingsId; }
+        if (clientId != null) { return "CLIENT:" + clientId; }
+        return null;
+    }
+
+    @Override
+    public boolean enter(final String aggregateKey) {
+        final String queueKey = queueKey(aggregateKey);
+        final AggregateQueue queue;
+        synchronized (this.queues) {
+            AggregateQueue existing = this.queues.get(queueKey);
+            if (existing == null) {
+                existing = new AggregateQueue();
+                this.queues.put(queueKey, existing);
+            }
+            existing.users++;
+            queue = existing;
+        }
+
+        boolean entered = false;
+        try {
+            entered = queue.lock.tryLock(this.waitSeconds, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!entered) {
+            release(queueKey, queue);
+            logger.warn(ThreadLocalContextUtil.getTenant().getName() + ": command on " + aggregateKey + " waited more than "
+                    + this.waitSeconds + "s for its turn and runs unsequenced");
+        }
+        return entered;
+    }
+
+    @Override
+    public void exit(final String aggregateKey) {
+        final String queueKey = queueKey(aggregateKey);
+        final AggregateQueue queue;
+        synchronized (this.queues) {
+            queue = this.queues.get(queueKey);
+        }
+        if (queue == null) { return; }
+        queue.lock.unlock();
+        release(queueKey, queue);
+    }
+
+    @Override
+    public void lockForTransaction(final String aggregateKey) {
+        if (!MODE_CLUSTER.equals(this.mode) || aggregateKey == null) { return; }
+
+        // the row is created on first use; locking it blocks until the
+        // transactions of other nodes on the same aggregate have ended
+        this.jdbcTemplate.update("insert ignore into m_command_aggregate_lock (aggregate_key) values (?)", aggregateKey);
+        this.jdbcTemplate.queryForObject("select aggregate_key from m_command_aggregate_lock where aggregate_key = ? for update",
+                String.class, aggregateKey);
+    }
+
+    private void release(final String queueKey, final AggregateQueue queue) {
+        synchronized (this.queues) {
+            queue.users--;
+            if (queue.users == 0) {
+                this.queues.remove(queueKey);
+            }
+        }
+    }
+
+    private static String queueKey(final String aggregateKey) {
+        return ThreadLocalContextUtil.getTenant().getTenantIdentifier() + ":" + aggregateKey;
+    }
+
+    /**
+     * The fair lock hands the aggregate to waiting commands in the order they
+     * arrived; the queue is dropped once nobody holds or waits for it.
+     */
+    private static final class AggregateQueue {
+
+        private final ReentrantLock lock = new ReentrantLock(true);
+        // guarded by the map of queues
+        private int users = 0;
+    }
+}
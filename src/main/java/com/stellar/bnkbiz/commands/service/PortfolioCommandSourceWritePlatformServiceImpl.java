@@ -52,17 +52,20 @@ public class PortfolioCommandSourceWritePlatformServiceImpl implements Portfolio
     private final FromJsonHelper fromApiJsonHelper;
     private final CommandProcessingService processAndLogCommandService;
     private final SchedulerJobRunnerReadService schedulerJobRunnerReadService;
+    private final CommandSequencer commandSequencer;
     private final static Logger logger = LoggerFactory.getLogger(PortfolioCommandSourceWritePlatformServiceImpl.class);
 
     @Autowired
     public PortfolioCommandSourceWritePlatformServiceImpl(final PlatformSecurityContext context,
             final CommandSourceRepository commandSourceRepository, final FromJsonHelper fromApiJsonHelper,
-            final CommandProcessingService processAndLogCommandService, final SchedulerJobRunnerReadService schedulerJobRunnerReadService) {
+            final CommandProcessingService processAndLogCommandService, final SchedulerJobRunnerReadService schedulerJobRunnerReadService,
+            final CommandSequencer commandSequencer) {
         this.context = context;
         this.commandSourceRepository = commandSourceRepository;
         this.fromApiJsonHelper = fromApiJsonHelper;
         this.processAndLogCommandService = processAndLogCommandService;
         this.schedulerJobRunnerReadService = schedulerJobRunnerReadService;
+        this.commandSequencer = commandSequencer;
     }
 
     @Override
@@ -93,36 +96,50 @@ public class PortfolioCommandSourceWritePlatformServiceImpl implements Portfolio
         command = JsonCommand.from(json, parsedCommand, this.fromApiJsonHelper, wrapper.getEntityName(), wrapper.getEntityId(),
                 wrapper.getSubentityId(), wrapper.getGroupId(), wrapper.getClientId(), wrapper.getLoanId(), wrapper.getSavingsId(),
                 wrapper.getTransactionId(), wrapper.getHref(), wrapper.getProductId());
-        while (numberOfRetries <= maxNumberOfRetries) {
-            try {
-                result = this.processAndLogCommandService.processAndLogCommand(wrapper, command, isApprovedByChecker);
-                numberOfRetries = maxNumberOfRetries + 1;
-            } catch (CannotAcquireLockException | ObjectOptimisticLockingFailureException exception) {
-                logger.info("The following command " + command.json() + " has been retried  " + numberOfRetries + " time(s)");
-                /***
-                 * Fail if the transaction has been retired for
-                 * maxNumberOfRetries
-                 **/
-                if (numberOfRetries >= maxNumberOfRetries) {
-                    logger.warn("The following command " + command.json() + " has been retried for the max allowed attempts of "
-                            + numberOfRetries + " and will be rolled back");
-                    throw (exception);
-                }
-                /***
-                 * Else sleep for a random time (between 1 to 10 seconds) and
-                 * continue
-                 **/
+        /***
+         * Commands on the same loan, savings account or client wait for their
+         * turn here, so the retries below are only needed for conflicts the
+         * sequencer does not see (another aggregate, another node, a batch
+         * with an enclosing transaction).
+         **/
+        final String aggregateKey = this.commandSequencer.aggregateKeyOf(wrapper);
+        final boolean sequenced = aggregateKey != null && this.commandSequencer.enter(aggregateKey);
+        try {
+            while (numberOfRetries <= maxNumberOfRetries) {
                 try {
-                    Random random = new Random();
-                    int randomNum = random.nextInt(maxIntervalBetweenRetries + 1);
-                    Thread.sleep(1000 + (randomNum * 1000));
-                    numberOfRetries = numberOfRetries + 1;
-                } catch (InterruptedException e) {
-                    throw (exception);
+                    result = this.processAndLogCommandService.processAndLogCommand(wrapper, command, isApprovedByChecker);
+                    numberOfRetries = maxNumberOfRetries + 1;
+                } catch (CannotAcquireLockException | ObjectOptimisticLockingFailureException exception) {
+                    logger.info("The following command " + command.json() + " has been retried  " + numberOfRetries + " time(s)");
+                    /***
+                     * Fail if the transaction has been retired for
+                     * maxNumberOfRetries
+                     **/
+                    if (numberOfRetries >= maxNumberOfRetries) {
+                        logger.warn("The following command " + command.json() + " has been retried for the max allowed attempts of "
+                                + numberOfRetries + " and will be rolled back");
+                        throw (exception);
+                    }
+                    /***
+                     * Else sleep for a random time (between 1 to 10 seconds) and
+                     * continue
+                     **/
+                    try {
+                        Random random = new Random();
+                        int randomNum = random.nextInt(maxIntervalBetweenRetries + 1);
+                        Thread.sleep(1000 + (randomNum * 1000));
+                        numberOfRetries = numberOfRetries + 1;
+                    } catch (InterruptedException e) {
+                        throw (exception);
+                    }
+                } catch (final RollbackTransactionAsCommandIsNotApprovedByCheckerException e) {
+                    numberOfRetries = maxNumberOfRetries + 1;
+                    result = this.processAndLogCommandService.logCommand(e.getCommandSourceResult());
                 }
-            } catch (final RollbackTransactionAsCommandIsNotApprovedByCheckerException e) {
-                numberOfRetries = maxNumberOfRetries + 1;
-                result = this.processAndLogCommandService.logCommand(e.getCommandSourceResult());
+            }
+        } finally {
+            if (sequenced) {
+                this.commandSequencer.exit(aggregateKey);
             }
         }
 
@@ -148,7 +165,15 @@ public class PortfolioCommandSourceWritePlatformServiceImpl implements Portfolio
                 commandSourceInput.getResourceGetUrl(), commandSourceInput.getProductId());
 
         final boolean makerCheckerApproval = true;
-        return this.processAndLogCommandService.processAndLogCommand(wrapper, command, makerCheckerApproval);
+        final String aggregateKey = this.commandSequencer.aggregateKeyOf(wrapper);
+        final boolean sequenced = aggregateKey != null && this.commandSequencer.enter(aggregateKey);
+        try {
+            return this.processAndLogCommandService.processAndLogCommand(wrapper, command, makerCheckerApproval);
+        } finally {
+            if (sequenced) {
+                this.commandSequencer.exit(aggregateKey);
+            }
+        }
     }
 
     @Transactional
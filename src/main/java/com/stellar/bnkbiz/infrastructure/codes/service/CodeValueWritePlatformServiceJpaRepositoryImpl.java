@@ -31,6 +31,7 @@ import com.stellar.bnkbiz.infrastructure.core.api.JsonCommand;
 import com.stellar.bnkbiz.infrastructure.core.data.CommandProcessingResult;
 import com.stellar.bnkbiz.infrastructure.core.data.CommandProcessingResultBuilder;
 import com.stellar.bnkbiz.infrastructure.core.exception.PlatformDataIntegrityException;
+import com.stellar.bnkbiz.infrastructure.dataqueries.service.DatatableMetaDataService;
 import com.stellar.bnkbiz.infrastructure.security.service.PlatformSecurityContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,16 +51,18 @@ public class CodeValueWritePlatformServiceJpaRepositoryImpl implements CodeValue
     private final CodeValueRepository codeValueRepository;
     private final CodeRepository codeRepository;
     private final CodeValueCommandFromApiJsonDeserializer fromApiJsonDeserializer;
+    private final DatatableMetaDataService datatableMetaDataService;
 
     @Autowired
     public CodeValueWritePlatformServiceJpaRepositoryImpl(final PlatformSecurityContext context, final CodeRepository codeRepository,
             final CodeValueRepositoryWrapper codeValueRepositoryWrapper, final CodeValueRepository codeValueRepository,
-            final CodeValueCommandFromApiJsonDeserializer fromApiJsonDeserializer) {
+            final CodeValueCommandFromApiJsonDeserializer fromApiJsonDeserializer, final DatatableMetaDataService datatableMetaDataService) {
         this.context = context;
         this.codeRepository = codeRepository;
         this.codeValueRepositoryWrapper = codeValueRepositoryWrapper;
         this.codeValueRepository = codeValueRepository;
         this.fromApiJsonDeserializer = fromApiJsonDeserializer;
+        this.datatableMetaDataService = datatableMetaDataService;
     }
 
     @Transactional
@@ -69,6 +72,7 @@ public class CodeValueWritePlatformServiceJpaRepositoryImpl implements CodeValue
 
         try {
             this.context.authenticatedUser();
+            this.datatableMetaDataService.codesChanged();
 
             this.fromApiJsonDeserializer.validateForCreate(command.json());
 
@@ -117,6 +121,7 @@ public class CodeValueWritePlatformServiceJpaRepositoryImpl implements CodeValue
 
         try {
             this.context.authenticatedUser();
+            this.datatableMetaDataService.codesChanged();
 
             this.fromApiJsonDeserializer.validateForUpdate(command.json());
 
@@ -148,6 +153,7 @@ public class CodeValueWritePlatformServiceJpaRepositoryImpl implements CodeValue
 
         try {
             this.context.authenticatedUser();
+            this.datatableMetaDataService.codesChanged();
 
             final Code code = this.codeRepository.findOne(codeId);
             if (code == null) { throw new CodeNotFoundException(codeId); }
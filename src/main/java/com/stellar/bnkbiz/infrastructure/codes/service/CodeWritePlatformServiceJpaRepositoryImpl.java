@@ -29,6 +29,7 @@ import com.stellar.bnkbiz.infrastructure.core.api.JsonCommand;
 import com.stellar.bnkbiz.infrastructure.core.data.CommandProcessingResult;
 import com.stellar.bnkbiz.infrastructure.core.data.CommandProcessingResultBuilder;
 import com.stellar.bnkbiz.infrastructure.core.exception.PlatformDataIntegrityException;
+import com.stellar.bnkbiz.infrastructure.dataqueries.service.DatatableMetaDataService;
 import com.stellar.bnkbiz.infrastructure.security.service.PlatformSecurityContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,13 +47,15 @@ public class CodeWritePlatformServiceJpaRepositoryImpl implements CodeWritePlatf
     private final PlatformSecurityContext context;
     private final CodeRepository codeRepository;
     private final CodeCommandFromApiJsonDeserializer fromApiJsonDeserializer;
+    private final DatatableMetaDataService datatableMetaDataService;
 
     @Autowired
     public CodeWritePlatformServiceJpaRepositoryImpl(final PlatformSecurityContext context, final CodeRepository codeRepository,
-            final CodeCommandFromApiJsonDeserializer fromApiJsonDeserializer) {
+            final CodeCommandFromApiJsonDeserializer fromApiJsonDeserializer, final DatatableMetaDataService datatableMetaDataService) {
         this.context = context;
         this.codeRepository = codeRepository;
         this.fromApiJsonDeserializer = fromApiJsonDeserializer;
+        this.datatableMetaDataService = datatableMetaDataService;
     }
 
     @Transactional
@@ -82,6 +85,7 @@ public class CodeWritePlatformServiceJpaRepositoryImpl implements CodeWritePlatf
 
         try {
             this.context.authenticatedUser();
+            this.datatableMetaDataService.codesChanged();
 
             this.fromApiJsonDeserializer.validateForUpdate(command.json());
 
@@ -112,6 +116,7 @@ public class CodeWritePlatformServiceJpaRepositoryImpl implements CodeWritePlatf
 
         final Code code = retrieveCodeBy(codeId);
         if (code.isSystemDefined()) { throw new SystemDefinedCodeCannotBeChangedException(); }
+        this.datatableMetaDataService.codesChanged();
 
         try {
             this.codeRepository.delete(code);
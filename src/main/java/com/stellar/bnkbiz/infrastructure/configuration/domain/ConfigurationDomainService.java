@@ -63,4 +63,10 @@ public interface ConfigurationDomainService {
     int getRoundingMode();
 
     boolean isBackdatePenaltiesEnabled();
+
+    int retrieveJobThreadPoolSize();
+
+    int retrieveJobChunkSize();
+
+    boolean isSearchIndexEnabled();
 }
\ No newline at end of file
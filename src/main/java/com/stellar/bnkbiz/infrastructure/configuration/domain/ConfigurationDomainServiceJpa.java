@@ -22,52 +22,62 @@ import org.apache.commons.lang3.StringUtils;
 import com.stellar.bnkbiz.infrastructure.cache.domain.CacheType;
 import com.stellar.bnkbiz.infrastructure.cache.domain.PlatformCache;
 import com.stellar.bnkbiz.infrastructure.cache.domain.PlatformCacheRepository;
-import com.stellar.bnkbiz.useradministration.domain.Permission;
-import com.stellar.bnkbiz.useradministration.domain.PermissionRepository;
+import com.stellar.bnkbiz.infrastructure.configuration.domain.ConfigurationSnapshot.Property;
+import com.stellar.bnkbiz.infrastructure.configuration.service.ConfigurationSnapshotService;
+import com.stellar.bnkbiz.infrastructure.core.service.TomcatJdbcDataSourcePerTenantService;
+import com.stellar.bnkbiz.infrastructure.jobs.service.EndOfDayJobServiceImpl;
 import com.stellar.bnkbiz.useradministration.exception.PermissionNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Answers configuration questions from the in memory
+ * {@link ConfigurationSnapshot} of the tenant, so none of them costs a
+ * database round trip.
+ */
 @Service
 public class ConfigurationDomainServiceJpa implements ConfigurationDomainService {
 
-    private final PermissionRepository permissionRepository;
-    private final GlobalConfigurationRepositoryWrapper globalConfigurationRepository;
+    private final ConfigurationSnapshotService configurationSnapshotService;
     private final PlatformCacheRepository cacheTypeRepository;
+    private final int batchMaxActive;
+    private final int endOfDayConcurrency;
 
     @Autowired
-    public ConfigurationDomainServiceJpa(final PermissionRepository permissionRepository,
-            final GlobalConfigurationRepositoryWrapper globalConfigurationRepository, final PlatformCacheRepository cacheTypeRepository) {
-        this.permissionRepository = permissionRepository;
-        this.globalConfigurationRepository = globalConfigurationRepository;
+    public ConfigurationDomainServiceJpa(final ConfigurationSnapshotService configurationSnapshotService,
+            final PlatformCacheRepository cacheTypeRepository,
+            @Value("${" + TomcatJdbcDataSourcePerTenantService.BATCH_MAX_ACTIVE + ":10}") final int batchMaxActive,
+            @Value("${" + EndOfDayJobServiceImpl.END_OF_DAY_CONCURRENCY + ":4}") final int endOfDayConcurrency) {
+        this.configurationSnapshotService = configurationSnapshotService;
         this.cacheTypeRepository = cacheTypeRepository;
+        this.batchMaxActive = batchMaxActive;
+        this.endOfDayConcurrency = Math.max(1, endOfDayConcurrency);
     }
 
     @Override
     public boolean isMakerCheckerEnabledForTask(final String taskPermissionCode) {
         if (StringUtils.isBlank(taskPermissionCode)) { throw new PermissionNotFoundException(taskPermissionCode); }
 
-        final Permission thisTask = this.permissionRepository.findOneByCode(taskPermissionCode);
-        if (thisTask == null) { throw new PermissionNotFoundException(taskPermissionCode); }
+        final ConfigurationSnapshot snapshot = this.configurationSnapshotService.retrieveSnapshot();
+        final boolean taskHasMakerCheckerEnabled = snapshot.hasMakerCheckerEnabled(taskPermissionCode);
 
         final String makerCheckerConfigurationProperty = "maker-checker";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository
-                .findOneByNameWithNotFoundDetection(makerCheckerConfigurationProperty);
+        final Property property = snapshot.findPropertyByNameWithNotFoundDetection(makerCheckerConfigurationProperty);
 
-        return thisTask.hasMakerCheckerEnabled() && property.isEnabled();
+        return taskHasMakerCheckerEnabled && property.isEnabled();
     }
 
     @Override
     public boolean isAmazonS3Enabled() {
-        return this.globalConfigurationRepository.findOneByNameWithNotFoundDetection("amazon-S3").isEnabled();
+        return findPropertyByNameWithNotFoundDetection("amazon-S3").isEnabled();
     }
 
     @Override
     public boolean isRescheduleFutureRepaymentsEnabled() {
         final String rescheduleRepaymentsConfigurationProperty = "reschedule-future-repayments";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository
-                .findOneByNameWithNotFoundDetection(rescheduleRepaymentsConfigurationProperty);
+        final Property property = findPropertyByNameWithNotFoundDetection(rescheduleRepaymentsConfigurationProperty);
         return property.isEnabled();
     }
 
@@ -80,30 +90,28 @@ public class ConfigurationDomainServiceJpa implements ConfigurationDomainService
     @Override
     public boolean isRescheduleRepaymentsOnHolidaysEnabled() {
         final String holidaysConfigurationProperty = "reschedule-repayments-on-holidays";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository
-                .findOneByNameWithNotFoundDetection(holidaysConfigurationProperty);
+        final Property property = findPropertyByNameWithNotFoundDetection(holidaysConfigurationProperty);
         return property.isEnabled();
     }
 
     @Override
     public boolean allowTransactionsOnHolidayEnabled() {
         final String allowTransactionsOnHolidayProperty = "allow-transactions-on-holiday";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository
-                .findOneByNameWithNotFoundDetection(allowTransactionsOnHolidayProperty);
+        final Property property = findPropertyByNameWithNotFoundDetection(allowTransactionsOnHolidayProperty);
         return property.isEnabled();
     }
 
     @Override
     public boolean allowTransactionsOnNonWorkingDayEnabled() {
         final String propertyName = "allow-transactions-on-non_workingday";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = findPropertyByNameWithNotFoundDetection(propertyName);
         return property.isEnabled();
     }
 
     @Override
     public boolean isConstraintApproachEnabledForDatatables() {
         final String propertyName = "constraint_approach_for_datatables";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = findPropertyByNameWithNotFoundDetection(propertyName);
         return property.isEnabled();
     }
 
@@ -123,49 +131,49 @@ public class ConfigurationDomainServiceJpa implements ConfigurationDomainService
     @Override
     public Long retrievePenaltyWaitPeriod() {
         final String propertyName = "penalty-wait-period";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = findPropertyByNameWithNotFoundDetection(propertyName);
         return property.getValue();
     }
 
     @Override
     public Long retrieveGraceOnPenaltyPostingPeriod() {
         final String propertyName = "grace-on-penalty-posting";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = findPropertyByNameWithNotFoundDetection(propertyName);
         return property.getValue();
     }
 
     @Override
     public boolean isPasswordForcedResetEnable() {
         final String propertyName = "force-password-reset-days";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = findPropertyByNameWithNotFoundDetection(propertyName);
         return property.isEnabled();
     }
 
     @Override
     public Long retrievePasswordLiveTime() {
         final String propertyName = "force-password-reset-days";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = findPropertyByNameWithNotFoundDetection(propertyName);
         return property.getValue();
     }
 
     @Override
     public Long retrieveOpeningBalancesContraAccount() {
         final String propertyName = "office-opening-balances-contra-account";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = findPropertyByNameWithNotFoundDetection(propertyName);
         return property.getValue();
     }
 
     @Override
     public boolean isSavingsInterestPostingAtCurrentPeriodEnd() {
         final String propertyName = "savings-interest-posting-current-period-end";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = findPropertyByNameWithNotFoundDetection(propertyName);
         return property.isEnabled();
     }
 
     @Override
     public Integer retrieveFinancialYearBeginningMonth() {
         final String propertyName = "financial-year-beginning-month";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = findPropertyByNameWithNotFoundDetection(propertyName);
         if (property.isEnabled()) return property.getValue().intValue();
         return 1;
     }
@@ -173,7 +181,7 @@ public class ConfigurationDomainServiceJpa implements ConfigurationDomainService
     @Override
     public Integer retrieveMinAllowedClientsInGroup() {
         final String propertyName = "min-clients-in-group";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = findPropertyByNameWithNotFoundDetection(propertyName);
         if (property.isEnabled()) { return property.getValue().intValue(); }
         return null;
     }
@@ -181,7 +189,7 @@ public class ConfigurationDomainServiceJpa implements ConfigurationDomainService
     @Override
     public Integer retrieveMaxAllowedClientsInGroup() {
         final String propertyName = "max-clients-in-group";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = findPropertyByNameWithNotFoundDetection(propertyName);
         if (property.isEnabled()) { return property.getValue().intValue(); }
         return null;
     }
@@ -189,7 +197,7 @@ public class ConfigurationDomainServiceJpa implements ConfigurationDomainService
     @Override
     public boolean isMeetingMandatoryForJLGLoans() {
         final String propertyName = "meetings-mandatory-for-jlg-loans";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = findPropertyByNameWithNotFoundDetection(propertyName);
         return property.isEnabled();
     }
 
@@ -197,7 +205,7 @@ public class ConfigurationDomainServiceJpa implements ConfigurationDomainService
     public int getRoundingMode() {
         final String propertyName = "rounding-mode";
         int defaultValue = 6; // 6 Stands for HALF-EVEN
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = findPropertyByNameWithNotFoundDetection(propertyName);
         if (property.isEnabled()) {
             int value = property.getValue().intValue();
             if (value < 0 || value > 6) {
@@ -210,8 +218,43 @@ public class ConfigurationDomainServiceJpa implements ConfigurationDomainService
 
     public boolean isBackdatePenaltiesEnabled() {
         final String propertyName = "backdate-penalties-enabled";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = findPropertyByNameWithNotFoundDetection(propertyName);
+        return property.isEnabled();
+    }
+
+    @Override
+    public int retrieveJobThreadPoolSize() {
+        final String propertyName = "job-thread-pool-size";
+        int threadPoolSize = 4;
+        final Property property = findPropertyByNameWithNotFoundDetection(propertyName);
+        if (property.isEnabled() && property.getValue() != null && property.getValue() > 0) {
+            threadPoolSize = property.getValue().intValue();
+        }
+        // workers take their connections from the batch pool, which is
+        // shared by the jobs the end of day runs at the same time and also
+        // serves the thread that runs each of them
+        final int connectionsPerJob = this.batchMaxActive / this.endOfDayConcurrency;
+        return Math.min(threadPoolSize, Math.max(1, connectionsPerJob - 1));
+    }
+
+    @Override
+    public int retrieveJobChunkSize() {
+        final String propertyName = "job-chunk-size";
+        final int defaultValue = 500;
+        final Property property = findPropertyByNameWithNotFoundDetection(propertyName);
+        if (property.isEnabled() && property.getValue() != null && property.getValue() > 0) { return property.getValue().intValue(); }
+        return defaultValue;
+    }
+
+    @Override
+    public boolean isSearchIndexEnabled() {
+        final String propertyName = "search-index";
+        final Property property = findPropertyByNameWithNotFoundDetection(propertyName);
         return property.isEnabled();
     }
 
-}
\ No newline at end of file
+    private Property findPropertyByNameWithNotFoundDetection(final String propertyName) {
+        return this.configurationSnapshotService.retrieveSnapshot().findPropertyByNameWithNotFoundDetection(propertyName);
+    }
+
+}
@@ -0,0 +1,82 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.configuration.domain;
+
+import java.util.Collections;
+import java.util.Map;
+
+import com.stellar.bnkbiz.infrastructure.configuration.exception.GlobalConfigurationPropertyNotFoundException;
+import com.stellar.bnkbiz.useradministration.exception.PermissionNotFoundException;
+
+/**
+ * Immutable copy of the global configuration (<code>c_configuration</code>)
+ * and the maker checker flags of the permissions of one tenant, as of the
+ * given configuration version.
+ * 
+ * A snapshot is never changed; a configuration change replaces it as a whole
+ * so that readers always see a consistent state.
+ */
+public final class ConfigurationSnapshot {
+
+    private final long version;
+    private final Map<String, Property> properties;
+    private final Map<String, Boolean> makerCheckerByPermissionCode;
+
+    public ConfigurationSnapshot(final long version, final Map<String, Property> properties,
+            final Map<String, Boolean> makerCheckerByPermissionCode) {
+        this.version = version;
+        this.properties = Collections.unmodifiableMap(properties);
+        this.makerCheckerByPermissionCode = Collections.unmodifiableMap(makerCheckerByPermissionCode);
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    public Property findPropertyByNameWithNotFoundDetection(final String propertyName) {
+        final Property property = this.properties.get(propertyName);
+        if (property == null) { throw new GlobalConfigurationPropertyNotFoundException(propertyName); }
+        return property;
+    }
+
+    public boolean hasMakerCheckerEnabled(final String permissionCode) {
+        final Boolean makerChecker = this.makerCheckerByPermissionCode.get(permissionCode);
+        if (makerChecker == null) { throw new PermissionNotFoundException(permissionCode); }
+        return makerChecker;
+    }
+
+    public static final class Property {
+
+        private final boolean enabled;
+        private final Long value;
+
+        public Property(final boolean enabled, final Long value) {
+            this.enabled = enabled;
+            this.value = value;
+        }
+
+        public boolean isEnabled() {
+            return this.enabled;
+        }
+
+        public Long getValue() {
+            return this.value;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.configuration.service;
+
+import com.stellar.bnkbiz.infrastructure.configuration.domain.ConfigurationSnapshot;
+
+public interface ConfigurationSnapshotService {
+
+    /**
+     * @return the configuration snapshot of the current tenant, loaded on
+     *         first use and kept in memory afterwards
+     */
+    ConfigurationSnapshot retrieveSnapshot();
+
+    /**
+     * Bumps the configuration version in the current transaction and drops
+     * the snapshot of this node once the transaction commits; other nodes
+     * notice the new version and reload theirs.
+     */
+    void configurationChanged();
+
+}
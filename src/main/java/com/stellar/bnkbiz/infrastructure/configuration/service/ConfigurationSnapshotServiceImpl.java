@@ -0,0 +1,179 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.configuration.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import com.stellar.bnkbiz.infrastructure.configuration.domain.ConfigurationSnapshot;
+import com.stellar.bnkbiz.infrastructure.core.domain.FineractPlatformTenant;
+import com.stellar.bnkbiz.infrastructure.core.service.RoutingDataSource;
+import com.stellar.bnkbiz.infrastructure.core.service.ThreadLocalContextUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Service
+public class ConfigurationSnapshotServiceImpl implements ConfigurationSnapshotService {
+
+    private final static Logger logger = LoggerFactory.getLogger(ConfigurationSnapshotServiceImpl.class);
+
+    private static final long VERSION_CHECK_INTERVAL_SECONDS = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConcurrentMap<String, TenantSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService versionChecker;
+
+    @Autowired
+    public ConfigurationSnapshotServiceImpl(final RoutingDataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    public void start() {
+        this.versionChecker = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "configuration-version-checker");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.versionChecker.scheduleWithFixedDelay(new Runnable() {
+
+            @Override
+            public void run() {
+                reloadChangedSnapshots();
+            }
+        }, VERSION_CHECK_INTERVAL_SECONDS, VERSION_CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        this.versionChecker.shutdownNow();
+    }
+
+    @Override
+    public ConfigurationSnapshot retrieveSnapshot() {
+        final FineractPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        final TenantSnapshot tenantSnapshot = this.snapshots.get(tenant.getTenantIdentifier());
+        if (tenantSnapshot != null) { return tenantSnapshot.snapshot; }
+
+        final ConfigurationSnapshot snapshot = loadSnapshot();
+        this.snapshots.put(tenant.getTenantIdentifier(), new TenantSnapshot(tenant, snapshot));
+        return snapshot;
+    }
+
+    @Override
+    public void configurationChanged() {
+        this.jdbcTemplate.update("update c_configuration_version set version = version + 1");
+        final String tenantIdentifier = ThreadLocalContextUtil.getTenant().getTenantIdentifier();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCommit() {
+                    ConfigurationSnapshotServiceImpl.this.snapshots.remove(tenantIdentifier);
+                }
+            });
+        } else {
+            this.snapshots.remove(tenantIdentifier);
+        }
+    }
+
+    private void reloadChangedSnapshots() {
+        for (final Map.Entry<String, TenantSnapshot> entry : this.snapshots.entrySet()) {
+            final TenantSnapshot tenantSnapshot = entry.getValue();
+            ThreadLocalContextUtil.setTenant(tenantSnapshot.tenant);
+            try {
+                if (retrieveVersion() != tenantSnapshot.snapshot.getVersion()) {
+                    this.snapshots.replace(entry.getKey(), tenantSnapshot, new TenantSnapshot(tenantSnapshot.tenant, loadSnapshot()));
+                }
+            } catch (final RuntimeException e) {
+                logger.error("Could not check the configuration version of tenant " + entry.getKey(), e);
+            } finally {
+                ThreadLocalContextUtil.clearTenant();
+            }
+        }
+    }
+
+    private long retrieveVersion() {
+        final List<Long> versions = this.jdbcTemplate.queryForList("select version from c_configuration_version", Long.class);
+        if (versions.isEmpty()) { return 0; }
+        return versions.get(0);
+    }
+
+    private ConfigurationSnapshot loadSnapshot() {
+        // read the version first, a change committed while loading is then
+        // picked up by the next version check
+        final long version = retrieveVersion();
+
+        final Map<String, ConfigurationSnapshot.Property> properties = new HashMap<>();
+        this.jdbcTemplate.query("select name, enabled, value from c_configuration", new RowCallbackHandler() {
+
+            @Override
+            public void processRow(final ResultSet rs) throws SQLException {
+                final Long value = rs.getLong("value");
+                properties.put(rs.getString("name"), new ConfigurationSnapshot.Property(rs.getBoolean("enabled"), rs.wasNull() ? null
+                        : value));
+            }
+        });
+
+        final Map<String, Boolean> makerCheckerByPermissionCode = new HashMap<>();
+        this.jdbcTemplate.query("select code, can_maker_checker from m_permission", new RowCallbackHandler() {
+
+            @Override
+            public void processRow(final ResultSet rs) throws SQLException {
+                makerCheckerByPermissionCode.put(rs.getString("code"), rs.getBoolean("can_maker_checker"));
+            }
+        });
+
+        return new ConfigurationSnapshot(version, properties, makerCheckerByPermissionCode);
+    }
+
+    private static final class TenantSnapshot {
+
+        private final FineractPlatformTenant tenant;
+        private final ConfigurationSnapshot snapshot;
+
+        TenantSnapshot(final FineractPlatformTenant tenant, final ConfigurationSnapshot snapshot) {
+            this.tenant = tenant;
+            this.snapshot = snapshot;
+        }
+    }
+}
@@ -43,13 +43,16 @@ public class GlobalConfigurationWritePlatformServiceJpaRepositoryImpl implements
     private final PlatformSecurityContext context;
     private final GlobalConfigurationRepositoryWrapper repository;
     private final GlobalConfigurationDataValidator globalConfigurationDataValidator;
+    private final ConfigurationSnapshotService configurationSnapshotService;
 
     @Autowired
     public GlobalConfigurationWritePlatformServiceJpaRepositoryImpl(final PlatformSecurityContext context,
-            final GlobalConfigurationRepositoryWrapper codeRepository, final GlobalConfigurationDataValidator dataValidator) {
+            final GlobalConfigurationRepositoryWrapper codeRepository, final GlobalConfigurationDataValidator dataValidator,
+            final ConfigurationSnapshotService configurationSnapshotService) {
         this.context = context;
         this.repository = codeRepository;
         this.globalConfigurationDataValidator = dataValidator;
+        this.configurationSnapshotService = configurationSnapshotService;
 
     }
 
@@ -68,6 +71,7 @@ public class GlobalConfigurationWritePlatformServiceJpaRepositoryImpl implements
 
             if (!changes.isEmpty()) {
                 this.repository.save(configItemForUpdate);
+                this.configurationSnapshotService.configurationChanged();
             }
 
             return new CommandProcessingResultBuilder().withCommandId(command.commandId()).withEntityId(configId).with(changes).build();
@@ -86,6 +90,7 @@ public class GlobalConfigurationWritePlatformServiceJpaRepositoryImpl implements
         try{
             final GlobalConfigurationProperty ppi = GlobalConfigurationProperty.newSurveyConfiguration(name);
             this.repository.save(ppi);
+            this.configurationSnapshotService.configurationChanged();
         }
         catch (final DataIntegrityViolationException dve)
         {
@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.core.api;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.UriInfo;
+
+import com.stellar.bnkbiz.infrastructure.core.data.DataSourcePoolMetricsData;
+import com.stellar.bnkbiz.infrastructure.core.serialization.ApiRequestJsonSerializationSettings;
+import com.stellar.bnkbiz.infrastructure.core.serialization.DefaultToApiJsonSerializer;
+import com.stellar.bnkbiz.infrastructure.core.service.TomcatJdbcDataSourcePerTenantService;
+import com.stellar.bnkbiz.infrastructure.security.service.PlatformSecurityContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Component;
+
+@Path("/datasourcepools")
+@Consumes({ MediaType.APPLICATION_JSON })
+@Produces({ MediaType.APPLICATION_JSON })
+@Component
+@Scope("singleton")
+public class DataSourcePoolsApiResource {
+
+    private final Set<String> RESPONSE_DATA_PARAMETERS = new HashSet<>(Arrays.asList("poolName", "poolType", "open", "maxActive",
+            "active", "idle", "waiting", "connectionsTaken", "averageWaitMillis", "maxWaitMillis", "timeouts", "idleSeconds"));
+    private final String resourceNameForPermissions = "CONFIGURATION";
+
+    private final PlatformSecurityContext context;
+    private final TomcatJdbcDataSourcePerTenantService dataSourcePerTenantService;
+    private final DefaultToApiJsonSerializer<DataSourcePoolMetricsData> toApiJsonSerializer;
+    private final ApiRequestParameterHelper apiRequestParameterHelper;
+
+    @Autowired
+    public DataSourcePoolsApiResource(final PlatformSecurityContext context,
+            final TomcatJdbcDataSourcePerTenantService dataSourcePerTenantService,
+            final DefaultToApiJsonSerializer<DataSourcePoolMetricsData> toApiJsonSerializer,
+            final ApiRequestParameterHelper apiRequestParameterHelper) {
+        this.context = context;
+        this.dataSourcePerTenantService = dataSourcePerTenantService;
+        this.toApiJsonSerializer = toApiJsonSerializer;
+        this.apiRequestParameterHelper = apiRequestParameterHelper;
+    }
+
+    /**
+     * Utilisation, wait time and timeouts of the connection pools of the
+     * current tenant on the node serving the request.
+     */
+    @GET
+    @Path("metrics")
+    public String retrieveMetrics(@Context final UriInfo uriInfo) {
+
+        this.context.authenticatedUser().validateHasReadPermission(this.resourceNameForPermissions);
+
+        final List<DataSourcePoolMetricsData> metrics = this.dataSourcePerTenantService.retrievePoolMetrics();
+
+        final ApiRequestJsonSerializationSettings settings = this.apiRequestParameterHelper.process(uriInfo.getQueryParameters());
+        return this.toApiJsonSerializer.serialize(settings, metrics, this.RESPONSE_DATA_PARAMETERS);
+    }
+}
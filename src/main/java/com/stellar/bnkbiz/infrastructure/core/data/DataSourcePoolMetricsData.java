@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.core.data;
+
+/**
+ * Immutable data object with the utilisation and wait statistics of one
+ * connection pool of a tenant database on this node.
+ */
+public class DataSourcePoolMetricsData {
+
+    @SuppressWarnings("unused")
+    private final String poolName;
+    @SuppressWarnings("unused")
+    private final String poolType;
+    @SuppressWarnings("unused")
+    private final boolean open;
+    @SuppressWarnings("unused")
+    private final Integer maxActive;
+    @SuppressWarnings("unused")
+    private final Integer active;
+    @SuppressWarnings("unused")
+    private final Integer idle;
+    @SuppressWarnings("unused")
+    private final Integer waiting;
+    @SuppressWarnings("unused")
+    private final Long connectionsTaken;
+    @SuppressWarnings("unused")
+    private final Long averageWaitMillis;
+    @SuppressWarnings("unused")
+    private final Long maxWaitMillis;
+    @SuppressWarnings("unused")
+    private final Long timeouts;
+    @SuppressWarnings("unused")
+    private final Long idleSeconds;
+
+    public DataSourcePoolMetricsData(final String poolName, final String poolType, final boolean open, final Integer maxActive,
+            final Integer active, final Integer idle, final Integer waiting, final Long connectionsTaken, final Long averageWaitMillis,
+            final Long maxWaitMillis, final Long timeouts, final Long idleSeconds) {
+        this.poolName = poolName;
+        this.poolType = poolType;
+        this.open = open;
+        this.maxActive = maxActive;
+        this.active = active;
+        this.idle = idle;
+        this.waiting = waiting;
+        this.connectionsTaken = connectionsTaken;
+        this.averageWaitMillis = averageWaitMillis;
+        this.maxWaitMillis = maxWaitMillis;
+        this.timeouts = timeouts;
+        this.idleSeconds = idleSeconds;
+    }
+}
@@ -19,6 +19,7 @@
 package com.stellar.bnkbiz.infrastructure.core.data;
 
 import org.apache.commons.lang3.StringUtils;
+import com.stellar.bnkbiz.infrastructure.core.service.PageCountMode;
 
 /**
  * <p>
@@ -32,23 +33,38 @@ public class PaginationParameters {
     private final Integer limit;
     private final String orderBy;
     private final String sortOrder;
+    private final String continuationToken;
+    private final PageCountMode countMode;
 
     public static PaginationParameters instance(Boolean paged, Integer offset, Integer limit, String orderBy, String sortOrder) {
+        return instance(paged, offset, limit, orderBy, sortOrder, null, null);
+    }
+
+    /**
+     * Keyset paging is used when a continuation token or a count mode is
+     * passed; the offset is then ignored.
+     */
+    public static PaginationParameters instance(Boolean paged, Integer offset, Integer limit, String orderBy, String sortOrder,
+            String continuationToken, PageCountMode countMode) {
         if (null == paged) {
             paged = false;
         }
 
         final Integer maxLimitAllowed = getCheckedLimit(limit);
 
-        return new PaginationParameters(paged, offset, maxLimitAllowed, orderBy, sortOrder);
+        return new PaginationParameters(paged, offset, maxLimitAllowed, orderBy, sortOrder, StringUtils.trimToNull(continuationToken),
+                countMode);
     }
 
-    private PaginationParameters(boolean paged, Integer offset, Integer limit, String orderBy, String sortOrder) {
+    private PaginationParameters(boolean paged, Integer offset, Integer limit, String orderBy, String sortOrder,
+            String continuationToken, PageCountMode countMode) {
         this.paged = paged;
         this.offset = offset;
         this.limit = limit;
         this.orderBy = orderBy;
         this.sortOrder = sortOrder;
+        this.continuationToken = continuationToken;
+        this.countMode = countMode;
     }
 
     public static Integer getCheckedLimit(final Integer limit) {
@@ -87,6 +103,18 @@ public class PaginationParameters {
         return this.sortOrder;
     }
 
+    public String getContinuationToken() {
+        return this.continuationToken;
+    }
+
+    public PageCountMode getCountMode() {
+        return this.countMode;
+    }
+
+    public boolean isKeysetPaged() {
+        return this.continuationToken != null || this.countMode != null;
+    }
+
     public boolean isOrderByRequested() {
         return StringUtils.isNotBlank(this.orderBy);
     }
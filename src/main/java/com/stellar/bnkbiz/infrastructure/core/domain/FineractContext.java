@@ -0,0 +1,67 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.core.domain;
+
+import com.stellar.bnkbiz.infrastructure.core.service.DataSourcePoolType;
+import org.springframework.security.core.context.SecurityContext;
+
+/**
+ * Immutable snapshot of the thread bound state (tenant, data source, auth
+ * token, security context and connection pool) so that it can be
+ * re-established on a worker thread.
+ * 
+ * @see com.stellar.bnkbiz.infrastructure.core.service.ThreadLocalContextUtil#getContext()
+ */
+public class FineractContext {
+
+    private final String contextHolder;
+    private final FineractPlatformTenant tenant;
+    private final String authToken;
+    private final SecurityContext securityContext;
+    private final DataSourcePoolType poolType;
+
+    public FineractContext(final String contextHolder, final FineractPlatformTenant tenant, final String authToken,
+            final SecurityContext securityContext, final DataSourcePoolType poolType) {
+        this.contextHolder = contextHolder;
+        this.tenant = tenant;
+        this.authToken = authToken;
+        this.securityContext = securityContext;
+        this.poolType = poolType;
+    }
+
+    public String getContextHolder() {
+        return this.contextHolder;
+    }
+
+    public FineractPlatformTenant getTenant() {
+        return this.tenant;
+    }
+
+    public String getAuthToken() {
+        return this.authToken;
+    }
+
+    public SecurityContext getSecurityContext() {
+        return this.securityContext;
+    }
+
+    public DataSourcePoolType getPoolType() {
+        return this.poolType;
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.core.service;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import com.stellar.bnkbiz.infrastructure.core.domain.FineractPlatformTenantConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Loads the independent associations of a resource, such as the
+ * transactions, charges and notes of a loan, concurrently instead of one
+ * query after the other, so that retrieving the resource takes about as long
+ * as its slowest association.
+ *
+ * Every association is read on a virtual thread carrying the tenant and
+ * security context of the request, inside its own read-only transaction. A
+ * single request reads at most a quarter of the tenant's OLTP pool, and no
+ * more than {@link #MAX_CONCURRENT_READS}, associations at a time so that it
+ * cannot take over the connections other requests are waiting for.
+ * The time every association took is logged at debug level once the batch is
+ * closed.
+ */
+@Component
+public class AssociationLoader {
+
+    private final static Logger logger = LoggerFactory.getLogger(AssociationLoader.class);
+
+    static final int MAX_CONCURRENT_READS = 8;
+    private static final int OLTP_POOL_SHARE_DIVISOR = 4;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    @Autowired
+    public AssociationLoader(final PlatformTransactionManager transactionManager) {
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    public Batch newBatch(final String name) {
+        return new Batch(name, maxConcurrentReads());
+    }
+
+    private static int maxConcurrentReads() {
+        final FineractPlatformTenantConnection connection = ThreadLocalContextUtil.getTenant().getConnection();
+        // a tenant without a max active gets the pool default, which is
+        // larger than the cap
+        if (connection.getMaxActive() <= 0) { return MAX_CONCURRENT_READS; }
+        return Math.max(1, Math.min(MAX_CONCURRENT_READS, connection.getMaxActive() / OLTP_POOL_SHARE_DIVISOR));
+    }
+
+    /**
+     * The associations loaded for one resource; {@link #close()} waits for
+     * associations that were submitted but never asked for.
+     */
+    public final class Batch implements AutoCloseable {
+
+        private final String name;
+        private final ContextAwareExecutor executor;
+        private final Map<String, Long> timings = new ConcurrentSkipListMap<>();
+        private final long startedAt = System.nanoTime();
+
+        private Batch(final String name, final int maxConcurrentReads) {
+            this.name = name;
+            this.executor = ContextAwareExecutor.newVirtualThreadPool(name, maxConcurrentReads);
+        }
+
+        public <T> Future<T> load(final String association, final Callable<T> reader) {
+            return this.executor.submit(new Callable<T>() {
+
+                @Override
+                public T call() {
+                    final long start = System.nanoTime();
+                    try {
+                        return AssociationLoader.this.readOnlyTransactionTemplate.execute(new TransactionCallback<T>() {
+
+                            @Override
+                            public T doInTransaction(@SuppressWarnings("unused") final TransactionStatus status) {
+                                try {
+                                    return reader.call();
+                                } catch (final RuntimeException e) {
+                                    throw e;
+                                } catch (final Exception e) {
+                                    throw new IllegalStateException(e);
+                                }
+                            }
+                        });
+                    } finally {
+                        Batch.this.timings.put(association, (System.nanoTime() - start) / 1000000);
+                    }
+                }
+            });
+        }
+
+        /**
+         * Waits for an association, rethrowing the exception its reader
+         * failed with.
+         */
+        public <T> T get(final Future<T> association) {
+            try {
+                return association.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while loading " + this.name, e);
+            } catch (final ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) { throw (RuntimeException) e.getCause(); }
+                if (e.getCause() instanceof Error) { throw (Error) e.getCause(); }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        @Override
+        public void close() {
+            this.executor.close();
+            if (logger.isDebugEnabled()) {
+                logger.debug(this.name + " loaded in " + (System.nanoTime() - this.startedAt) / 1000000 + "ms, associations (ms): "
+                        + this.timings);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.core.service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.stellar.bnkbiz.infrastructure.core.domain.FineractContext;
+
+/**
+ * Bounded worker pool that runs every task with the tenant, data source and
+ * security context of the thread that submitted it.
+ *
+ * The number of tasks that are queued or running at any time is capped at
+ * <code>maxInFlight</code>; {@link #submit(Callable)} blocks the caller once
+ * the cap is reached so that producers (typically a keyset paged read) never
+ * run far ahead of the workers.
+ */
+public class ContextAwareExecutor implements AutoCloseable {
+
+    private final ExecutorService executorService;
+    private final Semaphore inFlight;
+
+    private ContextAwareExecutor(final ExecutorService executorService, final int maxInFlight) {
+        this.executorService = executorService;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    public static ContextAwareExecutor newFixedPool(final String name, final int threads, final int maxInFlight) {
+        final int poolSize = Math.max(1, threads);
+        return new ContextAwareExecutor(Executors.newFixedThreadPool(poolSize, new NamedThreadFactory(name)), Math.max(poolSize,
+                maxInFlight));
+    }
+
+    /**
+     * Pool starting a virtual thread per task, for tasks that mostly wait on
+     * the database; <code>maxInFlight</code> then bounds the number of
+     * connections the tasks hold at once.
+     */
+    public static ContextAwareExecutor newVirtualThreadPool(final String name, final int maxInFlight) {
+        final ThreadFactory threadFactory = Thread.ofVirtual().name(name + "-", 1).factory();
+        return new ContextAwareExecutor(Executors.newThreadPerTaskExecutor(threadFactory), Math.max(1, maxInFlight));
+    }
+
+    public <T> Future<T> submit(final Callable<T> task) {
+        final FineractContext context = ThreadLocalContextUtil.getContext();
+        try {
+            this.inFlight.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a free worker", e);
+        }
+        try {
+            return this.executorService.submit(new Callable<T>() {
+
+                @Override
+                public T call() throws Exception {
+                    ThreadLocalContextUtil.init(context);
+                    try {
+                        return task.call();
+                    } finally {
+                        ThreadLocalContextUtil.reset();
+                        ContextAwareExecutor.this.inFlight.release();
+                    }
+                }
+            });
+        } catch (final RuntimeException e) {
+            this.inFlight.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        this.executorService.shutdown();
+        try {
+            while (!this.executorService.awaitTermination(1, TimeUnit.MINUTES)) {
+                // keep waiting, tasks are bounded by the callers own timeouts
+            }
+        } catch (final InterruptedException e) {
+            this.executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+
+        private final String name;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        NamedThreadFactory(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, this.name + "-" + this.counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
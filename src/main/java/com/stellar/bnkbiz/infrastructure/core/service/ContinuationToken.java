@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.core.service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.Base64;
+
+import com.stellar.bnkbiz.infrastructure.core.exception.UnrecognizedQueryParamException;
+
+/**
+ * Position of the last row of a keyset paged query: its id and, when the
+ * query is sorted on another column first, the value of that column.
+ *
+ * The sort value keeps its type, a date, timestamp, number or text, so that
+ * it is bound back with the type of its column; databases such as
+ * PostgreSQL do not compare a timestamp column with a text parameter.
+ *
+ * Handed to clients url safe base64 encoded so that it is passed back as is
+ * rather than built by hand.
+ */
+public final class ContinuationToken {
+
+    private static final char SEPARATOR = ':';
+    private static final char NO_SORT_VALUE = '-';
+    private static final char DATE_SORT_VALUE = 'd';
+    private static final char TIMESTAMP_SORT_VALUE = 't';
+    private static final char NUMBER_SORT_VALUE = 'n';
+    private static final char TEXT_SORT_VALUE = 's';
+
+    private final Long id;
+    private final Object sortValue;
+
+    /**
+     * @param sortValue
+     *            a {@link Date}, {@link Timestamp}, {@link BigDecimal} or
+     *            {@link String}, <code>null</code> when sorted on the id
+     *            alone
+     */
+    public ContinuationToken(final Long id, final Object sortValue) {
+        this.id = id;
+        this.sortValue = sortValue;
+    }
+
+    public static ContinuationToken decode(final String continuationToken) {
+        try {
+            final String decoded = new String(Base64.getUrlDecoder().decode(continuationToken), StandardCharsets.UTF_8);
+            final int separatorAt = decoded.indexOf(SEPARATOR);
+            if (separatorAt < 1 || separatorAt == decoded.length() - 1) { throw new UnrecognizedQueryParamException(
+                    "continuationToken", continuationToken); }
+
+            final Long id = Long.valueOf(decoded.substring(0, separatorAt));
+            final char marker = decoded.charAt(separatorAt + 1);
+            final String value = decoded.substring(separatorAt + 2);
+            switch (marker) {
+                case NO_SORT_VALUE:
+                    return new ContinuationToken(id, null);
+                case DATE_SORT_VALUE:
+                    return new ContinuationToken(id, Date.valueOf(value));
+                case TIMESTAMP_SORT_VALUE:
+                    return new ContinuationToken(id, Timestamp.valueOf(value));
+                case NUMBER_SORT_VALUE:
+                    return new ContinuationToken(id, new BigDecimal(value));
+                case TEXT_SORT_VALUE:
+                    return new ContinuationToken(id, value);
+                default:
+                    throw new UnrecognizedQueryParamException("continuationToken", continuationToken);
+            }
+        } catch (final IllegalArgumentException e) {
+            throw new UnrecognizedQueryParamException("continuationToken", continuationToken);
+        }
+    }
+
+    public String encode() {
+        final StringBuilder token = new StringBuilder().append(this.id).append(SEPARATOR);
+        if (this.sortValue == null) {
+            token.append(NO_SORT_VALUE);
+        } else if (this.sortValue instanceof Date) {
+            token.append(DATE_SORT_VALUE).append(this.sortValue);
+        } else if (this.sortValue instanceof Timestamp) {
+            token.append(TIMESTAMP_SORT_VALUE).append(this.sortValue);
+        } else if (this.sortValue instanceof BigDecimal) {
+            token.append(NUMBER_SORT_VALUE).append(((BigDecimal) this.sortValue).toPlainString());
+        } else {
+            token.append(TEXT_SORT_VALUE).append(this.sortValue);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public Object getSortValue() {
+        return this.sortValue;
+    }
+
+    public boolean hasSortValue() {
+        return this.sortValue != null;
+    }
+}
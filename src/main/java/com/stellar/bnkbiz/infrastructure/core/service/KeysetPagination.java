@@ -0,0 +1,203 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.core.service;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import com.stellar.bnkbiz.infrastructure.core.exception.UnrecognizedQueryParamException;
+
+/**
+ * Keyset (seek) paging over <code>(sort column, id)</code>.
+ *
+ * Instead of skipping <code>offset</code> rows, every page after the first
+ * starts right after the position held in its {@link ContinuationToken}, so
+ * the cost of a page does not grow with how deep into the result it is. The
+ * sort column must not be nullable and, together with the id, must be
+ * covered by an index for the seek to be cheap.
+ */
+public final class KeysetPagination {
+
+    static final String ID_LABEL = "keyset_id";
+    static final String SORT_VALUE_LABEL = "keyset_sort_value";
+
+    private final String sortColumn;
+    private final String idColumn;
+    private final boolean descending;
+    private final ContinuationToken position;
+    private final Integer limit;
+    private final PageCountMode countMode;
+
+    /**
+     * @param indexedSortColumns
+     *            the orderBy values that can be seeked on, each mapped to a
+     *            not null column covered by an index together with the id
+     *            column, or to <code>null</code> for ordering by the id alone
+     * @param defaultSortColumn
+     *            the column sorted on when no orderBy is requested,
+     *            <code>null</code> for the id alone
+     * @return <code>null</code> when the requested orderBy is none of the
+     *         indexed ones; the caller then falls back to offset paging
+     */
+    public static KeysetPagination instance(final Map<String, String> indexedSortColumns, final String defaultSortColumn,
+            final String idColumn, final String orderBy, final String sortOrder, final String continuationToken, final Integer limit,
+            final PageCountMode countMode) {
+
+        String sortColumn = defaultSortColumn;
+        if (StringUtils.isNotBlank(orderBy)) {
+            if (!indexedSortColumns.containsKey(orderBy)) {
+                // no token is ever handed out for such an order
+                if (continuationToken != null) { throw new UnrecognizedQueryParamException("continuationToken", continuationToken); }
+                return null;
+            }
+            sortColumn = indexedSortColumns.get(orderBy);
+        }
+        return instance(sortColumn, idColumn, sortOrder, continuationToken, limit, countMode);
+    }
+
+    private static KeysetPagination instance(final String sortColumn, final String idColumn, final String sortOrder,
+            final String continuationToken, final Integer limit, final PageCountMode countMode) {
+
+        ContinuationToken position = null;
+        if (continuationToken != null) {
+            position = ContinuationToken.decode(continuationToken);
+            // a token handed out for a different sort cannot be continued
+            if (position.hasSortValue() != (sortColumn != null)) { throw new UnrecognizedQueryParamException("continuationToken",
+                    continuationToken); }
+        }
+        final boolean descending = "DESC".equalsIgnoreCase(sortOrder);
+        final PageCountMode mode = countMode == null ? PageCountMode.EXACT : countMode;
+
+        return new KeysetPagination(sortColumn, idColumn, descending, position, limit, mode);
+    }
+
+    private KeysetPagination(final String sortColumn, final String idColumn, final boolean descending,
+            final ContinuationToken position, final Integer limit, final PageCountMode countMode) {
+        this.sortColumn = sortColumn;
+        this.idColumn = idColumn;
+        this.descending = descending;
+        this.position = position;
+        this.limit = limit;
+        this.countMode = countMode;
+    }
+
+    /**
+     * Columns the position of each row is read from, to be placed first on
+     * the select list.
+     */
+    public String selectColumnsSql() {
+        final StringBuilder sql = new StringBuilder(" ").append(this.idColumn).append(" as ").append(ID_LABEL).append(", ");
+        if (this.sortColumn != null) {
+            sql.append(this.sortColumn).append(" as ").append(SORT_VALUE_LABEL).append(", ");
+        }
+        return sql.toString();
+    }
+
+    public boolean hasPosition() {
+        return this.position != null;
+    }
+
+    /**
+     * Criteria that only lets through the rows after the continuation
+     * position; only to be used when {@link #hasPosition()}.
+     */
+    public String positionSql() {
+        final String comparison = this.descending ? " < ?" : " > ?";
+        if (this.sortColumn == null) { return " " + this.idColumn + comparison; }
+        return " (" + this.sortColumn + comparison + " or (" + this.sortColumn + " = ? and " + this.idColumn + comparison + "))";
+    }
+
+    public Object[] positionArgs() {
+        if (this.sortColumn == null) { return new Object[] { this.position.getId() }; }
+        return new Object[] { this.position.getSortValue(), this.position.getSortValue(), this.position.getId() };
+    }
+
+    /**
+     * The arguments of the criteria followed by the
+     * {@link #positionArgs()}, when there is a position.
+     */
+    public Object[] fetchArgs(final Object[] criteriaArgs) {
+        if (!hasPosition()) { return criteriaArgs; }
+        final Object[] positionArgs = positionArgs();
+        final Object[] fetchArgs = Arrays.copyOf(criteriaArgs, criteriaArgs.length + positionArgs.length);
+        System.arraycopy(positionArgs, 0, fetchArgs, criteriaArgs.length, positionArgs.length);
+        return fetchArgs;
+    }
+
+    public String orderBySql() {
+        final String direction = this.descending ? " DESC" : " ASC";
+        final StringBuilder sql = new StringBuilder(" order by ");
+        if (this.sortColumn != null) {
+            sql.append(this.sortColumn).append(direction).append(", ");
+        }
+        return sql.append(this.idColumn).append(direction).toString();
+    }
+
+    /**
+     * Reads one row past the page so that the last page can be told apart
+     * without a count.
+     */
+    public String limitSql() {
+        if (!isLimited()) { return ""; }
+        return " limit " + (this.limit + 1);
+    }
+
+    public boolean isLimited() {
+        return this.limit != null && this.limit > 0;
+    }
+
+    public Integer getLimit() {
+        return this.limit;
+    }
+
+    public PageCountMode getCountMode() {
+        return this.countMode;
+    }
+
+    ContinuationToken positionOf(final ResultSet rs) throws SQLException {
+        final Long id = rs.getLong(ID_LABEL);
+        Object sortValue = null;
+        if (this.sortColumn != null) {
+            sortValue = typedSortValue(rs.getObject(SORT_VALUE_LABEL));
+        }
+        return new ContinuationToken(id, sortValue);
+    }
+
+    /**
+     * The sort value as one of the types a {@link ContinuationToken} keeps,
+     * whatever the driver returned for the column.
+     */
+    private static Object typedSortValue(final Object value) {
+        if (value instanceof Timestamp || value instanceof java.sql.Date || value instanceof BigDecimal) { return value; }
+        if (value instanceof LocalDateTime) { return Timestamp.valueOf((LocalDateTime) value); }
+        if (value instanceof OffsetDateTime) { return Timestamp.from(((OffsetDateTime) value).toInstant()); }
+        if (value instanceof LocalDate) { return java.sql.Date.valueOf((LocalDate) value); }
+        if (value instanceof java.util.Date) { return new Timestamp(((java.util.Date) value).getTime()); }
+        if (value instanceof Number) { return new BigDecimal(value.toString()); }
+        return value.toString();
+    }
+}
@@ -20,21 +20,51 @@ package com.stellar.bnkbiz.infrastructure.core.service;
 
 import java.util.List;
 
+/**
+ * One page of a list query.
+ *
+ * Offset paged queries always carry an exact
+ * <code>totalFilteredRecords</code>. Keyset paged queries carry a
+ * <code>continuationToken</code> to request the next page with (absent on the
+ * last page) and a total only when the caller asked for one, in which case
+ * <code>totalFilteredRecordsEstimated</code> tells whether it came from the
+ * query planner rather than a count.
+ */
 public class Page<E> {
 
-    private final int totalFilteredRecords;
+    private final Integer totalFilteredRecords;
+    private final Boolean totalFilteredRecordsEstimated;
+    private final String continuationToken;
     private final List<E> pageItems;
 
     public Page(final List<E> pageItems, final int totalFilteredRecords) {
         this.pageItems = pageItems;
         this.totalFilteredRecords = totalFilteredRecords;
+        this.totalFilteredRecordsEstimated = null;
+        this.continuationToken = null;
     }
 
-    public int getTotalFilteredRecords() {
+    public Page(final List<E> pageItems, final Integer totalFilteredRecords, final boolean totalFilteredRecordsEstimated,
+            final String continuationToken) {
+        this.pageItems = pageItems;
+        this.totalFilteredRecords = totalFilteredRecords;
+        this.totalFilteredRecordsEstimated = totalFilteredRecordsEstimated ? Boolean.TRUE : null;
+        this.continuationToken = continuationToken;
+    }
+
+    public Integer getTotalFilteredRecords() {
         return this.totalFilteredRecords;
     }
 
+    public boolean isTotalFilteredRecordsEstimated() {
+        return this.totalFilteredRecordsEstimated != null && this.totalFilteredRecordsEstimated;
+    }
+
+    public String getContinuationToken() {
+        return this.continuationToken;
+    }
+
     public List<E> getPageItems() {
         return this.pageItems;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,49 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.core.service;
+
+import org.apache.commons.lang3.StringUtils;
+import com.stellar.bnkbiz.infrastructure.core.exception.UnrecognizedQueryParamException;
+
+/**
+ * How the total of a keyset paged query is worked out: by counting the
+ * matching rows, from the row estimate of the query plan, or not at all.
+ */
+public enum PageCountMode {
+
+    EXACT, //
+    ESTIMATED, //
+    NONE;
+
+    public static PageCountMode fromString(final String countMode) {
+        if (StringUtils.isBlank(countMode)) { return null; }
+        for (final PageCountMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(countMode)) { return mode; }
+        }
+        throw new UnrecognizedQueryParamException("countMode", countMode, "exact", "estimated", "none");
+    }
+
+    public boolean isExact() {
+        return this.equals(EXACT);
+    }
+
+    public boolean isEstimated() {
+        return this.equals(ESTIMATED);
+    }
+}
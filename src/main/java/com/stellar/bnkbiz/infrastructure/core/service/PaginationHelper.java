@@ -18,13 +18,27 @@
  */
 package com.stellar.bnkbiz.infrastructure.core.service;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.RowMapper;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+
 public class PaginationHelper<E> {
 
+    private final static Logger logger = LoggerFactory.getLogger(PaginationHelper.class);
+
     public Page<E> fetchPage(final JdbcTemplate jt, final String sqlCountRows, final String sqlFetchRows, final Object args[],
             final RowMapper<E> rowMapper) {
 
@@ -36,4 +50,103 @@ public class PaginationHelper<E> {
 
         return new Page<>(items, totalFilteredRecords);
     }
-}
\ No newline at end of file
+
+    /**
+     * Fetches one keyset page.
+     *
+     * @param sqlCountFrom
+     *            the <code>from ... where ...</code> part that selects every
+     *            matching row regardless of the continuation position, used
+     *            for the total
+     * @param sqlFetchRows
+     *            the page query without its order by and limit, starting
+     *            with {@link KeysetPagination#selectColumnsSql()} on its
+     *            select list and restricted by
+     *            {@link KeysetPagination#positionSql()} when the request
+     *            carries a position
+     */
+    public Page<E> fetchPage(final JdbcTemplate jt, final String sqlCountFrom, final Object countArgs[], final String sqlFetchRows,
+            final Object fetchArgs[], final KeysetPagination keyset, final RowMapper<E> rowMapper) {
+
+        final ContinuationToken[] lastPosition = new ContinuationToken[1];
+        final List<E> rows = jt.query(sqlFetchRows + keyset.orderBySql() + keyset.limitSql(), fetchArgs, new RowMapper<E>() {
+
+            @Override
+            public E mapRow(final ResultSet rs, final int rowNum) throws SQLException {
+                if (keyset.isLimited() && rowNum == keyset.getLimit() - 1) {
+                    lastPosition[0] = keyset.positionOf(rs);
+                }
+                return rowMapper.mapRow(rs, rowNum);
+            }
+        });
+
+        List<E> items = rows;
+        String continuationToken = null;
+        if (keyset.isLimited() && rows.size() > keyset.getLimit()) {
+            items = new ArrayList<>(rows.subList(0, keyset.getLimit()));
+            continuationToken = lastPosition[0].encode();
+        }
+
+        Integer totalFilteredRecords = null;
+        boolean estimated = false;
+        if (keyset.getCountMode().isEstimated()) {
+            totalFilteredRecords = estimateRows(jt, sqlCountFrom, countArgs);
+            estimated = totalFilteredRecords != null;
+        }
+        // an estimate the database cannot give is replaced by a count
+        if (keyset.getCountMode().isExact() || (keyset.getCountMode().isEstimated() && !estimated)) {
+            totalFilteredRecords = jt.queryForObject("select count(*)" + sqlCountFrom, countArgs, Integer.class);
+        }
+
+        return new Page<>(items, totalFilteredRecords, estimated, continuationToken);
+    }
+
+    /**
+     * Row estimate from the query plan; good enough to size a pager and costs
+     * no scan.
+     *
+     * @return <code>null</code> when the database gives no estimate
+     */
+    private Integer estimateRows(final JdbcTemplate jt, final String sqlCountFrom, final Object countArgs[]) {
+        try {
+            final String productName = jt.execute(new ConnectionCallback<String>() {
+
+                @Override
+                public String doInConnection(final Connection connection) throws SQLException, DataAccessException {
+                    return connection.getMetaData().getDatabaseProductName();
+                }
+            });
+            if (productName == null) { return null; }
+
+            final String database = productName.toLowerCase();
+            if (database.contains("mysql") || database.contains("mariadb")) {
+                // the rows of the first table of the plan, which drives the
+                // query
+                return jt.query("explain select 1" + sqlCountFrom, countArgs, new ResultSetExtractor<Integer>() {
+
+                    @Override
+                    public Integer extractData(final ResultSet rs) throws SQLException, DataAccessException {
+                        if (!rs.next()) { return 0; }
+                        return rs.getInt("rows");
+                    }
+                });
+            }
+            if (database.contains("postgresql")) {
+                // the rows of the top node of the plan, which returns the
+                // result
+                return jt.query("explain (format json) select 1" + sqlCountFrom, countArgs, new ResultSetExtractor<Integer>() {
+
+                    @Override
+                    public Integer extractData(final ResultSet rs) throws SQLException, DataAccessException {
+                        if (!rs.next()) { return null; }
+                        final JsonArray plans = new JsonParser().parse(rs.getString(1)).getAsJsonArray();
+                        return plans.get(0).getAsJsonObject().getAsJsonObject("Plan").get("Plan Rows").getAsInt();
+                    }
+                });
+            }
+        } catch (final RuntimeException e) {
+            logger.warn("No row estimate for" + sqlCountFrom + ", counting instead", e);
+        }
+        return null;
+    }
+}
@@ -48,6 +48,10 @@ public final class SearchParameters {
     private final Long productId ;
     private final Long categoryId ;
 	private final boolean isSelfUser;
+
+    // keyset paging
+    private final String continuationToken;
+    private final PageCountMode countMode;
     
 	public static SearchParameters from(final String sqlSearch, final Long officeId, final String externalId, final String name,
             final String hierarchy) {
@@ -220,7 +224,8 @@ public final class SearchParameters {
         this.productId = null ;
         this.categoryId = null ;
         this.isSelfUser = isSelfUser;
-      
+        this.continuationToken = null;
+        this.countMode = null;
     }
 
     private SearchParameters(final Long provisioningEntryId, final Long officeId, final Long productId, final Long categoryId,
@@ -246,7 +251,8 @@ public final class SearchParameters {
         this.productId = productId ;
         this.categoryId = categoryId ;
         this.isSelfUser = false;
-        
+        this.continuationToken = null;
+        this.countMode = null;
     }
     
     public SearchParameters(final String sqlSearch, final Long officeId, final String externalId, final String name, final String hierarchy,
@@ -274,6 +280,42 @@ public final class SearchParameters {
         this.productId = null ;
         this.categoryId = null ;
         this.isSelfUser = false;
+        this.continuationToken = null;
+        this.countMode = null;
+    }
+
+    private SearchParameters(final SearchParameters parameters, final String continuationToken, final PageCountMode countMode) {
+        this.sqlSearch = parameters.sqlSearch;
+        this.officeId = parameters.officeId;
+        this.externalId = parameters.externalId;
+        this.name = parameters.name;
+        this.hierarchy = parameters.hierarchy;
+        this.firstname = parameters.firstname;
+        this.lastname = parameters.lastname;
+        this.offset = parameters.offset;
+        this.limit = parameters.limit;
+        this.orderBy = parameters.orderBy;
+        this.sortOrder = parameters.sortOrder;
+        this.staffId = parameters.staffId;
+        this.accountNo = parameters.accountNo;
+        this.loanId = parameters.loanId;
+        this.savingsId = parameters.savingsId;
+        this.orphansOnly = parameters.orphansOnly;
+        this.currencyCode = parameters.currencyCode;
+        this.provisioningEntryId = parameters.provisioningEntryId;
+        this.productId = parameters.productId;
+        this.categoryId = parameters.categoryId;
+        this.isSelfUser = parameters.isSelfUser;
+        this.continuationToken = continuationToken;
+        this.countMode = countMode;
+    }
+
+    /**
+     * Switches these parameters to keyset paging when the request carries a
+     * continuation token or a count mode; the offset is then ignored.
+     */
+    public SearchParameters withContinuation(final String continuationToken, final PageCountMode countMode) {
+        return new SearchParameters(this, StringUtils.trimToNull(continuationToken), countMode);
     }
 
     public boolean isOrderByRequested() {
@@ -428,4 +470,16 @@ public final class SearchParameters {
 		return this.isSelfUser;
 	}
 
+    public boolean isKeysetPaged() {
+        return this.continuationToken != null || this.countMode != null;
+    }
+
+    public String getContinuationToken() {
+        return this.continuationToken;
+    }
+
+    public PageCountMode getCountMode() {
+        return this.countMode;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.core.service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.stellar.bnkbiz.infrastructure.core.data.DataSourcePoolMetricsData;
+import org.apache.tomcat.jdbc.pool.ConnectionPool;
+import org.apache.tomcat.jdbc.pool.DataSource;
+import org.apache.tomcat.jdbc.pool.PoolExhaustedException;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * One tomcat jdbc pool of a tenant database that keeps track of how long
+ * callers wait for a connection and how often they give up waiting.
+ * 
+ * A pool that was closed because its tenant went idle is opened again by
+ * the tomcat data source on the next {@link #getConnection()}.
+ */
+public class TenantConnectionPool extends AbstractDataSource {
+
+    private final DataSource pool;
+    private final DataSourcePoolType poolType;
+    private final AtomicLong connectionsTaken = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private volatile long lastUsedTime = System.currentTimeMillis();
+
+    public TenantConnectionPool(final DataSource pool, final DataSourcePoolType poolType) {
+        this.pool = pool;
+        this.poolType = poolType;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        final long start = System.nanoTime();
+        this.lastUsedTime = System.currentTimeMillis();
+        try {
+            final Connection connection = this.pool.getConnection();
+            recordWait(System.nanoTime() - start);
+            return connection;
+        } catch (final PoolExhaustedException e) {
+            this.timeouts.incrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        this.lastUsedTime = System.currentTimeMillis();
+        return this.pool.getConnection(username, password);
+    }
+
+    private void recordWait(final long waitNanos) {
+        this.connectionsTaken.incrementAndGet();
+        this.totalWaitNanos.addAndGet(waitNanos);
+        long max = this.maxWaitNanos.get();
+        while (waitNanos > max && !this.maxWaitNanos.compareAndSet(max, waitNanos)) {
+            max = this.maxWaitNanos.get();
+        }
+    }
+
+    /**
+     * Closes the pool when it has not handed out a connection for the given
+     * time and none is in use.
+     * 
+     * @return <code>true</code> when the pool was closed
+     */
+    public boolean closeIfIdle(final long idleMillis) {
+        final ConnectionPool connectionPool = this.pool.getPool();
+        if (connectionPool == null || connectionPool.getActive() > 0) { return false; }
+        if (System.currentTimeMillis() - this.lastUsedTime < idleMillis) { return false; }
+        this.pool.close();
+        return true;
+    }
+
+    public DataSourcePoolMetricsData retrieveMetrics() {
+        final ConnectionPool connectionPool = this.pool.getPool();
+        final boolean open = connectionPool != null;
+        final long taken = this.connectionsTaken.get();
+        final long averageWaitMillis = taken == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(this.totalWaitNanos.get() / taken);
+        final long idleSeconds = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - this.lastUsedTime);
+        return new DataSourcePoolMetricsData(this.pool.getPoolProperties().getName(), this.poolType.getCode(), open, this.pool
+                .getPoolProperties().getMaxActive(), open ? connectionPool.getActive() : 0, open ? connectionPool.getIdle() : 0,
+                open ? connectionPool.getWaitCount() : 0, taken, averageWaitMillis, TimeUnit.NANOSECONDS.toMillis(this.maxWaitNanos
+                        .get()), this.timeouts.get(), idleSeconds);
+    }
+
+    public void close() {
+        this.pool.close();
+    }
+}
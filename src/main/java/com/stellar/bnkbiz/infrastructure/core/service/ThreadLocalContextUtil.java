@@ -18,7 +18,9 @@
  */
 package com.stellar.bnkbiz.infrastructure.core.service;
 
+import com.stellar.bnkbiz.infrastructure.core.domain.FineractContext;
 import com.stellar.bnkbiz.infrastructure.core.domain.FineractPlatformTenant;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.util.Assert;
 
 /**
@@ -33,6 +35,8 @@ public class ThreadLocalContextUtil {
     private static final ThreadLocal<FineractPlatformTenant> tenantcontext = new ThreadLocal<>();
     
     private static final ThreadLocal<String> authTokenContext = new ThreadLocal<>();
+
+    private static final ThreadLocal<DataSourcePoolType> poolTypeContext = new ThreadLocal<>();
     
     public static void setTenant(final FineractPlatformTenant tenant) {
         Assert.notNull(tenant, "tenant cannot be null");
@@ -67,4 +71,61 @@ public class ThreadLocalContextUtil {
         return authTokenContext.get();
     }
 
-}
\ No newline at end of file
+    /**
+     * @return the pool tenant connections are taken from, defaults to
+     *         {@link DataSourcePoolType#OLTP}
+     */
+    public static DataSourcePoolType getPoolType() {
+        final DataSourcePoolType poolType = poolTypeContext.get();
+        return poolType == null ? DataSourcePoolType.OLTP : poolType;
+    }
+
+    /**
+     * Routes the tenant connections taken by this thread to the given pool.
+     * 
+     * @return the previous pool, to be passed back in once done
+     */
+    public static DataSourcePoolType switchPoolType(final DataSourcePoolType poolType) {
+        final DataSourcePoolType previous = getPoolType();
+        if (poolType == null || poolType == DataSourcePoolType.OLTP) {
+            poolTypeContext.remove();
+        } else {
+            poolTypeContext.set(poolType);
+        }
+        return previous;
+    }
+
+    /**
+     * Captures the thread bound state of the calling thread so that it can be
+     * handed over to a worker thread using {@link #init(FineractContext)}.
+     */
+    public static FineractContext getContext() {
+        return new FineractContext(getDataSourceContext(), getTenant(), getAuthToken(), SecurityContextHolder.getContext(),
+                getPoolType());
+    }
+
+    public static void init(final FineractContext context) {
+        if (context.getContextHolder() != null) {
+            setDataSourceContext(context.getContextHolder());
+        }
+        if (context.getTenant() != null) {
+            setTenant(context.getTenant());
+        }
+        if (context.getAuthToken() != null) {
+            setAuthToken(context.getAuthToken());
+        }
+        if (context.getSecurityContext() != null) {
+            SecurityContextHolder.setContext(context.getSecurityContext());
+        }
+        switchPoolType(context.getPoolType());
+    }
+
+    public static void reset() {
+        clearDataSourceContext();
+        clearTenant();
+        authTokenContext.remove();
+        poolTypeContext.remove();
+        SecurityContextHolder.clearContext();
+    }
+
+}
@@ -18,17 +18,29 @@
  */
 package com.stellar.bnkbiz.infrastructure.core.service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.sql.DataSource;
 
+import com.stellar.bnkbiz.infrastructure.core.data.DataSourcePoolMetricsData;
 import com.stellar.bnkbiz.infrastructure.core.domain.FineractPlatformTenant;
 import com.stellar.bnkbiz.infrastructure.core.domain.FineractPlatformTenantConnection;
 import org.apache.tomcat.jdbc.pool.PoolConfiguration;
 import org.apache.tomcat.jdbc.pool.PoolProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
@@ -37,17 +49,69 @@ import org.springframework.stereotype.Service;
  * variable for this request.
  * 
  * {@link ThreadLocalContextUtil} is used to retrieve the
- * {@link FineractPlatformTenant} for the request.
+ * {@link FineractPlatformTenant} for the request and the
+ * {@link DataSourcePoolType} of the caller; every tenant database has a
+ * separate pool per pool type, each with its own limits. Pools that have not
+ * been used for a while are closed and opened again on demand.
  */
 @Service
 public class TomcatJdbcDataSourcePerTenantService implements RoutingDataSourceService {
 
-    private final Map<Long, DataSource> tenantToDataSourceMap = new HashMap<>(1);
+    private final static Logger logger = LoggerFactory.getLogger(TomcatJdbcDataSourcePerTenantService.class);
+
+    public final static String BATCH_MAX_ACTIVE = "fineract.datasource.batch.max-active";
+    public final static String REPORTING_MAX_ACTIVE = "fineract.datasource.reporting.max-active";
+    public final static String IDLE_POOL_CLOSE_MINUTES = "fineract.datasource.idle-pool-close-minutes";
+
+    private static final long IDLE_POOL_SWEEP_MINUTES = 5;
+
+    private final Map<String, TenantConnectionPool> tenantToDataSourceMap = new HashMap<>(1);
     private final DataSource tenantDataSource;
+    private final int batchMaxActive;
+    private final int reportingMaxActive;
+    private final int idlePoolCloseMinutes;
+
+    private ScheduledExecutorService idlePoolSweeper;
 
     @Autowired
-    public TomcatJdbcDataSourcePerTenantService(final @Qualifier("tenantDataSourceJndi") DataSource tenantDataSource) {
+    public TomcatJdbcDataSourcePerTenantService(final @Qualifier("tenantDataSourceJndi") DataSource tenantDataSource,
+            @Value("${" + BATCH_MAX_ACTIVE + ":10}") final int batchMaxActive,
+            @Value("${" + REPORTING_MAX_ACTIVE + ":5}") final int reportingMaxActive,
+            @Value("${" + IDLE_POOL_CLOSE_MINUTES + ":30}") final int idlePoolCloseMinutes) {
         this.tenantDataSource = tenantDataSource;
+        this.batchMaxActive = batchMaxActive;
+        this.reportingMaxActive = reportingMaxActive;
+        this.idlePoolCloseMinutes = idlePoolCloseMinutes;
+    }
+
+    @PostConstruct
+    public void start() {
+        this.idlePoolSweeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "tenant-pool-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.idlePoolSweeper.scheduleWithFixedDelay(new Runnable() {
+
+            @Override
+            public void run() {
+                closeIdlePools();
+            }
+        }, IDLE_POOL_SWEEP_MINUTES, IDLE_POOL_SWEEP_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        this.idlePoolSweeper.shutdownNow();
+        synchronized (this.tenantToDataSourceMap) {
+            for (final TenantConnectionPool pool : this.tenantToDataSourceMap.values()) {
+                pool.close();
+            }
+        }
     }
 
     @Override
@@ -59,17 +123,21 @@ public class TomcatJdbcDataSourcePerTenantService implements RoutingDataSourceSe
         final FineractPlatformTenant tenant = ThreadLocalContextUtil.getTenant(); 
         if (tenant != null) {
             final FineractPlatformTenantConnection tenantConnection = tenant.getConnection();
+            final DataSourcePoolType poolType = ThreadLocalContextUtil.getPoolType();
+            final String poolKey = poolKey(tenantConnection, poolType);
 
             synchronized (this.tenantToDataSourceMap) {
                 // if tenantConnection information available switch to
                 // appropriate
                 // datasource
                 // for that tenant.
-                if (this.tenantToDataSourceMap.containsKey(tenantConnection.getConnectionId())) {
-                    tenantDataSource = this.tenantToDataSourceMap.get(tenantConnection.getConnectionId());
+                if (this.tenantToDataSourceMap.containsKey(poolKey)) {
+                    tenantDataSource = this.tenantToDataSourceMap.get(poolKey);
                 } else {
-                    tenantDataSource = createNewDataSourceFor(tenantConnection);
-                    this.tenantToDataSourceMap.put(tenantConnection.getConnectionId(), tenantDataSource);
+                    final TenantConnectionPool pool = new TenantConnectionPool(createNewDataSourceFor(tenantConnection, poolType),
+                            poolType);
+                    this.tenantToDataSourceMap.put(poolKey, pool);
+                    tenantDataSource = pool;
                 }
             }
         }
@@ -77,8 +145,45 @@ public class TomcatJdbcDataSourcePerTenantService implements RoutingDataSourceSe
         return tenantDataSource;
     }
 
+    /**
+     * @return the metrics of the pools of the database of the current tenant
+     */
+    public List<DataSourcePoolMetricsData> retrievePoolMetrics() {
+        final FineractPlatformTenantConnection tenantConnection = ThreadLocalContextUtil.getTenant().getConnection();
+        final List<DataSourcePoolMetricsData> metrics = new ArrayList<>();
+        synchronized (this.tenantToDataSourceMap) {
+            for (final DataSourcePoolType poolType : DataSourcePoolType.values()) {
+                final TenantConnectionPool pool = this.tenantToDataSourceMap.get(poolKey(tenantConnection, poolType));
+                if (pool != null) {
+                    metrics.add(pool.retrieveMetrics());
+                }
+            }
+        }
+        return metrics;
+    }
+
+    private void closeIdlePools() {
+        final long idleMillis = TimeUnit.MINUTES.toMillis(this.idlePoolCloseMinutes);
+        synchronized (this.tenantToDataSourceMap) {
+            for (final Map.Entry<String, TenantConnectionPool> entry : this.tenantToDataSourceMap.entrySet()) {
+                try {
+                    if (entry.getValue().closeIfIdle(idleMillis)) {
+                        logger.info("Closed idle connection pool " + entry.getKey());
+                    }
+                } catch (final RuntimeException e) {
+                    logger.error("Could not close idle connection pool " + entry.getKey(), e);
+                }
+            }
+        }
+    }
+
+    private static String poolKey(final FineractPlatformTenantConnection tenantConnection, final DataSourcePoolType poolType) {
+        return tenantConnection.getConnectionId() + "_" + poolType.getCode();
+    }
+
     // creates the data source oltp and report databases
-    private DataSource createNewDataSourceFor(final FineractPlatformTenantConnection tenantConnectionObj) {
+    private org.apache.tomcat.jdbc.pool.DataSource createNewDataSourceFor(final FineractPlatformTenantConnection tenantConnectionObj,
+            final DataSourcePoolType poolType) {
         // see
         // http://www.tomcatexpert.com/blog/2010/04/01/configuring-jdbc-pool-high-concurrency
 
@@ -87,13 +192,11 @@ public class TomcatJdbcDataSourcePerTenantService implements RoutingDataSourceSe
         final String jdbcUrl = tenantConnectionObj.databaseURL();
         final PoolConfiguration poolConfiguration = new PoolProperties();
         poolConfiguration.setDriverClassName("com.mysql.jdbc.Driver");
-        poolConfiguration.setName(tenantConnectionObj.getSchemaName() + "_pool");
+        poolConfiguration.setName(tenantConnectionObj.getSchemaName() + "_" + poolType.getCode() + "_pool");
         poolConfiguration.setUrl(jdbcUrl);
         poolConfiguration.setUsername(tenantConnectionObj.getSchemaUsername());
         poolConfiguration.setPassword(tenantConnectionObj.getSchemaPassword());
 
-        poolConfiguration.setInitialSize(tenantConnectionObj.getInitialSize());
-
         poolConfiguration.setTestOnBorrow(tenantConnectionObj.isTestOnBorrow());
         poolConfiguration.setValidationQuery("SELECT 1");
         poolConfiguration.setValidationInterval(tenantConnectionObj.getValidationInterval());
@@ -103,17 +206,33 @@ public class TomcatJdbcDataSourcePerTenantService implements RoutingDataSourceSe
         poolConfiguration.setLogAbandoned(tenantConnectionObj.isLogAbandoned());
         poolConfiguration.setAbandonWhenPercentageFull(tenantConnectionObj.getAbandonWhenPercentageFull());
 
-        /**
-         * Vishwas- Do we need to enable the below properties and add
-         * ResetAbandonedTimer for long running batch Jobs?
-         **/
-        // poolConfiguration.setMaxActive(tenant.getMaxActive());
-        // poolConfiguration.setMinIdle(tenant.getMinIdle());
-        // poolConfiguration.setMaxIdle(tenant.getMaxIdle());
+        if (poolType == DataSourcePoolType.OLTP) {
+            poolConfiguration.setInitialSize(tenantConnectionObj.getInitialSize());
+            if (tenantConnectionObj.getMaxActive() > 0) {
+                poolConfiguration.setMaxActive(tenantConnectionObj.getMaxActive());
+                poolConfiguration.setMaxIdle(Math.min(tenantConnectionObj.getMaxIdle(), tenantConnectionObj.getMaxActive()));
+            }
+            poolConfiguration.setMinIdle(Math.min(tenantConnectionObj.getMinIdle(), poolConfiguration.getMaxIdle()));
+        } else {
+            // batch and report connections are opened on demand and given
+            // back to the database once the job or report is done
+            final int maxActive = poolType == DataSourcePoolType.BATCH ? this.batchMaxActive : this.reportingMaxActive;
+            poolConfiguration.setInitialSize(0);
+            poolConfiguration.setMaxActive(maxActive);
+            poolConfiguration.setMaxIdle(maxActive);
+            poolConfiguration.setMinIdle(0);
+            // long running reports and jobs are not abandoned connections
+            poolConfiguration.setRemoveAbandoned(false);
+        }
 
+        // shrink the pool back to min idle when the tenant goes quiet
+        if (tenantConnectionObj.getTimeBetweenEvictionRunsMillis() > 0) {
+            poolConfiguration.setTimeBetweenEvictionRunsMillis(tenantConnectionObj.getTimeBetweenEvictionRunsMillis());
+        }
+        if (tenantConnectionObj.getMinEvictableIdleTimeMillis() > 0) {
+            poolConfiguration.setMinEvictableIdleTimeMillis(tenantConnectionObj.getMinEvictableIdleTimeMillis());
+        }
         // poolConfiguration.setSuspectTimeout(tenant.getSuspectTimeout());
-        // poolConfiguration.setTimeBetweenEvictionRunsMillis(tenant.getTimeBetweenEvictionRunsMillis());
-        // poolConfiguration.setMinEvictableIdleTimeMillis(tenant.getMinEvictableIdleTimeMillis());
 
         poolConfiguration.setJdbcInterceptors("org.apache.tomcat.jdbc.pool.interceptor.ConnectionState;"
                 + "org.apache.tomcat.jdbc.pool.interceptor.StatementFinalizer;org.apache.tomcat.jdbc.pool.interceptor.SlowQueryReport");
@@ -37,9 +37,7 @@ import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 
 import com.stellar.bnkbiz.infrastructure.core.api.ApiParameterHelper;
-import com.stellar.bnkbiz.infrastructure.core.serialization.ToApiJsonSerializer;
 import com.stellar.bnkbiz.infrastructure.dataqueries.data.GenericResultsetData;
-import com.stellar.bnkbiz.infrastructure.dataqueries.data.ReportData;
 import com.stellar.bnkbiz.infrastructure.dataqueries.service.GenericDataService;
 import com.stellar.bnkbiz.infrastructure.dataqueries.service.ReadReportingService;
 import com.stellar.bnkbiz.infrastructure.report.provider.ReportingProcessServiceProvider;
@@ -57,19 +55,16 @@ import org.springframework.stereotype.Component;
 public class RunreportsApiResource {
 
     private final PlatformSecurityContext context;
-    private final ToApiJsonSerializer<ReportData> toApiJsonSerializer;
     private final ReadReportingService readExtraDataAndReportingService;
     private final GenericDataService genericDataService;
     private final ReportingProcessServiceProvider reportingProcessServiceProvider;
 
     @Autowired
     public RunreportsApiResource(final PlatformSecurityContext context, final ReadReportingService readExtraDataAndReportingService,
-            final GenericDataService genericDataService, final ToApiJsonSerializer<ReportData> toApiJsonSerializer,
-            final ReportingProcessServiceProvider reportingProcessServiceProvider) {
+            final GenericDataService genericDataService, final ReportingProcessServiceProvider reportingProcessServiceProvider) {
         this.context = context;
         this.readExtraDataAndReportingService = readExtraDataAndReportingService;
         this.genericDataService = genericDataService;
-        this.toApiJsonSerializer = toApiJsonSerializer;
         this.reportingProcessServiceProvider = reportingProcessServiceProvider;
     }
 
@@ -118,23 +113,18 @@ public class RunreportsApiResource {
         if (!exportCsv) {
             final Map<String, String> reportParams = getReportParams(queryParams);
 
-            final GenericResultsetData result = this.readExtraDataAndReportingService.retrieveGenericResultset(reportName,
-                    parameterTypeValue, reportParams);
-
-            String json = "";
             final boolean genericResultSetIsPassed = ApiParameterHelper.genericResultSetPassed(uriInfo.getQueryParameters());
             final boolean genericResultSet = ApiParameterHelper.genericResultSet(uriInfo.getQueryParameters());
-            if (genericResultSetIsPassed) {
-                if (genericResultSet) {
-                    json = this.toApiJsonSerializer.serializePretty(prettyPrint, result);
-                } else {
-                    json = this.genericDataService.generateJsonFromGenericResultsetData(result);
-                }
-            } else {
-                json = this.toApiJsonSerializer.serializePretty(prettyPrint, result);
+            if (genericResultSetIsPassed && !genericResultSet) {
+                final GenericResultsetData result = this.readExtraDataAndReportingService.retrieveGenericResultset(reportName,
+                        parameterTypeValue, reportParams);
+                final String json = this.genericDataService.generateJsonFromGenericResultsetData(result);
+                return Response.ok().entity(json).type(MediaType.APPLICATION_JSON).build();
             }
 
-            return Response.ok().entity(json).type(MediaType.APPLICATION_JSON).build();
+            final StreamingOutput result = this.readExtraDataAndReportingService.retrieveReportJSON(reportName, parameterTypeValue,
+                    reportParams, prettyPrint);
+            return Response.ok().entity(result).type(MediaType.APPLICATION_JSON).build();
         }
 
         // CSV Export
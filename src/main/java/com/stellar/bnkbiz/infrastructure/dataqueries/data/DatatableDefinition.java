@@ -0,0 +1,82 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.dataqueries.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable definition of a datatable as read from the database catalog:
+ * its columns with their types, lengths, primary key flags and the code
+ * values allowed for code backed columns.
+ */
+public final class DatatableDefinition {
+
+    private final String datatableName;
+    private final List<ResultsetColumnHeaderData> columnHeaders;
+    private final List<String> primaryKeyColumnNames;
+
+    public static DatatableDefinition create(final String datatableName, final List<ResultsetColumnHeaderData> columnHeaders) {
+        return new DatatableDefinition(datatableName, columnHeaders);
+    }
+
+    private DatatableDefinition(final String datatableName, final List<ResultsetColumnHeaderData> columnHeaders) {
+        this.datatableName = datatableName;
+        this.columnHeaders = Collections.unmodifiableList(new ArrayList<>(columnHeaders));
+
+        final List<String> primaryKeyColumnNames = new ArrayList<>();
+        for (final ResultsetColumnHeaderData columnHeader : columnHeaders) {
+            if (columnHeader.isColumnPrimaryKey()) {
+                primaryKeyColumnNames.add(columnHeader.getColumnName());
+            }
+        }
+        this.primaryKeyColumnNames = Collections.unmodifiableList(primaryKeyColumnNames);
+    }
+
+    public String getDatatableName() {
+        return this.datatableName;
+    }
+
+    public List<ResultsetColumnHeaderData> getColumnHeaders() {
+        return this.columnHeaders;
+    }
+
+    public List<String> getPrimaryKeyColumnNames() {
+        return this.primaryKeyColumnNames;
+    }
+
+    /**
+     * @return the column of the given name, ignoring case, or
+     *         <code>null</code> when the datatable has no such column
+     */
+    public ResultsetColumnHeaderData findColumnHeader(final String columnName) {
+        for (final ResultsetColumnHeaderData columnHeader : this.columnHeaders) {
+            if (columnHeader.isNamed(columnName)) { return columnHeader; }
+        }
+        return null;
+    }
+
+    public boolean hasCodeColumns() {
+        for (final ResultsetColumnHeaderData columnHeader : this.columnHeaders) {
+            if (columnHeader.getColumnCode() != null) { return true; }
+        }
+        return false;
+    }
+}
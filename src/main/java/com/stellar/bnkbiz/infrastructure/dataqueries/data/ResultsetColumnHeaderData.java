@@ -33,7 +33,6 @@ public final class ResultsetColumnHeaderData {
     private final Long columnLength;
     private final String columnDisplayType;
     private final boolean isColumnNullable;
-    @SuppressWarnings("unused")
     private final boolean isColumnPrimaryKey;
 
     private final List<ResultsetColumnValueData> columnValues;
@@ -187,6 +186,10 @@ public final class ResultsetColumnHeaderData {
         return this.columnType;
     }
 
+    public boolean isColumnPrimaryKey() {
+        return this.isColumnPrimaryKey;
+    }
+
     public Long getColumnLength() {
         return this.columnLength;
     }
@@ -0,0 +1,51 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.dataqueries.service;
+
+import com.stellar.bnkbiz.infrastructure.dataqueries.data.DatatableDefinition;
+
+/**
+ * Definitions of the datatables of the current tenant, read from
+ * INFORMATION_SCHEMA and the code tables on first use and kept in memory
+ * until the datatable or its codes change.
+ * 
+ * Changes made on this node evict exactly the definitions affected once the
+ * transaction of the change completes; they also bump the metadata version of the tenant, and
+ * other nodes drop their definitions of the tenant when they notice it.
+ */
+public interface DatatableMetaDataService {
+
+    /**
+     * @throws com.stellar.bnkbiz.infrastructure.dataqueries.exception.DatatableNotFoundException
+     *             when there is no such table
+     */
+    DatatableDefinition retrieveDatatableDefinition(String datatable);
+
+    /**
+     * To be called by anything that creates, alters, drops, registers or
+     * deregisters the datatable, in the transaction that does it.
+     */
+    void datatableChanged(String datatable);
+
+    /**
+     * To be called when codes or code values change, in the transaction that
+     * changes them; evicts the definitions with code backed columns.
+     */
+    void codesChanged();
+}
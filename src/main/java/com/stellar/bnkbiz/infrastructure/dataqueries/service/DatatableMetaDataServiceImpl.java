@@ -0,0 +1,340 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.dataqueries.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import com.stellar.bnkbiz.infrastructure.core.domain.FineractPlatformTenant;
+import com.stellar.bnkbiz.infrastructure.core.service.RoutingDataSource;
+import com.stellar.bnkbiz.infrastructure.core.service.ThreadLocalContextUtil;
+import com.stellar.bnkbiz.infrastructure.dataqueries.data.DatatableDefinition;
+import com.stellar.bnkbiz.infrastructure.dataqueries.data.ResultsetColumnHeaderData;
+import com.stellar.bnkbiz.infrastructure.dataqueries.data.ResultsetColumnValueData;
+import com.stellar.bnkbiz.infrastructure.dataqueries.exception.DatatableNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.rowset.SqlRowSet;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Service
+public class DatatableMetaDataServiceImpl implements DatatableMetaDataService {
+
+    private final static Logger logger = LoggerFactory.getLogger(DatatableMetaDataServiceImpl.class);
+
+    private static final long VERSION_CHECK_INTERVAL_SECONDS = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConcurrentMap<String, TenantDefinitions> definitions = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService versionChecker;
+
+    @Autowired
+    public DatatableMetaDataServiceImpl(final RoutingDataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    public void start() {
+        this.versionChecker = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "datatable-metadata-version-checker");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.versionChecker.scheduleWithFixedDelay(new Runnable() {
+
+            @Override
+            public void run() {
+                dropChangedTenants();
+            }
+        }, VERSION_CHECK_INTERVAL_SECONDS, VERSION_CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        this.versionChecker.shutdownNow();
+    }
+
+    @Override
+    public DatatableDefinition retrieveDatatableDefinition(final String datatable) {
+        final TenantDefinitions tenantDefinitions = tenantDefinitions();
+        final DatatableDefinition cached = tenantDefinitions.byDatatable.get(datatable);
+        if (cached != null) { return cached; }
+
+        // an eviction while loading may concern what was just read, the
+        // definition is then returned but not kept
+        final long generation = tenantDefinitions.generation.get();
+        final DatatableDefinition definition = DatatableDefinition.create(datatable, loadColumnHeaders(datatable));
+        synchronized (tenantDefinitions) {
+            if (tenantDefinitions.generation.get() == generation) {
+                tenantDefinitions.byDatatable.put(datatable, definition);
+            }
+        }
+        return definition;
+    }
+
+    @Override
+    public void datatableChanged(final String datatable) {
+        bumpVersion();
+        evictAfterCompletion(new Eviction() {
+
+            @Override
+            public void evictFrom(final TenantDefinitions tenantDefinitions) {
+                tenantDefinitions.byDatatable.remove(datatable);
+            }
+        });
+    }
+
+    @Override
+    public void codesChanged() {
+        bumpVersion();
+        evictAfterCompletion(new Eviction() {
+
+            @Override
+            public void evictFrom(final TenantDefinitions tenantDefinitions) {
+                final Iterator<DatatableDefinition> definitions = tenantDefinitions.byDatatable.values().iterator();
+                while (definitions.hasNext()) {
+                    if (definitions.next().hasCodeColumns()) {
+                        definitions.remove();
+                    }
+                }
+            }
+        });
+    }
+
+    private TenantDefinitions tenantDefinitions() {
+        final FineractPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        final TenantDefinitions existing = this.definitions.get(tenant.getTenantIdentifier());
+        if (existing != null) { return existing; }
+
+        final TenantDefinitions created = new TenantDefinitions(tenant, retrieveVersion());
+        final TenantDefinitions raced = this.definitions.putIfAbsent(tenant.getTenantIdentifier(), created);
+        return raced == null ? created : raced;
+    }
+
+    private void bumpVersion() {
+        this.jdbcTemplate.update("update x_datatable_metadata_version set version = version + 1");
+    }
+
+    private void evictAfterCompletion(final Eviction eviction) {
+        final String tenantIdentifier = ThreadLocalContextUtil.getTenant().getTenantIdentifier();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // DDL commits implicitly on MySQL, so the definition is evicted
+            // even when the rest of the transaction rolls back
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCompletion(final int status) {
+                    evict(tenantIdentifier, eviction);
+                }
+            });
+        } else {
+            evict(tenantIdentifier, eviction);
+        }
+    }
+
+    private void evict(final String tenantIdentifier, final Eviction eviction) {
+        final TenantDefinitions tenantDefinitions = this.definitions.get(tenantIdentifier);
+        if (tenantDefinitions == null) { return; }
+        synchronized (tenantDefinitions) {
+            // the version bumped by the change is known to this node; after a
+            // rollback the mismatch makes the next check drop the tenant
+            tenantDefinitions.version.incrementAndGet();
+            tenantDefinitions.generation.incrementAndGet();
+            eviction.evictFrom(tenantDefinitions);
+        }
+    }
+
+    private void dropChangedTenants() {
+        for (final Map.Entry<String, TenantDefinitions> entry : this.definitions.entrySet()) {
+            final TenantDefinitions tenantDefinitions = entry.getValue();
+            ThreadLocalContextUtil.setTenant(tenantDefinitions.tenant);
+            try {
+                if (retrieveVersion() != tenantDefinitions.version.get()) {
+                    this.definitions.remove(entry.getKey(), tenantDefinitions);
+                }
+            } catch (final RuntimeException e) {
+                logger.error("Could not check the datatable metadata version of tenant " + entry.getKey(), e);
+            } finally {
+                ThreadLocalContextUtil.clearTenant();
+            }
+        }
+    }
+
+    private long retrieveVersion() {
+        final List<Long> versions = this.jdbcTemplate.queryForList("select version from x_datatable_metadata_version", Long.class);
+        if (versions.isEmpty()) { return 0; }
+        return versions.get(0);
+    }
+
+    private List<ResultsetColumnHeaderData> loadColumnHeaders(final String datatable) {
+
+        final SqlRowSet columnDefinitions = getDatatableMetaData(datatable);
+
+        final List<ResultsetColumnHeaderData> columnHeaders = new ArrayList<>();
+
+        columnDefinitions.beforeFirst();
+        while (columnDefinitions.next()) {
+            final String columnName = columnDefinitions.getString("COLUMN_NAME");
+            final String isNullable = columnDefinitions.getString("IS_NULLABLE");
+            final String isPrimaryKey = columnDefinitions.getString("COLUMN_KEY");
+            final String columnType = columnDefinitions.getString("DATA_TYPE");
+            final Long columnLength = columnDefinitions.getLong("CHARACTER_MAXIMUM_LENGTH");
+
+            final boolean columnNullable = "YES".equalsIgnoreCase(isNullable);
+            final boolean columnIsPrimaryKey = "PRI".equalsIgnoreCase(isPrimaryKey);
+
+            List<ResultsetColumnValueData> columnValues = new ArrayList<>();
+            String codeName = null;
+            if ("varchar".equalsIgnoreCase(columnType)) {
+
+                final int codePosition = columnName.indexOf("_cv");
+                if (codePosition > 0) {
+                    codeName = columnName.substring(0, codePosition);
+
+                    columnValues = retreiveColumnValues(codeName);
+                }
+
+            } else if ("int".equalsIgnoreCase(columnType)) {
+
+                final int codePosition = columnName.indexOf("_cd");
+                if (codePosition > 0) {
+                    codeName = columnName.substring(0, codePosition);
+                    columnValues = retreiveColumnValues(codeName);
+                }
+            }
+            if (codeName == null) {
+                final SqlRowSet rsValues = getDatatableCodeData(datatable, columnName);
+                Integer codeId = null;
+                while (rsValues.next()) {
+                    codeId = rsValues.getInt("id");
+                    codeName = rsValues.getString("code_name");
+                }
+                columnValues = retreiveColumnValues(codeId);
+
+            }
+
+            final ResultsetColumnHeaderData rsch = ResultsetColumnHeaderData.detailed(columnName, columnType, columnLength, columnNullable,
+                    columnIsPrimaryKey, columnValues, codeName);
+
+            columnHeaders.add(rsch);
+        }
+
+        return columnHeaders;
+    }
+
+    private List<ResultsetColumnValueData> retreiveColumnValues(final String codeName) {
+
+        final List<ResultsetColumnValueData> columnValues = new ArrayList<>();
+
+        final String sql = "select v.id, v.code_score, v.code_value from m_code m " + " join m_code_value v on v.code_id = m.id "
+                + " where m.code_name = '" + codeName + "' order by v.order_position, v.id";
+
+        final SqlRowSet rsValues = this.jdbcTemplate.queryForRowSet(sql);
+
+        rsValues.beforeFirst();
+        while (rsValues.next()) {
+            final Integer id = rsValues.getInt("id");
+            final String codeValue = rsValues.getString("code_value");
+            final Integer score = rsValues.getInt("code_score");
+
+            columnValues.add(new ResultsetColumnValueData(id, codeValue, score));
+        }
+
+        return columnValues;
+    }
+
+    private List<ResultsetColumnValueData> retreiveColumnValues(final Integer codeId) {
+
+        final List<ResultsetColumnValueData> columnValues = new ArrayList<>();
+        if (codeId != null) {
+            final String sql = "select v.id, v.code_value from m_code_value v where v.code_id =" + codeId
+                    + " order by v.order_position, v.id";
+            final SqlRowSet rsValues = this.jdbcTemplate.queryForRowSet(sql);
+            rsValues.beforeFirst();
+            while (rsValues.next()) {
+                final Integer id = rsValues.getInt("id");
+                final String codeValue = rsValues.getString("code_value");
+                columnValues.add(new ResultsetColumnValueData(id, codeValue));
+            }
+        }
+
+        return columnValues;
+    }
+
+    private SqlRowSet getDatatableMetaData(final String datatable) {
+
+        final String sql = "select COLUMN_NAME, IS_NULLABLE, DATA_TYPE, CHARACTER_MAXIMUM_LENGTH, COLUMN_KEY"
+                + " from INFORMATION_SCHEMA.COLUMNS " + " where TABLE_SCHEMA = schema() and TABLE_NAME = '" + datatable
+                + "'order by ORDINAL_POSITION";
+
+        final SqlRowSet columnDefinitions = this.jdbcTemplate.queryForRowSet(sql);
+        if (columnDefinitions.next()) { return columnDefinitions; }
+
+        throw new DatatableNotFoundException(datatable);
+    }
+
+    private SqlRowSet getDatatableCodeData(final String datatable, final String columnName) {
+
+        final String sql = "select mc.id,mc.code_name from m_code mc join x_table_column_code_mappings xcc on xcc.code_id = mc.id where xcc.column_alias_name='"
+                + datatable.toLowerCase().replaceAll("\\s", "_") + "_" + columnName + "'";
+        final SqlRowSet rsValues = this.jdbcTemplate.queryForRowSet(sql);
+
+        return rsValues;
+    }
+
+    private interface Eviction {
+
+        void evictFrom(TenantDefinitions tenantDefinitions);
+    }
+
+    private static final class TenantDefinitions {
+
+        private final FineractPlatformTenant tenant;
+        private final AtomicLong version;
+        private final ConcurrentMap<String, DatatableDefinition> byDatatable = new ConcurrentHashMap<>();
+        // counts the evictions, see retrieveDatatableDefinition
+        private final AtomicLong generation = new AtomicLong();
+
+        TenantDefinitions(final FineractPlatformTenant tenant, final long version) {
+            this.tenant = tenant;
+            this.version = new AtomicLong(version);
+        }
+    }
+}
@@ -18,73 +18,137 @@
  */
 package com.stellar.bnkbiz.infrastructure.dataqueries.service;
 
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
 import javax.sql.DataSource;
 
+import com.stellar.bnkbiz.infrastructure.core.exception.PlatformDataIntegrityException;
 import com.stellar.bnkbiz.infrastructure.core.service.RoutingDataSource;
 import com.stellar.bnkbiz.infrastructure.dataqueries.data.GenericResultsetData;
 import com.stellar.bnkbiz.infrastructure.dataqueries.data.ResultsetColumnHeaderData;
-import com.stellar.bnkbiz.infrastructure.dataqueries.data.ResultsetColumnValueData;
 import com.stellar.bnkbiz.infrastructure.dataqueries.data.ResultsetRowData;
-import com.stellar.bnkbiz.infrastructure.dataqueries.exception.DatatableNotFoundException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
-import org.springframework.jdbc.support.rowset.SqlRowSetMetaData;
 import org.springframework.stereotype.Service;
 
 @Service
 public class GenericDataServiceImpl implements GenericDataService {
 
+    private static final int STREAMING_FETCH_SIZE = 1000;
+
     private final JdbcTemplate jdbcTemplate;
     private final DataSource dataSource;
-    private final static Logger logger = LoggerFactory.getLogger(GenericDataServiceImpl.class);
+    private final DatatableMetaDataService datatableMetaDataService;
 
     @Autowired
-    public GenericDataServiceImpl(final RoutingDataSource dataSource) {
+    public GenericDataServiceImpl(final RoutingDataSource dataSource, final DatatableMetaDataService datatableMetaDataService) {
         this.dataSource = dataSource;
         this.jdbcTemplate = new JdbcTemplate(this.dataSource);
-
+        this.datatableMetaDataService = datatableMetaDataService;
     }
 
     @Override
     public GenericResultsetData fillGenericResultSet(final String sql) {
 
-        final SqlRowSet rs = this.jdbcTemplate.queryForRowSet(sql);
-
         final List<ResultsetColumnHeaderData> columnHeaders = new ArrayList<>();
         final List<ResultsetRowData> resultsetDataRows = new ArrayList<>();
 
-        final SqlRowSetMetaData rsmd = rs.getMetaData();
+        streamGenericResultSet(sql, new GenericResultsetRowHandler() {
 
-        for (int i = 0; i < rsmd.getColumnCount(); i++) {
+            @Override
+            public void processColumnHeaders(final List<ResultsetColumnHeaderData> headers) {
+                columnHeaders.addAll(headers);
+            }
 
-            final String columnName = rsmd.getColumnName(i + 1);
-            final String columnType = rsmd.getColumnTypeName(i + 1);
+            @Override
+            public void processRow(final List<String> row) {
+                resultsetDataRows.add(ResultsetRowData.create(new ArrayList<>(row)));
+            }
+
+            @Override
+            public void finish() {
+                // nothing to flush
+            }
+        });
+
+        return new GenericResultsetData(columnHeaders, resultsetDataRows);
+    }
 
-            final ResultsetColumnHeaderData columnHeader = ResultsetColumnHeaderData.basic(columnName, columnType);
-            columnHeaders.add(columnHeader);
+    /**
+     * Runs the query on a forward only, read only cursor and hands every row
+     * to the handler as soon as it is read, so memory use does not depend on
+     * the size of the result.
+     */
+    @Override
+    public long streamGenericResultSet(final String sql, final GenericResultsetRowHandler rowHandler) {
+        return this.jdbcTemplate.execute(new ConnectionCallback<Long>() {
+
+            @Override
+            public Long doInConnection(final Connection connection) throws SQLException {
+                final boolean mysql = isMySql(connection);
+                final boolean autoCommit = connection.getAutoCommit();
+                // PostgreSQL only honours the fetch size inside a transaction
+                if (!mysql && autoCommit) {
+                    connection.setAutoCommit(false);
+                }
+                try (PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                        ResultSet.CONCUR_READ_ONLY)) {
+                    // Connector/J only streams rows for Integer.MIN_VALUE
+                    statement.setFetchSize(mysql ? Integer.MIN_VALUE : STREAMING_FETCH_SIZE);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        return streamRows(rs, rowHandler);
+                    }
+                } catch (final IOException e) {
+                    throw new PlatformDataIntegrityException("error.msg.exception.error", e.getMessage());
+                } finally {
+                    if (!mysql && autoCommit) {
+                        connection.rollback();
+                        connection.setAutoCommit(true);
+                    }
+                }
+            }
+        });
+    }
+
+    private long streamRows(final ResultSet rs, final GenericResultsetRowHandler rowHandler) throws SQLException, IOException {
+        final ResultSetMetaData rsmd = rs.getMetaData();
+        final int columnCount = rsmd.getColumnCount();
+
+        final List<ResultsetColumnHeaderData> columnHeaders = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            final String columnName = rsmd.getColumnLabel(i + 1);
+            final String columnType = rsmd.getColumnTypeName(i + 1);
+            columnHeaders.add(ResultsetColumnHeaderData.basic(columnName, columnType));
         }
+        rowHandler.processColumnHeaders(columnHeaders);
 
+        long rowCount = 0;
+        final List<String> columnValues = new ArrayList<>(columnCount);
         while (rs.next()) {
-            final List<String> columnValues = new ArrayList<>();
-            for (int i = 0; i < rsmd.getColumnCount(); i++) {
-                final String columnName = rsmd.getColumnName(i + 1);
-                final String columnValue = rs.getString(columnName);
-                columnValues.add(columnValue);
+            columnValues.clear();
+            for (int i = 0; i < columnCount; i++) {
+                columnValues.add(rs.getString(i + 1));
             }
-
-            final ResultsetRowData resultsetDataRow = ResultsetRowData.create(columnValues);
-            resultsetDataRows.add(resultsetDataRow);
+            rowHandler.processRow(columnValues);
+            rowCount++;
         }
+        rowHandler.finish();
+        return rowCount;
+    }
 
-        return new GenericResultsetData(columnHeaders, resultsetDataRows);
+    private static boolean isMySql(final Connection connection) throws SQLException {
+        final String productName = connection.getMetaData().getDatabaseProductName();
+        return productName != null && (productName.toLowerCase().contains("mysql") || productName.toLowerCase().contains("mariadb"));
     }
 
     @Override
@@ -193,124 +257,6 @@ public class GenericDataServiceImpl implements GenericDataService {
 
     @Override
     public List<ResultsetColumnHeaderData> fillResultsetColumnHeaders(final String datatable) {
-
-        logger.debug("::3 Was inside the fill ResultSetColumnHeader");
-
-        final SqlRowSet columnDefinitions = getDatatableMetaData(datatable);
-
-        final List<ResultsetColumnHeaderData> columnHeaders = new ArrayList<>();
-
-        columnDefinitions.beforeFirst();
-        while (columnDefinitions.next()) {
-            final String columnName = columnDefinitions.getString("COLUMN_NAME");
-            final String isNullable = columnDefinitions.getString("IS_NULLABLE");
-            final String isPrimaryKey = columnDefinitions.getString("COLUMN_KEY");
-            final String columnType = columnDefinitions.getString("DATA_TYPE");
-            final Long columnLength = columnDefinitions.getLong("CHARACTER_MAXIMUM_LENGTH");
-
-            final boolean columnNullable = "YES".equalsIgnoreCase(isNullable);
-            final boolean columnIsPrimaryKey = "PRI".equalsIgnoreCase(isPrimaryKey);
-
-            List<ResultsetColumnValueData> columnValues = new ArrayList<>();
-            String codeName = null;
-            if ("varchar".equalsIgnoreCase(columnType)) {
-
-                final int codePosition = columnName.indexOf("_cv");
-                if (codePosition > 0) {
-                    codeName = columnName.substring(0, codePosition);
-
-                    columnValues = retreiveColumnValues(codeName);
-                }
-
-            } else if ("int".equalsIgnoreCase(columnType)) {
-
-                final int codePosition = columnName.indexOf("_cd");
-                if (codePosition > 0) {
-                    codeName = columnName.substring(0, codePosition);
-                    columnValues = retreiveColumnValues(codeName);
-                }
-            }
-            if (codeName == null) {
-                final SqlRowSet rsValues = getDatatableCodeData(datatable, columnName);
-                Integer codeId = null;
-                while (rsValues.next()) {
-                    codeId = rsValues.getInt("id");
-                    codeName = rsValues.getString("code_name");
-                }
-                columnValues = retreiveColumnValues(codeId);
-
-            }
-
-            final ResultsetColumnHeaderData rsch = ResultsetColumnHeaderData.detailed(columnName, columnType, columnLength, columnNullable,
-                    columnIsPrimaryKey, columnValues, codeName);
-
-            columnHeaders.add(rsch);
-        }
-
-        return columnHeaders;
-    }
-
-    /*
-     * Candidate for using caching there to get allowed 'column values' from
-     * code/codevalue tables
-     */
-    private List<ResultsetColumnValueData> retreiveColumnValues(final String codeName) {
-
-        final List<ResultsetColumnValueData> columnValues = new ArrayList<>();
-
-        final String sql = "select v.id, v.code_score, v.code_value from m_code m " + " join m_code_value v on v.code_id = m.id "
-                + " where m.code_name = '" + codeName + "' order by v.order_position, v.id";
-
-        final SqlRowSet rsValues = this.jdbcTemplate.queryForRowSet(sql);
-
-        rsValues.beforeFirst();
-        while (rsValues.next()) {
-            final Integer id = rsValues.getInt("id");
-            final String codeValue = rsValues.getString("code_value");
-            final Integer score = rsValues.getInt("code_score");
-
-            columnValues.add(new ResultsetColumnValueData(id, codeValue, score));
-        }
-
-        return columnValues;
-    }
-
-    private List<ResultsetColumnValueData> retreiveColumnValues(final Integer codeId) {
-
-        final List<ResultsetColumnValueData> columnValues = new ArrayList<>();
-        if (codeId != null) {
-            final String sql = "select v.id, v.code_value from m_code_value v where v.code_id =" + codeId
-                    + " order by v.order_position, v.id";
-            final SqlRowSet rsValues = this.jdbcTemplate.queryForRowSet(sql);
-            rsValues.beforeFirst();
-            while (rsValues.next()) {
-                final Integer id = rsValues.getInt("id");
-                final String codeValue = rsValues.getString("code_value");
-                columnValues.add(new ResultsetColumnValueData(id, codeValue));
-            }
-        }
-
-        return columnValues;
-    }
-
-    private SqlRowSet getDatatableMetaData(final String datatable) {
-
-        final String sql = "select COLUMN_NAME, IS_NULLABLE, DATA_TYPE, CHARACTER_MAXIMUM_LENGTH, COLUMN_KEY"
-                + " from INFORMATION_SCHEMA.COLUMNS " + " where TABLE_SCHEMA = schema() and TABLE_NAME = '" + datatable
-                + "'order by ORDINAL_POSITION";
-
-        final SqlRowSet columnDefinitions = this.jdbcTemplate.queryForRowSet(sql);
-        if (columnDefinitions.next()) { return columnDefinitions; }
-
-        throw new DatatableNotFoundException(datatable);
-    }
-
-    private SqlRowSet getDatatableCodeData(final String datatable, final String columnName) {
-
-        final String sql = "select mc.id,mc.code_name from m_code mc join x_table_column_code_mappings xcc on xcc.code_id = mc.id where xcc.column_alias_name='"
-                + datatable.toLowerCase().replaceAll("\\s", "_") + "_" + columnName + "'";
-        final SqlRowSet rsValues = this.jdbcTemplate.queryForRowSet(sql);
-
-        return rsValues;
+        return this.datatableMetaDataService.retrieveDatatableDefinition(datatable).getColumnHeaders();
     }
-}
\ No newline at end of file
+}
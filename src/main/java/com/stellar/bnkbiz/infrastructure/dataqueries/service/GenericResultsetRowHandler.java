@@ -0,0 +1,42 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.dataqueries.service;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.stellar.bnkbiz.infrastructure.dataqueries.data.ResultsetColumnHeaderData;
+
+/**
+ * Callback used by {@link GenericDataService#streamGenericResultSet(String, GenericResultsetRowHandler)}
+ * to consume a result set row by row without holding it in memory.
+ */
+public interface GenericResultsetRowHandler {
+
+    void processColumnHeaders(List<ResultsetColumnHeaderData> columnHeaders) throws IOException;
+
+    /**
+     * @param row
+     *            column values of the current row, only valid for the
+     *            duration of the call
+     */
+    void processRow(List<String> row) throws IOException;
+
+    void finish() throws IOException;
+}
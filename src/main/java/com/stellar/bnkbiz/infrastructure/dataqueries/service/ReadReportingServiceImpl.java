@@ -18,11 +18,15 @@
  */
 package com.stellar.bnkbiz.infrastructure.dataqueries.service;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
-import java.io.InputStream;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -36,13 +40,15 @@ import javax.ws.rs.core.StreamingOutput;
 
 import com.stellar.bnkbiz.infrastructure.core.domain.JdbcSupport;
 import com.stellar.bnkbiz.infrastructure.core.exception.PlatformDataIntegrityException;
+import com.stellar.bnkbiz.infrastructure.core.serialization.GoogleGsonSerializerHelper;
+import com.stellar.bnkbiz.infrastructure.core.service.DataSourcePoolType;
 import com.stellar.bnkbiz.infrastructure.core.service.RoutingDataSource;
+import com.stellar.bnkbiz.infrastructure.core.service.ThreadLocalContextUtil;
 import com.stellar.bnkbiz.infrastructure.dataqueries.data.GenericResultsetData;
 import com.stellar.bnkbiz.infrastructure.dataqueries.data.ReportData;
 import com.stellar.bnkbiz.infrastructure.dataqueries.data.ReportParameterData;
 import com.stellar.bnkbiz.infrastructure.dataqueries.data.ReportParameterJoinData;
 import com.stellar.bnkbiz.infrastructure.dataqueries.data.ResultsetColumnHeaderData;
-import com.stellar.bnkbiz.infrastructure.dataqueries.data.ResultsetRowData;
 import com.stellar.bnkbiz.infrastructure.dataqueries.exception.ReportNotFoundException;
 import com.stellar.bnkbiz.infrastructure.documentmanagement.contentrepository.FileSystemContentRepository;
 import com.stellar.bnkbiz.infrastructure.security.service.PlatformSecurityContext;
@@ -55,7 +61,10 @@ import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Service;
 
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
 import com.lowagie.text.PageSize;
 import com.lowagie.text.pdf.PdfPTable;
 import com.lowagie.text.pdf.PdfWriter;
@@ -65,45 +74,38 @@ public class ReadReportingServiceImpl implements ReadReportingService {
 
     private final static Logger logger = LoggerFactory.getLogger(ReadReportingServiceImpl.class);
 
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
     private final JdbcTemplate jdbcTemplate;
     private final DataSource dataSource;
     private final PlatformSecurityContext context;
     private final GenericDataService genericDataService;
+    private final GoogleGsonSerializerHelper gsonSerializerHelper;
 
     @Autowired
     public ReadReportingServiceImpl(final PlatformSecurityContext context, final RoutingDataSource dataSource,
-            final GenericDataService genericDataService) {
+            final GenericDataService genericDataService, final GoogleGsonSerializerHelper gsonSerializerHelper) {
 
         this.context = context;
         this.dataSource = dataSource;
         this.jdbcTemplate = new JdbcTemplate(this.dataSource);
         this.genericDataService = genericDataService;
+        this.gsonSerializerHelper = gsonSerializerHelper;
     }
 
     @Override
     public StreamingOutput retrieveReportCSV(final String name, final String type, final Map<String, String> queryParams) {
 
+        final String sql = getSQLtoRun(name, type, queryParams);
+
         return new StreamingOutput() {
 
             @Override
             public void write(final OutputStream out) {
                 try {
-
-                    final GenericResultsetData result = retrieveGenericResultset(name, type, queryParams);
-                    final StringBuffer sb = generateCsvFileBuffer(result);
-
-                    final InputStream in = new ByteArrayInputStream(sb.toString().getBytes("UTF-8"));
-
-                    final byte[] outputByte = new byte[4096];
-                    Integer readLen = in.read(outputByte, 0, 4096);
-
-                    while (readLen != -1) {
-                        out.write(outputByte, 0, readLen);
-                        readLen = in.read(outputByte, 0, 4096);
-                    }
-                    // in.close();
-                    // out.flush();
-                    // out.close();
+                    streamReport(name, type, sql, new CsvRowHandler(out, ReadReportingServiceImpl.this.genericDataService));
+                } catch (final PlatformDataIntegrityException e) {
+                    throw e;
                 } catch (final Exception e) {
                     throw new PlatformDataIntegrityException("error.msg.exception.error", e.getMessage());
                 }
@@ -112,53 +114,38 @@ public class ReadReportingServiceImpl implements ReadReportingService {
 
     }
 
-    private StringBuffer generateCsvFileBuffer(final GenericResultsetData result) {
-        final StringBuffer writer = new StringBuffer();
+    @Override
+    public StreamingOutput retrieveReportJSON(final String name, final String type, final Map<String, String> queryParams,
+            final boolean prettyPrint) {
 
-        final List<ResultsetColumnHeaderData> columnHeaders = result.getColumnHeaders();
-        logger.info("NO. of Columns: " + columnHeaders.size());
-        final Integer chSize = columnHeaders.size();
-        for (int i = 0; i < chSize; i++) {
-            writer.append('"' + columnHeaders.get(i).getColumnName() + '"');
-            if (i < (chSize - 1)) {
-                writer.append(",");
-            }
-        }
-        writer.append('\n');
-
-        final List<ResultsetRowData> data = result.getData();
-        List<String> row;
-        Integer rSize;
-        // String currCol;
-        String currColType;
-        String currVal;
-        final String doubleQuote = "\"";
-        final String twoDoubleQuotes = doubleQuote + doubleQuote;
-        logger.info("NO. of Rows: " + data.size());
-        for (int i = 0; i < data.size(); i++) {
-            row = data.get(i).getRow();
-            rSize = row.size();
-            for (int j = 0; j < rSize; j++) {
-                // currCol = columnHeaders.get(j).getColumnName();
-                currColType = columnHeaders.get(j).getColumnType();
-                currVal = row.get(j);
-                if (currVal != null) {
-                    if (currColType.equals("DECIMAL") || currColType.equals("DOUBLE") || currColType.equals("BIGINT")
-                            || currColType.equals("SMALLINT") || currColType.equals("INT")) {
-                        writer.append(currVal);
-                    } else {
-                        writer.append('"' + this.genericDataService.replace(currVal, doubleQuote, twoDoubleQuotes) + '"');
-                    }
+        final String sql = getSQLtoRun(name, type, queryParams);
+        final Gson gson = this.gsonSerializerHelper.createGsonBuilder(prettyPrint);
 
-                }
-                if (j < (rSize - 1)) {
-                    writer.append(",");
-                }
+        return new StreamingOutput() {
+
+            @Override
+            public void write(final OutputStream out) throws IOException {
+                final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), STREAM_BUFFER_SIZE);
+                streamReport(name, type, sql, new JsonRowHandler(gson, gson.newJsonWriter(writer)));
             }
-            writer.append('\n');
+        };
+    }
+
+    private void streamReport(final String name, final String type, final String sql, final GenericResultsetRowHandler rowHandler) {
+
+        final long startTime = System.currentTimeMillis();
+        logger.info("STARTING REPORT: " + name + "   Type: " + type);
+
+        final long rows;
+        final DataSourcePoolType previousPoolType = ThreadLocalContextUtil.switchPoolType(DataSourcePoolType.REPORTING);
+        try {
+            rows = this.genericDataService.streamGenericResultSet(sql, rowHandler);
+        } finally {
+            ThreadLocalContextUtil.switchPoolType(previousPoolType);
         }
 
-        return writer;
+        final long elapsed = System.currentTimeMillis() - startTime;
+        logger.info("FINISHING Report/Request Name: " + name + " - " + type + "     Rows: " + rows + "     Elapsed Time: " + elapsed);
     }
 
     @Override
@@ -169,7 +156,13 @@ public class ReadReportingServiceImpl implements ReadReportingService {
 
         final String sql = getSQLtoRun(name, type, queryParams);
 
-        final GenericResultsetData result = this.genericDataService.fillGenericResultSet(sql);
+        final GenericResultsetData result;
+        final DataSourcePoolType previousPoolType = ThreadLocalContextUtil.switchPoolType(DataSourcePoolType.REPORTING);
+        try {
+            result = this.genericDataService.fillGenericResultSet(sql);
+        } finally {
+            ThreadLocalContextUtil.switchPoolType(previousPoolType);
+        }
 
         final long elapsed = System.currentTimeMillis() - startTime;
         logger.info("FINISHING Report/Request Name: " + name + " - " + type + "     Elapsed Time: " + elapsed);
@@ -236,54 +229,16 @@ public class ReadReportingServiceImpl implements ReadReportingService {
         final String genaratePdf = fileLocation + File.separator + reportName + ".pdf";
 
         try {
-            final GenericResultsetData result = retrieveGenericResultset(reportName, type, queryParams);
-
-            final List<ResultsetColumnHeaderData> columnHeaders = result.getColumnHeaders();
-            final List<ResultsetRowData> data = result.getData();
-            List<String> row;
-
-            logger.info("NO. of Columns: " + columnHeaders.size());
-            final Integer chSize = columnHeaders.size();
+            final String sql = getSQLtoRun(reportName, type, queryParams);
 
             final Document document = new Document(PageSize.B0.rotate());
-
-            PdfWriter.getInstance(document, new FileOutputStream(new File(fileLocation + reportName + ".pdf")));
-            document.open();
-
-            final PdfPTable table = new PdfPTable(chSize);
-            table.setWidthPercentage(100);
-
-            for (int i = 0; i < chSize; i++) {
-
-                table.addCell(columnHeaders.get(i).getColumnName());
-
-            }
-            table.completeRow();
-
-            Integer rSize;
-            String currColType;
-            String currVal;
-            logger.info("NO. of Rows: " + data.size());
-            for (int i = 0; i < data.size(); i++) {
-                row = data.get(i).getRow();
-                rSize = row.size();
-                for (int j = 0; j < rSize; j++) {
-                    currColType = columnHeaders.get(j).getColumnType();
-                    currVal = row.get(j);
-                    if (currVal != null) {
-                        if (currColType.equals("DECIMAL") || currColType.equals("DOUBLE") || currColType.equals("BIGINT")
-                                || currColType.equals("SMALLINT") || currColType.equals("INT")) {
-
-                            table.addCell(currVal.toString());
-                        } else {
-                            table.addCell(currVal.toString());
-                        }
-                    }
-                }
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(new File(fileLocation + reportName + ".pdf")),
+                    STREAM_BUFFER_SIZE)) {
+                PdfWriter.getInstance(document, out);
+                document.open();
+                streamReport(reportName, type, sql, new PdfRowHandler(document));
+                document.close();
             }
-            table.completeRow();
-            document.add(table);
-            document.close();
             return genaratePdf;
         } catch (final Exception e) {
             logger.error("error.msg.reporting.error:" + e.getMessage());
@@ -473,4 +428,173 @@ public class ReadReportingServiceImpl implements ReadReportingService {
         }
     }
 
-}
\ No newline at end of file
+    private static boolean isNumericColumn(final ResultsetColumnHeaderData columnHeader) {
+        final String columnType = columnHeader.getColumnType();
+        return columnType.equals("DECIMAL") || columnType.equals("DOUBLE") || columnType.equals("BIGINT") || columnType.equals("SMALLINT")
+                || columnType.equals("INT");
+    }
+
+    /**
+     * Encodes rows as CSV straight into the response stream.
+     */
+    private static final class CsvRowHandler implements GenericResultsetRowHandler {
+
+        private static final String doubleQuote = "\"";
+        private static final String twoDoubleQuotes = doubleQuote + doubleQuote;
+
+        private final Writer writer;
+        private final GenericDataService genericDataService;
+        private boolean[] numericColumns;
+
+        CsvRowHandler(final OutputStream out, final GenericDataService genericDataService) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), STREAM_BUFFER_SIZE);
+            this.genericDataService = genericDataService;
+        }
+
+        @Override
+        public void processColumnHeaders(final List<ResultsetColumnHeaderData> columnHeaders) throws IOException {
+            logger.info("NO. of Columns: " + columnHeaders.size());
+            final int chSize = columnHeaders.size();
+            this.numericColumns = new boolean[chSize];
+            for (int i = 0; i < chSize; i++) {
+                this.numericColumns[i] = isNumericColumn(columnHeaders.get(i));
+                this.writer.write('"' + columnHeaders.get(i).getColumnName() + '"');
+                if (i < (chSize - 1)) {
+                    this.writer.write(',');
+                }
+            }
+            this.writer.write('\n');
+        }
+
+        @Override
+        public void processRow(final List<String> row) throws IOException {
+            final int rSize = row.size();
+            for (int j = 0; j < rSize; j++) {
+                final String currVal = row.get(j);
+                if (currVal != null) {
+                    if (this.numericColumns[j]) {
+                        this.writer.write(currVal);
+                    } else {
+                        this.writer.write('"' + this.genericDataService.replace(currVal, doubleQuote, twoDoubleQuotes) + '"');
+                    }
+                }
+                if (j < (rSize - 1)) {
+                    this.writer.write(',');
+                }
+            }
+            this.writer.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            this.writer.flush();
+        }
+    }
+
+    /**
+     * Writes the same document as serializing {@link GenericResultsetData}
+     * with gson, one row at a time.
+     */
+    private static final class JsonRowHandler implements GenericResultsetRowHandler {
+
+        private final Gson gson;
+        private final JsonWriter jsonWriter;
+
+        JsonRowHandler(final Gson gson, final JsonWriter jsonWriter) {
+            this.gson = gson;
+            this.jsonWriter = jsonWriter;
+        }
+
+        @Override
+        public void processColumnHeaders(final List<ResultsetColumnHeaderData> columnHeaders) throws IOException {
+            this.jsonWriter.beginObject();
+            this.jsonWriter.name("columnHeaders");
+            this.jsonWriter.beginArray();
+            for (final ResultsetColumnHeaderData columnHeader : columnHeaders) {
+                this.gson.toJson(columnHeader, ResultsetColumnHeaderData.class, this.jsonWriter);
+            }
+            this.jsonWriter.endArray();
+            this.jsonWriter.name("data");
+            this.jsonWriter.beginArray();
+        }
+
+        @Override
+        public void processRow(final List<String> row) throws IOException {
+            this.jsonWriter.beginObject();
+            this.jsonWriter.name("row");
+            this.jsonWriter.beginArray();
+            for (final String value : row) {
+                if (value == null) {
+                    this.jsonWriter.nullValue();
+                } else {
+                    this.jsonWriter.value(value);
+                }
+            }
+            this.jsonWriter.endArray();
+            this.jsonWriter.endObject();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            this.jsonWriter.endArray();
+            this.jsonWriter.endObject();
+            this.jsonWriter.flush();
+        }
+    }
+
+    /**
+     * Adds rows to a PDF table that is flushed to the document every
+     * {@link #PDF_FLUSH_ROWS} rows instead of being built in memory.
+     */
+    private static final class PdfRowHandler implements GenericResultsetRowHandler {
+
+        private static final int PDF_FLUSH_ROWS = 500;
+
+        private final Document document;
+        private PdfPTable table;
+        private int pendingRows;
+
+        PdfRowHandler(final Document document) {
+            this.document = document;
+        }
+
+        @Override
+        public void processColumnHeaders(final List<ResultsetColumnHeaderData> columnHeaders) {
+            logger.info("NO. of Columns: " + columnHeaders.size());
+            this.table = new PdfPTable(columnHeaders.size());
+            this.table.setWidthPercentage(100);
+            this.table.setComplete(false);
+            for (final ResultsetColumnHeaderData columnHeader : columnHeaders) {
+                this.table.addCell(columnHeader.getColumnName());
+            }
+            this.table.completeRow();
+            this.table.setHeaderRows(1);
+        }
+
+        @Override
+        public void processRow(final List<String> row) throws IOException {
+            for (final String currVal : row) {
+                this.table.addCell(currVal == null ? "" : currVal);
+            }
+            if (++this.pendingRows == PDF_FLUSH_ROWS) {
+                addTableToDocument();
+                this.pendingRows = 0;
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            this.table.completeRow();
+            this.table.setComplete(true);
+            addTableToDocument();
+        }
+
+        private void addTableToDocument() throws IOException {
+            try {
+                this.document.add(this.table);
+            } catch (final DocumentException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+}
@@ -34,6 +34,7 @@ import org.apache.commons.lang.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
 import com.stellar.bnkbiz.infrastructure.codes.service.CodeReadPlatformService;
 import com.stellar.bnkbiz.infrastructure.configuration.domain.ConfigurationDomainService;
+import com.stellar.bnkbiz.infrastructure.configuration.service.ConfigurationSnapshotService;
 import com.stellar.bnkbiz.infrastructure.core.api.JsonCommand;
 import com.stellar.bnkbiz.infrastructure.core.data.ApiParameterError;
 import com.stellar.bnkbiz.infrastructure.core.data.CommandProcessingResult;
@@ -114,6 +115,8 @@ public class ReadWriteNonCoreDataServiceImpl implements ReadWriteNonCoreDataServ
     private final ConfigurationDomainService configurationDomainService;
     private final CodeReadPlatformService codeReadPlatformService;
     private final DataTableValidator dataTableValidator;
+    private final DatatableMetaDataService datatableMetaDataService;
+    private final ConfigurationSnapshotService configurationSnapshotService;
 
     // private final GlobalConfigurationWritePlatformServiceJpaRepositoryImpl
     // configurationWriteService;
@@ -122,7 +125,8 @@ public class ReadWriteNonCoreDataServiceImpl implements ReadWriteNonCoreDataServ
     public ReadWriteNonCoreDataServiceImpl(final RoutingDataSource dataSource, final PlatformSecurityContext context,
             final FromJsonHelper fromJsonHelper, final GenericDataService genericDataService,
             final DatatableCommandFromApiJsonDeserializer fromApiJsonDeserializer, final CodeReadPlatformService codeReadPlatformService,
-            final ConfigurationDomainService configurationDomainService, final DataTableValidator dataTableValidator) {
+            final ConfigurationDomainService configurationDomainService, final DataTableValidator dataTableValidator,
+            final DatatableMetaDataService datatableMetaDataService, final ConfigurationSnapshotService configurationSnapshotService) {
         this.dataSource = dataSource;
         this.jdbcTemplate = new JdbcTemplate(this.dataSource);
         this.context = context;
@@ -133,6 +137,8 @@ public class ReadWriteNonCoreDataServiceImpl implements ReadWriteNonCoreDataServ
         this.codeReadPlatformService = codeReadPlatformService;
         this.configurationDomainService = configurationDomainService;
         this.dataTableValidator = dataTableValidator;
+        this.datatableMetaDataService = datatableMetaDataService;
+        this.configurationSnapshotService = configurationSnapshotService;
         // this.configurationWriteService = configurationWriteService;
     }
 
@@ -160,8 +166,7 @@ public class ReadWriteNonCoreDataServiceImpl implements ReadWriteNonCoreDataServ
         while (rs.next()) {
             final String appTableName = rs.getString("application_table_name");
             final String registeredDatatableName = rs.getString("registered_table_name");
-            final List<ResultsetColumnHeaderData> columnHeaderData = this.genericDataService
-                    .fillResultsetColumnHeaders(registeredDatatableName);
+            final List<ResultsetColumnHeaderData> columnHeaderData = this.datatableMetaDataService.retrieveDatatableDefinition(registeredDatatableName).getColumnHeaders();
 
             datatables.add(DatatableData.create(appTableName, registeredDatatableName, columnHeaderData));
         }
@@ -186,8 +191,7 @@ public class ReadWriteNonCoreDataServiceImpl implements ReadWriteNonCoreDataServ
         while (rs.next()) {
             final String appTableName = rs.getString("application_table_name");
             final String registeredDatatableName = rs.getString("registered_table_name");
-            final List<ResultsetColumnHeaderData> columnHeaderData = this.genericDataService
-                    .fillResultsetColumnHeaders(registeredDatatableName);
+            final List<ResultsetColumnHeaderData> columnHeaderData = this.datatableMetaDataService.retrieveDatatableDefinition(registeredDatatableName).getColumnHeaders();
 
             datatableData = DatatableData.create(appTableName, registeredDatatableName, columnHeaderData);
         }
@@ -259,6 +263,10 @@ public class ReadWriteNonCoreDataServiceImpl implements ReadWriteNonCoreDataServ
                 this.jdbcTemplate.execute("insert into c_configuration (name, value, enabled ) values('" + dataTableName + "', '0','0')");
             }
 
+            // the permissions of the datatable are part of the configuration
+            this.datatableMetaDataService.datatableChanged(dataTableName);
+            this.configurationSnapshotService.configurationChanged();
+
         }
         /***
          * Strangely, a Hibernate contraint violation exception is thrown
@@ -352,6 +360,9 @@ public class ReadWriteNonCoreDataServiceImpl implements ReadWriteNonCoreDataServ
         sqlArray[3] = deleteFromConfigurationSql;
 
         this.jdbcTemplate.batchUpdate(sqlArray);
+
+        this.datatableMetaDataService.datatableChanged(datatable);
+        this.configurationSnapshotService.configurationChanged();
     }
 
     @Transactional
@@ -362,7 +373,7 @@ public class ReadWriteNonCoreDataServiceImpl implements ReadWriteNonCoreDataServ
             final String appTable = queryForApplicationTableName(dataTableName);
             final CommandProcessingResult commandProcessingResult = checkMainResourceExistsWithinScope(appTable, appTableId);
 
-            final List<ResultsetColumnHeaderData> columnHeaders = this.genericDataService.fillResultsetColumnHeaders(dataTableName);
+            final List<ResultsetColumnHeaderData> columnHeaders = this.datatableMetaDataService.retrieveDatatableDefinition(dataTableName).getColumnHeaders();
 
             final Type typeOfMap = new TypeToken<Map<String, String>>() {}.getType();
             final Map<String, String> dataParams = this.fromJsonHelper.extractDataMap(typeOfMap, command.json());
@@ -408,7 +419,7 @@ public class ReadWriteNonCoreDataServiceImpl implements ReadWriteNonCoreDataServ
             final String appTable = queryForApplicationTableName(dataTableName);
             final CommandProcessingResult commandProcessingResult = checkMainResourceExistsWithinScope(appTable, appTableId);
 
-            final List<ResultsetColumnHeaderData> columnHeaders = this.genericDataService.fillResultsetColumnHeaders(dataTableName);
+            final List<ResultsetColumnHeaderData> columnHeaders = this.datatableMetaDataService.retrieveDatatableDefinition(dataTableName).getColumnHeaders();
 
             final Type typeOfMap = new TypeToken<Map<String, String>>() {}.getType();
             final Map<String, String> dataParams = this.fromJsonHelper.extractDataMap(typeOfMap, command.json());
@@ -843,8 +854,9 @@ public class ReadWriteNonCoreDataServiceImpl implements ReadWriteNonCoreDataServ
             final String apptableName = this.fromJsonHelper.extractStringNamed("apptableName", element);
 
             validateDatatableName(datatableName);
+            this.datatableMetaDataService.datatableChanged(datatableName);
 
-            final List<ResultsetColumnHeaderData> columnHeaderData = this.genericDataService.fillResultsetColumnHeaders(datatableName);
+            final List<ResultsetColumnHeaderData> columnHeaderData = this.datatableMetaDataService.retrieveDatatableDefinition(datatableName).getColumnHeaders();
             final Map<String, ResultsetColumnHeaderData> mapColumnNameDefinition = new HashMap<>();
             for (final ResultsetColumnHeaderData columnHeader : columnHeaderData) {
                 mapColumnNameDefinition.put(columnHeader.getColumnName(), columnHeader);
@@ -1124,7 +1136,7 @@ public class ReadWriteNonCoreDataServiceImpl implements ReadWriteNonCoreDataServ
 
         checkMainResourceExistsWithinScope(appTable, appTableId);
 
-        final List<ResultsetColumnHeaderData> columnHeaders = this.genericDataService.fillResultsetColumnHeaders(dataTableName);
+        final List<ResultsetColumnHeaderData> columnHeaders = this.datatableMetaDataService.retrieveDatatableDefinition(dataTableName).getColumnHeaders();
 
         String sql = "";
 
@@ -1148,7 +1160,7 @@ public class ReadWriteNonCoreDataServiceImpl implements ReadWriteNonCoreDataServ
     private GenericResultsetData retrieveDataTableGenericResultSetForUpdate(final String appTable, final String dataTableName,
             final Long appTableId, final Long id) {
 
-        final List<ResultsetColumnHeaderData> columnHeaders = this.genericDataService.fillResultsetColumnHeaders(dataTableName);
+        final List<ResultsetColumnHeaderData> columnHeaders = this.datatableMetaDataService.retrieveDatatableDefinition(dataTableName).getColumnHeaders();
 
         String sql = "";
 
@@ -43,6 +43,8 @@ import com.stellar.bnkbiz.infrastructure.core.data.CommandProcessingResult;
 import com.stellar.bnkbiz.infrastructure.core.serialization.ApiRequestJsonSerializationSettings;
 import com.stellar.bnkbiz.infrastructure.core.serialization.DefaultToApiJsonSerializer;
 import com.stellar.bnkbiz.infrastructure.hooks.data.HookData;
+import com.stellar.bnkbiz.infrastructure.hooks.data.HookDeliveryMetricsData;
+import com.stellar.bnkbiz.infrastructure.hooks.service.HookDeliveryDispatcher;
 import com.stellar.bnkbiz.infrastructure.hooks.service.HookReadPlatformService;
 import com.stellar.bnkbiz.infrastructure.security.service.PlatformSecurityContext;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -61,6 +63,8 @@ public class HookApiResource {
 	private final DefaultToApiJsonSerializer<HookData> toApiJsonSerializer;
 	private final ApiRequestParameterHelper apiRequestParameterHelper;
 	private final PortfolioCommandSourceWritePlatformService commandsSourceWritePlatformService;
+	private final HookDeliveryDispatcher hookDeliveryDispatcher;
+	private final DefaultToApiJsonSerializer<HookDeliveryMetricsData> metricsToApiJsonSerializer;
 
 	@Autowired
 	public HookApiResource(
@@ -68,12 +72,16 @@ public class HookApiResource {
 			final HookReadPlatformService readPlatformService,
 			final DefaultToApiJsonSerializer<HookData> toApiJsonSerializer,
 			final ApiRequestParameterHelper apiRequestParameterHelper,
-			final PortfolioCommandSourceWritePlatformService commandsSourceWritePlatformService) {
+			final PortfolioCommandSourceWritePlatformService commandsSourceWritePlatformService,
+			final HookDeliveryDispatcher hookDeliveryDispatcher,
+			final DefaultToApiJsonSerializer<HookDeliveryMetricsData> metricsToApiJsonSerializer) {
 		this.context = context;
 		this.readPlatformService = readPlatformService;
 		this.toApiJsonSerializer = toApiJsonSerializer;
 		this.apiRequestParameterHelper = apiRequestParameterHelper;
 		this.commandsSourceWritePlatformService = commandsSourceWritePlatformService;
+		this.hookDeliveryDispatcher = hookDeliveryDispatcher;
+		this.metricsToApiJsonSerializer = metricsToApiJsonSerializer;
 	}
 
 	@GET
@@ -130,6 +138,21 @@ public class HookApiResource {
 				RESPONSE_DATA_PARAMETERS);
 	}
 
+	@GET
+	@Path("deliveries/metrics")
+	public String retrieveDeliveryMetrics(@Context final UriInfo uriInfo) {
+
+		this.context.authenticatedUser().validateHasReadPermission(
+				HOOK_RESOURCE_NAME);
+
+		final HookDeliveryMetricsData metrics = this.hookDeliveryDispatcher
+				.retrieveMetrics();
+
+		final ApiRequestJsonSerializationSettings settings = this.apiRequestParameterHelper
+				.process(uriInfo.getQueryParameters());
+		return this.metricsToApiJsonSerializer.serialize(settings, metrics);
+	}
+
 	@POST
 	public String createHook(final String apiRequestBodyAsJson) {
 
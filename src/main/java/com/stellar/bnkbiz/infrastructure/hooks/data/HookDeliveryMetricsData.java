@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.hooks.data;
+
+/**
+ * Immutable data object exposing the state of the web hook delivery outbox of
+ * the current tenant together with the delivery counters of this node.
+ */
+public class HookDeliveryMetricsData {
+
+    @SuppressWarnings("unused")
+    private final Long pending;
+    @SuppressWarnings("unused")
+    private final Long inFlight;
+    @SuppressWarnings("unused")
+    private final Long failed;
+    @SuppressWarnings("unused")
+    private final Long delivered;
+    @SuppressWarnings("unused")
+    private final Long retried;
+    @SuppressWarnings("unused")
+    private final Long abandoned;
+    @SuppressWarnings("unused")
+    private final Long averageDeliveryLatencyMillis;
+    @SuppressWarnings("unused")
+    private final Long maxDeliveryLatencyMillis;
+    @SuppressWarnings("unused")
+    private final Long averageRequestMillis;
+
+    public HookDeliveryMetricsData(final Long pending, final Long inFlight, final Long failed, final Long delivered,
+            final Long retried, final Long abandoned, final Long averageDeliveryLatencyMillis, final Long maxDeliveryLatencyMillis,
+            final Long averageRequestMillis) {
+        this.pending = pending;
+        this.inFlight = inFlight;
+        this.failed = failed;
+        this.delivered = delivered;
+        this.retried = retried;
+        this.abandoned = abandoned;
+        this.averageDeliveryLatencyMillis = averageDeliveryLatencyMillis;
+        this.maxDeliveryLatencyMillis = maxDeliveryLatencyMillis;
+        this.averageRequestMillis = averageRequestMillis;
+    }
+}
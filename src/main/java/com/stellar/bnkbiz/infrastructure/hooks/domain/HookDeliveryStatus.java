@@ -0,0 +1,65 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.hooks.domain;
+
+/**
+ * Enum representation of the states of a row in the web hook delivery
+ * outbox. Delivered rows are removed from the outbox, so there is no
+ * delivered state.
+ */
+public enum HookDeliveryStatus {
+
+    INVALID(0, "hookDeliveryStatus.invalid"), //
+    PENDING(1, "hookDeliveryStatus.pending"), //
+    IN_FLIGHT(2, "hookDeliveryStatus.inFlight"), //
+    FAILED(3, "hookDeliveryStatus.failed");
+
+    private final Integer value;
+    private final String code;
+
+    public static HookDeliveryStatus fromInt(final Integer statusValue) {
+
+        HookDeliveryStatus enumeration = HookDeliveryStatus.INVALID;
+        switch (statusValue) {
+            case 1:
+                enumeration = HookDeliveryStatus.PENDING;
+            break;
+            case 2:
+                enumeration = HookDeliveryStatus.IN_FLIGHT;
+            break;
+            case 3:
+                enumeration = HookDeliveryStatus.FAILED;
+            break;
+        }
+        return enumeration;
+    }
+
+    private HookDeliveryStatus(final Integer value, final String code) {
+        this.value = value;
+        this.code = code;
+    }
+
+    public Integer getValue() {
+        return this.value;
+    }
+
+    public String getCode() {
+        return this.code;
+    }
+}
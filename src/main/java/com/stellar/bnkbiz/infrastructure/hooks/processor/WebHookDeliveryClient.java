@@ -0,0 +1,120 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.hooks.processor;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import retrofit.RestAdapter;
+import retrofit.RetrofitError;
+import retrofit.client.OkClient;
+import retrofit.client.Response;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.squareup.okhttp.OkHttpClient;
+
+/**
+ * Performs web hook calls synchronously so that the caller can decide whether
+ * a failed call is retried.
+ *
+ * All endpoints share a single {@link OkHttpClient} and therefore its
+ * connection pool, and the {@link WebHookService} of each payload URL is built
+ * once and reused; only the most recently used ones are kept. The client has no Spring dependencies and can be pointed at
+ * any URL, including a stub server started by a test.
+ */
+public class WebHookDeliveryClient {
+
+	private static final int MAX_CACHED_SERVICES = 256;
+
+	private final OkHttpClient client;
+	private final Map<String, WebHookService> services = Collections
+			.synchronizedMap(new LinkedHashMap<String, WebHookService>(16,
+					0.75f, true) {
+
+				@Override
+				protected boolean removeEldestEntry(
+						final Map.Entry<String, WebHookService> eldest) {
+					return size() > MAX_CACHED_SERVICES;
+				}
+			});
+	private final Gson gson = new Gson();
+
+	public WebHookDeliveryClient(final OkHttpClient client) {
+		this.client = client;
+	}
+
+	public static WebHookDeliveryClient create(final long connectTimeoutSeconds,
+			final long readTimeoutSeconds) {
+		final OkHttpClient client = ProcessorHelper.createClient();
+		client.setConnectTimeout(connectTimeoutSeconds, TimeUnit.SECONDS);
+		client.setReadTimeout(readTimeoutSeconds, TimeUnit.SECONDS);
+		client.setWriteTimeout(readTimeoutSeconds, TimeUnit.SECONDS);
+		return new WebHookDeliveryClient(client);
+	}
+
+	/**
+	 * @return the HTTP status returned by the endpoint
+	 * @throws RetrofitError
+	 *             when the endpoint could not be reached or answered with a
+	 *             non 2xx status
+	 */
+	@SuppressWarnings("unchecked")
+	public int deliver(final String url, final String contentType,
+			final String entityName, final String actionName,
+			final String tenantIdentifier, final String fineractEndpointUrl,
+			final String payload) {
+
+		final WebHookService service = retrieveService(url);
+
+		final Response response;
+		if (contentType != null && contentType.toLowerCase().contains("json")) {
+			final JsonObject json = this.gson.fromJson(payload,
+					JsonObject.class);
+			response = service.deliverJsonRequest(entityName, actionName,
+					tenantIdentifier, fineractEndpointUrl, json);
+		} else {
+			final Map<String, String> map = this.gson.fromJson(payload,
+					HashMap.class);
+			response = service.deliverFormRequest(entityName, actionName,
+					tenantIdentifier, fineractEndpointUrl, map);
+		}
+		return response.getStatus();
+	}
+
+	private WebHookService retrieveService(final String url) {
+		WebHookService service = this.services.get(url);
+		if (service == null) {
+			final RestAdapter restAdapter = new RestAdapter.Builder()
+					.setEndpoint(url).setClient(new OkClient(this.client))
+					.build();
+			final WebHookService created = restAdapter
+					.create(WebHookService.class);
+			// two threads may build a service for the same URL, either
+			// one will do
+			this.services.put(url, created);
+			service = created;
+		}
+		return service;
+	}
+
+}
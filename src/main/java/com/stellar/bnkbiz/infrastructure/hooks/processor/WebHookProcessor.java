@@ -21,30 +21,44 @@ package com.stellar.bnkbiz.infrastructure.hooks.processor;
 import static com.stellar.bnkbiz.infrastructure.hooks.api.HookApiConstants.contentTypeName;
 import static com.stellar.bnkbiz.infrastructure.hooks.api.HookApiConstants.payloadURLName;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Set;
 
 import com.stellar.bnkbiz.infrastructure.hooks.domain.Hook;
 import com.stellar.bnkbiz.infrastructure.hooks.domain.HookConfiguration;
+import com.stellar.bnkbiz.infrastructure.hooks.service.HookDeliveryDispatcher;
+import com.stellar.bnkbiz.infrastructure.hooks.service.HookDeliveryOutboxService;
 import com.stellar.bnkbiz.useradministration.domain.AppUser;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import retrofit.Callback;
-
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-
+/**
+ * Queues the call in the web hook delivery outbox. Hook events are published
+ * from within the command transaction, so the call is only made once the
+ * command has committed and is delivered by {@link HookDeliveryDispatcher}.
+ */
 @Service
 public class WebHookProcessor implements HookProcessor {
 
+	private final HookDeliveryOutboxService hookDeliveryOutboxService;
+	private final HookDeliveryDispatcher hookDeliveryDispatcher;
+
+	@Autowired
+	public WebHookProcessor(
+			final HookDeliveryOutboxService hookDeliveryOutboxService,
+			final HookDeliveryDispatcher hookDeliveryDispatcher) {
+		this.hookDeliveryOutboxService = hookDeliveryOutboxService;
+		this.hookDeliveryDispatcher = hookDeliveryDispatcher;
+	}
+
 	@Override
 	public void process(final Hook hook,
 			@SuppressWarnings("unused") final AppUser appUser,
 			final String payload, final String entityName,
-			final String actionName, final String tenantIdentifier,
-			final String authToken) {
+			final String actionName,
+			@SuppressWarnings("unused") final String tenantIdentifier,
+			@SuppressWarnings("unused") final String authToken) {
 
 		final Set<HookConfiguration> config = hook.getHookConfig();
 
@@ -61,37 +75,26 @@ public class WebHookProcessor implements HookProcessor {
 			}
 		}
 
-		sendRequest(url, contentType, payload, entityName, actionName,
-				tenantIdentifier, authToken);
+		this.hookDeliveryOutboxService.enqueue(hook.getId(), url, contentType,
+				entityName, actionName, payload);
 
+		requestDispatchAfterCommit();
 	}
 
-	@SuppressWarnings("unchecked")
-	private void sendRequest(final String url, final String contentType,
-			final String payload, final String entityName,
-			final String actionName, final String tenantIdentifier,
-			@SuppressWarnings("unused") final String authToken) {
-
-		final String fineractEndpointUrl = System.getProperty("baseUrl");
-		final WebHookService service = ProcessorHelper
-				.createWebHookService(url);
-
-		@SuppressWarnings("rawtypes")
-		final Callback callback = ProcessorHelper.createCallback(url);
-
-		if (contentType.equalsIgnoreCase("json")
-				|| contentType.contains("json")) {
-			final JsonObject json = new JsonParser().parse(payload)
-					.getAsJsonObject();
-			service.sendJsonRequest(entityName, actionName, tenantIdentifier,
-					fineractEndpointUrl, json, callback);
+	private void requestDispatchAfterCommit() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager
+					.registerSynchronization(new TransactionSynchronization() {
+
+						@Override
+						public void afterCommit() {
+							WebHookProcessor.this.hookDeliveryDispatcher
+									.requestDispatch();
+						}
+					});
 		} else {
-			Map<String, String> map = new HashMap<>();
-			map = new Gson().fromJson(payload, map.getClass());
-			service.sendFormRequest(entityName, actionName, tenantIdentifier,
-					fineractEndpointUrl, map, callback);
+			this.hookDeliveryDispatcher.requestDispatch();
 		}
-
 	}
 
 }
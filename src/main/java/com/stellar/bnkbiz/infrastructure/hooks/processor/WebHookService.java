@@ -61,6 +61,22 @@ public interface WebHookService {
 			@Header(ENDPOINT_HEADER) String endpointHeader,
 			@FieldMap Map<String, String> params, Callback<Response> callBack);
 
+	// Template - Web, synchronous variants used by the delivery dispatcher
+	@POST("/")
+	Response deliverJsonRequest(@Header(ENTITY_HEADER) String entityHeader,
+			@Header(ACTION_HEADER) String actionHeader,
+			@Header(TENANT_HEADER) String tenantHeader,
+			@Header(ENDPOINT_HEADER) String endpointHeader,
+			@Body JsonObject result);
+
+	@FormUrlEncoded
+	@POST("/")
+	Response deliverFormRequest(@Header(ENTITY_HEADER) String entityHeader,
+			@Header(ACTION_HEADER) String actionHeader,
+			@Header(TENANT_HEADER) String tenantHeader,
+			@Header(ENDPOINT_HEADER) String endpointHeader,
+			@FieldMap Map<String, String> params);
+
 	// Template - SMS Bridge
 	@POST("/")
 	void sendSmsBridgeRequest(@Header(ENTITY_HEADER) String entityHeader,
@@ -0,0 +1,334 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.hooks.service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import com.stellar.bnkbiz.infrastructure.core.domain.FineractPlatformTenant;
+import com.stellar.bnkbiz.infrastructure.core.service.ContextAwareExecutor;
+import com.stellar.bnkbiz.infrastructure.core.service.ThreadLocalContextUtil;
+import com.stellar.bnkbiz.infrastructure.hooks.data.HookDeliveryData;
+import com.stellar.bnkbiz.infrastructure.hooks.data.HookDeliveryMetricsData;
+import com.stellar.bnkbiz.infrastructure.hooks.domain.HookDeliveryStatus;
+import com.stellar.bnkbiz.infrastructure.hooks.processor.WebHookDeliveryClient;
+import com.stellar.bnkbiz.infrastructure.security.service.TenantDetailsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import retrofit.RetrofitError;
+import retrofit.client.Response;
+
+/**
+ * Delivers the web hook calls queued in the outbox of every tenant.
+ *
+ * A single poller thread reads due rows in id order, claims them and hands
+ * them to a bounded pool of workers; the poller blocks once the pool is full.
+ * Each payload URL may only have a limited number of calls in flight so that
+ * one slow endpoint cannot occupy every worker, rows for a busy endpoint are
+ * simply left for the next poll. Only endpoints with calls in flight are
+ * tracked, so edited and deleted hooks leave nothing behind. Failed calls are retried with an exponential
+ * backoff until {@link #MAX_ATTEMPTS} is reached, client errors other than 408
+ * and 429 are not retried.
+ *
+ * Calls for the same hook are not guaranteed to arrive in order.
+ */
+@Service
+public class HookDeliveryDispatcher {
+
+    private final static Logger logger = LoggerFactory.getLogger(HookDeliveryDispatcher.class);
+
+    private static final int WORKER_THREADS = 8;
+    private static final int MAX_IN_FLIGHT = 64;
+    static final int MAX_CONCURRENT_CALLS_PER_ENDPOINT = 4;
+    private static final int BATCH_SIZE = 100;
+    private static final long POLL_INTERVAL_SECONDS = 5;
+    private static final long CONNECT_TIMEOUT_SECONDS = 10;
+    private static final long READ_TIMEOUT_SECONDS = 30;
+    private static final long LEASE_SECONDS = 5 * 60;
+    private static final long INITIAL_BACKOFF_SECONDS = 10;
+    private static final long MAX_BACKOFF_SECONDS = 60 * 60;
+    static final int MAX_ATTEMPTS = 12;
+
+    private final HookDeliveryOutboxService hookDeliveryOutboxService;
+    private final TenantDetailsService tenantDetailsService;
+    private final WebHookDeliveryClient deliveryClient;
+
+    private final ConcurrentMap<String, Semaphore> endpointPermits = new ConcurrentHashMap<>();
+    private final AtomicBoolean dispatchRequested = new AtomicBoolean(false);
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong abandoned = new AtomicLong();
+    private final AtomicLong totalDeliveryLatency = new AtomicLong();
+    private final AtomicLong maxDeliveryLatency = new AtomicLong();
+    private final AtomicLong totalRequestTime = new AtomicLong();
+
+    private ScheduledExecutorService poller;
+    private ContextAwareExecutor workers;
+
+    @Autowired
+    public HookDeliveryDispatcher(final HookDeliveryOutboxService hookDeliveryOutboxService,
+            final TenantDetailsService tenantDetailsService) {
+        this(hookDeliveryOutboxService, tenantDetailsService, WebHookDeliveryClient.create(CONNECT_TIMEOUT_SECONDS,
+                READ_TIMEOUT_SECONDS));
+    }
+
+    HookDeliveryDispatcher(final HookDeliveryOutboxService hookDeliveryOutboxService, final TenantDetailsService tenantDetailsService,
+            final WebHookDeliveryClient deliveryClient) {
+        this.hookDeliveryOutboxService = hookDeliveryOutboxService;
+        this.tenantDetailsService = tenantDetailsService;
+        this.deliveryClient = deliveryClient;
+    }
+
+    @PostConstruct
+    public void start() {
+        this.workers = ContextAwareExecutor.newFixedPool("hook-delivery", WORKER_THREADS, MAX_IN_FLIGHT);
+        this.poller = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "hook-delivery-poller");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.poller.scheduleWithFixedDelay(new Runnable() {
+
+            @Override
+            public void run() {
+                dispatchAllTenants();
+            }
+        }, POLL_INTERVAL_SECONDS, POLL_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        // rows that are in flight keep their lease and are picked up again
+        // once it expires
+        this.poller.shutdownNow();
+        this.workers.close();
+    }
+
+    /**
+     * Asks the poller to look at the outboxes straight away instead of
+     * waiting for the next scheduled poll. Requests made while one is already
+     * pending are coalesced.
+     */
+    public void requestDispatch() {
+        if (this.dispatchRequested.compareAndSet(false, true)) {
+            this.poller.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    HookDeliveryDispatcher.this.dispatchRequested.set(false);
+                    dispatchAllTenants();
+                }
+            });
+        }
+    }
+
+    /**
+     * Queue depth is read from the outbox of the current tenant, delivery
+     * counters and latencies are those of this node since start up.
+     */
+    public HookDeliveryMetricsData retrieveMetrics() {
+        final Map<HookDeliveryStatus, Long> counts = this.hookDeliveryOutboxService.countByStatus();
+        final long deliveredCount = this.delivered.get();
+        Long averageDeliveryLatency = null;
+        Long averageRequestTime = null;
+        if (deliveredCount > 0) {
+            averageDeliveryLatency = this.totalDeliveryLatency.get() / deliveredCount;
+            averageRequestTime = this.totalRequestTime.get() / deliveredCount;
+        }
+        return new HookDeliveryMetricsData(countOf(counts, HookDeliveryStatus.PENDING), countOf(counts, HookDeliveryStatus.IN_FLIGHT),
+                countOf(counts, HookDeliveryStatus.FAILED), deliveredCount, this.retried.get(), this.abandoned.get(),
+                averageDeliveryLatency, this.maxDeliveryLatency.get(), averageRequestTime);
+    }
+
+    private static Long countOf(final Map<HookDeliveryStatus, Long> counts, final HookDeliveryStatus status) {
+        final Long count = counts.get(status);
+        return count == null ? Long.valueOf(0) : count;
+    }
+
+    private void dispatchAllTenants() {
+        try {
+            final List<FineractPlatformTenant> allTenants = this.tenantDetailsService.findAllTenants();
+            for (final FineractPlatformTenant tenant : allTenants) {
+                ThreadLocalContextUtil.setTenant(tenant);
+                try {
+                    dispatchDueDeliveries();
+                } catch (final RuntimeException e) {
+                    logger.error("Web hook dispatch failed for tenant " + tenant.getTenantIdentifier(), e);
+                } finally {
+                    ThreadLocalContextUtil.reset();
+                }
+            }
+            releaseIdleEndpoints();
+        } catch (final RuntimeException e) {
+            // never let an exception cancel the scheduled poll
+            logger.error("Web hook dispatch failed", e);
+        }
+    }
+
+    private void dispatchDueDeliveries() {
+        final Date asOf = new Date();
+        Long lastId = Long.valueOf(0);
+        List<HookDeliveryData> deliveries;
+        do {
+            deliveries = this.hookDeliveryOutboxService.retrieveDueDeliveries(asOf, lastId, BATCH_SIZE);
+            for (final HookDeliveryData delivery : deliveries) {
+                lastId = delivery.getId();
+                final Semaphore permits = permitsFor(delivery.getPayloadUrl());
+                if (!permits.tryAcquire()) {
+                    continue;
+                }
+                final Date leaseExpiry = new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(LEASE_SECONDS));
+                boolean submitted = false;
+                try {
+                    if (this.hookDeliveryOutboxService.claim(delivery, leaseExpiry)) {
+                        this.workers.submit(new Callable<Void>() {
+
+                            @Override
+                            public Void call() {
+                                try {
+                                    deliver(delivery);
+                                } catch (final RuntimeException e) {
+                                    // the row keeps its lease and is retried once it expires
+                                    logger.error("Web hook delivery " + delivery.getId() + " could not be recorded", e);
+                                } finally {
+                                    permits.release();
+                                }
+                                return null;
+                            }
+                        });
+                        submitted = true;
+                    }
+                } finally {
+                    if (!submitted) {
+                        permits.release();
+                    }
+                }
+            }
+        } while (deliveries.size() == BATCH_SIZE);
+    }
+
+    private Semaphore permitsFor(final String payloadUrl) {
+        Semaphore permits = this.endpointPermits.get(payloadUrl);
+        if (permits == null) {
+            final Semaphore created = new Semaphore(MAX_CONCURRENT_CALLS_PER_ENDPOINT);
+            permits = this.endpointPermits.putIfAbsent(payloadUrl, created);
+            if (permits == null) {
+                permits = created;
+            }
+        }
+        return permits;
+    }
+
+    /**
+     * Forgets the endpoints that have no call in flight. Permits are only
+     * taken on the poller thread, the one this runs on, so none can be taken
+     * between the check and the removal.
+     */
+    private void releaseIdleEndpoints() {
+        for (final Map.Entry<String, Semaphore> endpoint : this.endpointPermits.entrySet()) {
+            if (endpoint.getValue().availablePermits() == MAX_CONCURRENT_CALLS_PER_ENDPOINT) {
+                this.endpointPermits.remove(endpoint.getKey(), endpoint.getValue());
+            }
+        }
+    }
+
+    int trackedEndpointCount() {
+        return this.endpointPermits.size();
+    }
+
+    private void deliver(final HookDeliveryData delivery) {
+        final String tenantIdentifier = ThreadLocalContextUtil.getTenant().getTenantIdentifier();
+        final String fineractEndpointUrl = System.getProperty("baseUrl");
+        final int attempt = delivery.getAttempts() + 1;
+
+        final long started = System.currentTimeMillis();
+        String error = null;
+        boolean retryable = false;
+        try {
+            this.deliveryClient.deliver(delivery.getPayloadUrl(), delivery.getContentType(), delivery.getEntityName(),
+                    delivery.getActionName(), tenantIdentifier, fineractEndpointUrl, delivery.getPayload());
+        } catch (final RetrofitError e) {
+            error = e.getMessage();
+            retryable = isRetryable(e);
+        } catch (final RuntimeException e) {
+            // typically a payload that cannot be converted, retrying will not help
+            error = e.toString();
+        }
+        final long finished = System.currentTimeMillis();
+
+        if (error == null) {
+            this.hookDeliveryOutboxService.markDelivered(delivery.getId());
+            recordDelivery(finished - delivery.getCreatedDate().getTime(), finished - started);
+        } else if (retryable && attempt < MAX_ATTEMPTS) {
+            final Date nextAttemptTime = new Date(finished + TimeUnit.SECONDS.toMillis(backoffSeconds(attempt)));
+            this.hookDeliveryOutboxService.reschedule(delivery.getId(), nextAttemptTime, error);
+            this.retried.incrementAndGet();
+            logger.info("Web hook call to " + delivery.getPayloadUrl() + " failed on attempt " + attempt + ", retrying at "
+                    + nextAttemptTime + " : " + error);
+        } else {
+            this.hookDeliveryOutboxService.markFailed(delivery.getId(), error);
+            this.abandoned.incrementAndGet();
+            logger.warn("Web hook call to " + delivery.getPayloadUrl() + " abandoned after " + attempt + " attempts : " + error);
+        }
+    }
+
+    private static boolean isRetryable(final RetrofitError error) {
+        final Response response = error.getResponse();
+        if (response == null) { return true; }
+        final int status = response.getStatus();
+        return status >= 500 || status == 408 || status == 429;
+    }
+
+    static long backoffSeconds(final int attempt) {
+        final int exponent = Math.min(attempt - 1, 20);
+        return Math.min(MAX_BACKOFF_SECONDS, INITIAL_BACKOFF_SECONDS << exponent);
+    }
+
+    private void recordDelivery(final long deliveryLatency, final long requestTime) {
+        this.delivered.incrementAndGet();
+        this.totalDeliveryLatency.addAndGet(deliveryLatency);
+        this.totalRequestTime.addAndGet(requestTime);
+        long max = this.maxDeliveryLatency.get();
+        while (deliveryLatency > max && !this.maxDeliveryLatency.compareAndSet(max, deliveryLatency)) {
+            max = this.maxDeliveryLatency.get();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.hooks.service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import com.stellar.bnkbiz.infrastructure.hooks.data.HookDeliveryData;
+import com.stellar.bnkbiz.infrastructure.hooks.domain.HookDeliveryStatus;
+
+/**
+ * Persistent outbox for web hook calls of the current tenant.
+ *
+ * Rows are written by the command that raised the hook event, in its own
+ * transaction, so that a hook is only ever called for a committed command and
+ * is never lost once the command has committed.
+ */
+public interface HookDeliveryOutboxService {
+
+    void enqueue(Long hookId, String payloadUrl, String contentType, String entityName, String actionName, String payload);
+
+    List<HookDeliveryData> retrieveDueDeliveries(Date asOf, Long afterId, int limit);
+
+    boolean claim(HookDeliveryData delivery, Date leaseExpiry);
+
+    void markDelivered(Long deliveryId);
+
+    void reschedule(Long deliveryId, Date nextAttemptTime, String error);
+
+    void markFailed(Long deliveryId, String error);
+
+    Map<HookDeliveryStatus, Long> countByStatus();
+}
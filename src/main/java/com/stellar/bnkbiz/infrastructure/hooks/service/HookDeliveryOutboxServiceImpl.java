@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.hooks.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import com.stellar.bnkbiz.infrastructure.core.service.RoutingDataSource;
+import com.stellar.bnkbiz.infrastructure.hooks.data.HookDeliveryData;
+import com.stellar.bnkbiz.infrastructure.hooks.domain.HookDeliveryStatus;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+@Service
+public class HookDeliveryOutboxServiceImpl implements HookDeliveryOutboxService {
+
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public HookDeliveryOutboxServiceImpl(final RoutingDataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void enqueue(final Long hookId, final String payloadUrl, final String contentType, final String entityName,
+            final String actionName, final String payload) {
+        final Date now = new Date();
+        final String sql = "insert into m_hook_delivery (hook_id, payload_url, content_type, entity_name, action_name, payload, "
+                + "status_enum, attempts, next_attempt_time, created_date) values (?, ?, ?, ?, ?, ?, ?, 0, ?, ?)";
+        this.jdbcTemplate.update(sql, hookId, payloadUrl, contentType, entityName, actionName, payload,
+                HookDeliveryStatus.PENDING.getValue(), now, now);
+    }
+
+    @Override
+    public List<HookDeliveryData> retrieveDueDeliveries(final Date asOf, final Long afterId, final int limit) {
+        final HookDeliveryMapper rm = new HookDeliveryMapper();
+        // in flight rows whose lease has run out belong to a node that died
+        // while delivering them and are picked up again
+        final String sql = "select " + rm.schema() + " where hd.status_enum in (?, ?) and hd.next_attempt_time <= ? and hd.id > ? "
+                + "order by hd.id limit ?";
+        return this.jdbcTemplate.query(sql, rm, HookDeliveryStatus.PENDING.getValue(), HookDeliveryStatus.IN_FLIGHT.getValue(),
+                asOf, afterId, limit);
+    }
+
+    @Override
+    public boolean claim(final HookDeliveryData delivery, final Date leaseExpiry) {
+        // the attempt counter doubles as a version so that only one node can
+        // claim a given attempt
+        final String sql = "update m_hook_delivery set status_enum = ?, attempts = attempts + 1, next_attempt_time = ? "
+                + "where id = ? and attempts = ? and status_enum <> ?";
+        final int updated = this.jdbcTemplate.update(sql, HookDeliveryStatus.IN_FLIGHT.getValue(), leaseExpiry, delivery.getId(),
+                delivery.getAttempts(), HookDeliveryStatus.FAILED.getValue());
+        return updated == 1;
+    }
+
+    @Override
+    public void markDelivered(final Long deliveryId) {
+        this.jdbcTemplate.update("delete from m_hook_delivery where id = ?", deliveryId);
+    }
+
+    @Override
+    public void reschedule(final Long deliveryId, final Date nextAttemptTime, final String error) {
+        final String sql = "update m_hook_delivery set status_enum = ?, next_attempt_time = ?, last_error = ? where id = ?";
+        this.jdbcTemplate.update(sql, HookDeliveryStatus.PENDING.getValue(), nextAttemptTime,
+                StringUtils.abbreviate(error, MAX_ERROR_MESSAGE_LENGTH), deliveryId);
+    }
+
+    @Override
+    public void markFailed(final Long deliveryId, final String error) {
+        final String sql = "update m_hook_delivery set status_enum = ?, last_error = ? where id = ?";
+        this.jdbcTemplate.update(sql, HookDeliveryStatus.FAILED.getValue(), StringUtils.abbreviate(error, MAX_ERROR_MESSAGE_LENGTH),
+                deliveryId);
+    }
+
+    @Override
+    public Map<HookDeliveryStatus, Long> countByStatus() {
+        final Map<HookDeliveryStatus, Long> counts = new EnumMap<>(HookDeliveryStatus.class);
+        final List<Map<String, Object>> rows = this.jdbcTemplate
+                .queryForList("select status_enum as status, count(*) as total from m_hook_delivery group by status_enum");
+        for (final Map<String, Object> row : rows) {
+            final HookDeliveryStatus status = HookDeliveryStatus.fromInt(((Number) row.get("status")).intValue());
+            counts.put(status, ((Number) row.get("total")).longValue());
+        }
+        return counts;
+    }
+
+    private static final class HookDeliveryMapper implements RowMapper<HookDeliveryData> {
+
+        public String schema() {
+            return " hd.id as id, hd.hook_id as hookId, hd.payload_url as payloadUrl, hd.content_type as contentType, "
+                    + "hd.entity_name as entityName, hd.action_name as actionName, hd.payload as payload, hd.attempts as attempts, "
+                    + "hd.created_date as createdDate from m_hook_delivery hd ";
+        }
+
+        @Override
+        public HookDeliveryData mapRow(final ResultSet rs, @SuppressWarnings("unused") final int rowNum) throws SQLException {
+            final Long id = rs.getLong("id");
+            final Long hookId = rs.getLong("hookId");
+            final String payloadUrl = rs.getString("payloadUrl");
+            final String contentType = rs.getString("contentType");
+            final String entityName = rs.getString("entityName");
+            final String actionName = rs.getString("actionName");
+            final String payload = rs.getString("payload");
+            final int attempts = rs.getInt("attempts");
+            final Date createdDate = rs.getTimestamp("createdDate");
+            return new HookDeliveryData(id, hookId, payloadUrl, contentType, entityName, actionName, payload, attempts, createdDate);
+        }
+    }
+}
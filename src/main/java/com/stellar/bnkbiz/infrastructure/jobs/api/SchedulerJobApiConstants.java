@@ -34,6 +34,10 @@ public class SchedulerJobApiConstants {
     public static final String jobActiveStatusParamName = "active";
     public static final String currentlyRunningParamName = "currentlyRunning";
     public static final String lastRunHistoryObjParamName = "lastRunHistory";
+    public static final String currentRunProgressParamName = "currentRunProgress";
+    public static final String leaseOwnerParamName = "leaseOwner";
+    public static final String leaseExpiryTimeParamName = "leaseExpiryTime";
+    public static final String fencingTokenParamName = "fencingToken";
 
     public static final String versionParamName = "version";
     public static final String jobRunStartTimeParamName = "jobRunStartTime";
@@ -42,16 +46,18 @@ public class SchedulerJobApiConstants {
     public static final String jobRunErrorMessageParamName = "jobRunErrorMessage";
     public static final String triggerTypeParamName = "triggerType";
     public static final String jobRunErrorLogParamName = "jobRunErrorLog";
+    public static final String runSummaryParamName = "runSummary";
     public static final String cronExpressionParamName = "cronExpression";
     public static final String schedulerStatusParamName = "active";
 
     public static final Set<String> JOB_DETAIL_RESPONSE_DATA_PARAMETERS = new HashSet<>(Arrays.asList(jobIdentifierParamName,
             displayNameParamName, nextRunTimeParamName, initializingErrorParamName, cronExpressionParamName, jobActiveStatusParamName,
-            currentlyRunningParamName, lastRunHistoryObjParamName));
+            currentlyRunningParamName, lastRunHistoryObjParamName, currentRunProgressParamName, leaseOwnerParamName,
+            leaseExpiryTimeParamName, fencingTokenParamName));
 
     public static final Set<String> JOB_HISTORY_RESPONSE_DATA_PARAMETERS = new HashSet<>(Arrays.asList(versionParamName,
             jobRunStartTimeParamName, jobRunEndTimeParamName, statusParamName, jobRunErrorMessageParamName, triggerTypeParamName,
-            jobRunErrorLogParamName));
+            jobRunErrorLogParamName, runSummaryParamName));
 
     public static final Set<String> JOB_UPDATE_REQUEST_DATA_PARAMETERS = new HashSet<>(Arrays.asList(displayNameParamName,
             jobActiveStatusParamName, cronExpressionParamName));
@@ -46,8 +46,21 @@ public class JobDetailData {
     @SuppressWarnings("unused")
     private final JobDetailHistoryData lastRunHistory;
 
+    @SuppressWarnings("unused")
+    private final String currentRunProgress;
+
+    @SuppressWarnings("unused")
+    private final String leaseOwner;
+
+    @SuppressWarnings("unused")
+    private final Date leaseExpiryTime;
+
+    @SuppressWarnings("unused")
+    private final Long fencingToken;
+
     public JobDetailData(final Long jobId, final String displayName, final Date nextRunTime, final String initializingError,
-            final String cronExpression, final boolean active, final boolean currentlyRunning, final JobDetailHistoryData lastRunHistory) {
+            final String cronExpression, final boolean active, final boolean currentlyRunning, final JobDetailHistoryData lastRunHistory,
+            final String currentRunProgress, final String leaseOwner, final Date leaseExpiryTime, final Long fencingToken) {
         this.jobId = jobId;
         this.displayName = displayName;
         this.nextRunTime = nextRunTime;
@@ -56,5 +69,9 @@ public class JobDetailData {
         this.active = active;
         this.lastRunHistory = lastRunHistory;
         this.currentlyRunning = currentlyRunning;
+        this.currentRunProgress = currentRunProgress;
+        this.leaseOwner = leaseOwner;
+        this.leaseExpiryTime = leaseExpiryTime;
+        this.fencingToken = fencingToken;
     }
 }
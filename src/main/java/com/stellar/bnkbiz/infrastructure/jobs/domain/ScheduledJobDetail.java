@@ -85,6 +85,20 @@ public class ScheduledJobDetail extends AbstractPersistable<Long> {
     @Column(name = "is_misfired")
     private boolean triggerMisfired;
 
+    /*
+     * lease columns are written only through JobLeaseService, which guards
+     * every write with the fencing token
+     */
+    @Column(name = "lease_owner", insertable = false, updatable = false)
+    private String leaseOwner;
+
+    @Column(name = "lease_expiry_time", insertable = false, updatable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date leaseExpiryTime;
+
+    @Column(name = "fencing_token", insertable = false, updatable = false)
+    private Long fencingToken;
+
     protected ScheduledJobDetail() {
 
     }
@@ -180,4 +194,20 @@ public class ScheduledJobDetail extends AbstractPersistable<Long> {
         this.triggerMisfired = triggerMisfired;
     }
 
+    public String getLeaseOwner() {
+        return this.leaseOwner;
+    }
+
+    public Long getFencingToken() {
+        return this.fencingToken;
+    }
+
+    /**
+     * A job that is flagged as running without a live lease was left behind
+     * by a node that died mid run.
+     */
+    public boolean isLeaseActive(final Date now) {
+        return this.leaseOwner != null && this.leaseExpiryTime != null && !this.leaseExpiryTime.before(now);
+    }
+
 }
@@ -31,6 +31,9 @@ public interface ScheduledJobDetailRepository extends JpaRepository<ScheduledJob
     @Query("from ScheduledJobDetail jobDetail where jobDetail.jobKey = :jobKey")
     ScheduledJobDetail findByJobKey(@Param("jobKey") String jobKey);
 
+    @Query("from ScheduledJobDetail jobDetail where jobDetail.jobName = :jobName")
+    ScheduledJobDetail findByJobName(@Param("jobName") String jobName);
+
     @Query("from ScheduledJobDetail jobDetail where jobDetail.id=:jobId")
     ScheduledJobDetail findByJobId(@Param("jobId") Long jobId);
 
@@ -61,12 +61,16 @@ public class ScheduledJobRunHistory extends AbstractPersistable<Long> {
     @Column(name = "error_log")
     private String errorLog;
 
+    @Column(name = "run_summary")
+    private String runSummary;
+
     public ScheduledJobRunHistory() {
 
     }
 
     public ScheduledJobRunHistory(final ScheduledJobDetail scheduledJobDetail, final Long version, final Date startTime,
-            final Date endTime, final String status, final String errorMessage, final String triggerType, final String errorLog) {
+            final Date endTime, final String status, final String errorMessage, final String triggerType, final String errorLog,
+            final String runSummary) {
         this.scheduledJobDetail = scheduledJobDetail;
         this.version = version;
         this.startTime = startTime;
@@ -75,6 +79,7 @@ public class ScheduledJobRunHistory extends AbstractPersistable<Long> {
         this.errorMessage = errorMessage;
         this.triggerType = triggerType;
         this.errorLog = errorLog;
+        this.runSummary = runSummary;
     }
 
 }
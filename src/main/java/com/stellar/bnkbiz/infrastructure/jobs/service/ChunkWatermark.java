@@ -0,0 +1,75 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.jobs.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Tracks chunks of a keyset paged job that complete out of order and exposes
+ * the highest id below which every chunk has been committed. That id is the
+ * only safe restart point after a crash.
+ */
+public class ChunkWatermark {
+
+    private final Deque<Chunk> pending = new ArrayDeque<>();
+    private Long watermark;
+
+    public ChunkWatermark(final Long startAfterId) {
+        this.watermark = startAfterId;
+    }
+
+    /**
+     * Registers a chunk in read order, must be called before the chunk is
+     * handed over to a worker.
+     */
+    public synchronized Object register(final Long lastIdOfChunk) {
+        final Chunk chunk = new Chunk(lastIdOfChunk);
+        this.pending.addLast(chunk);
+        return chunk;
+    }
+
+    /**
+     * @return the new watermark if it moved because of this completion,
+     *         otherwise <code>null</code>
+     */
+    public synchronized Long complete(final Object handle) {
+        ((Chunk) handle).completed = true;
+        boolean moved = false;
+        while (!this.pending.isEmpty() && this.pending.peekFirst().completed) {
+            this.watermark = this.pending.removeFirst().lastId;
+            moved = true;
+        }
+        return moved ? this.watermark : null;
+    }
+
+    public synchronized Long current() {
+        return this.watermark;
+    }
+
+    private static final class Chunk {
+
+        private final Long lastId;
+        private boolean completed;
+
+        Chunk(final Long lastId) {
+            this.lastId = lastId;
+        }
+    }
+}
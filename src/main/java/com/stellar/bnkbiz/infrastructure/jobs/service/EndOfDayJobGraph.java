@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.jobs.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Declares the order in which the end of day jobs have to run. A job is
+ * started as soon as all of its predecessors have completed successfully;
+ * jobs that do not depend on each other run in parallel.
+ * 
+ * A job can only depend on jobs declared before it, which keeps the graph
+ * free of cycles and makes the declaration order a valid sequential order.
+ */
+public final class EndOfDayJobGraph {
+
+    private static final Map<JobName, List<JobName>> predecessors = new LinkedHashMap<>();
+
+    static {
+        job(JobName.APPLY_HOLIDAYS_TO_LOANS);
+        job(JobName.UPDATE_LOAN_SUMMARY, JobName.APPLY_HOLIDAYS_TO_LOANS);
+        job(JobName.UPDATE_LOAN_PAID_IN_ADVANCE, JobName.APPLY_HOLIDAYS_TO_LOANS);
+        job(JobName.UPDATE_LOAN_ARREARS_AGEING, JobName.UPDATE_LOAN_SUMMARY);
+        job(JobName.UPDATE_NPA, JobName.UPDATE_LOAN_ARREARS_AGEING);
+        job(JobName.ADD_PERIODIC_ACCRUAL_ENTRIES, JobName.UPDATE_NPA);
+
+        job(JobName.PAY_DUE_SAVINGS_CHARGES);
+        job(JobName.POST_INTEREST_FOR_SAVINGS, JobName.PAY_DUE_SAVINGS_CHARGES);
+
+        // running balances last, after every job that posts journal entries
+        job(JobName.ACCOUNTING_RUNNING_BALANCE_UPDATE, JobName.ADD_PERIODIC_ACCRUAL_ENTRIES, JobName.POST_INTEREST_FOR_SAVINGS);
+    }
+
+    private EndOfDayJobGraph() {
+
+    }
+
+    private static void job(final JobName jobName, final JobName... jobPredecessors) {
+        for (final JobName predecessor : jobPredecessors) {
+            if (!predecessors.containsKey(predecessor)) { throw new IllegalStateException(jobName + " depends on " + predecessor
+                    + " which has to be declared first"); }
+        }
+        predecessors.put(jobName, Collections.unmodifiableList(Arrays.asList(jobPredecessors)));
+    }
+
+    /**
+     * @return all jobs of the graph in declaration order
+     */
+    public static Set<JobName> jobs() {
+        return Collections.unmodifiableSet(predecessors.keySet());
+    }
+
+    public static List<JobName> predecessorsOf(final JobName jobName) {
+        return predecessors.get(jobName);
+    }
+
+    public static List<JobName> successorsOf(final JobName jobName) {
+        final List<JobName> successors = new ArrayList<>();
+        for (final Map.Entry<JobName, List<JobName>> entry : predecessors.entrySet()) {
+            if (entry.getValue().contains(jobName)) {
+                successors.add(entry.getKey());
+            }
+        }
+        return successors;
+    }
+}
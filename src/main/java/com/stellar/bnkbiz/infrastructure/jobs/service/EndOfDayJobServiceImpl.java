@@ -0,0 +1,300 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.jobs.service;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+import com.stellar.bnkbiz.infrastructure.core.service.ContextAwareExecutor;
+import com.stellar.bnkbiz.infrastructure.core.service.ThreadLocalContextUtil;
+import com.stellar.bnkbiz.infrastructure.jobs.annotation.CronTarget;
+import com.stellar.bnkbiz.infrastructure.jobs.domain.ScheduledJobDetail;
+import com.stellar.bnkbiz.infrastructure.jobs.domain.ScheduledJobRunHistory;
+import com.stellar.bnkbiz.infrastructure.jobs.exception.JobExecutionException;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs the jobs of {@link EndOfDayJobGraph} for the tenant of the trigger.
+ * 
+ * Every tenant has its own end of day trigger, so tenants run side by side;
+ * the number of jobs running at once over all tenants is capped by
+ * <code>fineract.scheduler.end-of-day-concurrency</code>. Each job keeps its
+ * own run history, and the critical path of the run is stored with the run
+ * history of the end of day job itself.
+ */
+@Service
+public class EndOfDayJobServiceImpl implements EndOfDayJobService {
+
+    private final static Logger logger = LoggerFactory.getLogger(EndOfDayJobServiceImpl.class);
+
+    public final static String END_OF_DAY_CONCURRENCY = "fineract.scheduler.end-of-day-concurrency";
+
+    private final SchedularWritePlatformService schedularService;
+    private final CronTargetInvoker cronTargetInvoker;
+    private final JobRunProgressService jobRunProgressService;
+    private final JobLeaseService jobLeaseService;
+    private final Semaphore runningJobs;
+
+    @Autowired
+    public EndOfDayJobServiceImpl(final SchedularWritePlatformService schedularService, final CronTargetInvoker cronTargetInvoker,
+            final JobRunProgressService jobRunProgressService, final JobLeaseService jobLeaseService,
+            @Value("${" + END_OF_DAY_CONCURRENCY + ":4}") final int concurrency) {
+        this.schedularService = schedularService;
+        this.cronTargetInvoker = cronTargetInvoker;
+        this.jobRunProgressService = jobRunProgressService;
+        this.jobLeaseService = jobLeaseService;
+        this.runningJobs = new Semaphore(Math.max(1, concurrency), true);
+    }
+
+    @Override
+    @CronTarget(jobName = JobName.RUN_END_OF_DAY)
+    public void runEndOfDayJobs() throws JobExecutionException {
+        final JobRunProgress progress = this.jobRunProgressService.start(JobName.RUN_END_OF_DAY, "jobs");
+        final long runStart = System.currentTimeMillis();
+        final Map<JobName, JobOutcome> outcomes = new LinkedHashMap<>();
+        final Map<JobName, Integer> pendingPredecessors = new HashMap<>();
+        for (final JobName jobName : EndOfDayJobGraph.jobs()) {
+            pendingPredecessors.put(jobName, EndOfDayJobGraph.predecessorsOf(jobName).size());
+        }
+        final BlockingQueue<JobOutcome> completed = new LinkedBlockingQueue<>();
+        final int jobCount = EndOfDayJobGraph.jobs().size();
+
+        try (ContextAwareExecutor executor = ContextAwareExecutor.newFixedPool("end-of-day-"
+                + ThreadLocalContextUtil.getTenant().getTenantIdentifier(), jobCount, jobCount)) {
+            int running = 0;
+            for (final JobName jobName : EndOfDayJobGraph.jobs()) {
+                if (pendingPredecessors.get(jobName) == 0) {
+                    submit(executor, jobName, runStart, completed);
+                    running++;
+                }
+            }
+            while (running > 0) {
+                final JobOutcome outcome = takeOutcome(completed);
+                running--;
+                final LinkedList<JobOutcome> resolved = new LinkedList<>();
+                resolved.add(outcome);
+                while (!resolved.isEmpty()) {
+                    final JobOutcome next = resolved.removeFirst();
+                    outcomes.put(next.jobName, next);
+                    if (next.succeeded) {
+                        progress.addProcessed(1);
+                    } else {
+                        progress.addFailed(1);
+                    }
+                    for (final JobName successor : EndOfDayJobGraph.successorsOf(next.jobName)) {
+                        final int pending = pendingPredecessors.get(successor) - 1;
+                        pendingPredecessors.put(successor, pending);
+                        if (pending > 0) {
+                            continue;
+                        }
+                        final JobName failedPredecessor = findFailedPredecessor(successor, outcomes);
+                        if (failedPredecessor == null) {
+                            submit(executor, successor, runStart, completed);
+                            running++;
+                        } else {
+                            resolved.add(JobOutcome.skipped(successor, failedPredecessor));
+                        }
+                    }
+                }
+                progress.updateDetail("completed: " + outcomes.keySet());
+            }
+        }
+
+        final String criticalPath = criticalPath(outcomes, System.currentTimeMillis() - runStart);
+        progress.updateDetail(criticalPath);
+        logger.info(ThreadLocalContextUtil.getTenant().getName() + ": end of day " + criticalPath);
+
+        final StringBuilder errors = new StringBuilder();
+        for (final JobOutcome outcome : outcomes.values()) {
+            if (!outcome.succeeded) {
+                errors.append(outcome.jobName).append(": ").append(outcome.errorMessage).append(" ");
+            }
+        }
+        if (errors.length() > 0) { throw new JobExecutionException(errors.toString().trim()); }
+    }
+
+    private void submit(final ContextAwareExecutor executor, final JobName jobName, final long runStart,
+            final BlockingQueue<JobOutcome> completed) {
+        executor.submit(new Callable<Void>() {
+
+            @Override
+            public Void call() {
+                completed.add(runJobWithinCap(jobName, runStart));
+                return null;
+            }
+        });
+    }
+
+    private JobOutcome takeOutcome(final BlockingQueue<JobOutcome> completed) throws JobExecutionException {
+        try {
+            return completed.take();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JobExecutionException("Interrupted while waiting for end of day jobs");
+        }
+    }
+
+    private JobOutcome runJobWithinCap(final JobName jobName, final long runStart) {
+        try {
+            this.runningJobs.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return JobOutcome.executed(jobName, runStart, runStart, "interrupted before start");
+        }
+        final long start = System.currentTimeMillis();
+        try {
+            final String errorMessage = runJob(jobName);
+            return JobOutcome.executed(jobName, start - runStart, System.currentTimeMillis() - runStart, errorMessage);
+        } catch (final Throwable e) {
+            // the run could not even be recorded, or the job failed with an
+            // error; still report an outcome so that the graph does not wait
+            // for this job forever
+            logger.error("End of day job " + jobName + " could not be run", e);
+            return JobOutcome.executed(jobName, start - runStart, System.currentTimeMillis() - runStart, e.toString());
+        } finally {
+            this.runningJobs.release();
+        }
+    }
+
+    /**
+     * Runs the job the same way its own trigger would: under its lease and
+     * with its own run history.
+     * 
+     * @return <code>null</code> when the job succeeded, else the reason it
+     *         failed
+     */
+    private String runJob(final JobName jobName) {
+        final ScheduledJobDetail scheduledJobDetail = this.schedularService.findByJobName(jobName.toString());
+        if (scheduledJobDetail == null) { return "no job is configured with this name"; }
+        final String jobKey = scheduledJobDetail.getJobKey();
+        final boolean isStopExecution = this.schedularService.processJobDetailForExecution(jobKey,
+                SchedulerServiceConstants.TRIGGER_TYPE_END_OF_DAY);
+        if (isStopExecution) { return "job is already running"; }
+
+        final Date startTime = new Date();
+        String status = SchedulerServiceConstants.STATUS_SUCCESS;
+        String errorMessage = null;
+        String errorLog = null;
+        try {
+            this.cronTargetInvoker.invoke(jobName);
+        } catch (final Exception e) {
+            status = SchedulerServiceConstants.STATUS_FAILED;
+            errorMessage = StringUtils.defaultString(e.getMessage(), e.toString());
+            errorLog = e.toString();
+        }
+
+        String runSummary = null;
+        final JobRunProgress progress = this.jobRunProgressService.finish(jobName.toString());
+        if (progress != null) {
+            runSummary = StringUtils.abbreviate(progress.summary(), SchedulerServiceConstants.MAX_RUN_SUMMARY_LENGTH);
+        }
+        final ScheduledJobDetail completedJobDetail = this.schedularService.findByJobKey(jobKey);
+        completedJobDetail.updatePreviousRunStartTime(startTime);
+        completedJobDetail.updateCurrentlyRunningStatus(false);
+        final Long version = this.schedularService.fetchMaxVersionBy(jobKey) + 1;
+        final ScheduledJobRunHistory runHistory = new ScheduledJobRunHistory(completedJobDetail, version, startTime, new Date(), status,
+                errorMessage, SchedulerServiceConstants.TRIGGER_TYPE_END_OF_DAY, errorLog, runSummary);
+        this.schedularService.saveOrUpdate(completedJobDetail, runHistory, this.jobLeaseService.retrieveFencingToken(jobKey));
+        return errorMessage;
+    }
+
+    private static JobName findFailedPredecessor(final JobName jobName, final Map<JobName, JobOutcome> outcomes) {
+        for (final JobName predecessor : EndOfDayJobGraph.predecessorsOf(jobName)) {
+            if (!outcomes.get(predecessor).succeeded) { return predecessor; }
+        }
+        return null;
+    }
+
+    /**
+     * Walks back from the job that finished last, always following the
+     * predecessor that finished last, which is the chain of jobs that
+     * determined the length of the run.
+     */
+    private static String criticalPath(final Map<JobName, JobOutcome> outcomes, final long windowMillis) {
+        JobOutcome last = null;
+        for (final JobOutcome outcome : outcomes.values()) {
+            if (!outcome.skipped && (last == null || outcome.endOffset > last.endOffset)) {
+                last = outcome;
+            }
+        }
+        final LinkedList<JobOutcome> path = new LinkedList<>();
+        while (last != null) {
+            path.addFirst(last);
+            JobOutcome previous = null;
+            for (final JobName predecessor : EndOfDayJobGraph.predecessorsOf(last.jobName)) {
+                final JobOutcome outcome = outcomes.get(predecessor);
+                if (outcome != null && !outcome.skipped && (previous == null || outcome.endOffset > previous.endOffset)) {
+                    previous = outcome;
+                }
+            }
+            last = previous;
+        }
+
+        final StringBuilder sb = new StringBuilder("critical path: ");
+        for (int i = 0; i < path.size(); i++) {
+            final JobOutcome outcome = path.get(i);
+            if (i > 0) {
+                sb.append(" > ");
+            }
+            sb.append(outcome.jobName).append(" ").append((outcome.endOffset - outcome.startOffset) / 1000).append("s");
+        }
+        sb.append(", window: ").append(windowMillis / 1000).append("s");
+        return sb.toString();
+    }
+
+    private static final class JobOutcome {
+
+        private final JobName jobName;
+        private final boolean succeeded;
+        private final boolean skipped;
+        private final long startOffset;
+        private final long endOffset;
+        private final String errorMessage;
+
+        private JobOutcome(final JobName jobName, final boolean succeeded, final boolean skipped, final long startOffset,
+                final long endOffset, final String errorMessage) {
+            this.jobName = jobName;
+            this.succeeded = succeeded;
+            this.skipped = skipped;
+            this.startOffset = startOffset;
+            this.endOffset = endOffset;
+            this.errorMessage = errorMessage;
+        }
+
+        static JobOutcome executed(final JobName jobName, final long startOffset, final long endOffset, final String errorMessage) {
+            return new JobOutcome(jobName, errorMessage == null, false, startOffset, endOffset, errorMessage);
+        }
+
+        static JobOutcome skipped(final JobName jobName, final JobName failedPredecessor) {
+            return new JobOutcome(jobName, false, true, 0, 0, "skipped as " + failedPredecessor + " did not complete");
+        }
+    }
+}
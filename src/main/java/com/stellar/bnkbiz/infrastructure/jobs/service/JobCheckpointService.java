@@ -0,0 +1,37 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.jobs.service;
+
+/**
+ * Persists restart points and per item failures of partitioned jobs so that an
+ * interrupted run can resume from its last committed chunk.
+ */
+public interface JobCheckpointService {
+
+    Long retrieveCheckpoint(JobName jobName, String partitionKey);
+
+    void saveCheckpoint(JobName jobName, String partitionKey, Long lastProcessedId);
+
+    void deleteCheckpoint(JobName jobName, String partitionKey);
+
+    void recordFailure(JobName jobName, String partitionKey, Long entityId, Throwable failure);
+
+    int countFailures(JobName jobName, String partitionKey);
+
+}
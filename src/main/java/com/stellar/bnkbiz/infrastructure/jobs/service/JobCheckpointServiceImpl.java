@@ -0,0 +1,82 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.jobs.service;
+
+import java.util.Date;
+import java.util.List;
+
+import com.stellar.bnkbiz.infrastructure.core.service.RoutingDataSource;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+@Service
+public class JobCheckpointServiceImpl implements JobCheckpointService {
+
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public JobCheckpointServiceImpl(final RoutingDataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public Long retrieveCheckpoint(final JobName jobName, final String partitionKey) {
+        final String sql = "select last_processed_id from job_partition_checkpoint where job_name = ? and partition_key = ?";
+        final List<Long> checkpoints = this.jdbcTemplate.queryForList(sql, Long.class, jobName.name(), partitionKey);
+        if (checkpoints.isEmpty()) { return null; }
+        return checkpoints.get(0);
+    }
+
+    @Override
+    public void saveCheckpoint(final JobName jobName, final String partitionKey, final Long lastProcessedId) {
+        final String sql = "insert into job_partition_checkpoint (job_name, partition_key, last_processed_id, lastmodified_date) "
+                + "values (?, ?, ?, ?) on duplicate key update last_processed_id = values(last_processed_id), "
+                + "lastmodified_date = values(lastmodified_date)";
+        this.jdbcTemplate.update(sql, jobName.name(), partitionKey, lastProcessedId, new Date());
+    }
+
+    @Override
+    public void deleteCheckpoint(final JobName jobName, final String partitionKey) {
+        this.jdbcTemplate.update("delete from job_partition_checkpoint where job_name = ? and partition_key = ?", jobName.name(),
+                partitionKey);
+    }
+
+    @Override
+    public void recordFailure(final JobName jobName, final String partitionKey, final Long entityId, final Throwable failure) {
+        Throwable realCause = failure;
+        if (failure.getCause() != null) {
+            realCause = failure.getCause();
+        }
+        final String errorMessage = StringUtils.abbreviate(realCause.toString(), MAX_ERROR_MESSAGE_LENGTH);
+        final String sql = "insert into job_item_failure (job_name, partition_key, entity_id, error_message, created_date) "
+                + "values (?, ?, ?, ?, ?)";
+        this.jdbcTemplate.update(sql, jobName.name(), partitionKey, entityId, errorMessage, new Date());
+    }
+
+    @Override
+    public int countFailures(final JobName jobName, final String partitionKey) {
+        final String sql = "select count(*) from job_item_failure where job_name = ? and partition_key = ?";
+        return this.jdbcTemplate.queryForObject(sql, Integer.class, jobName.name(), partitionKey);
+    }
+
+}
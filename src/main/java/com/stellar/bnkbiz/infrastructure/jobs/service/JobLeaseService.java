@@ -0,0 +1,66 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.jobs.service;
+
+/**
+ * Database backed, per job lease that makes sure a scheduled job runs on
+ * exactly one node of a cluster.
+ * 
+ * A lease is taken on the <code>job</code> row of the current tenant when the
+ * job is about to run and is renewed by a heartbeat for as long as it runs.
+ * Every acquisition increments the fencing token of the row; writes made when
+ * the run completes are conditional on that token so a node whose lease
+ * expired (for example after a long GC pause) cannot overwrite the state of
+ * the node that took over.
+ */
+public interface JobLeaseService {
+
+    String getNodeId();
+
+    /**
+     * Takes the lease of the job for this node if nobody holds it or the
+     * holder let it expire.
+     * 
+     * @return the fencing token of the new lease, or <code>null</code> when
+     *         another node holds a live lease
+     */
+    Long acquire(String jobKey);
+
+    /**
+     * @return the fencing token of the lease this node holds on the job of
+     *         the current tenant, or <code>null</code> when it holds none
+     */
+    Long retrieveFencingToken(String jobKey);
+
+    /**
+     * Gives the lease up if it is still the one identified by the fencing
+     * token; must run in the transaction that records the end of the run.
+     * 
+     * @return <code>false</code> when the lease was lost in the meantime
+     */
+    boolean release(String jobKey, Long fencingToken);
+
+    /**
+     * Delays a cron fired job on a node in proportion to the number of leases
+     * it already holds, so that the least busy node of the cluster tends to
+     * win the race for the next lease.
+     */
+    void yieldToLessBusyNodes();
+
+}
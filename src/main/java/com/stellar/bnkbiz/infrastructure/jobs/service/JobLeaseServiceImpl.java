@@ -0,0 +1,198 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.jobs.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import com.stellar.bnkbiz.infrastructure.core.domain.FineractPlatformTenant;
+import com.stellar.bnkbiz.infrastructure.core.service.RoutingDataSource;
+import com.stellar.bnkbiz.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Lease times are taken from the clock of the node, so the clocks of the
+ * cluster must agree to well within the lease duration.
+ */
+@Service
+public class JobLeaseServiceImpl implements JobLeaseService {
+
+    private final static Logger logger = LoggerFactory.getLogger(JobLeaseServiceImpl.class);
+
+    public final static String NODE_ID = "fineract.scheduler.node-id";
+    public final static String LEASE_SECONDS = "fineract.scheduler.lease-seconds";
+
+    private static final long YIELD_MILLIS_PER_LEASE = 250;
+    private static final int MAX_YIELD_LEASES = 8;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId;
+    private final int leaseSeconds;
+    private final Map<String, HeldLease> heldLeases = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService heartbeat;
+
+    @Autowired
+    public JobLeaseServiceImpl(final RoutingDataSource dataSource, @Value("${" + NODE_ID + ":}") final String nodeId,
+            @Value("${" + LEASE_SECONDS + ":60}") final int leaseSeconds) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.nodeId = StringUtils.isNotBlank(nodeId) ? nodeId : defaultNodeId();
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    @PostConstruct
+    public void start() {
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "job-lease-heartbeat");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        final long renewInterval = Math.max(1, this.leaseSeconds / 3);
+        this.heartbeat.scheduleWithFixedDelay(new Runnable() {
+
+            @Override
+            public void run() {
+                renewHeldLeases();
+            }
+        }, renewInterval, renewInterval, TimeUnit.SECONDS);
+        logger.info("Scheduler node " + this.nodeId + " started with a job lease of " + this.leaseSeconds + "s");
+    }
+
+    @PreDestroy
+    public void stop() {
+        // leases of jobs that are still running simply expire and can then be
+        // taken over by another node
+        this.heartbeat.shutdownNow();
+    }
+
+    @Override
+    public String getNodeId() {
+        return this.nodeId;
+    }
+
+    @Override
+    public Long acquire(final String jobKey) {
+        final Date now = new Date();
+        final String sql = "update job set lease_owner = ?, lease_expiry_time = ?, fencing_token = fencing_token + 1 "
+                + "where job_key = ? and (lease_owner is null or lease_expiry_time is null or lease_expiry_time < ?)";
+        final int updated = this.jdbcTemplate.update(sql, this.nodeId, leaseExpiry(now), jobKey, now);
+        if (updated == 0) { return null; }
+
+        final Long fencingToken = this.jdbcTemplate.queryForObject("select fencing_token from job where job_key = ?", Long.class,
+                jobKey);
+        final FineractPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        this.heldLeases.put(leaseKey(tenant, jobKey), new HeldLease(tenant, jobKey, fencingToken));
+        return fencingToken;
+    }
+
+    @Override
+    public Long retrieveFencingToken(final String jobKey) {
+        final HeldLease lease = this.heldLeases.get(leaseKey(ThreadLocalContextUtil.getTenant(), jobKey));
+        if (lease == null) { return null; }
+        return lease.fencingToken;
+    }
+
+    @Override
+    public boolean release(final String jobKey, final Long fencingToken) {
+        this.heldLeases.remove(leaseKey(ThreadLocalContextUtil.getTenant(), jobKey));
+        final String sql = "update job set lease_owner = null, lease_expiry_time = null "
+                + "where job_key = ? and lease_owner = ? and fencing_token = ?";
+        return this.jdbcTemplate.update(sql, jobKey, this.nodeId, fencingToken) == 1;
+    }
+
+    @Override
+    public void yieldToLessBusyNodes() {
+        final int leases = Math.min(this.heldLeases.size(), MAX_YIELD_LEASES);
+        if (leases == 0) { return; }
+        try {
+            Thread.sleep(leases * YIELD_MILLIS_PER_LEASE);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void renewHeldLeases() {
+        final String sql = "update job set lease_expiry_time = ? where job_key = ? and lease_owner = ? and fencing_token = ?";
+        for (final Map.Entry<String, HeldLease> entry : this.heldLeases.entrySet()) {
+            final HeldLease lease = entry.getValue();
+            ThreadLocalContextUtil.setTenant(lease.tenant);
+            try {
+                final int updated = this.jdbcTemplate.update(sql, leaseExpiry(new Date()), lease.jobKey, this.nodeId, lease.fencingToken);
+                if (updated == 0) {
+                    logger.warn("Lease on job " + lease.jobKey + " of tenant " + lease.tenant.getTenantIdentifier()
+                            + " was lost, another node has taken it over");
+                    this.heldLeases.remove(entry.getKey(), lease);
+                }
+            } catch (final RuntimeException e) {
+                // try again on the next beat, the lease outlives a few misses
+                logger.error("Could not renew lease on job " + lease.jobKey, e);
+            } finally {
+                ThreadLocalContextUtil.clearTenant();
+            }
+        }
+    }
+
+    private Date leaseExpiry(final Date now) {
+        return new Date(now.getTime() + TimeUnit.SECONDS.toMillis(this.leaseSeconds));
+    }
+
+    private static String leaseKey(final FineractPlatformTenant tenant, final String jobKey) {
+        return tenant.getTenantIdentifier() + ":" + jobKey;
+    }
+
+    private static String defaultNodeId() {
+        // pid@host of the JVM, made unique so that a restarted node never
+        // mistakes the leases of its previous incarnation for its own
+        final String jvmName = ManagementFactory.getRuntimeMXBean().getName();
+        return jvmName + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private static final class HeldLease {
+
+        private final FineractPlatformTenant tenant;
+        private final String jobKey;
+        private final Long fencingToken;
+
+        HeldLease(final FineractPlatformTenant tenant, final String jobKey, final Long fencingToken) {
+            this.tenant = tenant;
+            this.jobKey = jobKey;
+            this.fencingToken = fencingToken;
+        }
+    }
+}
@@ -21,7 +21,9 @@ package com.stellar.bnkbiz.infrastructure.jobs.service;
 public enum JobName {
 
     UPDATE_LOAN_SUMMARY("Update loan Summary"), //
+    REBUILD_LOAN_SUMMARY("Rebuild Loan Summary"), //
     UPDATE_LOAN_ARREARS_AGEING("Update Loan Arrears Ageing"), //
+    REBUILD_LOAN_ARREARS_AGEING("Rebuild Loan Arrears Ageing"), //
     UPDATE_LOAN_PAID_IN_ADVANCE("Update Loan Paid In Advance"), //
     APPLY_ANNUAL_FEE_FOR_SAVINGS("Apply Annual Fee For Savings"), //
     APPLY_HOLIDAYS_TO_LOANS("Apply Holidays To Loans"), //
@@ -38,7 +40,9 @@ public enum JobName {
     ADD_PERIODIC_ACCRUAL_ENTRIES("Add Periodic Accrual Transactions"),
     RECALCULATE_INTEREST_FOR_LOAN("Recalculate Interest For Loans"),
     GENERATE_RD_SCEHDULE("Generate Mandatory Savings Schedule"),
-    GENERATE_LOANLOSS_PROVISIONING("Generate Loan Loss Provisioning");
+    GENERATE_LOANLOSS_PROVISIONING("Generate Loan Loss Provisioning"),
+    RUN_END_OF_DAY("Run End Of Day Jobs"), //
+    REBUILD_SEARCH_INDEX("Rebuild Search Index");
     
     private final String name;
 
@@ -18,8 +18,6 @@
  */
 package com.stellar.bnkbiz.infrastructure.jobs.service;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Properties;
@@ -30,7 +28,6 @@ import javax.annotation.PostConstruct;
 import com.stellar.bnkbiz.infrastructure.core.domain.FineractPlatformTenant;
 import com.stellar.bnkbiz.infrastructure.core.exception.PlatformInternalServerException;
 import com.stellar.bnkbiz.infrastructure.core.service.ThreadLocalContextUtil;
-import com.stellar.bnkbiz.infrastructure.jobs.annotation.CronMethodParser;
 import com.stellar.bnkbiz.infrastructure.jobs.annotation.CronMethodParser.ClassMethodNamesPair;
 import com.stellar.bnkbiz.infrastructure.jobs.domain.ScheduledJobDetail;
 import com.stellar.bnkbiz.infrastructure.jobs.domain.SchedulerDetail;
@@ -47,7 +44,6 @@ import org.quartz.TriggerListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.event.ContextClosedEvent;
 import org.springframework.scheduling.quartz.CronTriggerFactoryBean;
@@ -71,20 +67,15 @@ public class JobRegisterServiceImpl implements JobRegisterService, ApplicationLi
     // code base, the following fields are not final, and there is no
     // constructor, but setters.
 
-    private ApplicationContext applicationContext;
     private SchedularWritePlatformService schedularWritePlatformService;
     private TenantDetailsService tenantDetailsService;
     private SchedulerJobListener schedulerJobListener;
     private SchedulerStopListener schedulerStopListener;
     private SchedulerTriggerListener globalSchedulerTriggerListener;
+    private CronTargetInvoker cronTargetInvoker;
 
     private final HashMap<String, Scheduler> schedulers = new HashMap<>(4);
 
-    @Autowired
-    public void setApplicationContext(ApplicationContext applicationContext) {
-        this.applicationContext = applicationContext;
-    }
-
     @Autowired
     public void setSchedularWritePlatformService(SchedularWritePlatformService schedularWritePlatformService) {
         this.schedularWritePlatformService = schedularWritePlatformService;
@@ -110,6 +101,11 @@ public class JobRegisterServiceImpl implements JobRegisterService, ApplicationLi
         this.globalSchedulerTriggerListener = globalTriggerListener;
     }
 
+    @Autowired
+    public void setCronTargetInvoker(CronTargetInvoker cronTargetInvoker) {
+        this.cronTargetInvoker = cronTargetInvoker;
+    }
+
     @PostConstruct
     public void loadAllJobs() {
         final List<FineractPlatformTenant> allTenants = this.tenantDetailsService.findAllTenants();
@@ -338,11 +334,8 @@ public class JobRegisterServiceImpl implements JobRegisterService, ApplicationLi
 
     private JobDetail createJobDetail(final ScheduledJobDetail scheduledJobDetail) throws Exception {
         final FineractPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
-        final ClassMethodNamesPair jobDetails = CronMethodParser.findTargetMethodDetails(scheduledJobDetail.getJobName());
-        if (jobDetails == null) { throw new IllegalArgumentException(
-                "Code has no @CronTarget with this job name (@see JobName); seems like DB/code are not in line: "
-                        + scheduledJobDetail.getJobName()); }
-        final Object targetObject = getBeanObject(Class.forName(jobDetails.className));
+        final ClassMethodNamesPair jobDetails = this.cronTargetInvoker.findTargetMethod(scheduledJobDetail.getJobName());
+        final Object targetObject = this.cronTargetInvoker.getBeanObject(Class.forName(jobDetails.className));
         final MethodInvokingJobDetailFactoryBean jobDetailFactoryBean = new MethodInvokingJobDetailFactoryBean();
         jobDetailFactoryBean.setName(scheduledJobDetail.getJobName() + "JobDetail" + tenant.getId());
         jobDetailFactoryBean.setTargetObject(targetObject);
@@ -353,35 +346,6 @@ public class JobRegisterServiceImpl implements JobRegisterService, ApplicationLi
         return jobDetailFactoryBean.getObject();
     }
 
-    private Object getBeanObject(final Class<?> classType) throws ClassNotFoundException {
-        final List<Class<?>> typesList = new ArrayList<>();
-        final Class<?>[] interfaceType = classType.getInterfaces();
-        if (interfaceType.length > 0) {
-            typesList.addAll(Arrays.asList(interfaceType));
-        } else {
-            Class<?> superclassType = classType;
-            while (!Object.class.getName().equals(superclassType.getSuperclass().getName())) {
-                superclassType = superclassType.getSuperclass();
-            }
-            typesList.add(superclassType);
-        }
-        final List<String> beanNames = new ArrayList<>();
-        for (final Class<?> clazz : typesList) {
-            beanNames.addAll(Arrays.asList(this.applicationContext.getBeanNamesForType(clazz)));
-        }
-        Object targetObject = null;
-        for (final String beanName : beanNames) {
-            final Object nextObject = this.applicationContext.getBean(beanName);
-            String targetObjName = nextObject.toString();
-            targetObjName = targetObjName.substring(0, targetObjName.lastIndexOf("@"));
-            if (classType.getName().equals(targetObjName)) {
-                targetObject = nextObject;
-                break;
-            }
-        }
-        return targetObject;
-    }
-
     private Trigger createTrigger(final ScheduledJobDetail scheduledJobDetails, final JobDetail jobDetail) {
         final FineractPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
         final CronTriggerFactoryBean cronTriggerFactoryBean = new CronTriggerFactoryBean();
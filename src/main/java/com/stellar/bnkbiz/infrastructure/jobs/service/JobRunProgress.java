@@ -0,0 +1,78 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.jobs.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread safe counters of a single job run. Workers report the items they
+ * processed or failed to process; {@link #summary()} is stored with the run
+ * history once the job completes.
+ */
+public class JobRunProgress {
+
+    private final String itemName;
+    private final long startTime;
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile String detail;
+
+    public JobRunProgress(final String itemName) {
+        this.itemName = itemName;
+        this.startTime = System.currentTimeMillis();
+    }
+
+    public void addProcessed(final int count) {
+        this.processed.addAndGet(count);
+    }
+
+    public void addFailed(final int count) {
+        this.failed.addAndGet(count);
+    }
+
+    /**
+     * Free text appended to the summary, e.g. the stage the job is in.
+     */
+    public void updateDetail(final String detail) {
+        this.detail = detail;
+    }
+
+    public long getProcessed() {
+        return this.processed.get();
+    }
+
+    public long getFailed() {
+        return this.failed.get();
+    }
+
+    /**
+     * @return items per second since the run started
+     */
+    public long throughput() {
+        final long elapsedMillis = Math.max(1, System.currentTimeMillis() - this.startTime);
+        return (this.processed.get() + this.failed.get()) * 1000 / elapsedMillis;
+    }
+
+    public String summary() {
+        final String summary = this.itemName + " done: " + this.processed.get() + ", " + this.itemName + " failed: " + this.failed.get()
+                + ", throughput: " + throughput() + " " + this.itemName + "/s";
+        if (this.detail == null) { return summary; }
+        return summary + "; " + this.detail;
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.infrastructure.jobs.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.stellar.bnkbiz.infrastructure.core.service.ThreadLocalContextUtil;
+import org.springframework.stereotype.Service;
+
+@Service
+public class JobRunProgressServiceImpl implements JobRunProgressService {
+
+    private final ConcurrentMap<String, JobRunProgress> runningJobs = new ConcurrentHashMap<>();
+
+    @Override
+    public JobRunProgress start(final JobName jobName, final String itemName) {
+        final JobRunProgress progress = new JobRunProgress(itemName);
+        this.runningJobs.put(key(jobName.toString()), progress);
+        return progress;
+    }
+
+    @Override
+    public JobRunProgress retrieve(final String jobName) {
+        return this.runningJobs.get(key(jobName));
+    }
+
+    @Override
+    public JobRunProgress finish(final String jobName) {
+        return this.runningJobs.remove(key(jobName));
+    }
+
+    private static String key(final String jobName) {
+        return ThreadLocalContextUtil.getTenant().getTenantIdentifier() + ":" + jobName;
+    }
+}
@@ -36,10 +36,14 @@ public interface SchedularWritePlatformService {
 
     public void saveOrUpdate(ScheduledJobDetail scheduledJobDetails, ScheduledJobRunHistory scheduledJobRunHistory);
 
+    public void saveOrUpdate(ScheduledJobDetail scheduledJobDetails, ScheduledJobRunHistory scheduledJobRunHistory, Long fencingToken);
+
     public Long fetchMaxVersionBy(String triggerKey);
 
     public ScheduledJobDetail findByJobId(Long jobId);
 
+    public ScheduledJobDetail findByJobName(String jobName);
+
     public CommandProcessingResult updateJobDetail(Long jobId, JsonCommand command);
 
     public SchedulerDetail retriveSchedulerDetail();
@@ -48,14 +48,17 @@ public class SchedularWritePlatformServiceJpaRepositoryImpl implements Schedular
 
     private final JobDetailDataValidator dataValidator;
 
+    private final JobLeaseService jobLeaseService;
+
     @Autowired
     public SchedularWritePlatformServiceJpaRepositoryImpl(final ScheduledJobDetailRepository scheduledJobDetailsRepository,
             final ScheduledJobRunHistoryRepository scheduledJobRunHistoryRepository, final JobDetailDataValidator dataValidator,
-            final SchedulerDetailRepository schedulerDetailRepository) {
+            final SchedulerDetailRepository schedulerDetailRepository, final JobLeaseService jobLeaseService) {
         this.scheduledJobDetailsRepository = scheduledJobDetailsRepository;
         this.scheduledJobRunHistoryRepository = scheduledJobRunHistoryRepository;
         this.schedulerDetailRepository = schedulerDetailRepository;
         this.dataValidator = dataValidator;
+        this.jobLeaseService = jobLeaseService;
     }
 
     @Override
@@ -81,6 +84,18 @@ public class SchedularWritePlatformServiceJpaRepositoryImpl implements Schedular
         this.scheduledJobRunHistoryRepository.save(scheduledJobRunHistory);
     }
 
+    @Transactional
+    @Override
+    public void saveOrUpdate(final ScheduledJobDetail scheduledJobDetails, final ScheduledJobRunHistory scheduledJobRunHistory,
+            final Long fencingToken) {
+        // a node that lost its lease only records its run, the job state
+        // belongs to the node that took over
+        if (fencingToken == null || this.jobLeaseService.release(scheduledJobDetails.getJobKey(), fencingToken)) {
+            this.scheduledJobDetailsRepository.save(scheduledJobDetails);
+        }
+        this.scheduledJobRunHistoryRepository.save(scheduledJobRunHistory);
+    }
+
     @Override
     public Long fetchMaxVersionBy(final String jobKey) {
         Long version = 0L;
@@ -96,6 +111,11 @@ public class SchedularWritePlatformServiceJpaRepositoryImpl implements Schedular
         return this.scheduledJobDetailsRepository.findByJobId(jobId);
     }
 
+    @Override
+    public ScheduledJobDetail findByJobName(final String jobName) {
+        return this.scheduledJobDetailsRepository.findByJobName(jobName);
+    }
+
     @Override
     @Transactional
     public void updateSchedulerDetail(final SchedulerDetail schedulerDetail) {
@@ -135,8 +155,9 @@ public class SchedularWritePlatformServiceJpaRepositoryImpl implements Schedular
     public boolean processJobDetailForExecution(final String jobKey, final String triggerType) {
         boolean isStopExecution = false;
         final ScheduledJobDetail scheduledJobDetail = this.scheduledJobDetailsRepository.findByJobKeyWithLock(jobKey);
-        if (scheduledJobDetail.isCurrentlyRunning()
-                || (triggerType == SchedulerServiceConstants.TRIGGER_TYPE_CRON && (scheduledJobDetail.getNextRunTime().after(new Date())))) {
+        final Date now = new Date();
+        if ((scheduledJobDetail.isCurrentlyRunning() && scheduledJobDetail.isLeaseActive(now))
+                || (triggerType == SchedulerServiceConstants.TRIGGER_TYPE_CRON && (scheduledJobDetail.getNextRunTime().after(now)))) {
             isStopExecution = true;
         }
         final SchedulerDetail schedulerDetail = retriveSchedulerDetail();
@@ -144,7 +165,11 @@ public class SchedularWritePlatformServiceJpaRepositoryImpl implements Schedular
             scheduledJobDetail.updateTriggerMisfired(true);
             isStopExecution = true;
         } else if (!isStopExecution) {
-            scheduledJobDetail.updateCurrentlyRunningStatus(true);
+            if (this.jobLeaseService.acquire(jobKey) == null) {
+                isStopExecution = true;
+            } else {
+                scheduledJobDetail.updateCurrentlyRunningStatus(true);
+            }
         }
         this.scheduledJobDetailsRepository.save(scheduledJobDetail);
         return isStopExecution;
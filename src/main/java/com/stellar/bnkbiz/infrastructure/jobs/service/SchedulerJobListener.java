@@ -20,11 +20,13 @@ package com.stellar.bnkbiz.infrastructure.jobs.service;
 
 import java.util.Date;
 
+import com.stellar.bnkbiz.infrastructure.core.service.DataSourcePoolType;
 import com.stellar.bnkbiz.infrastructure.core.service.ThreadLocalContextUtil;
 import com.stellar.bnkbiz.infrastructure.jobs.domain.ScheduledJobDetail;
 import com.stellar.bnkbiz.infrastructure.jobs.domain.ScheduledJobRunHistory;
 import com.stellar.bnkbiz.useradministration.domain.AppUser;
 import com.stellar.bnkbiz.useradministration.domain.AppUserRepositoryWrapper;
+import org.apache.commons.lang3.StringUtils;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.quartz.JobKey;
@@ -53,14 +55,21 @@ public class SchedulerJobListener implements JobListener {
     private final SchedularWritePlatformService schedularService;
 
     private final AppUserRepositoryWrapper userRepository ;
+
+    private final JobRunProgressService jobRunProgressService;
+
+    private final JobLeaseService jobLeaseService;
     
     private final GrantedAuthoritiesMapper authoritiesMapper = new NullAuthoritiesMapper();
     
     @Autowired
     public SchedulerJobListener(final SchedularWritePlatformService schedularService,
-            final AppUserRepositoryWrapper userRepository) {
+            final AppUserRepositoryWrapper userRepository, final JobRunProgressService jobRunProgressService,
+            final JobLeaseService jobLeaseService) {
         this.schedularService = schedularService;
         this.userRepository = userRepository ;
+        this.jobRunProgressService = jobRunProgressService;
+        this.jobLeaseService = jobLeaseService;
     }
 
     @Override
@@ -74,6 +83,8 @@ public class SchedulerJobListener implements JobListener {
         UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(user, user.getPassword(),
                 authoritiesMapper.mapAuthorities(user.getAuthorities()));
         SecurityContextHolder.getContext().setAuthentication(auth);
+        // the job itself runs on the batch pool of the tenant
+        ThreadLocalContextUtil.switchPoolType(DataSourcePoolType.BATCH);
     }
 
     @Override
@@ -83,6 +94,7 @@ public class SchedulerJobListener implements JobListener {
 
     @Override
     public void jobWasExecuted(final JobExecutionContext context, final JobExecutionException jobException) {
+        ThreadLocalContextUtil.switchPoolType(DataSourcePoolType.OLTP);
         final Trigger trigger = context.getTrigger();
         final JobKey key = context.getJobDetail().getKey();
         final String jobKey = key.getName() + SchedulerServiceConstants.JOB_KEY_SEPERATOR + key.getGroup();
@@ -116,14 +128,21 @@ public class SchedulerJobListener implements JobListener {
             scheduledJobDetails.updateNextRunTime(trigger.getNextFireTime());
         }
 
+        String runSummary = null;
+        final JobRunProgress progress = this.jobRunProgressService.finish(scheduledJobDetails.getJobName());
+        if (progress != null) {
+            runSummary = StringUtils.abbreviate(progress.summary(), SchedulerServiceConstants.MAX_RUN_SUMMARY_LENGTH);
+        }
+
         scheduledJobDetails.updatePreviousRunStartTime(context.getFireTime());
         scheduledJobDetails.updateCurrentlyRunningStatus(false);
 
         final ScheduledJobRunHistory runHistory = new ScheduledJobRunHistory(scheduledJobDetails, version, context.getFireTime(),
-                new Date(), status, errorMessage, triggerType, errorLog);
+                new Date(), status, errorMessage, triggerType, errorLog, runSummary);
         // scheduledJobDetails.addRunHistory(runHistory);
 
-        this.schedularService.saveOrUpdate(scheduledJobDetails, runHistory);
+        final Long fencingToken = this.jobLeaseService.retrieveFencingToken(jobKey);
+        this.schedularService.saveOrUpdate(scheduledJobDetails, runHistory, fencingToken);
 
     }
 
@@ -41,17 +41,19 @@ import org.springframework.stereotype.Service;
 public class SchedulerJobRunnerReadServiceImpl implements SchedulerJobRunnerReadService {
 
     private final JdbcTemplate jdbcTemplate;
+    private final JobRunProgressService jobRunProgressService;
 
     private final PaginationHelper<JobDetailHistoryData> paginationHelper = new PaginationHelper<>();
 
     @Autowired
-    public SchedulerJobRunnerReadServiceImpl(final RoutingDataSource dataSource) {
+    public SchedulerJobRunnerReadServiceImpl(final RoutingDataSource dataSource, final JobRunProgressService jobRunProgressService) {
         this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jobRunProgressService = jobRunProgressService;
     }
 
     @Override
     public List<JobDetailData> findAllJobDeatils() {
-        final JobDetailMapper detailMapper = new JobDetailMapper();
+        final JobDetailMapper detailMapper = new JobDetailMapper(this.jobRunProgressService);
         final String sql = detailMapper.schema();
         final List<JobDetailData> JobDeatils = this.jdbcTemplate.query(sql, detailMapper, new Object[] {});
         return JobDeatils;
@@ -61,7 +63,7 @@ public class SchedulerJobRunnerReadServiceImpl implements SchedulerJobRunnerRead
     @Override
     public JobDetailData retrieveOne(final Long jobId) {
         try {
-            final JobDetailMapper detailMapper = new JobDetailMapper();
+            final JobDetailMapper detailMapper = new JobDetailMapper(this.jobRunProgressService);
             final String sql = detailMapper.schema() + " where job.id=?";
             return this.jdbcTemplate.queryForObject(sql, detailMapper, new Object[] { jobId });
         } catch (final EmptyResultDataAccessException e) {
@@ -123,10 +125,17 @@ public class SchedulerJobRunnerReadServiceImpl implements SchedulerJobRunnerRead
     private static final class JobDetailMapper implements RowMapper<JobDetailData> {
 
         private final StringBuilder sqlBuilder = new StringBuilder("select")
-                .append(" job.id,job.display_name as displayName,job.next_run_time as nextRunTime,job.initializing_errorlog as initializingError,job.cron_expression as cronExpression,job.is_active as active,job.currently_running as currentlyRunning,")
-                .append(" runHistory.version,runHistory.start_time as lastRunStartTime,runHistory.end_time as lastRunEndTime,runHistory.`status`,runHistory.error_message as jobRunErrorMessage,runHistory.trigger_type as triggerType,runHistory.error_log as jobRunErrorLog ")
+                .append(" job.id,job.name as jobName,job.display_name as displayName,job.next_run_time as nextRunTime,job.initializing_errorlog as initializingError,job.cron_expression as cronExpression,job.is_active as active,job.currently_running as currentlyRunning,")
+                .append(" job.lease_owner as leaseOwner,job.lease_expiry_time as leaseExpiryTime,job.fencing_token as fencingToken,")
+                .append(" runHistory.version,runHistory.start_time as lastRunStartTime,runHistory.end_time as lastRunEndTime,runHistory.`status`,runHistory.error_message as jobRunErrorMessage,runHistory.trigger_type as triggerType,runHistory.error_log as jobRunErrorLog,runHistory.run_summary as runSummary ")
                 .append(" from job job  left join job_run_history runHistory ON job.id=runHistory.job_id and job.previous_run_start_time=runHistory.start_time ");
 
+        private final JobRunProgressService jobRunProgressService;
+
+        JobDetailMapper(final JobRunProgressService jobRunProgressService) {
+            this.jobRunProgressService = jobRunProgressService;
+        }
+
         public String schema() {
             return this.sqlBuilder.toString();
         }
@@ -134,12 +143,16 @@ public class SchedulerJobRunnerReadServiceImpl implements SchedulerJobRunnerRead
         @Override
         public JobDetailData mapRow(final ResultSet rs, @SuppressWarnings("unused") final int rowNum) throws SQLException {
             final Long id = rs.getLong("id");
+            final String jobName = rs.getString("jobName");
             final String displayName = rs.getString("displayName");
             final Date nextRunTime = rs.getTimestamp("nextRunTime");
             final String initializingError = rs.getString("initializingError");
             final String cronExpression = rs.getString("cronExpression");
             final boolean active = rs.getBoolean("active");
             final boolean currentlyRunning = rs.getBoolean("currentlyRunning");
+            final String leaseOwner = rs.getString("leaseOwner");
+            final Date leaseExpiryTime = rs.getTimestamp("leaseExpiryTime");
+            final Long fencingToken = rs.getLong("fencingToken");
 
             final Long version = rs.getLong("version");
             final Date jobRunStartTime = rs.getTimestamp("lastRunStartTime");
@@ -148,14 +161,22 @@ public class SchedulerJobRunnerReadServiceImpl implements SchedulerJobRunnerRead
             final String jobRunErrorMessage = rs.getString("jobRunErrorMessage");
             final String triggerType = rs.getString("triggerType");
             final String jobRunErrorLog = rs.getString("jobRunErrorLog");
+            final String runSummary = rs.getString("runSummary");
 
             JobDetailHistoryData lastRunHistory = null;
             if (version > 0) {
                 lastRunHistory = new JobDetailHistoryData(version, jobRunStartTime, jobRunEndTime, status, jobRunErrorMessage, triggerType,
-                        jobRunErrorLog);
+                        jobRunErrorLog, runSummary);
+            }
+            String currentRunProgress = null;
+            if (currentlyRunning) {
+                final JobRunProgress progress = this.jobRunProgressService.retrieve(jobName);
+                if (progress != null) {
+                    currentRunProgress = progress.summary();
+                }
             }
             final JobDetailData jobDetail = new JobDetailData(id, displayName, nextRunTime, initializingError, cronExpression, active,
-                    currentlyRunning, lastRunHistory);
+                    currentlyRunning, lastRunHistory, currentRunProgress, leaseOwner, leaseExpiryTime, fencingToken);
             return jobDetail;
         }
 
@@ -164,7 +185,7 @@ public class SchedulerJobRunnerReadServiceImpl implements SchedulerJobRunnerRead
     private static final class JobHistoryMapper implements RowMapper<JobDetailHistoryData> {
 
         private final StringBuilder sqlBuilder = new StringBuilder(200)
-                .append(" runHistory.version,runHistory.start_time as runStartTime,runHistory.end_time as runEndTime,runHistory.`status`,runHistory.error_message as jobRunErrorMessage,runHistory.trigger_type as triggerType,runHistory.error_log as jobRunErrorLog ")
+                .append(" runHistory.version,runHistory.start_time as runStartTime,runHistory.end_time as runEndTime,runHistory.`status`,runHistory.error_message as jobRunErrorMessage,runHistory.trigger_type as triggerType,runHistory.error_log as jobRunErrorLog,runHistory.run_summary as runSummary ")
                 .append(" from job job join job_run_history runHistory ON job.id=runHistory.job_id");
 
         public String schema() {
@@ -180,8 +201,9 @@ public class SchedulerJobRunnerReadServiceImpl implements SchedulerJobRunnerRead
             final String jobRunErrorMessage = rs.getString("jobRunErrorMessage");
             final String triggerType = rs.getString("triggerType");
             final String jobRunErrorLog = rs.getString("jobRunErrorLog");
+            final String runSummary = rs.getString("runSummary");
             final JobDetailHistoryData jobDetailHistory = new JobDetailHistoryData(version, jobRunStartTime, jobRunEndTime, status,
-                    jobRunErrorMessage, triggerType, jobRunErrorLog);
+                    jobRunErrorMessage, triggerType, jobRunErrorLog, runSummary);
             return jobDetailHistory;
         }
 
@@ -23,6 +23,7 @@ public interface SchedulerServiceConstants {
     public static final String JOB_KEY_SEPERATOR = " _ ";
     public static final String TRIGGER_TYPE_CRON = "cron";
     public static final String TRIGGER_TYPE_APPLICATION = "application";
+    public static final String TRIGGER_TYPE_END_OF_DAY = "end of day";
     public static final String TRIGGER_TYPE_REFERENCE = "TRIGGER_TYPE_REFERENCE";
     public static final String SCHEDULER_EXCEPTION = "SchedulerException";
     public static final String JOB_EXECUTION_EXCEPTION = "JobExecutionException";
@@ -31,6 +32,7 @@ public interface SchedulerServiceConstants {
     public static final String STATUS_FAILED = "failed";
     public static final String DEFAULT_LISTENER_NAME = "Global Listner";
     public static final int STACK_TRACE_LEVEL = 7;
+    public static final int MAX_RUN_SUMMARY_LENGTH = 500;
     public static final String TENANT_IDENTIFIER = "tenantIdentifier";
     public static final String SCHEDULER = "Scheduler";
     public static final String SCHEDULER_GROUP = "group";
@@ -38,10 +38,14 @@ public class SchedulerTriggerListener implements TriggerListener {
 
     private final TenantDetailsService tenantDetailsService;
 
+    private final JobLeaseService jobLeaseService;
+
     @Autowired
-    public SchedulerTriggerListener(final SchedularWritePlatformService schedularService, final TenantDetailsService tenantDetailsService) {
+    public SchedulerTriggerListener(final SchedularWritePlatformService schedularService, final TenantDetailsService tenantDetailsService,
+            final JobLeaseService jobLeaseService) {
         this.schedularService = schedularService;
         this.tenantDetailsService = tenantDetailsService;
+        this.jobLeaseService = jobLeaseService;
 
     }
 
@@ -68,6 +72,10 @@ public class SchedulerTriggerListener implements TriggerListener {
         if (context.getMergedJobDataMap().containsKey(SchedulerServiceConstants.TRIGGER_TYPE_REFERENCE)) {
             triggerType = context.getMergedJobDataMap().getString(SchedulerServiceConstants.TRIGGER_TYPE_REFERENCE);
         }
+        if (triggerType == SchedulerServiceConstants.TRIGGER_TYPE_CRON) {
+            // every node fires the same cron triggers, spread the jobs
+            this.jobLeaseService.yieldToLessBusyNodes();
+        }
         return this.schedularService.processJobDetailForExecution(jobKey, triggerType);
     }
 
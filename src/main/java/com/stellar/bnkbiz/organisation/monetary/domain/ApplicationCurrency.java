@@ -62,7 +62,7 @@ public class ApplicationCurrency extends AbstractPersistable<Long> {
                 currency.displaySymbol);
     }
 
-    private ApplicationCurrency(final String code, final String name, final int decimalPlaces, final Integer inMultiplesOf,
+    public ApplicationCurrency(final String code, final String name, final int decimalPlaces, final Integer inMultiplesOf,
             final String nameCode, final String displaySymbol) {
         this.code = code;
         this.name = name;
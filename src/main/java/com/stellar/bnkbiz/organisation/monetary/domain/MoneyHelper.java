@@ -48,4 +48,12 @@ public class MoneyHelper {
         return roundingMode;
     }
 
+    /**
+     * Fixes the rounding mode where no Spring context provides the
+     * configuration, as in the loan schedule benchmarks.
+     */
+    public static void initializeRoundingMode(final RoundingMode mode) {
+        roundingMode = mode;
+    }
+
 }
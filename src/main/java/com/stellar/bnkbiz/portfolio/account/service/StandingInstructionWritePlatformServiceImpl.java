@@ -24,20 +24,30 @@ import static com.stellar.bnkbiz.portfolio.account.AccountDetailConstants.toAcco
 import static com.stellar.bnkbiz.portfolio.account.api.StandingInstructionApiConstants.statusParamName;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
+import com.stellar.bnkbiz.infrastructure.configuration.domain.ConfigurationDomainService;
 import com.stellar.bnkbiz.infrastructure.core.api.JsonCommand;
 import com.stellar.bnkbiz.infrastructure.core.data.CommandProcessingResult;
 import com.stellar.bnkbiz.infrastructure.core.data.CommandProcessingResultBuilder;
 import com.stellar.bnkbiz.infrastructure.core.exception.AbstractPlatformServiceUnavailableException;
 import com.stellar.bnkbiz.infrastructure.core.exception.PlatformApiDataValidationException;
 import com.stellar.bnkbiz.infrastructure.core.exception.PlatformDataIntegrityException;
+import com.stellar.bnkbiz.infrastructure.core.service.ContextAwareExecutor;
 import com.stellar.bnkbiz.infrastructure.core.service.RoutingDataSource;
+import com.stellar.bnkbiz.infrastructure.core.service.ThreadLocalContextUtil;
 import com.stellar.bnkbiz.infrastructure.jobs.annotation.CronTarget;
 import com.stellar.bnkbiz.infrastructure.jobs.exception.JobExecutionException;
 import com.stellar.bnkbiz.infrastructure.jobs.service.JobName;
+import com.stellar.bnkbiz.infrastructure.jobs.service.JobRunProgress;
+import com.stellar.bnkbiz.infrastructure.jobs.service.JobRunProgressService;
 import com.stellar.bnkbiz.portfolio.account.PortfolioAccountType;
 import com.stellar.bnkbiz.portfolio.account.api.StandingInstructionApiConstants;
 import com.stellar.bnkbiz.portfolio.account.data.AccountTransferDTO;
@@ -72,12 +82,17 @@ public class StandingInstructionWritePlatformServiceImpl implements StandingInst
 
     private final static Logger logger = LoggerFactory.getLogger(StandingInstructionWritePlatformServiceImpl.class);
 
+    private static final String HISTORY_INSERT = "INSERT INTO `m_account_transfer_standing_instructions_history` "
+            + "(`standing_instruction_id`, `status`, `amount`, `execution_time`, `error_log`) VALUES (?, ?, ?, ?, ?)";
+
     private final StandingInstructionDataValidator standingInstructionDataValidator;
     private final StandingInstructionAssembler standingInstructionAssembler;
     private final AccountTransferDetailRepository accountTransferDetailRepository;
     private final StandingInstructionRepository standingInstructionRepository;
     private final StandingInstructionReadPlatformService standingInstructionReadPlatformService;
     private final AccountTransfersWritePlatformService accountTransfersWritePlatformService;
+    private final ConfigurationDomainService configurationDomainService;
+    private final JobRunProgressService jobRunProgressService;
     private final JdbcTemplate jdbcTemplate;
 
     @Autowired
@@ -86,13 +101,17 @@ public class StandingInstructionWritePlatformServiceImpl implements StandingInst
             final AccountTransferDetailRepository accountTransferDetailRepository,
             final StandingInstructionRepository standingInstructionRepository,
             final StandingInstructionReadPlatformService standingInstructionReadPlatformService,
-            final AccountTransfersWritePlatformService accountTransfersWritePlatformService, final RoutingDataSource dataSource) {
+            final AccountTransfersWritePlatformService accountTransfersWritePlatformService,
+            final ConfigurationDomainService configurationDomainService, final JobRunProgressService jobRunProgressService,
+            final RoutingDataSource dataSource) {
         this.standingInstructionDataValidator = standingInstructionDataValidator;
         this.standingInstructionAssembler = standingInstructionAssembler;
         this.accountTransferDetailRepository = accountTransferDetailRepository;
         this.standingInstructionRepository = standingInstructionRepository;
         this.standingInstructionReadPlatformService = standingInstructionReadPlatformService;
         this.accountTransfersWritePlatformService = accountTransfersWritePlatformService;
+        this.configurationDomainService = configurationDomainService;
+        this.jobRunProgressService = jobRunProgressService;
         this.jdbcTemplate = new JdbcTemplate(dataSource);
     }
 
@@ -187,75 +206,207 @@ public class StandingInstructionWritePlatformServiceImpl implements StandingInst
                 .build();
     }
 
+    /**
+     * Instructions are partitioned by the accounts they move funds between:
+     * instructions sharing a source or destination account end up in the
+     * same partition and run one after the other in priority order, separate
+     * partitions run concurrently on a worker pool sized per tenant. History
+     * rows are written in one batch per chunk of partitions.
+     */
     @Override
     @CronTarget(jobName = JobName.EXECUTE_STANDING_INSTRUCTIONS)
     public void executeStandingInstructions() throws JobExecutionException {
-        Collection<StandingInstructionData> instructionDatas = this.standingInstructionReadPlatformService
+        final JobRunProgress progress = this.jobRunProgressService.start(JobName.EXECUTE_STANDING_INSTRUCTIONS, "transfers");
+        final Collection<StandingInstructionData> instructionDatas = this.standingInstructionReadPlatformService
                 .retrieveAll(StandingInstructionStatus.ACTIVE.getValue());
-        final StringBuilder sb = new StringBuilder();
-        for (StandingInstructionData data : instructionDatas) {
-            boolean isDueForTransfer = false;
-            AccountTransferRecurrenceType recurrenceType = data.recurrenceType();
-            StandingInstructionType instructionType = data.instructionType();
-            LocalDate transactionDate = new LocalDate();
-            if (recurrenceType.isPeriodicRecurrence()) {
-                final ScheduledDateGenerator scheduledDateGenerator = new DefaultScheduledDateGenerator();
-                PeriodFrequencyType frequencyType = data.recurrenceFrequency();
-                LocalDate startDate = data.validFrom();
-                if (frequencyType.isMonthly()) {
-                    startDate = startDate.withDayOfMonth(data.recurrenceOnDay());
-                    if (startDate.isBefore(data.validFrom())) {
-                        startDate = startDate.plusMonths(1);
+        final LocalDate transactionDate = new LocalDate();
+        final int chunkSize = this.configurationDomainService.retrieveJobChunkSize();
+        final int threadPoolSize = this.configurationDomainService.retrieveJobThreadPoolSize();
+        // appended to by the workers
+        final StringBuffer sb = new StringBuffer();
+
+        try (ContextAwareExecutor executor = ContextAwareExecutor.newFixedPool("standing-instructions", threadPoolSize,
+                threadPoolSize * 2)) {
+            List<StandingInstructionData> chunk = new ArrayList<>(chunkSize);
+            for (final List<StandingInstructionData> partition : partitionByAccount(instructionDatas)) {
+                chunk.addAll(partition);
+                if (chunk.size() >= chunkSize) {
+                    submitChunk(executor, chunk, transactionDate, progress, sb);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submitChunk(executor, chunk, transactionDate, progress, sb);
+            }
+        }
+
+        logger.info(ThreadLocalContextUtil.getTenant().getName() + ": standing instructions executed, " + progress.summary());
+        if (sb.length() > 0) { throw new JobExecutionException(sb.toString()); }
+
+    }
+
+    /**
+     * Groups the instructions into the connected sets of accounts they
+     * transfer between, keeping the priority order they were read in.
+     */
+    private static Collection<List<StandingInstructionData>> partitionByAccount(final Collection<StandingInstructionData> instructionDatas) {
+        final Map<String, String> parents = new HashMap<>();
+        for (final StandingInstructionData data : instructionDatas) {
+            final String fromRoot = findRoot(parents, accountKey(data.fromAccountType(), data.fromAccount().accountId()));
+            final String toRoot = findRoot(parents, accountKey(data.toAccountType(), data.toAccount().accountId()));
+            if (!fromRoot.equals(toRoot)) {
+                parents.put(toRoot, fromRoot);
+            }
+        }
+        final Map<String, List<StandingInstructionData>> partitions = new LinkedHashMap<>();
+        for (final StandingInstructionData data : instructionDatas) {
+            final String root = findRoot(parents, accountKey(data.fromAccountType(), data.fromAccount().accountId()));
+            List<StandingInstructionData> partition = partitions.get(root);
+            if (partition == null) {
+                partition = new ArrayList<>();
+                partitions.put(root, partition);
+            }
+            partition.add(data);
+        }
+        return partitions.values();
+    }
+
+    private static String accountKey(final PortfolioAccountType accountType, final Long accountId) {
+        return accountType.getValue() + "-" + accountId;
+    }
+
+    private static String findRoot(final Map<String, String> parents, final String accountKey) {
+        String root = accountKey;
+        String parent = parents.get(root);
+        while (parent != null) {
+            root = parent;
+            parent = parents.get(root);
+        }
+        if (!root.equals(accountKey)) {
+            parents.put(accountKey, root);
+        }
+        return root;
+    }
+
+    private void submitChunk(final ContextAwareExecutor executor, final List<StandingInstructionData> chunk,
+            final LocalDate transactionDate, final JobRunProgress progress, final StringBuffer sb) {
+        executor.submit(new Callable<Void>() {
+
+            @Override
+            public Void call() {
+                executeChunk(chunk, transactionDate, progress, sb);
+                return null;
+            }
+        });
+    }
+
+    private void executeChunk(final List<StandingInstructionData> chunk, final LocalDate transactionDate, final JobRunProgress progress,
+            final StringBuffer sb) {
+        final List<Object[]> historyRows = new ArrayList<>(chunk.size());
+        try {
+            for (final StandingInstructionData data : chunk) {
+                try {
+                    final AccountTransferDTO accountTransferDTO = buildTransferIfDue(data, transactionDate);
+                    if (accountTransferDTO == null) {
+                        continue;
                     }
-                } else if (frequencyType.isYearly()) {
-                    startDate = startDate.withDayOfMonth(data.recurrenceOnDay()).withMonthOfYear(data.recurrenceOnMonth());
-                    if (startDate.isBefore(data.validFrom())) {
-                        startDate = startDate.plusYears(1);
+                    final String errorLog = transferAmount(sb, accountTransferDTO, data.getId());
+                    historyRows.add(new Object[] { data.getId(), errorLog.isEmpty() ? "success" : "failed",
+                            accountTransferDTO.getTransactionAmount(), new Date(), errorLog });
+                    if (errorLog.isEmpty()) {
+                        progress.addProcessed(1);
+                    } else {
+                        progress.addFailed(1);
                     }
+                } catch (final RuntimeException e) {
+                    sb.append("Exception while preparing standing Instruction id").append(data.getId()).append(" ")
+                            .append(e.getMessage()).append("--------");
+                    progress.addFailed(1);
+                }
+            }
+        } finally {
+            if (!historyRows.isEmpty()) {
+                // the chunk runs on a worker whose future nobody reads, a
+                // failure must end up in the job outcome
+                try {
+                    this.jdbcTemplate.batchUpdate(HISTORY_INSERT, historyRows);
+                } catch (final RuntimeException e) {
+                    logger.error("Could not record the history of " + historyRows.size() + " standing instructions", e);
+                    sb.append("Exception while recording the history of standing Instructions ").append(historyIds(historyRows))
+                            .append(" ").append(e.getMessage()).append("--------");
                 }
-                isDueForTransfer = scheduledDateGenerator.isDateFallsInSchedule(frequencyType, data.recurrenceInterval(), startDate,
-                        transactionDate);
-
             }
-            BigDecimal transactionAmount = data.amount();
-            if (data.toAccountType().isLoanAccount()
-                    && (recurrenceType.isDuesRecurrence() || (isDueForTransfer && instructionType.isDuesAmoutTransfer()))) {
-                StandingInstructionDuesData standingInstructionDuesData = this.standingInstructionReadPlatformService
-                        .retriveLoanDuesData(data.toAccount().accountId());
-                if (data.instructionType().isDuesAmoutTransfer()) {
-                    transactionAmount = standingInstructionDuesData.totalDueAmount();
+        }
+    }
+
+    private static List<Object> historyIds(final List<Object[]> historyRows) {
+        final List<Object> instructionIds = new ArrayList<>(historyRows.size());
+        for (final Object[] historyRow : historyRows) {
+            instructionIds.add(historyRow[0]);
+        }
+        return instructionIds;
+    }
+
+    /**
+     * @return the transfer for the instruction, <code>null</code> if it is not
+     *         due on the transaction date
+     */
+    private AccountTransferDTO buildTransferIfDue(final StandingInstructionData data, final LocalDate transactionDate) {
+        boolean isDueForTransfer = false;
+        AccountTransferRecurrenceType recurrenceType = data.recurrenceType();
+        StandingInstructionType instructionType = data.instructionType();
+        if (recurrenceType.isPeriodicRecurrence()) {
+            final ScheduledDateGenerator scheduledDateGenerator = new DefaultScheduledDateGenerator();
+            PeriodFrequencyType frequencyType = data.recurrenceFrequency();
+            LocalDate startDate = data.validFrom();
+            if (frequencyType.isMonthly()) {
+                startDate = startDate.withDayOfMonth(data.recurrenceOnDay());
+                if (startDate.isBefore(data.validFrom())) {
+                    startDate = startDate.plusMonths(1);
                 }
-                if (recurrenceType.isDuesRecurrence()) {
-                    isDueForTransfer = new LocalDate().equals(standingInstructionDuesData.dueDate());
+            } else if (frequencyType.isYearly()) {
+                startDate = startDate.withDayOfMonth(data.recurrenceOnDay()).withMonthOfYear(data.recurrenceOnMonth());
+                if (startDate.isBefore(data.validFrom())) {
+                    startDate = startDate.plusYears(1);
                 }
             }
+            isDueForTransfer = scheduledDateGenerator.isDateFallsInSchedule(frequencyType, data.recurrenceInterval(), startDate,
+                    transactionDate);
 
-            if (isDueForTransfer && transactionAmount != null && transactionAmount.compareTo(BigDecimal.ZERO) > 0) {
-                final AccountTransferDetails accountTransferDetails = this.accountTransferDetailRepository.findOne(data.accountDetailId());
-                final SavingsAccount fromSavingsAccount = null;
-                final boolean isRegularTransaction = true;
-                final boolean isExceptionForBalanceCheck = false;
-                accountTransferDetails.accountTransferStandingInstruction().updateLatsRunDate(transactionDate.toDate());
-                AccountTransferDTO accountTransferDTO = new AccountTransferDTO(transactionDate, transactionAmount, data.fromAccountType(),
-                        data.toAccountType(), data.fromAccount().accountId(), data.toAccount().accountId(), data.name()
-                                + " Standing instruction trasfer ", null, null, null, null, data.toTransferType(), null, null, data
-                                .transferType().getValue(), accountTransferDetails, null, null, null, null, fromSavingsAccount,
-                        isRegularTransaction, isExceptionForBalanceCheck);
-                transferAmount(sb, accountTransferDTO, data.getId());
+        }
+        BigDecimal transactionAmount = data.amount();
+        if (data.toAccountType().isLoanAccount()
+                && (recurrenceType.isDuesRecurrence() || (isDueForTransfer && instructionType.isDuesAmoutTransfer()))) {
+            StandingInstructionDuesData standingInstructionDuesData = this.standingInstructionReadPlatformService
+                    .retriveLoanDuesData(data.toAccount().accountId());
+            if (data.instructionType().isDuesAmoutTransfer()) {
+                transactionAmount = standingInstructionDuesData.totalDueAmount();
+            }
+            if (recurrenceType.isDuesRecurrence()) {
+                isDueForTransfer = transactionDate.equals(standingInstructionDuesData.dueDate());
             }
         }
-        if (sb.length() > 0) { throw new JobExecutionException(sb.toString()); }
 
+        if (!isDueForTransfer || transactionAmount == null || transactionAmount.compareTo(BigDecimal.ZERO) <= 0) { return null; }
+
+        final AccountTransferDetails accountTransferDetails = this.accountTransferDetailRepository.findOne(data.accountDetailId());
+        final SavingsAccount fromSavingsAccount = null;
+        final boolean isRegularTransaction = true;
+        final boolean isExceptionForBalanceCheck = false;
+        accountTransferDetails.accountTransferStandingInstruction().updateLatsRunDate(transactionDate.toDate());
+        return new AccountTransferDTO(transactionDate, transactionAmount, data.fromAccountType(), data.toAccountType(), data
+                .fromAccount().accountId(), data.toAccount().accountId(), data.name() + " Standing instruction trasfer ", null, null,
+                null, null, data.toTransferType(), null, null, data.transferType().getValue(), accountTransferDetails, null, null, null,
+                null, fromSavingsAccount, isRegularTransaction, isExceptionForBalanceCheck);
     }
 
     /**
      * @param sb
      * @param accountTransferDTO
+     * @return the error log of the transfer, empty if it succeeded
      */
-    private void transferAmount(final StringBuilder sb, final AccountTransferDTO accountTransferDTO, final Long instructionId) {
-        StringBuffer errorLog = new StringBuffer();
-        StringBuffer updateQuery = new StringBuffer(
-                "INSERT INTO `m_account_transfer_standing_instructions_history` (`standing_instruction_id`, `status`, `amount`,`execution_time`, `error_log`) VALUES (");
+    private String transferAmount(final StringBuffer sb, final AccountTransferDTO accountTransferDTO, final Long instructionId) {
+        StringBuilder errorLog = new StringBuilder();
         try {
             this.accountTransfersWritePlatformService.transferFunds(accountTransferDTO);
         } catch (final PlatformApiDataValidationException e) {
@@ -280,16 +431,6 @@ public class StandingInstructionWritePlatformServiceImpl implements StandingInst
             errorLog.append("Exception while trasfering funds " + e.getMessage());
 
         }
-        updateQuery.append(instructionId).append(",");
-        if (errorLog.length() > 0) {
-            updateQuery.append("'failed'").append(",");
-        } else {
-            updateQuery.append("'success'").append(",");
-        }
-        updateQuery.append(accountTransferDTO.getTransactionAmount().doubleValue());
-        updateQuery.append(", now(),");
-        updateQuery.append("'").append(errorLog.toString()).append("')");
-        this.jdbcTemplate.update(updateQuery.toString());
-
+        return errorLog.toString();
     }
-}
\ No newline at end of file
+}
@@ -23,8 +23,11 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.StringTokenizer;
 
 import net.fortuna.ical4j.model.Date;
@@ -55,11 +58,37 @@ public class CalendarUtils {
         System.setProperty("net.fortuna.ical4j.timezone.date.floating", "true");
     }
 
+    private static final int MAX_COMPILED_RULES = 1000;
+
+    /**
+     * Recurring rules parsed so far, least recently used first; schedules and
+     * collection sheets keep asking for the dates of the same few hundred
+     * meeting rules.
+     */
+    @SuppressWarnings("serial")
+    private static final Map<String, CompiledRecurrence> compiledRules = Collections
+            .synchronizedMap(new LinkedHashMap<String, CompiledRecurrence>(16, 0.75f, true) {
+
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, CompiledRecurrence> eldest) {
+                    return size() > MAX_COMPILED_RULES;
+                }
+            });
+
+    private static CompiledRecurrence compile(final String recurringRule) {
+        CompiledRecurrence compiledRule = compiledRules.get(recurringRule);
+        if (compiledRule == null) {
+            compiledRule = CompiledRecurrence.compile(recurringRule);
+            compiledRules.put(recurringRule, compiledRule);
+        }
+        return compiledRule;
+    }
+
     public static LocalDate getNextRecurringDate(final String recurringRule, final LocalDate seedDate, final LocalDate startDate) {
-        final Recur recur = CalendarUtils.getICalRecur(recurringRule);
-        if (recur == null) { return null; }
-        LocalDate nextDate = getNextRecurringDate(recur, seedDate, startDate);
-        nextDate = adjustDate(nextDate, seedDate, getMeetingPeriodFrequencyType(recurringRule));
+        final CompiledRecurrence compiledRule = compile(recurringRule);
+        if (compiledRule.getRecur() == null) { return null; }
+        LocalDate nextDate = compiledRule.getNextDate(seedDate, startDate);
+        nextDate = adjustDate(nextDate, seedDate, compiledRule.getFrequencyType());
         return nextDate;
     }
 
@@ -103,7 +132,7 @@ public class CalendarUtils {
         return nextRecDate == null ? null : new LocalDate(nextRecDate);
     }
 
-    private static Date convertToiCal4JCompatibleDate(final LocalDate inputDate) {
+    static Date convertToiCal4JCompatibleDate(final LocalDate inputDate) {
         // Date format in iCal4J is hard coded
         Date formattedDate = null;
         final DateFormat df = new SimpleDateFormat("yyyy-MM-dd");
@@ -139,9 +168,14 @@ public class CalendarUtils {
     public static Collection<LocalDate> getRecurringDates(final String recurringRule, final LocalDate seedDate,
             final LocalDate periodStartDate, final LocalDate periodEndDate, final int maxCount) {
 
-        final Recur recur = CalendarUtils.getICalRecur(recurringRule);
+        final CompiledRecurrence compiledRule = compile(recurringRule);
+        if (compiledRule.getRecur() == null) { return null; }
 
-        return getRecurringDates(recur, seedDate, periodStartDate, periodEndDate, maxCount);
+        final Collection<LocalDate> recurringDates = new ArrayList<>();
+        for (final LocalDate date : compiledRule.getDates(seedDate, periodStartDate, periodEndDate, maxCount)) {
+            recurringDates.add(adjustDate(date, seedDate, compiledRule.getFrequencyType()));
+        }
+        return recurringDates;
     }
 
     private static Collection<LocalDate> getRecurringDates(final Recur recur, final LocalDate seedDate, final LocalDate periodStartDate,
@@ -170,6 +204,10 @@ public class CalendarUtils {
         return recurringDates;
     }
 
+    /**
+     * Parses <code>recurringRule</code> into a new {@link Recur} the caller is
+     * free to modify.
+     */
     public static Recur getICalRecur(final String recurringRule) {
 
         // Construct RRule
@@ -267,10 +305,14 @@ public class CalendarUtils {
 
     public static boolean isValidRedurringDate(final String recurringRule, final LocalDate seedDate, final LocalDate date) {
 
-        final Recur recur = CalendarUtils.getICalRecur(recurringRule);
-        if (recur == null) { return false; }
+        final CompiledRecurrence compiledRule = compile(recurringRule);
+        if (compiledRule.getRecur() == null) { return false; }
+
+        return isValidRecurringDate(compiledRule, seedDate, date);
+    }
 
-        return isValidRecurringDate(recur, seedDate, date);
+    private static boolean isValidRecurringDate(final CompiledRecurrence compiledRule, final LocalDate seedDate, final LocalDate date) {
+        return !compiledRule.getDates(seedDate, date, date.plusDays(1), 1).isEmpty();
     }
 
     public static boolean isValidRecurringDate(final Recur recur, final LocalDate seedDate, final LocalDate date) {
@@ -307,11 +349,11 @@ public class CalendarUtils {
     }
 
     public static PeriodFrequencyType getMeetingPeriodFrequencyType(final String recurringRule) {
-        final Recur recur = CalendarUtils.getICalRecur(recurringRule);
+        final Recur recur = compile(recurringRule).getRecur();
         return getMeetingPeriodFrequencyType(recur);
     }
 
-    private static PeriodFrequencyType getMeetingPeriodFrequencyType(final Recur recur) {
+    static PeriodFrequencyType getMeetingPeriodFrequencyType(final Recur recur) {
         PeriodFrequencyType meetingFrequencyType = PeriodFrequencyType.INVALID;
         if (recur.getFrequency().equals(Recur.DAILY)) {
             meetingFrequencyType = PeriodFrequencyType.DAYS;
@@ -340,17 +382,17 @@ public class CalendarUtils {
     }
 
     public static int getInterval(final String recurringRule) {
-        final Recur recur = CalendarUtils.getICalRecur(recurringRule);
+        final Recur recur = compile(recurringRule).getRecur();
         return recur.getInterval();
     }
 
     public static CalendarFrequencyType getFrequency(final String recurringRule) {
-        final Recur recur = CalendarUtils.getICalRecur(recurringRule);
+        final Recur recur = compile(recurringRule).getRecur();
         return CalendarFrequencyType.fromString(recur.getFrequency());
     }
 
     public static CalendarWeekDaysType getRepeatsOnDay(final String recurringRule) {
-        final Recur recur = CalendarUtils.getICalRecur(recurringRule);
+        final Recur recur = compile(recurringRule).getRecur();
         final WeekDayList weekDays = recur.getDayList();
         if (weekDays.isEmpty()) return CalendarWeekDaysType.INVALID;
         // supports only one day
@@ -392,19 +434,19 @@ public class CalendarUtils {
 
     public static LocalDate getNewRepaymentMeetingDate(final String recurringRule, final LocalDate seedDate,
             final LocalDate oldRepaymentDate, final Integer loanRepaymentInterval, final String frequency, final WorkingDays workingDays) {
-        final Recur recur = CalendarUtils.getICalRecur(recurringRule);
-        if (recur == null) { return null; }
-        if (isValidRecurringDate(recur, seedDate, oldRepaymentDate)) { return oldRepaymentDate; }
+        final CompiledRecurrence compiledRule = compile(recurringRule);
+        if (compiledRule.getRecur() == null) { return null; }
+        if (isValidRecurringDate(compiledRule, seedDate, oldRepaymentDate)) { return oldRepaymentDate; }
         return getNextRepaymentMeetingDate(recurringRule, seedDate, oldRepaymentDate, loanRepaymentInterval, frequency, workingDays);
     }
 
     public static LocalDate getNextRepaymentMeetingDate(final String recurringRule, final LocalDate seedDate,
             final LocalDate repaymentDate, final Integer loanRepaymentInterval, final String frequency, final WorkingDays workingDays) {
 
-        final Recur recur = CalendarUtils.getICalRecur(recurringRule);
-        if (recur == null) { return null; }
+        final CompiledRecurrence compiledRule = compile(recurringRule);
+        if (compiledRule.getRecur() == null) { return null; }
         LocalDate tmpDate = repaymentDate;
-        if (isValidRecurringDate(recur, seedDate, repaymentDate)) {
+        if (isValidRecurringDate(compiledRule, seedDate, repaymentDate)) {
             tmpDate = repaymentDate.plusDays(1);
         }
         /*
@@ -414,6 +456,7 @@ public class CalendarUtils {
          * with fortnightly frequency will have interval of 2, to generate right
          * set of meeting dates reset interval same as loan repayment interval.
          */
+        final Recur recur = getICalRecur(recurringRule);
         recur.setInterval(loanRepaymentInterval);
 
         /*
@@ -435,16 +478,16 @@ public class CalendarUtils {
     }
 
     public static boolean isFrequencySame(final String oldRRule, final String newRRule) {
-        final Recur oldRecur = getICalRecur(oldRRule);
-        final Recur newRecur = getICalRecur(newRRule);
+        final Recur oldRecur = compile(oldRRule).getRecur();
+        final Recur newRecur = compile(newRRule).getRecur();
 
         if (oldRecur == null || oldRecur.getFrequency() == null || newRecur == null || newRecur.getFrequency() == null) { return false; }
         return oldRecur.getFrequency().equals(newRecur.getFrequency());
     }
 
     public static boolean isIntervalSame(final String oldRRule, final String newRRule) {
-        final Recur oldRecur = getICalRecur(oldRRule);
-        final Recur newRecur = getICalRecur(newRRule);
+        final Recur oldRecur = compile(oldRRule).getRecur();
+        final Recur newRecur = compile(newRRule).getRecur();
 
         if (oldRecur == null || oldRecur.getFrequency() == null || newRecur == null || newRecur.getFrequency() == null) { return false; }
         return (oldRecur.getInterval() == newRecur.getInterval());
@@ -502,10 +545,11 @@ public class CalendarUtils {
 
     public static LocalDate getRecentEligibleMeetingDate(final String recurringRule, final LocalDate seedDate) {
         LocalDate currentDate = DateUtils.getLocalDateOfTenant();
-        final Recur recur = CalendarUtils.getICalRecur(recurringRule);
+        final CompiledRecurrence compiledRule = compile(recurringRule);
+        final Recur recur = compiledRule.getRecur();
         if (recur == null) { return null; }
 
-        if (isValidRecurringDate(recur, seedDate, currentDate)) { return currentDate; }
+        if (isValidRecurringDate(compiledRule, seedDate, currentDate)) { return currentDate; }
 
         if (recur.getFrequency().equals(Recur.DAILY)) {
             currentDate = currentDate.plusDays(recur.getInterval());
@@ -517,12 +561,12 @@ public class CalendarUtils {
             currentDate = currentDate.plusYears(recur.getInterval());
         }
 
-        return getNextRecurringDate(recur, seedDate, currentDate);
+        return compiledRule.getNextDate(seedDate, currentDate);
     }
 
     public static LocalDate getNextScheduleDate(final Calendar calendar, final LocalDate startDate) {
-        final Recur recur = CalendarUtils.getICalRecur(calendar.getRecurrence());
-        if (recur == null) { return null; }
+        final CompiledRecurrence compiledRule = compile(calendar.getRecurrence());
+        if (compiledRule.getRecur() == null) { return null; }
         LocalDate date = startDate;
         final LocalDate seedDate = calendar.getStartDateLocalDate();
         /**
@@ -530,7 +574,7 @@ public class CalendarUtils {
          * date = date.plusDays(1); }
          **/
 
-        final LocalDate scheduleDate = getNextRecurringDate(recur, seedDate, date);
+        final LocalDate scheduleDate = compiledRule.getNextDate(seedDate, date);
 
         return scheduleDate;
     }
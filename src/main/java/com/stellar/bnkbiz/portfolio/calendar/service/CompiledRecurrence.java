@@ -0,0 +1,200 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.portfolio.calendar.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import net.fortuna.ical4j.model.Date;
+import net.fortuna.ical4j.model.DateList;
+import net.fortuna.ical4j.model.DateTime;
+import net.fortuna.ical4j.model.Recur;
+import net.fortuna.ical4j.model.parameter.Value;
+
+import com.stellar.bnkbiz.portfolio.common.domain.PeriodFrequencyType;
+import java.time.LocalDate;
+import org.joda.time.DateTimeConstants;
+import org.joda.time.Days;
+
+/**
+ * A recurring rule parsed once, from which the occurrence dates of any seed
+ * date are expanded.
+ *
+ * The rules calendars are created with, a <code>FREQ</code> of
+ * <code>DAILY</code>, <code>WEEKLY</code> or <code>MONTHLY</code> with an
+ * optional <code>INTERVAL</code> and, for weekly rules, a single
+ * <code>BYDAY</code>, are expanded with date arithmetic instead of ical4j. The
+ * arithmetic follows the way ical4j expands such rules: occurrences step from
+ * the seed date, monthly ones adding the interval to the previous occurrence
+ * so that a day of month cut short by a shorter month stays cut short, and a
+ * period includes its start date but not its end date. Weekly rules whose day
+ * differs from the day of the seed date only take the fast path for an
+ * interval of one, as otherwise the occurrences depend on where ical4j starts
+ * the week. All other rules are expanded by ical4j.
+ *
+ * The parsed {@link Recur} is shared by all users of the rule and must not be
+ * modified.
+ */
+final class CompiledRecurrence {
+
+    private static final Map<String, Integer> DAYS_OF_WEEK = new HashMap<>();
+
+    static {
+        DAYS_OF_WEEK.put("MO", DateTimeConstants.MONDAY);
+        DAYS_OF_WEEK.put("TU", DateTimeConstants.TUESDAY);
+        DAYS_OF_WEEK.put("WE", DateTimeConstants.WEDNESDAY);
+        DAYS_OF_WEEK.put("TH", DateTimeConstants.THURSDAY);
+        DAYS_OF_WEEK.put("FR", DateTimeConstants.FRIDAY);
+        DAYS_OF_WEEK.put("SA", DateTimeConstants.SATURDAY);
+        DAYS_OF_WEEK.put("SU", DateTimeConstants.SUNDAY);
+    }
+
+    private final Recur recur;
+    private final PeriodFrequencyType frequencyType;
+    private final boolean fastPath;
+    private final int interval;
+    private final Integer dayOfWeek;
+
+    static CompiledRecurrence compile(final String recurringRule) {
+        final Recur recur = CalendarUtils.getICalRecur(recurringRule);
+        if (recur == null) { return new CompiledRecurrence(null, false, 1, null); }
+
+        String frequency = null;
+        int interval = 1;
+        Integer dayOfWeek = null;
+        for (final String part : recurringRule.split(";")) {
+            final int separator = part.indexOf('=');
+            final String name = separator < 0 ? part : part.substring(0, separator);
+            final String value = separator < 0 ? "" : part.substring(separator + 1);
+            if ("FREQ".equals(name) && frequency == null
+                    && (Recur.DAILY.equals(value) || Recur.WEEKLY.equals(value) || Recur.MONTHLY.equals(value))) {
+                frequency = value;
+            } else if ("INTERVAL".equals(name) && value.matches("[1-9][0-9]{0,3}")) {
+                interval = Integer.parseInt(value);
+            } else if ("BYDAY".equals(name) && DAYS_OF_WEEK.containsKey(value)) {
+                dayOfWeek = DAYS_OF_WEEK.get(value);
+            } else {
+                return new CompiledRecurrence(recur, false, 1, null);
+            }
+        }
+        final boolean fastPath = frequency != null && (dayOfWeek == null || Recur.WEEKLY.equals(frequency));
+        return new CompiledRecurrence(recur, fastPath, interval, dayOfWeek);
+    }
+
+    private CompiledRecurrence(final Recur recur, final boolean fastPath, final int interval, final Integer dayOfWeek) {
+        this.recur = recur;
+        this.frequencyType = recur == null ? null : CalendarUtils.getMeetingPeriodFrequencyType(recur);
+        this.fastPath = fastPath;
+        this.interval = interval;
+        this.dayOfWeek = dayOfWeek;
+    }
+
+    /**
+     * @return the parsed rule, <code>null</code> if the rule is not valid
+     */
+    Recur getRecur() {
+        return this.recur;
+    }
+
+    PeriodFrequencyType getFrequencyType() {
+        return this.frequencyType;
+    }
+
+    /**
+     * @return the first occurrence after <code>startDate</code>, not adjusted
+     *         for the day of month of the seed date
+     */
+    LocalDate getNextDate(final LocalDate seedDate, final LocalDate startDate) {
+        if (!isFastPath(seedDate)) {
+            final DateTime periodStart = new DateTime(startDate.toDate());
+            final Date seed = CalendarUtils.convertToiCal4JCompatibleDate(seedDate);
+            final Date nextRecDate;
+            synchronized (this.recur) {
+                nextRecDate = this.recur.getNextDate(seed, periodStart);
+            }
+            return nextRecDate == null ? null : new LocalDate(nextRecDate);
+        }
+        return firstOccurrenceFrom(seedDate, startDate.plusDays(1));
+    }
+
+    /**
+     * @return at most <code>maxCount</code> occurrences from
+     *         <code>periodStartDate</code> up to but excluding
+     *         <code>periodEndDate</code>, not adjusted for the day of month of
+     *         the seed date
+     */
+    List<LocalDate> getDates(final LocalDate seedDate, final LocalDate periodStartDate, final LocalDate periodEndDate, final int maxCount) {
+        final List<LocalDate> dates = new ArrayList<>();
+        if (!isFastPath(seedDate)) {
+            final Date seed = CalendarUtils.convertToiCal4JCompatibleDate(seedDate);
+            final DateTime periodStart = new DateTime(periodStartDate.toDate());
+            final DateTime periodEnd = new DateTime(periodEndDate.toDate());
+            final Value value = new Value(Value.DATE.getValue());
+            final DateList recurringDates;
+            synchronized (this.recur) {
+                recurringDates = this.recur.getDates(seed, periodStart, periodEnd, value, maxCount);
+            }
+            for (@SuppressWarnings("rawtypes")
+            final Iterator iterator = recurringDates.iterator(); iterator.hasNext();) {
+                dates.add(new LocalDate(iterator.next()));
+            }
+            return dates;
+        }
+
+        LocalDate occurrence = firstOccurrenceFrom(seedDate, periodStartDate);
+        while ((maxCount < 0 || dates.size() < maxCount) && occurrence.isBefore(periodEndDate)) {
+            dates.add(occurrence);
+            occurrence = nextOccurrence(occurrence);
+        }
+        return dates;
+    }
+
+    private boolean isFastPath(final LocalDate seedDate) {
+        return this.fastPath && (this.dayOfWeek == null || this.interval == 1 || this.dayOfWeek.intValue() == seedDate.getDayOfWeek());
+    }
+
+    private LocalDate firstOccurrenceFrom(final LocalDate seedDate, final LocalDate date) {
+        LocalDate occurrence = seedDate;
+        if (this.dayOfWeek != null) {
+            while (occurrence.getDayOfWeek() != this.dayOfWeek.intValue()) {
+                occurrence = occurrence.plusDays(1);
+            }
+        }
+        if (!this.frequencyType.isMonthly() && occurrence.isBefore(date)) {
+            // daily and weekly occurrences are evenly spaced, skip straight to
+            // the one on or after the date
+            final int step = this.frequencyType.isWeekly() ? 7 * this.interval : this.interval;
+            final int days = Days.daysBetween(occurrence, date).getDays();
+            occurrence = occurrence.plusDays(((days + step - 1) / step) * step);
+        }
+        while (occurrence.isBefore(date)) {
+            occurrence = nextOccurrence(occurrence);
+        }
+        return occurrence;
+    }
+
+    private LocalDate nextOccurrence(final LocalDate occurrence) {
+        if (this.frequencyType.isMonthly()) { return occurrence.plusMonths(this.interval); }
+        if (this.frequencyType.isWeekly()) { return occurrence.plusWeeks(this.interval); }
+        return occurrence.plusDays(this.interval);
+    }
+}
@@ -47,6 +47,7 @@ import com.stellar.bnkbiz.infrastructure.core.exception.UnrecognizedQueryParamEx
 import com.stellar.bnkbiz.infrastructure.core.serialization.ApiRequestJsonSerializationSettings;
 import com.stellar.bnkbiz.infrastructure.core.serialization.ToApiJsonSerializer;
 import com.stellar.bnkbiz.infrastructure.core.service.Page;
+import com.stellar.bnkbiz.infrastructure.core.service.PageCountMode;
 import com.stellar.bnkbiz.infrastructure.core.service.SearchParameters;
 import com.stellar.bnkbiz.infrastructure.security.service.PlatformSecurityContext;
 import com.stellar.bnkbiz.portfolio.accountdetails.data.AccountSummaryCollectionData;
@@ -128,10 +129,11 @@ public class ClientsApiResource {
             @QueryParam("lastName") final String lastname, @QueryParam("underHierarchy") final String hierarchy,
             @QueryParam("offset") final Integer offset, @QueryParam("limit") final Integer limit,
             @QueryParam("orderBy") final String orderBy, @QueryParam("sortOrder") final String sortOrder,
-            @QueryParam("orphansOnly") final Boolean orphansOnly) {
+            @QueryParam("orphansOnly") final Boolean orphansOnly, @QueryParam("continuationToken") final String continuationToken,
+            @QueryParam("countMode") final String countMode) {
 
         return this.retrieveAll(uriInfo, sqlSearch, officeId, externalId, displayName, firstname, 
-        		lastname, hierarchy, offset, limit, orderBy, sortOrder, orphansOnly, false);
+        		lastname, hierarchy, offset, limit, orderBy, sortOrder, orphansOnly, false, continuationToken, countMode);
     }
     
     public String retrieveAll(final UriInfo uriInfo, final String sqlSearch,
@@ -140,12 +142,13 @@ public class ClientsApiResource {
             final String lastname, final String hierarchy,
             final Integer offset, final Integer limit,
             final String orderBy, final String sortOrder,
-            final Boolean orphansOnly, final boolean isSelfUser) {
+            final Boolean orphansOnly, final boolean isSelfUser, final String continuationToken, final String countMode) {
 
         this.context.authenticatedUser().validateHasReadPermission(ClientApiConstants.CLIENT_RESOURCE_NAME);
 
         final SearchParameters searchParameters = SearchParameters.forClients(sqlSearch, officeId, externalId, displayName, firstname,
-                lastname, hierarchy, offset, limit, orderBy, sortOrder, orphansOnly, isSelfUser);
+                lastname, hierarchy, offset, limit, orderBy, sortOrder, orphansOnly, isSelfUser).withContinuation(continuationToken,
+                PageCountMode.fromString(countMode));
 
         final Page<ClientData> clientData = this.clientReadPlatformService.retrieveAll(searchParameters);
 
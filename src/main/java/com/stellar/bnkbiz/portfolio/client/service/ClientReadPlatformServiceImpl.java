@@ -22,7 +22,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
 import com.stellar.bnkbiz.infrastructure.codes.data.CodeValueData;
@@ -30,6 +32,7 @@ import com.stellar.bnkbiz.infrastructure.codes.service.CodeValueReadPlatformServ
 import com.stellar.bnkbiz.infrastructure.core.api.ApiParameterHelper;
 import com.stellar.bnkbiz.infrastructure.core.data.EnumOptionData;
 import com.stellar.bnkbiz.infrastructure.core.domain.JdbcSupport;
+import com.stellar.bnkbiz.infrastructure.core.service.KeysetPagination;
 import com.stellar.bnkbiz.infrastructure.core.service.Page;
 import com.stellar.bnkbiz.infrastructure.core.service.PaginationHelper;
 import com.stellar.bnkbiz.infrastructure.core.service.RoutingDataSource;
@@ -62,6 +65,14 @@ import org.springframework.util.CollectionUtils;
 @Service
 public class ClientReadPlatformServiceImpl implements ClientReadPlatformService {
 
+    // keyset paging seeks on the primary key or the unique account number;
+    // any other order is paged by offset
+    private final static Map<String, String> keysetSortColumns = new HashMap<>();
+    static {
+        keysetSortColumns.put("id", null);
+        keysetSortColumns.put("accountNo", "c.account_no");
+    }
+
     private final JdbcTemplate jdbcTemplate;
     private final PlatformSecurityContext context;
     private final OfficeReadPlatformService officeReadPlatformService;
@@ -144,21 +155,36 @@ public class ClientReadPlatformServiceImpl implements ClientReadPlatformService
         // underHierarchySearchString = searchParameters.getHierarchy() + "%";
         // }
 
-        final StringBuilder sqlBuilder = new StringBuilder(200);
-        sqlBuilder.append("select SQL_CALC_FOUND_ROWS ");
-        sqlBuilder.append(this.clientMapper.schema());
-        sqlBuilder.append(" where (o.hierarchy like ? or transferToOffice.hierarchy like ?) ");
+        final StringBuilder criteriaBuilder = new StringBuilder(200);
+        criteriaBuilder.append(" where (o.hierarchy like ? or transferToOffice.hierarchy like ?) ");
         
         if(searchParameters.isSelfUser()){
-        	sqlBuilder.append(" and c.id in (select umap.client_id from m_selfservice_user_client_mapping as umap where umap.appuser_id = ? ) ");
+        	criteriaBuilder.append(" and c.id in (select umap.client_id from m_selfservice_user_client_mapping as umap where umap.appuser_id = ? ) ");
         }
 
         final String extraCriteria = buildSqlStringFromClientCriteria(searchParameters);
 
         if (StringUtils.isNotBlank(extraCriteria)) {
-            sqlBuilder.append(" and (").append(extraCriteria).append(")");
+            criteriaBuilder.append(" and (").append(extraCriteria).append(")");
         }
 
+        Object[] params = new Object[] {underHierarchySearchString, underHierarchySearchString };
+        if(searchParameters.isSelfUser()){
+            params = new Object[] {underHierarchySearchString, underHierarchySearchString, appUserID };
+        }
+
+        if (searchParameters.isKeysetPaged()) {
+            final KeysetPagination keyset = KeysetPagination.instance(keysetSortColumns, null, "c.id", searchParameters.getOrderBy(),
+                    searchParameters.getSortOrder(), searchParameters.getContinuationToken(), searchParameters.getLimit(),
+                    searchParameters.getCountMode());
+            if (keyset != null) { return retrieveAllAfter(criteriaBuilder.toString(), params, keyset); }
+        }
+
+        final StringBuilder sqlBuilder = new StringBuilder(200);
+        sqlBuilder.append("select SQL_CALC_FOUND_ROWS ");
+        sqlBuilder.append(this.clientMapper.schema());
+        sqlBuilder.append(criteriaBuilder);
+
         if (searchParameters.isOrderByRequested()) {
             sqlBuilder.append(" order by ").append(searchParameters.getOrderBy());
 
@@ -175,13 +201,26 @@ public class ClientReadPlatformServiceImpl implements ClientReadPlatformService
         }
 
         final String sqlCountRows = "SELECT FOUND_ROWS()";
-        Object[] params = new Object[] {underHierarchySearchString, underHierarchySearchString };
-        if(searchParameters.isSelfUser()){
-            params = new Object[] {underHierarchySearchString, underHierarchySearchString, appUserID };
-        }
         return this.paginationHelper.fetchPage(this.jdbcTemplate, sqlCountRows, sqlBuilder.toString(), params, this.clientMapper);
     }
 
+    private Page<ClientData> retrieveAllAfter(final String criteria, final Object[] criteriaArgs, final KeysetPagination keyset) {
+
+        final StringBuilder sqlBuilder = new StringBuilder(200);
+        sqlBuilder.append("select").append(keyset.selectColumnsSql());
+        sqlBuilder.append(this.clientMapper.schema());
+        sqlBuilder.append(criteria);
+        if (keyset.hasPosition()) {
+            sqlBuilder.append(" and").append(keyset.positionSql());
+        }
+
+        // the search criteria may refer to any table of the page query
+        final String sqlCountFrom = " " + this.clientMapper.from() + criteria;
+
+        return this.paginationHelper.fetchPage(this.jdbcTemplate, sqlCountFrom, criteriaArgs, sqlBuilder.toString(),
+                keyset.fetchArgs(criteriaArgs), keyset, this.clientMapper);
+    }
+
     private String buildSqlStringFromClientCriteria(final SearchParameters searchParameters) {
 
         String sqlSearch = searchParameters.getSqlSearch();
@@ -491,6 +530,7 @@ public class ClientReadPlatformServiceImpl implements ClientReadPlatformService
     private static final class ClientMapper implements RowMapper<ClientData> {
 
         private final String schema;
+        private final String from;
 
         public ClientMapper() {
             final StringBuilder builder = new StringBuilder(400);
@@ -537,6 +577,7 @@ public class ClientReadPlatformServiceImpl implements ClientReadPlatformService
             builder.append("c.staff_id as staffId, s.display_name as staffName, ");
             builder.append("c.default_savings_product as savingsProductId, sp.name as savingsProductName, ");
             builder.append("c.default_savings_account as savingsAccountId ");
+            final int fromAt = builder.length();
             builder.append("from m_client c ");
             builder.append("join m_office o on o.id = c.office_id ");
             builder.append("left join m_client_non_person cnp on cnp.client_id = c.id ");
@@ -554,12 +595,17 @@ public class ClientReadPlatformServiceImpl implements ClientReadPlatformService
             builder.append("left join m_code_value cvMainBusinessLine on cvMainBusinessLine.id = cnp.main_business_line_cv_id ");
 
             this.schema = builder.toString();
+            this.from = builder.substring(fromAt);
         }
 
         public String schema() {
             return this.schema;
         }
 
+        public String from() {
+            return this.from;
+        }
+
         @Override
         public ClientData mapRow(final ResultSet rs, @SuppressWarnings("unused") final int rowNum) throws SQLException {
 
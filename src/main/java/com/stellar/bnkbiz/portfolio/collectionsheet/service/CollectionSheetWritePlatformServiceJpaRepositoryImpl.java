@@ -155,13 +155,11 @@ public class CollectionSheetWritePlatformServiceJpaRepositoryImpl implements Col
         final Map<String, Object> changes = new HashMap<>();
         final Collection<SavingsAccountTransactionDTO> savingsTransactions = this.accountAssembler
                 .assembleBulkMandatorySavingsAccountTransactionDTOs(command, paymentDetail);
-        List<Long> depositTransactionIds = new ArrayList<>();
-        for (SavingsAccountTransactionDTO savingsAccountTransactionDTO : savingsTransactions) {
-            try {
-                SavingsAccountTransaction savingsAccountTransaction =  this.accountWritePlatformService.mandatorySavingsAccountDeposit(savingsAccountTransactionDTO);
+        final List<Long> depositTransactionIds = new ArrayList<>(savingsTransactions.size());
+        if (!savingsTransactions.isEmpty()) {
+            for (final SavingsAccountTransaction savingsAccountTransaction : this.accountWritePlatformService
+                    .mandatorySavingsAccountDeposits(savingsTransactions)) {
                 depositTransactionIds.add(savingsAccountTransaction.getId());
-            } catch (Exception e) {
-                // TODO: handle exception
             }
         }
         changes.put("SavingsTransactions", depositTransactionIds);
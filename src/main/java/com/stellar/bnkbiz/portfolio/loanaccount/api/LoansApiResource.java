@@ -26,6 +26,8 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
@@ -56,7 +58,9 @@ import com.stellar.bnkbiz.infrastructure.core.exception.UnrecognizedQueryParamEx
 import com.stellar.bnkbiz.infrastructure.core.serialization.ApiRequestJsonSerializationSettings;
 import com.stellar.bnkbiz.infrastructure.core.serialization.DefaultToApiJsonSerializer;
 import com.stellar.bnkbiz.infrastructure.core.serialization.FromJsonHelper;
+import com.stellar.bnkbiz.infrastructure.core.service.AssociationLoader;
 import com.stellar.bnkbiz.infrastructure.core.service.Page;
+import com.stellar.bnkbiz.infrastructure.core.service.PageCountMode;
 import com.stellar.bnkbiz.infrastructure.core.service.SearchParameters;
 import com.stellar.bnkbiz.infrastructure.security.service.PlatformSecurityContext;
 import com.stellar.bnkbiz.organisation.monetary.data.CurrencyData;
@@ -164,6 +168,7 @@ public class LoansApiResource {
     private final PortfolioAccountReadPlatformService portfolioAccountReadPlatformService;
     private final AccountAssociationsReadPlatformService accountAssociationsReadPlatformService;
     private final LoanScheduleHistoryReadPlatformService loanScheduleHistoryReadPlatformService;
+    private final AssociationLoader associationLoader;
 
     @Autowired
     public LoansApiResource(final PlatformSecurityContext context, final LoanReadPlatformService loanReadPlatformService,
@@ -182,7 +187,8 @@ public class LoansApiResource {
             final CalendarReadPlatformService calendarReadPlatformService, final NoteReadPlatformServiceImpl noteReadPlatformService,
             final PortfolioAccountReadPlatformService portfolioAccountReadPlatformServiceImpl,
             final AccountAssociationsReadPlatformService accountAssociationsReadPlatformService,
-            final LoanScheduleHistoryReadPlatformService loanScheduleHistoryReadPlatformService) {
+            final LoanScheduleHistoryReadPlatformService loanScheduleHistoryReadPlatformService,
+            final AssociationLoader associationLoader) {
         this.context = context;
         this.loanReadPlatformService = loanReadPlatformService;
         this.loanProductReadPlatformService = loanProductReadPlatformService;
@@ -206,6 +212,7 @@ public class LoansApiResource {
         this.portfolioAccountReadPlatformService = portfolioAccountReadPlatformServiceImpl;
         this.accountAssociationsReadPlatformService = accountAssociationsReadPlatformService;
         this.loanScheduleHistoryReadPlatformService = loanScheduleHistoryReadPlatformService;
+        this.associationLoader = associationLoader;
     }
 
     /*
@@ -352,29 +359,10 @@ public class LoansApiResource {
 
         this.context.authenticatedUser().validateHasReadPermission(this.resourceNameForPermissions);
 
-        LoanAccountData loanBasicDetails = this.loanReadPlatformService.retrieveOne(loanId);
-        if (loanBasicDetails.isInterestRecalculationEnabled()) {
-            Collection<CalendarData> interestRecalculationCalendarDatas = this.calendarReadPlatformService
-                    .retrieveCalendarsByEntity(loanBasicDetails.getInterestRecalculationDetailId(),
-                            CalendarEntityType.LOAN_RECALCULATION_REST_DETAIL.getValue(), null);
-            CalendarData calendarData = null;
-            if (!CollectionUtils.isEmpty(interestRecalculationCalendarDatas)) {
-                calendarData = interestRecalculationCalendarDatas.iterator().next();
-            }
-
-            Collection<CalendarData> interestRecalculationCompoundingCalendarDatas = this.calendarReadPlatformService
-                    .retrieveCalendarsByEntity(loanBasicDetails.getInterestRecalculationDetailId(),
-                            CalendarEntityType.LOAN_RECALCULATION_COMPOUNDING_DETAIL.getValue(), null);
-            CalendarData compoundingCalendarData = null;
-            if (!CollectionUtils.isEmpty(interestRecalculationCompoundingCalendarDatas)) {
-                compoundingCalendarData = interestRecalculationCompoundingCalendarDatas.iterator().next();
-            }
-            loanBasicDetails = LoanAccountData.withInterestRecalculationCalendarData(loanBasicDetails, calendarData,
-                    compoundingCalendarData);
-        }
-
-        Collection<InterestRatePeriodData> interestRatesPeriods = this.loanReadPlatformService.retrieveLoanInterestRatePeriodData(loanId);
+        final LoanAccountData retrievedLoan = this.loanReadPlatformService.retrieveOne(loanId);
+        LoanAccountData loanBasicDetails = retrievedLoan;
 
+        Collection<InterestRatePeriodData> interestRatesPeriods = null;
         Collection<LoanTransactionData> loanRepayments = null;
         LoanScheduleData repaymentSchedule = null;
         Collection<LoanChargeData> charges = null;
@@ -386,176 +374,439 @@ public class LoansApiResource {
         Collection<DisbursementData> disbursementData = null;
         Collection<LoanTermVariationsData> emiAmountVariations = null;
 
+        Collection<LoanProductData> productOptions = null;
+        LoanProductData product = null;
+        Collection<EnumOptionData> loanTermFrequencyTypeOptions = null;
+        Collection<EnumOptionData> repaymentFrequencyTypeOptions = null;
+        Collection<TransactionProcessingStrategyData> repaymentStrategyOptions = null;
+        Collection<EnumOptionData> interestRateFrequencyTypeOptions = null;
+        Collection<EnumOptionData> amortizationTypeOptions = null;
+        Collection<EnumOptionData> interestTypeOptions = null;
+        Collection<EnumOptionData> interestCalculationPeriodTypeOptions = null;
+        Collection<FundData> fundOptions = null;
+        Collection<StaffData> allowedLoanOfficers = null;
+        Collection<ChargeData> chargeOptions = null;
+        ChargeData chargeTemplate = null;
+        Collection<CodeValueData> loanPurposeOptions = null;
+        Collection<CodeValueData> loanCollateralOptions = null;
+        Collection<CalendarData> calendarOptions = null;
+        Collection<PortfolioAccountData> accountLinkingOptions = null;
+        PaidInAdvanceData paidInAdvanceTemplate = null;
+        Collection<ChargeData> overdueCharges = null;
+
         final Set<String> mandatoryResponseParameters = new HashSet<>();
         final Set<String> associationParameters = ApiParameterHelper.extractAssociationsForResponseIfProvided(uriInfo.getQueryParameters());
-        if (!associationParameters.isEmpty()) {
+        if (associationParameters.contains("all")) {
+            associationParameters.addAll(Arrays.asList("repaymentSchedule", "futureSchedule", "originalSchedule", "transactions",
+                    "charges", "guarantors", "collateral", "notes", "linkedAccount", "multiDisburseDetails"));
+        }
+        ApiParameterHelper.excludeAssociationsForResponseIfProvided(uriInfo.getQueryParameters(), associationParameters);
+        final boolean template = ApiParameterHelper.template(uriInfo.getQueryParameters());
 
-            if (associationParameters.contains("all")) {
-                associationParameters.addAll(Arrays.asList("repaymentSchedule", "futureSchedule", "originalSchedule", "transactions",
-                        "charges", "guarantors", "collateral", "notes", "linkedAccount", "multiDisburseDetails"));
+        // the associations only depend on the loan itself, so they are all
+        // submitted before waiting for any of them
+        try (final AssociationLoader.Batch associations = this.associationLoader.newBatch("loan-" + loanId)) {
+            Future<Collection<CalendarData>> interestRecalculationCalendars = null;
+            Future<Collection<CalendarData>> interestRecalculationCompoundingCalendars = null;
+            if (retrievedLoan.isInterestRecalculationEnabled()) {
+                interestRecalculationCalendars = associations.load("interestRecalculationCalendar",
+                        new Callable<Collection<CalendarData>>() {
+
+                            @Override
+                            public Collection<CalendarData> call() {
+                                return LoansApiResource.this.calendarReadPlatformService.retrieveCalendarsByEntity(
+                                        retrievedLoan.getInterestRecalculationDetailId(),
+                                        CalendarEntityType.LOAN_RECALCULATION_REST_DETAIL.getValue(), null);
+                            }
+                        });
+                interestRecalculationCompoundingCalendars = associations.load("interestRecalculationCompoundingCalendar",
+                        new Callable<Collection<CalendarData>>() {
+
+                            @Override
+                            public Collection<CalendarData> call() {
+                                return LoansApiResource.this.calendarReadPlatformService.retrieveCalendarsByEntity(
+                                        retrievedLoan.getInterestRecalculationDetailId(),
+                                        CalendarEntityType.LOAN_RECALCULATION_COMPOUNDING_DETAIL.getValue(), null);
+                            }
+                        });
             }
 
-            ApiParameterHelper.excludeAssociationsForResponseIfProvided(uriInfo.getQueryParameters(), associationParameters);
+            final Future<Collection<InterestRatePeriodData>> interestRatesPeriodsAssociation = associations.load("interestRatesPeriods",
+                    new Callable<Collection<InterestRatePeriodData>>() {
 
+                        @Override
+                        public Collection<InterestRatePeriodData> call() {
+                            return LoansApiResource.this.loanReadPlatformService.retrieveLoanInterestRatePeriodData(loanId);
+                        }
+                    });
+
+            Future<Collection<GuarantorData>> guarantorsAssociation = null;
             if (associationParameters.contains("guarantors")) {
                 mandatoryResponseParameters.add("guarantors");
-                guarantors = this.guarantorReadPlatformService.retrieveGuarantorsForLoan(loanId);
-                if (CollectionUtils.isEmpty(guarantors)) {
-                    guarantors = null;
-                }
+                guarantorsAssociation = associations.load("guarantors", new Callable<Collection<GuarantorData>>() {
+
+                    @Override
+                    public Collection<GuarantorData> call() {
+                        return LoansApiResource.this.guarantorReadPlatformService.retrieveGuarantorsForLoan(loanId);
+                    }
+                });
             }
 
+            Future<Collection<LoanTransactionData>> transactionsAssociation = null;
             if (associationParameters.contains("transactions")) {
                 mandatoryResponseParameters.add("transactions");
-                final Collection<LoanTransactionData> currentLoanRepayments = this.loanReadPlatformService.retrieveLoanTransactions(loanId);
-                if (!CollectionUtils.isEmpty(currentLoanRepayments)) {
-                    loanRepayments = currentLoanRepayments;
-                }
+                transactionsAssociation = associations.load("transactions", new Callable<Collection<LoanTransactionData>>() {
+
+                    @Override
+                    public Collection<LoanTransactionData> call() {
+                        return LoansApiResource.this.loanReadPlatformService.retrieveLoanTransactions(loanId);
+                    }
+                });
             }
 
+            Future<Collection<DisbursementData>> disbursementDataAssociation = null;
             if (associationParameters.contains("multiDisburseDetails") || associationParameters.contains("repaymentSchedule")) {
                 mandatoryResponseParameters.add("multiDisburseDetails");
-                disbursementData = this.loanReadPlatformService.retrieveLoanDisbursementDetails(loanId);
+                disbursementDataAssociation = associations.load("multiDisburseDetails", new Callable<Collection<DisbursementData>>() {
+
+                    @Override
+                    public Collection<DisbursementData> call() {
+                        return LoansApiResource.this.loanReadPlatformService.retrieveLoanDisbursementDetails(loanId);
+                    }
+                });
             }
 
+            Future<Collection<LoanTermVariationsData>> emiAmountVariationsAssociation = null;
             if (associationParameters.contains("emiAmountVariations") || associationParameters.contains("repaymentSchedule")) {
                 mandatoryResponseParameters.add("emiAmountVariations");
-                emiAmountVariations = this.loanReadPlatformService.retrieveLoanTermVariations(loanId,
-                        LoanTermVariationType.EMI_AMOUNT.getValue());
+                emiAmountVariationsAssociation = associations.load("emiAmountVariations", new Callable<Collection<LoanTermVariationsData>>() {
+
+                    @Override
+                    public Collection<LoanTermVariationsData> call() {
+                        return LoansApiResource.this.loanReadPlatformService.retrieveLoanTermVariations(loanId,
+                                LoanTermVariationType.EMI_AMOUNT.getValue());
+                    }
+                });
             }
 
+            Future<LoanScheduleData> repaymentScheduleAssociation = null;
+            Future<LoanScheduleData> originalScheduleAssociation = null;
             if (associationParameters.contains("repaymentSchedule")) {
                 mandatoryResponseParameters.add("repaymentSchedule");
-                final RepaymentScheduleRelatedLoanData repaymentScheduleRelatedData = loanBasicDetails.repaymentScheduleRelatedData();
-                repaymentSchedule = this.loanReadPlatformService.retrieveRepaymentSchedule(loanId, repaymentScheduleRelatedData,
-                        disbursementData, loanBasicDetails.isInterestRecalculationEnabled(), loanBasicDetails.getTotalPaidFeeCharges());
-
-                if (associationParameters.contains("futureSchedule") && loanBasicDetails.isInterestRecalculationEnabled()) {
+                final RepaymentScheduleRelatedLoanData repaymentScheduleRelatedData = retrievedLoan.repaymentScheduleRelatedData();
+                final Future<Collection<DisbursementData>> disbursementDetails = disbursementDataAssociation;
+                final boolean updateFutureSchedule = associationParameters.contains("futureSchedule")
+                        && retrievedLoan.isInterestRecalculationEnabled();
+                if (updateFutureSchedule) {
                     mandatoryResponseParameters.add("futureSchedule");
-                    this.calculationPlatformService.updateFutureSchedule(repaymentSchedule, loanId);
                 }
+                repaymentScheduleAssociation = associations.load("repaymentSchedule", new Callable<LoanScheduleData>() {
+
+                    @Override
+                    public LoanScheduleData call() {
+                        final LoanScheduleData schedule = LoansApiResource.this.loanReadPlatformService.retrieveRepaymentSchedule(loanId,
+                                repaymentScheduleRelatedData, associations.get(disbursementDetails),
+                                retrievedLoan.isInterestRecalculationEnabled(), retrievedLoan.getTotalPaidFeeCharges());
+                        if (updateFutureSchedule) {
+                            LoansApiResource.this.calculationPlatformService.updateFutureSchedule(schedule, loanId);
+                        }
+                        return schedule;
+                    }
+                });
 
-                if (associationParameters.contains("originalSchedule") && loanBasicDetails.isInterestRecalculationEnabled()
-                        && loanBasicDetails.isActive()) {
+                if (associationParameters.contains("originalSchedule") && retrievedLoan.isInterestRecalculationEnabled()
+                        && retrievedLoan.isActive()) {
                     mandatoryResponseParameters.add("originalSchedule");
-                    LoanScheduleData loanScheduleData = this.loanScheduleHistoryReadPlatformService.retrieveRepaymentArchiveSchedule(
-                            loanId, repaymentScheduleRelatedData, disbursementData);
-                    loanBasicDetails = LoanAccountData.withOriginalSchedule(loanBasicDetails, loanScheduleData);
+                    originalScheduleAssociation = associations.load("originalSchedule", new Callable<LoanScheduleData>() {
+
+                        @Override
+                        public LoanScheduleData call() {
+                            return LoansApiResource.this.loanScheduleHistoryReadPlatformService.retrieveRepaymentArchiveSchedule(loanId,
+                                    repaymentScheduleRelatedData, associations.get(disbursementDetails));
+                        }
+                    });
                 }
             }
 
+            Future<Collection<LoanChargeData>> chargesAssociation = null;
             if (associationParameters.contains("charges")) {
                 mandatoryResponseParameters.add("charges");
-                charges = this.loanChargeReadPlatformService.retrieveLoanCharges(loanId);
-                if (CollectionUtils.isEmpty(charges)) {
-                    charges = null;
-                }
+                chargesAssociation = associations.load("charges", new Callable<Collection<LoanChargeData>>() {
+
+                    @Override
+                    public Collection<LoanChargeData> call() {
+                        return LoansApiResource.this.loanChargeReadPlatformService.retrieveLoanCharges(loanId);
+                    }
+                });
             }
 
+            Future<Collection<CollateralData>> collateralAssociation = null;
             if (associationParameters.contains("collateral")) {
                 mandatoryResponseParameters.add("collateral");
-                collateral = this.loanCollateralReadPlatformService.retrieveCollaterals(loanId);
-                if (CollectionUtils.isEmpty(collateral)) {
-                    collateral = null;
-                }
+                collateralAssociation = associations.load("collateral", new Callable<Collection<CollateralData>>() {
+
+                    @Override
+                    public Collection<CollateralData> call() {
+                        return LoansApiResource.this.loanCollateralReadPlatformService.retrieveCollaterals(loanId);
+                    }
+                });
             }
 
+            Future<CalendarData> meetingAssociation = null;
             if (associationParameters.contains("meeting")) {
                 mandatoryResponseParameters.add("meeting");
-                meeting = this.calendarReadPlatformService.retrieveLoanCalendar(loanId);
+                meetingAssociation = associations.load("meeting", new Callable<CalendarData>() {
+
+                    @Override
+                    public CalendarData call() {
+                        return LoansApiResource.this.calendarReadPlatformService.retrieveLoanCalendar(loanId);
+                    }
+                });
             }
 
+            Future<Collection<NoteData>> notesAssociation = null;
             if (associationParameters.contains("notes")) {
                 mandatoryResponseParameters.add("notes");
-                notes = this.noteReadPlatformService.retrieveNotesByResource(loanId, NoteType.LOAN.getValue());
-                if (CollectionUtils.isEmpty(notes)) {
-                    notes = null;
-                }
+                notesAssociation = associations.load("notes", new Callable<Collection<NoteData>>() {
+
+                    @Override
+                    public Collection<NoteData> call() {
+                        return LoansApiResource.this.noteReadPlatformService.retrieveNotesByResource(loanId, NoteType.LOAN.getValue());
+                    }
+                });
             }
 
-            if (associationParameters.contains("linkedAccount")) {
+            Future<PortfolioAccountData> linkedAccountAssociation = null;
+            if (associationParameters.contains("linkedAccount") || template) {
                 mandatoryResponseParameters.add("linkedAccount");
-                linkedAccount = this.accountAssociationsReadPlatformService.retriveLoanLinkedAssociation(loanId);
+                linkedAccountAssociation = associations.load("linkedAccount", new Callable<PortfolioAccountData>() {
+
+                    @Override
+                    public PortfolioAccountData call() {
+                        return LoansApiResource.this.accountAssociationsReadPlatformService.retriveLoanLinkedAssociation(loanId);
+                    }
+                });
             }
 
-        }
+            Future<Collection<LoanProductData>> productOptionsAssociation = null;
+            Future<LoanProductData> productAssociation = null;
+            Future<Collection<FundData>> fundOptionsAssociation = null;
+            Future<ChargeData> chargeTemplateAssociation = null;
+            Future<Collection<StaffData>> allowedLoanOfficersAssociation = null;
+            Future<Collection<CodeValueData>> loanPurposeOptionsAssociation = null;
+            Future<Collection<CodeValueData>> loanCollateralOptionsAssociation = null;
+            Future<Collection<PortfolioAccountData>> accountLinkingOptionsAssociation = null;
+            Future<Collection<CalendarData>> calendarOptionsAssociation = null;
+            if (template) {
+                productOptionsAssociation = associations.load("productOptions", new Callable<Collection<LoanProductData>>() {
+
+                    @Override
+                    public Collection<LoanProductData> call() {
+                        return LoansApiResource.this.loanProductReadPlatformService.retrieveAllLoanProductsForLookup();
+                    }
+                });
+                productAssociation = associations.load("product", new Callable<LoanProductData>() {
 
-        Collection<LoanProductData> productOptions = null;
-        LoanProductData product = null;
-        Collection<EnumOptionData> loanTermFrequencyTypeOptions = null;
-        Collection<EnumOptionData> repaymentFrequencyTypeOptions = null;
-        Collection<TransactionProcessingStrategyData> repaymentStrategyOptions = null;
-        Collection<EnumOptionData> interestRateFrequencyTypeOptions = null;
-        Collection<EnumOptionData> amortizationTypeOptions = null;
-        Collection<EnumOptionData> interestTypeOptions = null;
-        Collection<EnumOptionData> interestCalculationPeriodTypeOptions = null;
-        Collection<FundData> fundOptions = null;
-        Collection<StaffData> allowedLoanOfficers = null;
-        Collection<ChargeData> chargeOptions = null;
-        ChargeData chargeTemplate = null;
-        Collection<CodeValueData> loanPurposeOptions = null;
-        Collection<CodeValueData> loanCollateralOptions = null;
-        Collection<CalendarData> calendarOptions = null;
-        Collection<PortfolioAccountData> accountLinkingOptions = null;
-        PaidInAdvanceData paidInAdvanceTemplate = null;
+                    @Override
+                    public LoanProductData call() {
+                        return LoansApiResource.this.loanProductReadPlatformService.retrieveLoanProduct(retrievedLoan.loanProductId());
+                    }
+                });
+                fundOptionsAssociation = associations.load("fundOptions", new Callable<Collection<FundData>>() {
 
-        final boolean template = ApiParameterHelper.template(uriInfo.getQueryParameters());
-        if (template) {
-            productOptions = this.loanProductReadPlatformService.retrieveAllLoanProductsForLookup();
-            product = this.loanProductReadPlatformService.retrieveLoanProduct(loanBasicDetails.loanProductId());
-            loanBasicDetails.setProduct(product);
-            loanTermFrequencyTypeOptions = this.dropdownReadPlatformService.retrieveLoanTermFrequencyTypeOptions();
-            repaymentFrequencyTypeOptions = this.dropdownReadPlatformService.retrieveRepaymentFrequencyTypeOptions();
-            interestRateFrequencyTypeOptions = this.dropdownReadPlatformService.retrieveInterestRateFrequencyTypeOptions();
-
-            amortizationTypeOptions = this.dropdownReadPlatformService.retrieveLoanAmortizationTypeOptions();
-            if (product.isLinkedToFloatingInterestRates()) {
-                interestTypeOptions = Arrays.asList(interestType(InterestMethod.DECLINING_BALANCE));
-            } else {
-                interestTypeOptions = this.dropdownReadPlatformService.retrieveLoanInterestTypeOptions();
+                    @Override
+                    public Collection<FundData> call() {
+                        return LoansApiResource.this.fundReadPlatformService.retrieveAllFunds();
+                    }
+                });
+                chargeTemplateAssociation = associations.load("chargeTemplate", new Callable<ChargeData>() {
+
+                    @Override
+                    public ChargeData call() {
+                        return LoansApiResource.this.loanChargeReadPlatformService.retrieveLoanChargeTemplate();
+                    }
+                });
+                allowedLoanOfficersAssociation = associations.load("loanOfficerOptions", new Callable<Collection<StaffData>>() {
+
+                    @Override
+                    public Collection<StaffData> call() {
+                        return LoansApiResource.this.loanReadPlatformService.retrieveAllowedLoanOfficers(retrievedLoan.officeId(),
+                                staffInSelectedOfficeOnly);
+                    }
+                });
+                loanPurposeOptionsAssociation = associations.load("loanPurposeOptions", new Callable<Collection<CodeValueData>>() {
+
+                    @Override
+                    public Collection<CodeValueData> call() {
+                        return LoansApiResource.this.codeValueReadPlatformService.retrieveCodeValuesByCode("LoanPurpose");
+                    }
+                });
+                loanCollateralOptionsAssociation = associations.load("loanCollateralOptions", new Callable<Collection<CodeValueData>>() {
+
+                    @Override
+                    public Collection<CodeValueData> call() {
+                        return LoansApiResource.this.codeValueReadPlatformService.retrieveCodeValuesByCode("LoanCollateral");
+                    }
+                });
+                final CurrencyData currencyData = retrievedLoan.currency();
+                String currencyCode = null;
+                if (currencyData != null) {
+                    currencyCode = currencyData.code();
+                }
+                final long[] accountStatus = { SavingsAccountStatusType.ACTIVE.getValue() };
+                final PortfolioAccountDTO portfolioAccountDTO = new PortfolioAccountDTO(PortfolioAccountType.SAVINGS.getValue(),
+                        retrievedLoan.clientId(), currencyCode, accountStatus, DepositAccountType.SAVINGS_DEPOSIT.getValue());
+                accountLinkingOptionsAssociation = associations.load("accountLinkingOptions",
+                        new Callable<Collection<PortfolioAccountData>>() {
+
+                            @Override
+                            public Collection<PortfolioAccountData> call() {
+                                return LoansApiResource.this.portfolioAccountReadPlatformService.retrieveAllForLookup(portfolioAccountDTO);
+                            }
+                        });
+                if (retrievedLoan.groupId() != null) {
+                    calendarOptionsAssociation = associations.load("calendarOptions", new Callable<Collection<CalendarData>>() {
+
+                        @Override
+                        public Collection<CalendarData> call() {
+                            return LoansApiResource.this.loanReadPlatformService.retrieveCalendars(retrievedLoan.groupId());
+                        }
+                    });
+                }
             }
-            interestCalculationPeriodTypeOptions = this.dropdownReadPlatformService.retrieveLoanInterestRateCalculatedInPeriodOptions();
 
-            fundOptions = this.fundReadPlatformService.retrieveAllFunds();
-            repaymentStrategyOptions = this.dropdownReadPlatformService.retreiveTransactionProcessingStrategies();
-            if (product.getMultiDisburseLoan()) {
-                chargeOptions = this.chargeReadPlatformService.retrieveLoanAccountApplicableCharges(loanId,
-                        new ChargeTimeType[] { ChargeTimeType.OVERDUE_INSTALLMENT });
-            } else {
-                chargeOptions = this.chargeReadPlatformService.retrieveLoanAccountApplicableCharges(loanId, new ChargeTimeType[] {
-                        ChargeTimeType.OVERDUE_INSTALLMENT, ChargeTimeType.TRANCHE_DISBURSEMENT });
+            final Future<Collection<ChargeData>> overdueChargesAssociation = associations.load("overdueCharges",
+                    new Callable<Collection<ChargeData>>() {
+
+                        @Override
+                        public Collection<ChargeData> call() {
+                            return LoansApiResource.this.chargeReadPlatformService.retrieveLoanProductCharges(
+                                    retrievedLoan.loanProductId(), ChargeTimeType.OVERDUE_INSTALLMENT);
+                        }
+                    });
+            final Future<PaidInAdvanceData> paidInAdvanceAssociation = associations.load("paidInAdvance", new Callable<PaidInAdvanceData>() {
+
+                @Override
+                public PaidInAdvanceData call() {
+                    return LoansApiResource.this.loanReadPlatformService.retrieveTotalPaidInAdvance(loanId);
+                }
+            });
+
+            if (retrievedLoan.isInterestRecalculationEnabled()) {
+                final Collection<CalendarData> interestRecalculationCalendarDatas = associations.get(interestRecalculationCalendars);
+                CalendarData calendarData = null;
+                if (!CollectionUtils.isEmpty(interestRecalculationCalendarDatas)) {
+                    calendarData = interestRecalculationCalendarDatas.iterator().next();
+                }
+                final Collection<CalendarData> interestRecalculationCompoundingCalendarDatas = associations
+                        .get(interestRecalculationCompoundingCalendars);
+                CalendarData compoundingCalendarData = null;
+                if (!CollectionUtils.isEmpty(interestRecalculationCompoundingCalendarDatas)) {
+                    compoundingCalendarData = interestRecalculationCompoundingCalendarDatas.iterator().next();
+                }
+                loanBasicDetails = LoanAccountData.withInterestRecalculationCalendarData(loanBasicDetails, calendarData,
+                        compoundingCalendarData);
             }
-            chargeTemplate = this.loanChargeReadPlatformService.retrieveLoanChargeTemplate();
 
-            allowedLoanOfficers = this.loanReadPlatformService.retrieveAllowedLoanOfficers(loanBasicDetails.officeId(),
-                    staffInSelectedOfficeOnly);
+            interestRatesPeriods = associations.get(interestRatesPeriodsAssociation);
 
-            loanPurposeOptions = this.codeValueReadPlatformService.retrieveCodeValuesByCode("LoanPurpose");
-            loanCollateralOptions = this.codeValueReadPlatformService.retrieveCodeValuesByCode("LoanCollateral");
-            final CurrencyData currencyData = loanBasicDetails.currency();
-            String currencyCode = null;
-            if (currencyData != null) {
-                currencyCode = currencyData.code();
+            if (guarantorsAssociation != null) {
+                guarantors = associations.get(guarantorsAssociation);
+                if (CollectionUtils.isEmpty(guarantors)) {
+                    guarantors = null;
+                }
             }
-            final long[] accountStatus = { SavingsAccountStatusType.ACTIVE.getValue() };
-            PortfolioAccountDTO portfolioAccountDTO = new PortfolioAccountDTO(PortfolioAccountType.SAVINGS.getValue(),
-                    loanBasicDetails.clientId(), currencyCode, accountStatus, DepositAccountType.SAVINGS_DEPOSIT.getValue());
-            accountLinkingOptions = this.portfolioAccountReadPlatformService.retrieveAllForLookup(portfolioAccountDTO);
 
-            if (!associationParameters.contains("linkedAccount")) {
-                mandatoryResponseParameters.add("linkedAccount");
-                linkedAccount = this.accountAssociationsReadPlatformService.retriveLoanLinkedAssociation(loanId);
+            if (transactionsAssociation != null) {
+                final Collection<LoanTransactionData> currentLoanRepayments = associations.get(transactionsAssociation);
+                if (!CollectionUtils.isEmpty(currentLoanRepayments)) {
+                    loanRepayments = currentLoanRepayments;
+                }
             }
-            if (loanBasicDetails.groupId() != null) {
-                calendarOptions = this.loanReadPlatformService.retrieveCalendars(loanBasicDetails.groupId());
+
+            if (disbursementDataAssociation != null) {
+                disbursementData = associations.get(disbursementDataAssociation);
             }
 
-        }
+            if (emiAmountVariationsAssociation != null) {
+                emiAmountVariations = associations.get(emiAmountVariationsAssociation);
+            }
+
+            if (repaymentScheduleAssociation != null) {
+                repaymentSchedule = associations.get(repaymentScheduleAssociation);
+            }
+
+            if (originalScheduleAssociation != null) {
+                loanBasicDetails = LoanAccountData.withOriginalSchedule(loanBasicDetails, associations.get(originalScheduleAssociation));
+            }
+
+            if (chargesAssociation != null) {
+                charges = associations.get(chargesAssociation);
+                if (CollectionUtils.isEmpty(charges)) {
+                    charges = null;
+                }
+            }
+
+            if (collateralAssociation != null) {
+                collateral = associations.get(collateralAssociation);
+                if (CollectionUtils.isEmpty(collateral)) {
+                    collateral = null;
+                }
+            }
+
+            if (meetingAssociation != null) {
+                meeting = associations.get(meetingAssociation);
+            }
+
+            if (notesAssociation != null) {
+                notes = associations.get(notesAssociation);
+                if (CollectionUtils.isEmpty(notes)) {
+                    notes = null;
+                }
+            }
 
-        Collection<ChargeData> overdueCharges = this.chargeReadPlatformService.retrieveLoanProductCharges(loanBasicDetails.loanProductId(),
-                ChargeTimeType.OVERDUE_INSTALLMENT);
+            if (linkedAccountAssociation != null) {
+                linkedAccount = associations.get(linkedAccountAssociation);
+            }
 
-        paidInAdvanceTemplate = this.loanReadPlatformService.retrieveTotalPaidInAdvance(loanId);
+            if (template) {
+                productOptions = associations.get(productOptionsAssociation);
+                product = associations.get(productAssociation);
+                loanBasicDetails.setProduct(product);
+                loanTermFrequencyTypeOptions = this.dropdownReadPlatformService.retrieveLoanTermFrequencyTypeOptions();
+                repaymentFrequencyTypeOptions = this.dropdownReadPlatformService.retrieveRepaymentFrequencyTypeOptions();
+                interestRateFrequencyTypeOptions = this.dropdownReadPlatformService.retrieveInterestRateFrequencyTypeOptions();
+
+                amortizationTypeOptions = this.dropdownReadPlatformService.retrieveLoanAmortizationTypeOptions();
+                if (product.isLinkedToFloatingInterestRates()) {
+                    interestTypeOptions = Arrays.asList(interestType(InterestMethod.DECLINING_BALANCE));
+                } else {
+                    interestTypeOptions = this.dropdownReadPlatformService.retrieveLoanInterestTypeOptions();
+                }
+                interestCalculationPeriodTypeOptions = this.dropdownReadPlatformService.retrieveLoanInterestRateCalculatedInPeriodOptions();
+
+                fundOptions = associations.get(fundOptionsAssociation);
+                repaymentStrategyOptions = this.dropdownReadPlatformService.retreiveTransactionProcessingStrategies();
+                if (product.getMultiDisburseLoan()) {
+                    chargeOptions = this.chargeReadPlatformService.retrieveLoanAccountApplicableCharges(loanId,
+                            new ChargeTimeType[] { ChargeTimeType.OVERDUE_INSTALLMENT });
+                } else {
+                    chargeOptions = this.chargeReadPlatformService.retrieveLoanAccountApplicableCharges(loanId, new ChargeTimeType[] {
+                            ChargeTimeType.OVERDUE_INSTALLMENT, ChargeTimeType.TRANCHE_DISBURSEMENT });
+                }
+                chargeTemplate = associations.get(chargeTemplateAssociation);
+                allowedLoanOfficers = associations.get(allowedLoanOfficersAssociation);
+                loanPurposeOptions = associations.get(loanPurposeOptionsAssociation);
+                loanCollateralOptions = associations.get(loanCollateralOptionsAssociation);
+                accountLinkingOptions = associations.get(accountLinkingOptionsAssociation);
+                if (calendarOptionsAssociation != null) {
+                    calendarOptions = associations.get(calendarOptionsAssociation);
+                }
+            }
+
+            overdueCharges = associations.get(overdueChargesAssociation);
+            paidInAdvanceTemplate = associations.get(paidInAdvanceAssociation);
+        }
 
         final LoanAccountData loanAccount = LoanAccountData.associationsAndTemplate(loanBasicDetails, repaymentSchedule, loanRepayments,
                 charges, collateral, guarantors, meeting, productOptions, loanTermFrequencyTypeOptions, repaymentFrequencyTypeOptions,
@@ -578,12 +829,13 @@ public class LoansApiResource {
             // @QueryParam("underHierarchy") final String hierarchy,
             @QueryParam("offset") final Integer offset, @QueryParam("limit") final Integer limit,
             @QueryParam("orderBy") final String orderBy, @QueryParam("sortOrder") final String sortOrder,
-            @QueryParam("accountNo") final String accountNo) {
+            @QueryParam("accountNo") final String accountNo, @QueryParam("continuationToken") final String continuationToken,
+            @QueryParam("countMode") final String countMode) {
 
         this.context.authenticatedUser().validateHasReadPermission(this.resourceNameForPermissions);
 
         final SearchParameters searchParameters = SearchParameters.forLoans(sqlSearch, externalId, offset, limit, orderBy, sortOrder,
-                accountNo);
+                accountNo).withContinuation(continuationToken, PageCountMode.fromString(countMode));
 
         final Page<LoanAccountData> loanBasicDetails = this.loanReadPlatformService.retrieveAll(searchParameters);
 
@@ -19,8 +19,13 @@
 package com.stellar.bnkbiz.portfolio.loanaccount.domain;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 import com.stellar.bnkbiz.infrastructure.core.data.CommandProcessingResultBuilder;
+import com.stellar.bnkbiz.portfolio.collectionsheet.command.SingleRepaymentCommand;
+import com.stellar.bnkbiz.portfolio.common.BusinessEventNotificationConstants.BUSINESS_EVENTS;
 import com.stellar.bnkbiz.portfolio.loanaccount.data.HolidayDetailDTO;
 import com.stellar.bnkbiz.portfolio.paymentdetail.domain.PaymentDetail;
 import java.time.LocalDate;
@@ -31,6 +36,16 @@ public interface LoanAccountDomainService {
             BigDecimal transactionAmount, PaymentDetail paymentDetail, String noteText, String txnExternalId,
             final boolean isRecoveryRepayment, boolean isAccountTransfer, HolidayDetailDTO holidatDetailDto, Boolean isHolidayValidationDone);
 
+    /**
+     * Makes the repayments of a collection sheet on loans that were loaded up
+     * front. The loans are flushed together once all repayments are applied,
+     * journal entries and accruals are posted after that and a single
+     * {@link BUSINESS_EVENTS#LOAN_BULK_REPAYMENT} event is raised for all
+     * repayments.
+     */
+    List<LoanTransaction> makeBulkRepayment(Map<Long, Loan> loans, Collection<SingleRepaymentCommand> repaymentCommands,
+            LocalDate transactionDate, String noteText, HolidayDetailDTO holidayDetailDto, Boolean isHolidayValidationDone);
+
     LoanTransaction makeRefund(Long accountId, CommandProcessingResultBuilder builderResult, LocalDate transactionDate,
             BigDecimal transactionAmount, PaymentDetail paymentDetail, String noteText, String txnExternalId);
 
@@ -22,7 +22,9 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -51,6 +53,7 @@ import com.stellar.bnkbiz.portfolio.account.domain.AccountTransferRepository;
 import com.stellar.bnkbiz.portfolio.account.domain.AccountTransferTransaction;
 import com.stellar.bnkbiz.portfolio.client.domain.Client;
 import com.stellar.bnkbiz.portfolio.client.exception.ClientNotActiveException;
+import com.stellar.bnkbiz.portfolio.collectionsheet.command.SingleRepaymentCommand;
 import com.stellar.bnkbiz.portfolio.common.BusinessEventNotificationConstants.BUSINESS_ENTITY;
 import com.stellar.bnkbiz.portfolio.common.BusinessEventNotificationConstants.BUSINESS_EVENTS;
 import com.stellar.bnkbiz.portfolio.common.domain.PeriodFrequencyType;
@@ -62,6 +65,7 @@ import com.stellar.bnkbiz.portfolio.loanaccount.data.LoanScheduleAccrualData;
 import com.stellar.bnkbiz.portfolio.loanaccount.data.ScheduleGeneratorDTO;
 import com.stellar.bnkbiz.portfolio.loanaccount.service.LoanAccrualPlatformService;
 import com.stellar.bnkbiz.portfolio.loanaccount.service.LoanAssembler;
+import com.stellar.bnkbiz.portfolio.loanaccount.service.LoanSummaryService;
 import com.stellar.bnkbiz.portfolio.loanaccount.service.LoanUtilService;
 import com.stellar.bnkbiz.portfolio.note.domain.Note;
 import com.stellar.bnkbiz.portfolio.note.domain.NoteRepository;
@@ -94,6 +98,7 @@ public class LoanAccountDomainServiceJpa implements LoanAccountDomainService {
     private final PlatformSecurityContext context;
     private final BusinessEventNotifierService businessEventNotifierService;
     private final LoanUtilService loanUtilService;
+    private final LoanSummaryService loanSummaryService;
 
     @Autowired
     public LoanAccountDomainServiceJpa(final LoanAssembler loanAccountAssembler, final LoanRepository loanRepository,
@@ -106,7 +111,8 @@ public class LoanAccountDomainServiceJpa implements LoanAccountDomainService {
             final ApplicationCurrencyRepositoryWrapper applicationCurrencyRepository,
             final LoanRepaymentScheduleInstallmentRepository repaymentScheduleInstallmentRepository,
             final LoanAccrualPlatformService loanAccrualPlatformService, final PlatformSecurityContext context,
-            final BusinessEventNotifierService businessEventNotifierService, final LoanUtilService loanUtilService) {
+            final BusinessEventNotifierService businessEventNotifierService, final LoanUtilService loanUtilService,
+            final LoanSummaryService loanSummaryService) {
         this.loanAccountAssembler = loanAccountAssembler;
         this.loanRepository = loanRepository;
         this.loanTransactionRepository = loanTransactionRepository;
@@ -123,6 +129,7 @@ public class LoanAccountDomainServiceJpa implements LoanAccountDomainService {
         this.context = context;
         this.businessEventNotifierService = businessEventNotifierService;
         this.loanUtilService = loanUtilService;
+        this.loanSummaryService = loanSummaryService;
     }
 
     @Transactional
@@ -215,6 +222,80 @@ public class LoanAccountDomainServiceJpa implements LoanAccountDomainService {
         return newRepaymentTransaction;
     }
 
+    @Transactional
+    @Override
+    public List<LoanTransaction> makeBulkRepayment(final Map<Long, Loan> loans, final Collection<SingleRepaymentCommand> repaymentCommands,
+            final LocalDate transactionDate, final String noteText, final HolidayDetailDTO holidayDetailDto,
+            final Boolean isHolidayValidationDone) {
+        final AppUser currentUser = getAppUserIfPresent();
+        final boolean isRecoveryRepayment = false;
+        final boolean isAccountTransfer = false;
+        this.businessEventNotifierService.notifyBusinessEventToBeExecuted(BUSINESS_EVENTS.LOAN_BULK_REPAYMENT,
+                constructEntityMap(BUSINESS_ENTITY.LOANS, loans.values()));
+
+        final List<LoanTransaction> repaymentTransactions = new ArrayList<>(repaymentCommands.size());
+        // transactions existing before the first repayment of each loan, the
+        // journal entries of all its new transactions are posted in one go
+        final Map<Loan, List<Long>> existingTransactionIds = new LinkedHashMap<>();
+        final Map<Loan, List<Long>> existingReversedTransactionIds = new HashMap<>();
+        final LocalDateTime currentDateTime = DateUtils.getLocalDateTimeOfTenant();
+        for (final SingleRepaymentCommand repaymentCommand : repaymentCommands) {
+            final Loan loan = loans.get(repaymentCommand.getLoanId());
+            checkClientOrGroupActive(loan);
+            final List<Long> loanTransactionIds = new ArrayList<>();
+            final List<Long> loanReversedTransactionIds = new ArrayList<>();
+            if (!existingTransactionIds.containsKey(loan)) {
+                existingTransactionIds.put(loan, loanTransactionIds);
+                existingReversedTransactionIds.put(loan, loanReversedTransactionIds);
+            }
+
+            final Money repaymentAmount = Money.of(loan.getCurrency(), repaymentCommand.getTransactionAmount());
+            final LoanTransaction newRepaymentTransaction = LoanTransaction.repayment(loan.getOffice(), repaymentAmount,
+                    repaymentCommand.getPaymentDetail(), transactionDate, null, currentDateTime, currentUser);
+
+            LocalDate recalculateFrom = null;
+            if (loan.repaymentScheduleDetail().isInterestRecalculationEnabled()) {
+                recalculateFrom = transactionDate;
+            }
+            final ScheduleGeneratorDTO scheduleGeneratorDTO = this.loanUtilService.buildScheduleGeneratorDTO(loan, recalculateFrom,
+                    holidayDetailDto);
+
+            final ChangedTransactionDetail changedTransactionDetail = loan.makeRepayment(newRepaymentTransaction,
+                    defaultLoanLifecycleStateMachine(), loanTransactionIds, loanReversedTransactionIds, isRecoveryRepayment,
+                    scheduleGeneratorDTO, currentUser, isHolidayValidationDone);
+
+            saveLoanTransactionWithDataIntegrityViolationChecks(newRepaymentTransaction);
+            saveLoanWithDataIntegrityViolationChecks(loan);
+
+            if (changedTransactionDetail != null) {
+                for (Map.Entry<Long, LoanTransaction> mapEntry : changedTransactionDetail.getNewTransactionMappings().entrySet()) {
+                    saveLoanTransactionWithDataIntegrityViolationChecks(mapEntry.getValue());
+                    // update loan with references to the newly created
+                    // transactions
+                    loan.getLoanTransactions().add(mapEntry.getValue());
+                    updateLoanTransaction(mapEntry.getKey(), mapEntry.getValue());
+                }
+            }
+
+            if (StringUtils.isNotBlank(noteText)) {
+                final Note note = Note.loanTransactionNote(loan, newRepaymentTransaction, noteText);
+                this.noteRepository.save(note);
+            }
+            repaymentTransactions.add(newRepaymentTransaction);
+        }
+        this.loanRepository.flush();
+
+        for (final Map.Entry<Loan, List<Long>> mapEntry : existingTransactionIds.entrySet()) {
+            final Loan loan = mapEntry.getKey();
+            postJournalEntries(loan, mapEntry.getValue(), existingReversedTransactionIds.get(loan), isAccountTransfer);
+            recalculateAccruals(loan);
+        }
+
+        this.businessEventNotifierService.notifyBusinessEventWasExecuted(BUSINESS_EVENTS.LOAN_BULK_REPAYMENT,
+                constructEntityMap(BUSINESS_ENTITY.LOAN_TRANSACTIONS, repaymentTransactions));
+        return repaymentTransactions;
+    }
+
     private void saveLoanTransactionWithDataIntegrityViolationChecks(LoanTransaction newRepaymentTransaction) {
         try {
             this.loanTransactionRepository.save(newRepaymentTransaction);
@@ -418,6 +499,8 @@ public class LoanAccountDomainServiceJpa implements LoanAccountDomainService {
         }
 
         postJournalEntries(loan, existingTransactionIds, existingReversedTransactionIds, isAccountTransfer);
+        // raises no disbursal event
+        this.loanSummaryService.markLoansForRecalculation(Collections.singletonList(loan.getId()));
         return disbursementTransaction;
     }
 
@@ -425,6 +508,7 @@ public class LoanAccountDomainServiceJpa implements LoanAccountDomainService {
     public void reverseTransfer(final LoanTransaction loanTransaction) {
         loanTransaction.reverse();
         saveLoanTransactionWithDataIntegrityViolationChecks(loanTransaction);
+        this.loanSummaryService.markLoansForRecalculation(Collections.singletonList(loanTransaction.getLoan().getId()));
     }
 
     /*
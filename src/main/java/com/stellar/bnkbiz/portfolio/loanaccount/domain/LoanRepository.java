@@ -132,6 +132,12 @@ public interface LoanRepository extends JpaRepository<Loan, Long>, JpaSpecificat
     List<Loan> findByGroupOfficeIdsAndLoanStatus(@Param("officeIds") Collection<Long> officeIds,
             @Param("loanStatuses") Collection<Integer> loanStatuses);
 
+    @Query("from Loan loan where loan.id IN :ids")
+    List<Loan> findByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("from Loan loan where loan.id IN :ids and loan.loanStatus IN :loanStatuses order by loan.id")
+    List<Loan> findByIdsAndLoanStatus(@Param("ids") Collection<Long> ids, @Param("loanStatuses") Collection<Integer> loanStatuses);
+
     /*** FIXME: Add more appropriate names for the query ***/
     @Query(FIND_ACTIVE_LOANS_PRODUCT_IDS_BY_CLIENT)
     List<Long> findActiveLoansLoanProductIdsByClient(@Param("clientId") Long clientId, @Param("loanStatus") Integer loanStatus);
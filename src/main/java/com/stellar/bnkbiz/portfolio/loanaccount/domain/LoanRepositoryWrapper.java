@@ -21,6 +21,8 @@ package com.stellar.bnkbiz.portfolio.loanaccount.domain;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 import com.stellar.bnkbiz.portfolio.loanaccount.exception.LoanNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -48,6 +50,20 @@ public class LoanRepositoryWrapper {
         return loan;
     }
 
+    /**
+     * Loads the loans in one query, keyed by id.
+     */
+    public Map<Long, Loan> findWithNotFoundDetection(final Collection<Long> ids) {
+        final Map<Long, Loan> loans = new HashMap<>(ids.size());
+        for (final Loan loan : this.repository.findByIds(ids)) {
+            loans.put(loan.getId(), loan);
+        }
+        for (final Long id : ids) {
+            if (!loans.containsKey(id)) { throw new LoanNotFoundException(id); }
+        }
+        return loans;
+    }
+
     public Collection<Loan> findActiveLoansByLoanIdAndGroupId(Long clientId, Long groupId) {
         final Collection<Integer> loanStatuses = new ArrayList<>(Arrays.asList(LoanStatus.SUBMITTED_AND_PENDING_APPROVAL.getValue(),
                 LoanStatus.APPROVED.getValue(), LoanStatus.ACTIVE.getValue(), LoanStatus.OVERPAID.getValue()));
@@ -22,6 +22,7 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -99,8 +100,9 @@ public class GuarantorDomainServiceImpl implements GuarantorDomainService {
                 new ReverseAllFundsOnBusinessEvent());
         this.businessEventNotifierService.addBusinessEventPostListners(BUSINESS_EVENTS.LOAN_ADJUST_TRANSACTION,
                 new AdjustFundsOnBusinessEvent());
-        this.businessEventNotifierService.addBusinessEventPostListners(BUSINESS_EVENTS.LOAN_MAKE_REPAYMENT,
-                new ReleaseFundsOnBusinessEvent());
+        final ReleaseFundsOnBusinessEvent releaseFundsOnBusinessEvent = new ReleaseFundsOnBusinessEvent();
+        this.businessEventNotifierService.addBusinessEventPostListners(BUSINESS_EVENTS.LOAN_MAKE_REPAYMENT, releaseFundsOnBusinessEvent);
+        this.businessEventNotifierService.addBusinessEventPostListners(BUSINESS_EVENTS.LOAN_BULK_REPAYMENT, releaseFundsOnBusinessEvent);
         this.businessEventNotifierService.addBusinessEventPostListners(BUSINESS_EVENTS.LOAN_WRITTEN_OFF, new ReleaseAllFunds());
         this.businessEventNotifierService.addBusinessEventPostListners(BUSINESS_EVENTS.LOAN_UNDO_WRITTEN_OFF,
                 new ReverseFundsOnBusinessEvent());
@@ -553,14 +555,23 @@ public class GuarantorDomainServiceImpl implements GuarantorDomainService {
         public void businessEventWasExecuted(Map<BUSINESS_ENTITY, Object> businessEventEntity) {
             Object entity = businessEventEntity.get(BUSINESS_ENTITY.LOAN_TRANSACTION);
             if (entity instanceof LoanTransaction) {
-                LoanTransaction loanTransaction = (LoanTransaction) entity;
-                if (releaseLoanIds.containsKey(loanTransaction.getLoan().getId())) {
-                    completeGuarantorFund(loanTransaction);
-                } else {
-                    releaseGuarantorFunds(loanTransaction);
+                releaseFunds((LoanTransaction) entity);
+            }
+            Object entities = businessEventEntity.get(BUSINESS_ENTITY.LOAN_TRANSACTIONS);
+            if (entities instanceof Collection) {
+                for (Object loanTransaction : (Collection<?>) entities) {
+                    releaseFunds((LoanTransaction) loanTransaction);
                 }
             }
         }
+
+        private void releaseFunds(LoanTransaction loanTransaction) {
+            if (releaseLoanIds.containsKey(loanTransaction.getLoan().getId())) {
+                completeGuarantorFund(loanTransaction);
+            } else {
+                releaseGuarantorFunds(loanTransaction);
+            }
+        }
     }
 
     private class ReverseFundsOnBusinessEvent implements BusinessEventListner {
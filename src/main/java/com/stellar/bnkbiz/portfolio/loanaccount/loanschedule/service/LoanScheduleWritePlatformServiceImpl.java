@@ -19,6 +19,7 @@
 package com.stellar.bnkbiz.portfolio.loanaccount.loanschedule.service;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +34,7 @@ import com.stellar.bnkbiz.portfolio.loanaccount.domain.Loan;
 import com.stellar.bnkbiz.portfolio.loanaccount.domain.LoanAccountDomainService;
 import com.stellar.bnkbiz.portfolio.loanaccount.domain.LoanTermVariations;
 import com.stellar.bnkbiz.portfolio.loanaccount.service.LoanAssembler;
+import com.stellar.bnkbiz.portfolio.loanaccount.service.LoanSummaryService;
 import com.stellar.bnkbiz.portfolio.loanaccount.service.LoanUtilService;
 import com.stellar.bnkbiz.useradministration.domain.AppUser;
 import java.time.LocalDate;
@@ -47,16 +49,18 @@ public class LoanScheduleWritePlatformServiceImpl implements LoanScheduleWritePl
     private final LoanScheduleAssembler loanScheduleAssembler;
     private final PlatformSecurityContext context;
     private final LoanUtilService loanUtilService;
+    private final LoanSummaryService loanSummaryService;
 
     @Autowired
     public LoanScheduleWritePlatformServiceImpl(final LoanAccountDomainService loanAccountDomainService,
             final LoanScheduleAssembler loanScheduleAssembler, final LoanAssembler loanAssembler, final PlatformSecurityContext context,
-            final LoanUtilService loanUtilService) {
+            final LoanUtilService loanUtilService, final LoanSummaryService loanSummaryService) {
         this.loanAccountDomainService = loanAccountDomainService;
         this.loanScheduleAssembler = loanScheduleAssembler;
         this.loanAssembler = loanAssembler;
         this.context = context;
         this.loanUtilService = loanUtilService;
+        this.loanSummaryService = loanSummaryService;
     }
 
     @Override
@@ -69,6 +73,7 @@ public class LoanScheduleWritePlatformServiceImpl implements LoanScheduleWritePl
         this.loanScheduleAssembler.assempleVariableScheduleFrom(loan, command.json());
 
         this.loanAccountDomainService.saveLoanWithDataIntegrityViolationChecks(loan);
+        this.loanSummaryService.markLoansForRecalculation(Collections.singletonList(loanId));
         final Map<String, Object> changes = new HashMap<>();
         List<LoanTermVariationsData> newVariationsData = new ArrayList<>();
         List<LoanTermVariations> modifiedVariations = loan.getLoanTermVariations();
@@ -106,6 +111,7 @@ public class LoanScheduleWritePlatformServiceImpl implements LoanScheduleWritePl
         AppUser currentUser = this.context.getAuthenticatedUserIfPresent();
         loan.regenerateRepaymentSchedule(scheduleGeneratorDTO, currentUser);
         this.loanAccountDomainService.saveLoanWithDataIntegrityViolationChecks(loan);
+        this.loanSummaryService.markLoansForRecalculation(Collections.singletonList(loanId));
         return new CommandProcessingResultBuilder() //
                 .withLoanId(loanId) //
                 .with(changes) //
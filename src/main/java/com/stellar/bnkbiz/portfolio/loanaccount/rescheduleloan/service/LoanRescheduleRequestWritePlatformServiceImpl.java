@@ -24,6 +24,7 @@ import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -86,6 +87,7 @@ import com.stellar.bnkbiz.portfolio.loanaccount.rescheduleloan.domain.LoanResche
 import com.stellar.bnkbiz.portfolio.loanaccount.rescheduleloan.exception.LoanRescheduleRequestNotFoundException;
 import com.stellar.bnkbiz.portfolio.loanaccount.service.LoanAssembler;
 import com.stellar.bnkbiz.portfolio.loanaccount.service.LoanChargeReadPlatformService;
+import com.stellar.bnkbiz.portfolio.loanaccount.service.LoanSummaryService;
 import com.stellar.bnkbiz.portfolio.loanaccount.service.LoanUtilService;
 import com.stellar.bnkbiz.portfolio.loanproduct.domain.InterestMethod;
 import com.stellar.bnkbiz.portfolio.loanproduct.domain.LoanProductMinimumRepaymentScheduleRelatedDetail;
@@ -124,6 +126,7 @@ public class LoanRescheduleRequestWritePlatformServiceImpl implements LoanResche
     private final LoanAssembler loanAssembler;
     private final FloatingRatesReadPlatformService floatingRatesReadPlatformService;
     private final LoanUtilService loanUtilService;
+    private final LoanSummaryService loanSummaryService;
 
     /**
      * LoanRescheduleRequestWritePlatformServiceImpl constructor
@@ -143,7 +146,7 @@ public class LoanRescheduleRequestWritePlatformServiceImpl implements LoanResche
             final LoanTransactionRepository loanTransactionRepository,
             final JournalEntryWritePlatformService journalEntryWritePlatformService, final LoanRepository loanRepository,
             final LoanAssembler loanAssembler, final FloatingRatesReadPlatformService floatingRatesReadPlatformService,
-            final LoanUtilService loanUtilService) {
+            final LoanUtilService loanUtilService, final LoanSummaryService loanSummaryService) {
         this.loanRepositoryWrapper = loanRepositoryWrapper;
         this.codeValueRepositoryWrapper = codeValueRepositoryWrapper;
         this.platformSecurityContext = platformSecurityContext;
@@ -163,6 +166,7 @@ public class LoanRescheduleRequestWritePlatformServiceImpl implements LoanResche
         this.loanAssembler = loanAssembler;
         this.floatingRatesReadPlatformService = floatingRatesReadPlatformService;
         this.loanUtilService = loanUtilService;
+        this.loanSummaryService = loanSummaryService;
     }
 
     /**
@@ -437,6 +441,7 @@ public class LoanRescheduleRequestWritePlatformServiceImpl implements LoanResche
                 loan.updateLoanScheduleDependentDerivedFields();
                 // update the loan object
                 this.loanRepository.save(loan);
+                this.loanSummaryService.markLoansForRecalculation(Collections.singletonList(loan.getId()));
             }
 
             return new CommandProcessingResultBuilder().withCommandId(jsonCommand.commandId()).withEntityId(loanRescheduleRequestId)
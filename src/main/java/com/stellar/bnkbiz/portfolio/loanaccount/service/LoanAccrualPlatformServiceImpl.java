@@ -21,78 +21,206 @@ package com.stellar.bnkbiz.portfolio.loanaccount.service;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
+import com.stellar.bnkbiz.infrastructure.configuration.domain.ConfigurationDomainService;
+import com.stellar.bnkbiz.infrastructure.core.service.ContextAwareExecutor;
+import com.stellar.bnkbiz.infrastructure.core.service.ThreadLocalContextUtil;
 import com.stellar.bnkbiz.infrastructure.jobs.annotation.CronTarget;
 import com.stellar.bnkbiz.infrastructure.jobs.exception.JobExecutionException;
 import com.stellar.bnkbiz.infrastructure.jobs.service.JobName;
+import com.stellar.bnkbiz.infrastructure.jobs.service.JobRunProgress;
+import com.stellar.bnkbiz.infrastructure.jobs.service.JobRunProgressService;
 import com.stellar.bnkbiz.portfolio.loanaccount.data.LoanScheduleAccrualData;
-//import java.time.LocalDate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Adds accrual transactions for all loans with accruals due.
+ * 
+ * Loan ids are read in keyset paged chunks and the accrual rows of a chunk are
+ * read in one query ordered by loan, so that every worker receives complete
+ * per loan groups. Each chunk is processed in its own transaction on a worker
+ * pool sized per tenant; when a chunk fails its loans are retried one by one
+ * so that a single bad loan does not hold back the rest of the chunk.
+ */
 @Service
 public class LoanAccrualPlatformServiceImpl implements LoanAccrualPlatformService {
 
+    private final static Logger logger = LoggerFactory.getLogger(LoanAccrualPlatformServiceImpl.class);
+
+    private static final String PROGRESS_ITEM_NAME = "loans";
+
     private final LoanReadPlatformService loanReadPlatformService;
     private final LoanAccrualWritePlatformService loanAccrualWritePlatformService;
+    private final ConfigurationDomainService configurationDomainService;
+    private final JobRunProgressService jobRunProgressService;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
     public LoanAccrualPlatformServiceImpl(final LoanReadPlatformService loanReadPlatformService,
-            final LoanAccrualWritePlatformService loanAccrualWritePlatformService) {
+            final LoanAccrualWritePlatformService loanAccrualWritePlatformService,
+            final ConfigurationDomainService configurationDomainService, final JobRunProgressService jobRunProgressService,
+            final PlatformTransactionManager transactionManager) {
         this.loanReadPlatformService = loanReadPlatformService;
         this.loanAccrualWritePlatformService = loanAccrualWritePlatformService;
+        this.configurationDomainService = configurationDomainService;
+        this.jobRunProgressService = jobRunProgressService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
     @CronTarget(jobName = JobName.ADD_ACCRUAL_ENTRIES)
     public void addAccrualAccounting() throws JobExecutionException {
-        Collection<LoanScheduleAccrualData> loanScheduleAccrualDatas = this.loanReadPlatformService.retriveScheduleAccrualData();
-        StringBuilder sb = new StringBuilder();
-        Map<Long, Collection<LoanScheduleAccrualData>> loanDataMap = new HashMap<>();
-        for (final LoanScheduleAccrualData accrualData : loanScheduleAccrualDatas) {
-            if (loanDataMap.containsKey(accrualData.getLoanId())) {
-                loanDataMap.get(accrualData.getLoanId()).add(accrualData);
-            } else {
-                Collection<LoanScheduleAccrualData> accrualDatas = new ArrayList<>();
-                accrualDatas.add(accrualData);
-                loanDataMap.put(accrualData.getLoanId(), accrualDatas);
+        final JobRunProgress progress = this.jobRunProgressService.start(JobName.ADD_ACCRUAL_ENTRIES, PROGRESS_ITEM_NAME);
+        final String errors = addAccrualsInChunks(new AccrualChunkSource() {
+
+            @Override
+            public List<Long> retrieveLoanIds(final Long afterLoanId, final int limit) {
+                return LoanAccrualPlatformServiceImpl.this.loanReadPlatformService.retrieveLoanIdsWithScheduleAccrualData(afterLoanId,
+                        limit);
             }
-        }
 
-        for (Map.Entry<Long, Collection<LoanScheduleAccrualData>> mapEntry : loanDataMap.entrySet()) {
-            try {
-                this.loanAccrualWritePlatformService.addAccrualAccounting(mapEntry.getKey(), mapEntry.getValue());
-            } catch (Exception e) {
-                Throwable realCause = e;
-                if (e.getCause() != null) {
-                    realCause = e.getCause();
-                }
-                sb.append("failed to add accural transaction for loan " + mapEntry.getKey() + " with message " + realCause.getMessage());
+            @Override
+            public Collection<LoanScheduleAccrualData> retrieveAccrualData(final List<Long> loanIds) {
+                return LoanAccrualPlatformServiceImpl.this.loanReadPlatformService.retriveScheduleAccrualData(loanIds);
             }
-        }
 
-        if (sb.length() > 0) { throw new JobExecutionException(sb.toString()); }
+            @Override
+            public void addAccruals(final Long loanId, final Collection<LoanScheduleAccrualData> loanScheduleAccrualDatas)
+                    throws Exception {
+                LoanAccrualPlatformServiceImpl.this.loanAccrualWritePlatformService.addAccrualAccounting(loanId, loanScheduleAccrualDatas);
+            }
+        }, progress);
+
+        if (errors.length() > 0) { throw new JobExecutionException(errors); }
     }
 
     @Override
     @CronTarget(jobName = JobName.ADD_PERIODIC_ACCRUAL_ENTRIES)
     public void addPeriodicAccruals() throws JobExecutionException {
-        String errors = addPeriodicAccruals(LocalDate.now());
+        final JobRunProgress progress = this.jobRunProgressService.start(JobName.ADD_PERIODIC_ACCRUAL_ENTRIES, PROGRESS_ITEM_NAME);
+        String errors = addPeriodicAccruals(LocalDate.now(), progress);
         if (errors.length() > 0) { throw new JobExecutionException(errors); }
     }
 
     @Override
     public String addPeriodicAccruals(final LocalDate tilldate) {
-        Collection<LoanScheduleAccrualData> loanScheduleAccrualDatas = this.loanReadPlatformService.retrivePeriodicAccrualData(tilldate);
-        return addPeriodicAccruals(tilldate, loanScheduleAccrualDatas);
+        return addPeriodicAccruals(tilldate, new JobRunProgress(PROGRESS_ITEM_NAME));
+    }
+
+    private String addPeriodicAccruals(final LocalDate tilldate, final JobRunProgress progress) {
+        return addAccrualsInChunks(new AccrualChunkSource() {
+
+            @Override
+            public List<Long> retrieveLoanIds(final Long afterLoanId, final int limit) {
+                return LoanAccrualPlatformServiceImpl.this.loanReadPlatformService.retrieveLoanIdsWithPeriodicAccrualData(tilldate,
+                        afterLoanId, limit);
+            }
+
+            @Override
+            public Collection<LoanScheduleAccrualData> retrieveAccrualData(final List<Long> loanIds) {
+                return LoanAccrualPlatformServiceImpl.this.loanReadPlatformService.retrivePeriodicAccrualData(tilldate, loanIds);
+            }
+
+            @Override
+            public void addAccruals(final Long loanId, final Collection<LoanScheduleAccrualData> loanScheduleAccrualDatas)
+                    throws Exception {
+                LoanAccrualPlatformServiceImpl.this.loanAccrualWritePlatformService.addPeriodicAccruals(tilldate, loanId,
+                        loanScheduleAccrualDatas);
+            }
+        }, progress);
     }
 
     @Override
     public String addPeriodicAccruals(final LocalDate tilldate, Collection<LoanScheduleAccrualData> loanScheduleAccrualDatas) {
         StringBuilder sb = new StringBuilder();
-        Map<Long, Collection<LoanScheduleAccrualData>> loanDataMap = new HashMap<>();
+        Map<Long, Collection<LoanScheduleAccrualData>> loanDataMap = groupByLoan(loanScheduleAccrualDatas);
+
+        for (Map.Entry<Long, Collection<LoanScheduleAccrualData>> mapEntry : loanDataMap.entrySet()) {
+            try {
+                this.loanAccrualWritePlatformService.addPeriodicAccruals(tilldate, mapEntry.getKey(), mapEntry.getValue());
+            } catch (Exception e) {
+                sb.append(accrualErrorMessage(mapEntry.getKey(), e));
+            }
+        }
+
+        return sb.toString();
+    }
+
+    private String addAccrualsInChunks(final AccrualChunkSource source, final JobRunProgress progress) {
+        final int chunkSize = this.configurationDomainService.retrieveJobChunkSize();
+        final int threadPoolSize = this.configurationDomainService.retrieveJobThreadPoolSize();
+        // appended to by the workers
+        final StringBuffer errors = new StringBuffer();
+
+        try (ContextAwareExecutor executor = ContextAwareExecutor.newFixedPool("loan-accruals", threadPoolSize, threadPoolSize * 2)) {
+            Long lastLoanId = Long.valueOf(0);
+            List<Long> loanIds = source.retrieveLoanIds(lastLoanId, chunkSize);
+            while (!loanIds.isEmpty()) {
+                lastLoanId = loanIds.get(loanIds.size() - 1);
+                final Map<Long, Collection<LoanScheduleAccrualData>> loanDataMap = groupByLoan(source.retrieveAccrualData(loanIds));
+                executor.submit(new Callable<Void>() {
+
+                    @Override
+                    public Void call() {
+                        addAccrualsForChunk(source, loanDataMap, progress, errors);
+                        return null;
+                    }
+                });
+                loanIds = source.retrieveLoanIds(lastLoanId, chunkSize);
+            }
+        }
+
+        logger.info(ThreadLocalContextUtil.getTenant().getName() + ": accruals added, " + progress.summary());
+        return errors.toString();
+    }
+
+    private void addAccrualsForChunk(final AccrualChunkSource source, final Map<Long, Collection<LoanScheduleAccrualData>> loanDataMap,
+            final JobRunProgress progress, final StringBuffer errors) {
+        try {
+            this.transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+
+                @Override
+                protected void doInTransactionWithoutResult(@SuppressWarnings("unused") final TransactionStatus status) {
+                    for (final Map.Entry<Long, Collection<LoanScheduleAccrualData>> mapEntry : loanDataMap.entrySet()) {
+                        try {
+                            source.addAccruals(mapEntry.getKey(), mapEntry.getValue());
+                        } catch (final RuntimeException e) {
+                            throw e;
+                        } catch (final Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                }
+            });
+            progress.addProcessed(loanDataMap.size());
+        } catch (final RuntimeException chunkFailure) {
+            // the chunk was rolled back, retry loan by loan so that only the
+            // failing loans are left out
+            for (final Map.Entry<Long, Collection<LoanScheduleAccrualData>> mapEntry : loanDataMap.entrySet()) {
+                try {
+                    source.addAccruals(mapEntry.getKey(), mapEntry.getValue());
+                    progress.addProcessed(1);
+                } catch (final Exception e) {
+                    progress.addFailed(1);
+                    errors.append(accrualErrorMessage(mapEntry.getKey(), e));
+                }
+            }
+        }
+    }
+
+    private static Map<Long, Collection<LoanScheduleAccrualData>> groupByLoan(final Collection<LoanScheduleAccrualData> loanScheduleAccrualDatas) {
+        final Map<Long, Collection<LoanScheduleAccrualData>> loanDataMap = new LinkedHashMap<>();
         for (final LoanScheduleAccrualData accrualData : loanScheduleAccrualDatas) {
             if (loanDataMap.containsKey(accrualData.getLoanId())) {
                 loanDataMap.get(accrualData.getLoanId()).add(accrualData);
@@ -102,20 +230,27 @@ public class LoanAccrualPlatformServiceImpl implements LoanAccrualPlatformServic
                 loanDataMap.put(accrualData.getLoanId(), accrualDatas);
             }
         }
+        return loanDataMap;
+    }
 
-        for (Map.Entry<Long, Collection<LoanScheduleAccrualData>> mapEntry : loanDataMap.entrySet()) {
-            try {
-                this.loanAccrualWritePlatformService.addPeriodicAccruals(tilldate, mapEntry.getKey(), mapEntry.getValue());
-            } catch (Exception e) {
-                Throwable realCause = e;
-                if (e.getCause() != null) {
-                    realCause = e.getCause();
-                }
-                sb.append("failed to add accural transaction for loan " + mapEntry.getKey() + " with message " + realCause.getMessage());
-            }
+    private static String accrualErrorMessage(final Long loanId, final Exception e) {
+        Throwable realCause = e;
+        if (e.getCause() != null) {
+            realCause = e.getCause();
         }
+        return "failed to add accural transaction for loan " + loanId + " with message " + realCause.getMessage();
+    }
 
-        return sb.toString();
+    /**
+     * Reads and writes the accruals of one of the two accrual jobs.
+     */
+    private interface AccrualChunkSource {
+
+        List<Long> retrieveLoanIds(Long afterLoanId, int limit);
+
+        Collection<LoanScheduleAccrualData> retrieveAccrualData(List<Long> loanIds);
+
+        void addAccruals(Long loanId, Collection<LoanScheduleAccrualData> loanScheduleAccrualDatas) throws Exception;
     }
 
 }
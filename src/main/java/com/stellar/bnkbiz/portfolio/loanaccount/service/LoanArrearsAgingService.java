@@ -18,11 +18,14 @@
  */
 package com.stellar.bnkbiz.portfolio.loanaccount.service;
 
+import com.stellar.bnkbiz.infrastructure.jobs.exception.JobExecutionException;
 import com.stellar.bnkbiz.portfolio.loanaccount.domain.Loan;
 
 public interface LoanArrearsAgingService {
 
-    void updateLoanArrearsAgeingDetails();
+    void updateLoanArrearsAgeingDetails() throws JobExecutionException;
+
+    void rebuildLoanArrearsAgeingDetails() throws JobExecutionException;
 
     void updateLoanArrearsAgeingDetailsWithOriginalSchedule(Loan loan);
 
@@ -21,17 +21,30 @@ package com.stellar.bnkbiz.portfolio.loanaccount.service;
 import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.PostConstruct;
 
+import com.stellar.bnkbiz.infrastructure.configuration.domain.ConfigurationDomainService;
 import com.stellar.bnkbiz.infrastructure.core.domain.JdbcSupport;
+import com.stellar.bnkbiz.infrastructure.core.service.ContextAwareExecutor;
 import com.stellar.bnkbiz.infrastructure.core.service.RoutingDataSource;
 import com.stellar.bnkbiz.infrastructure.core.service.ThreadLocalContextUtil;
 import com.stellar.bnkbiz.infrastructure.jobs.annotation.CronTarget;
+import com.stellar.bnkbiz.infrastructure.jobs.exception.JobExecutionException;
+import com.stellar.bnkbiz.infrastructure.jobs.service.JobCheckpointService;
 import com.stellar.bnkbiz.infrastructure.jobs.service.JobName;
 import com.stellar.bnkbiz.portfolio.common.BusinessEventNotificationConstants.BUSINESS_ENTITY;
 import com.stellar.bnkbiz.portfolio.common.BusinessEventNotificationConstants.BUSINESS_EVENTS;
@@ -43,31 +56,73 @@ import com.stellar.bnkbiz.portfolio.loanaccount.domain.LoanRepaymentScheduleInst
 import com.stellar.bnkbiz.portfolio.loanaccount.domain.LoanSummary;
 import com.stellar.bnkbiz.portfolio.loanaccount.domain.LoanTransaction;
 import com.stellar.bnkbiz.portfolio.loanaccount.loanschedule.data.LoanSchedulePeriodData;
-import com.stellar.bnkbiz.scheduledjobs.service.ScheduledJobRunnerServiceImpl;
-import java.time.LocalDate;
-import org.joda.time.format.DateTimeFormat;
-import org.joda.time.format.DateTimeFormatter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Maintains m_loan_arrears_aging.
+ * 
+ * The loan events this class listens to update the ageing of the loan straight
+ * away and also mark the loan in m_loan_arrears_aging_dirty. The scheduled job
+ * then only recomputes the marked loans, loans with an installment that fell
+ * overdue since the previous run and closed loans that still have a row. Loans
+ * are processed in chunks, each in its own transaction, on a worker pool sized
+ * per tenant. A full rebuild runs on the very first run and when the
+ * {@link JobName#REBUILD_LOAN_ARREARS_AGEING} job is triggered.
+ */
 @Service
 public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService, BusinessEventListner {
 
-    private final static Logger logger = LoggerFactory.getLogger(ScheduledJobRunnerServiceImpl.class);
+    private final static Logger logger = LoggerFactory.getLogger(LoanArrearsAgingServiceImpl.class);
+
+    /**
+     * The date of the last successful run is kept as yyyyMMdd checkpoint under
+     * this partition key.
+     */
+    private static final String LAST_RUN_PARTITION_KEY = "last-run-date";
+    private static final DateTimeFormatter CHECKPOINT_DATE_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final String UPSERT_SQL = "INSERT INTO m_loan_arrears_aging (`loan_id`, `principal_overdue_derived`, "
+            + "`interest_overdue_derived`, `fee_charges_overdue_derived`, `penalty_charges_overdue_derived`, `total_overdue_derived`, "
+            + "`overdue_since_date_derived`) VALUES (?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+            + "`principal_overdue_derived` = values(`principal_overdue_derived`), "
+            + "`interest_overdue_derived` = values(`interest_overdue_derived`), "
+            + "`fee_charges_overdue_derived` = values(`fee_charges_overdue_derived`), "
+            + "`penalty_charges_overdue_derived` = values(`penalty_charges_overdue_derived`), "
+            + "`total_overdue_derived` = values(`total_overdue_derived`), "
+            + "`overdue_since_date_derived` = values(`overdue_since_date_derived`)";
+
+    private static final String OVERDUE_INSTALLMENT_CONDITION = " mr.duedate < SUBDATE(CURDATE(),INTERVAL ifnull(ml.grace_on_arrears_ageing,0) day) ";
+
     private final BusinessEventNotifierService businessEventNotifierService;
-    private final DateTimeFormatter formatter = DateTimeFormat.forPattern("yyyy-MM-dd");
+    private final JobCheckpointService jobCheckpointService;
+    private final ConfigurationDomainService configurationDomainService;
     private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
-    public LoanArrearsAgingServiceImpl(final RoutingDataSource dataSource, final BusinessEventNotifierService businessEventNotifierService) {
+    public LoanArrearsAgingServiceImpl(final RoutingDataSource dataSource, final BusinessEventNotifierService businessEventNotifierService,
+            final JobCheckpointService jobCheckpointService, final ConfigurationDomainService configurationDomainService,
+            final PlatformTransactionManager transactionManager) {
         this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
         this.businessEventNotifierService = businessEventNotifierService;
+        this.jobCheckpointService = jobCheckpointService;
+        this.configurationDomainService = configurationDomainService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @PostConstruct
@@ -75,6 +130,7 @@ public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService, Bus
         this.businessEventNotifierService.addBusinessEventPostListners(BUSINESS_EVENTS.LOAN_REFUND, this);
         this.businessEventNotifierService.addBusinessEventPostListners(BUSINESS_EVENTS.LOAN_ADJUST_TRANSACTION, this);
         this.businessEventNotifierService.addBusinessEventPostListners(BUSINESS_EVENTS.LOAN_MAKE_REPAYMENT, this);
+        this.businessEventNotifierService.addBusinessEventPostListners(BUSINESS_EVENTS.LOAN_BULK_REPAYMENT, this);
         this.businessEventNotifierService.addBusinessEventPostListners(BUSINESS_EVENTS.LOAN_UNDO_WRITTEN_OFF, this);
         this.businessEventNotifierService.addBusinessEventPostListners(BUSINESS_EVENTS.LOAN_WAIVE_INTEREST, this);
         this.businessEventNotifierService.addBusinessEventPostListners(BUSINESS_EVENTS.LOAN_ADD_CHARGE, this);
@@ -84,88 +140,201 @@ public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService, Bus
         this.businessEventNotifierService.addBusinessEventPostListners(BUSINESS_EVENTS.LOAN_DISBURSAL, new DisbursementEventListner());
     }
 
-    @Transactional
     @Override
     @CronTarget(jobName = JobName.UPDATE_LOAN_ARREARS_AGEING)
-    public void updateLoanArrearsAgeingDetails() {
-
-        this.jdbcTemplate.execute("truncate table m_loan_arrears_aging");
-
-        final StringBuilder updateSqlBuilder = new StringBuilder(900);
-
-        updateSqlBuilder
-                .append("INSERT INTO m_loan_arrears_aging(`loan_id`,`principal_overdue_derived`,`interest_overdue_derived`,`fee_charges_overdue_derived`,`penalty_charges_overdue_derived`,`total_overdue_derived`,`overdue_since_date_derived`)");
-        updateSqlBuilder.append("select ml.id as loanId,");
-        updateSqlBuilder
-                .append("SUM((ifnull(mr.principal_amount,0) - ifnull(mr.principal_completed_derived, 0))) as principal_overdue_derived,");
-        updateSqlBuilder
-                .append("SUM((ifnull(mr.interest_amount,0)  - ifnull(mr.interest_completed_derived, 0))) as interest_overdue_derived,");
-        updateSqlBuilder
-                .append("SUM((ifnull(mr.fee_charges_amount,0)  - ifnull(mr.fee_charges_completed_derived, 0))) as fee_charges_overdue_derived,");
-        updateSqlBuilder
-                .append("SUM((ifnull(mr.penalty_charges_amount,0)  - ifnull(mr.penalty_charges_completed_derived, 0))) as penalty_charges_overdue_derived,");
-        updateSqlBuilder.append("SUM((ifnull(mr.principal_amount,0) - ifnull(mr.principal_completed_derived, 0))) +");
-        updateSqlBuilder.append("SUM((ifnull(mr.interest_amount,0)  - ifnull(mr.interest_completed_derived, 0))) +");
-        updateSqlBuilder.append("SUM((ifnull(mr.fee_charges_amount,0)  - ifnull(mr.fee_charges_completed_derived, 0))) +");
-        updateSqlBuilder
-                .append("SUM((ifnull(mr.penalty_charges_amount,0)  - ifnull(mr.penalty_charges_completed_derived, 0))) as total_overdue_derived,");
-        updateSqlBuilder.append("MIN(mr.duedate) as overdue_since_date_derived ");
-        updateSqlBuilder.append(" FROM m_loan ml ");
-        updateSqlBuilder.append(" INNER JOIN m_loan_repayment_schedule mr on mr.loan_id = ml.id ");
-        updateSqlBuilder.append(" left join m_product_loan_recalculation_details prd on prd.product_id = ml.product_id ");
-        updateSqlBuilder.append(" WHERE ml.loan_status_id = 300 "); // active
-        updateSqlBuilder.append(" and mr.completed_derived is false ");
-        updateSqlBuilder.append(" and mr.duedate < SUBDATE(CURDATE(),INTERVAL  ifnull(ml.grace_on_arrears_ageing,0) day) ");
-        updateSqlBuilder.append(" and (prd.arrears_based_on_original_schedule = 0 or prd.arrears_based_on_original_schedule is null) ");
-        updateSqlBuilder.append(" GROUP BY ml.id");
-
-        List<String> insertStatements = updateLoanArrearsAgeingDetailsWithOriginalSchedule();
-        insertStatements.add(0, updateSqlBuilder.toString());
-        final int[] results = this.jdbcTemplate.batchUpdate(insertStatements.toArray(new String[0]));
-        int result = 0;
-        for (int i : results) {
-            result += i;
+    public void updateLoanArrearsAgeingDetails() throws JobExecutionException {
+        final Long lastRun = this.jobCheckpointService.retrieveCheckpoint(JobName.UPDATE_LOAN_ARREARS_AGEING, LAST_RUN_PARTITION_KEY);
+        if (lastRun == null) {
+            rebuildLoanArrearsAgeingDetails();
+            return;
         }
+        final LocalDate lastRunDate = LocalDate.parse(lastRun.toString(), CHECKPOINT_DATE_FORMAT);
+
+        final StringBuilder sqlBuilder = new StringBuilder(1500);
+        sqlBuilder.append("select x.loanId from (");
+        sqlBuilder.append("select mad.loan_id as loanId from m_loan_arrears_aging_dirty mad ");
+        // installments that fell overdue since the last run
+        sqlBuilder.append("union select mr.loan_id as loanId from m_loan ml ");
+        sqlBuilder.append("inner join m_loan_repayment_schedule mr on mr.loan_id = ml.id ");
+        sqlBuilder.append("where ml.loan_status_id = 300 and mr.completed_derived is false and ").append(OVERDUE_INSTALLMENT_CONDITION);
+        sqlBuilder.append("and mr.duedate >= SUBDATE(?,INTERVAL ifnull(ml.grace_on_arrears_ageing,0) day) ");
+        sqlBuilder.append("union select mr.loan_id as loanId from m_loan ml ");
+        sqlBuilder.append("inner join m_loan_repayment_schedule_history mr on mr.loan_id = ml.id ");
+        sqlBuilder.append("where ml.loan_status_id = 300 and ").append(OVERDUE_INSTALLMENT_CONDITION);
+        sqlBuilder.append("and mr.duedate >= SUBDATE(?,INTERVAL ifnull(ml.grace_on_arrears_ageing,0) day) ");
+        // loans that were closed without an event this class listens to
+        sqlBuilder.append("union select mla.loan_id as loanId from m_loan_arrears_aging mla ");
+        sqlBuilder.append("inner join m_loan ml on ml.id = mla.loan_id where ml.loan_status_id <> 300");
+        sqlBuilder.append(") x order by x.loanId");
+
+        final java.sql.Date since = java.sql.Date.valueOf(lastRunDate);
+        final List<Long> loanIds = this.jdbcTemplate.queryForList(sqlBuilder.toString(), Long.class, since, since);
+        updateLoanArrearsAgeingDetails(loanIds);
+    }
 
-        logger.info(ThreadLocalContextUtil.getTenant().getName() + ": Results affected by update: " + result);
+    @Override
+    @CronTarget(jobName = JobName.REBUILD_LOAN_ARREARS_AGEING)
+    public void rebuildLoanArrearsAgeingDetails() throws JobExecutionException {
+        final StringBuilder sqlBuilder = new StringBuilder(600);
+        sqlBuilder.append("select x.loanId from (");
+        sqlBuilder.append("select ml.id as loanId from m_loan ml ");
+        sqlBuilder.append("inner join m_loan_repayment_schedule mr on mr.loan_id = ml.id ");
+        sqlBuilder.append("where ml.loan_status_id = 300 and mr.completed_derived is false and ").append(OVERDUE_INSTALLMENT_CONDITION);
+        sqlBuilder.append("union select mla.loan_id as loanId from m_loan_arrears_aging mla ");
+        sqlBuilder.append("union select mad.loan_id as loanId from m_loan_arrears_aging_dirty mad");
+        sqlBuilder.append(") x order by x.loanId");
+
+        final List<Long> loanIds = this.jdbcTemplate.queryForList(sqlBuilder.toString(), Long.class);
+        updateLoanArrearsAgeingDetails(loanIds);
+    }
+
+    private void updateLoanArrearsAgeingDetails(final List<Long> loanIds) throws JobExecutionException {
+        // marks made while the job runs are left for the next run
+        final Date startTime = new Date();
+        final LocalDate runDate = this.jdbcTemplate.queryForObject("select CURDATE()", java.sql.Date.class).toLocalDate();
+        final int chunkSize = this.configurationDomainService.retrieveJobChunkSize();
+        final int threadPoolSize = this.configurationDomainService.retrieveJobThreadPoolSize();
+        final AtomicInteger updatedLoans = new AtomicInteger();
+        final AtomicInteger failedChunks = new AtomicInteger();
+
+        try (ContextAwareExecutor executor = ContextAwareExecutor.newFixedPool("loan-arrears-ageing", threadPoolSize,
+                threadPoolSize * 2)) {
+            for (int fromIndex = 0; fromIndex < loanIds.size(); fromIndex += chunkSize) {
+                final List<Long> chunkIds = new ArrayList<>(loanIds.subList(fromIndex, Math.min(fromIndex + chunkSize, loanIds.size())));
+                executor.submit(new Callable<Void>() {
+
+                    @Override
+                    public Void call() {
+                        try {
+                            updatedLoans.addAndGet(updateLoanArrearsAgeingDetailsForChunk(chunkIds, startTime));
+                        } catch (final RuntimeException e) {
+                            failedChunks.incrementAndGet();
+                            logger.error("Arrears ageing failed for loans " + chunkIds.get(0) + " to " + chunkIds.get(chunkIds.size() - 1),
+                                    e);
+                        }
+                        return null;
+                    }
+                });
+            }
+        }
+
+        logger.info(ThreadLocalContextUtil.getTenant().getName() + ": Loans recomputed: " + loanIds.size() + ", in arrears: "
+                + updatedLoans.get());
+
+        if (failedChunks.get() > 0) { throw new JobExecutionException("failed to update arrears ageing for " + failedChunks.get()
+                + " chunks of " + chunkSize + " loans"); }
+        this.jobCheckpointService.saveCheckpoint(JobName.UPDATE_LOAN_ARREARS_AGEING, LAST_RUN_PARTITION_KEY,
+                Long.valueOf(CHECKPOINT_DATE_FORMAT.format(runDate)));
+    }
+
+    private int updateLoanArrearsAgeingDetailsForChunk(final List<Long> loanIds, final Date startTime) {
+        final List<ArrearsAgeing> arrears = new ArrayList<>();
+        final MapSqlParameterSource paramSource = new MapSqlParameterSource("loanIds", loanIds);
+
+        final StringBuilder sqlBuilder = new StringBuilder(900);
+        sqlBuilder.append("select ml.id as loanId,");
+        sqlBuilder.append("SUM((ifnull(mr.principal_amount,0) - ifnull(mr.principal_completed_derived, 0))) as principalOverdue,");
+        sqlBuilder.append("SUM((ifnull(mr.interest_amount,0)  - ifnull(mr.interest_completed_derived, 0))) as interestOverdue,");
+        sqlBuilder.append("SUM((ifnull(mr.fee_charges_amount,0)  - ifnull(mr.fee_charges_completed_derived, 0))) as feeOverdue,");
+        sqlBuilder.append("SUM((ifnull(mr.penalty_charges_amount,0)  - ifnull(mr.penalty_charges_completed_derived, 0))) as penaltyOverdue,");
+        sqlBuilder.append("MIN(mr.duedate) as overdueSince ");
+        sqlBuilder.append(" FROM m_loan ml ");
+        sqlBuilder.append(" INNER JOIN m_loan_repayment_schedule mr on mr.loan_id = ml.id ");
+        sqlBuilder.append(" left join m_product_loan_recalculation_details prd on prd.product_id = ml.product_id ");
+        sqlBuilder.append(" WHERE ml.id in (:loanIds) and ml.loan_status_id = 300 "); // active
+        sqlBuilder.append(" and mr.completed_derived is false ");
+        sqlBuilder.append(" and ").append(OVERDUE_INSTALLMENT_CONDITION);
+        sqlBuilder.append(" and (prd.arrears_based_on_original_schedule = 0 or prd.arrears_based_on_original_schedule is null) ");
+        sqlBuilder.append(" GROUP BY ml.id");
+        arrears.addAll(this.namedParameterJdbcTemplate.query(sqlBuilder.toString(), paramSource, new ArrearsAgeingMapper()));
+
+        final StringBuilder originalScheduleLoansSql = new StringBuilder(600);
+        originalScheduleLoansSql.append("select ml.id as loanId FROM m_loan ml ");
+        originalScheduleLoansSql
+                .append("inner join m_product_loan_recalculation_details prd on prd.product_id = ml.product_id and prd.arrears_based_on_original_schedule = 1 ");
+        originalScheduleLoansSql.append("WHERE ml.id in (:loanIds) and ml.loan_status_id = 300 and exists (");
+        originalScheduleLoansSql.append("select mr.id from m_loan_repayment_schedule mr where mr.loan_id = ml.id ");
+        originalScheduleLoansSql.append("and mr.completed_derived is false and ").append(OVERDUE_INSTALLMENT_CONDITION).append(")");
+        final List<Long> originalScheduleLoanIds = this.namedParameterJdbcTemplate.queryForList(originalScheduleLoansSql.toString(),
+                paramSource, Long.class);
+        if (!originalScheduleLoanIds.isEmpty()) {
+            String loanIdsAsString = originalScheduleLoanIds.toString();
+            loanIdsAsString = loanIdsAsString.substring(1, loanIdsAsString.length() - 1);
+            OriginalScheduleExtractor originalScheduleExtractor = new OriginalScheduleExtractor(loanIdsAsString);
+            Map<Long, List<LoanSchedulePeriodData>> scheduleDate = this.jdbcTemplate.query(originalScheduleExtractor.schema,
+                    originalScheduleExtractor);
+            List<Map<String, Object>> loanSummary = getLoanSummary(loanIdsAsString);
+            updateSchheduleWithPaidDetail(scheduleDate, loanSummary);
+            arrears.addAll(calculateArrearsAgeing(scheduleDate));
+        }
+
+        final Set<Long> loansInArrears = new HashSet<>();
+        final List<Object[]> upsertParams = new ArrayList<>(arrears.size());
+        for (final ArrearsAgeing ageing : arrears) {
+            loansInArrears.add(ageing.loanId);
+            upsertParams.add(ageing.toSqlParams());
+        }
+        final List<Object[]> deleteParams = new ArrayList<>();
+        final List<Object[]> cleanParams = new ArrayList<>(loanIds.size());
+        for (final Long loanId : loanIds) {
+            if (!loansInArrears.contains(loanId)) {
+                deleteParams.add(new Object[] { loanId });
+            }
+            cleanParams.add(new Object[] { loanId, startTime });
+        }
+
+        this.transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+
+            @Override
+            protected void doInTransactionWithoutResult(@SuppressWarnings("unused") final TransactionStatus status) {
+                if (!upsertParams.isEmpty()) {
+                    LoanArrearsAgingServiceImpl.this.jdbcTemplate.batchUpdate(UPSERT_SQL, upsertParams);
+                }
+                if (!deleteParams.isEmpty()) {
+                    LoanArrearsAgingServiceImpl.this.jdbcTemplate.batchUpdate("DELETE FROM m_loan_arrears_aging WHERE loan_id = ?",
+                            deleteParams);
+                }
+                LoanArrearsAgingServiceImpl.this.jdbcTemplate.batchUpdate(
+                        "DELETE FROM m_loan_arrears_aging_dirty WHERE loan_id = ? and lastmodified_date < ?", cleanParams);
+            }
+        });
+        return upsertParams.size();
     }
 
     @Override
     public void updateLoanArrearsAgeingDetailsWithOriginalSchedule(final Loan loan) {
-        int count = this.jdbcTemplate.queryForObject("select count(mla.loan_id) from m_loan_arrears_aging mla where mla.loan_id =?",
-                Integer.class, loan.getId());
-        List<String> updateStatement = new ArrayList<>();
         OriginalScheduleExtractor originalScheduleExtractor = new OriginalScheduleExtractor(loan.getId().toString());
         Map<Long, List<LoanSchedulePeriodData>> scheduleDate = this.jdbcTemplate.query(originalScheduleExtractor.schema,
                 originalScheduleExtractor);
         if (scheduleDate.size() > 0) {
             List<Map<String, Object>> transactions = getLoanSummary(loan.getId(), loan.getLoanSummary());
             updateSchheduleWithPaidDetail(scheduleDate, transactions);
-            createInsertStatements(updateStatement, scheduleDate, count == 0);
-            if (updateStatement.size() == 1) {
-                this.jdbcTemplate.update(updateStatement.get(0));
+            final List<ArrearsAgeing> arrears = calculateArrearsAgeing(scheduleDate);
+            if (arrears.size() == 1) {
+                this.jdbcTemplate.update(UPSERT_SQL, arrears.get(0).toSqlParams());
             } else {
-                String deletestatement = "DELETE FROM `m_loan_arrears_aging` WHERE  `loan_id`=" + loan.getId();
-                this.jdbcTemplate.update(deletestatement);
+                this.jdbcTemplate.update("DELETE FROM m_loan_arrears_aging WHERE loan_id = ?", loan.getId());
             }
         }
     }
 
     @Override
     public void updateLoanArrearsAgeingDetails(final Loan loan) {
-        int count = this.jdbcTemplate.queryForObject("select count(mla.loan_id) from m_loan_arrears_aging mla where mla.loan_id =?",
-                Integer.class, loan.getId());
-        String updateStatement = constructUpdateStatement(loan, count == 0);
-        if (updateStatement == null) {
-            String deletestatement = "DELETE FROM `m_loan_arrears_aging` WHERE  `loan_id`=" + loan.getId();
-            this.jdbcTemplate.update(deletestatement);
+        final ArrearsAgeing arrears = calculateArrearsAgeing(loan);
+        if (arrears == null) {
+            this.jdbcTemplate.update("DELETE FROM m_loan_arrears_aging WHERE loan_id = ?", loan.getId());
         } else {
-            this.jdbcTemplate.update(updateStatement);
+            this.jdbcTemplate.update(UPSERT_SQL, arrears.toSqlParams());
         }
     }
 
-    private String constructUpdateStatement(final Loan loan, boolean isInsertStatement) {
-        String updateSql = null;
+    private void markLoanForRecalculation(final Long loanId) {
+        final String sql = "insert into m_loan_arrears_aging_dirty (loan_id, lastmodified_date) values (?, ?) "
+                + "on duplicate key update lastmodified_date = values(lastmodified_date)";
+        this.jdbcTemplate.update(sql, loanId, new Date());
+    }
+
+    private ArrearsAgeing calculateArrearsAgeing(final Loan loan) {
         List<LoanRepaymentScheduleInstallment> installments = loan.getRepaymentScheduleInstallments();
         BigDecimal principalOverdue = BigDecimal.ZERO;
         BigDecimal interestOverdue = BigDecimal.ZERO;
@@ -185,43 +354,9 @@ public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService, Bus
         }
 
         BigDecimal totalOverDue = principalOverdue.add(interestOverdue).add(feeOverdue).add(penaltyOverdue);
-        if (totalOverDue.compareTo(BigDecimal.ZERO) == 1) {
-            if (isInsertStatement) {
-                updateSql = constructInsertStatement(loan.getId(), principalOverdue, interestOverdue, feeOverdue, penaltyOverdue,
-                        overDueSince);
-            } else {
-                updateSql = constructUpdateStatement(loan.getId(), principalOverdue, interestOverdue, feeOverdue, penaltyOverdue,
-                        overDueSince);
-            }
-        }
-        return updateSql;
-    }
-
-    private List<String> updateLoanArrearsAgeingDetailsWithOriginalSchedule() {
-        List<String> insertStatement = new ArrayList<>();
-
-        final StringBuilder loanIdentifier = new StringBuilder();
-        loanIdentifier.append("select ml.id as loanId FROM m_loan ml  ");
-        loanIdentifier.append("INNER JOIN m_loan_repayment_schedule mr on mr.loan_id = ml.id ");
-        loanIdentifier
-                .append("inner join m_product_loan_recalculation_details prd on prd.product_id = ml.product_id and prd.arrears_based_on_original_schedule = 1  ");
-        loanIdentifier
-                .append("WHERE ml.loan_status_id = 300  and mr.completed_derived is false  and mr.duedate < SUBDATE(CURDATE(),INTERVAL  ifnull(ml.grace_on_arrears_ageing,0) day) group by ml.id");
-        List<Long> loanIds = this.jdbcTemplate.queryForList(loanIdentifier.toString(), Long.class);
-        if (!loanIds.isEmpty()) {
-            String loanIdsAsString = loanIds.toString();
-            loanIdsAsString = loanIdsAsString.substring(1, loanIdsAsString.length() - 1);
-            OriginalScheduleExtractor originalScheduleExtractor = new OriginalScheduleExtractor(loanIdsAsString);
-            Map<Long, List<LoanSchedulePeriodData>> scheduleDate = this.jdbcTemplate.query(originalScheduleExtractor.schema,
-                    originalScheduleExtractor);
-
-            List<Map<String, Object>> loanSummary = getLoanSummary(loanIdsAsString);
-            updateSchheduleWithPaidDetail(scheduleDate, loanSummary);
-            createInsertStatements(insertStatement, scheduleDate, true);
-        }
-
-        return insertStatement;
-
+        if (totalOverDue.compareTo(BigDecimal.ZERO) == 1) { return new ArrearsAgeing(loan.getId(), principalOverdue, interestOverdue,
+                feeOverdue, penaltyOverdue, overDueSince); }
+        return null;
     }
 
     private List<Map<String, Object>> getLoanSummary(final String loanIdsAsString) {
@@ -258,8 +393,8 @@ public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService, Bus
 
     }
 
-    private void createInsertStatements(List<String> insertStatement, Map<Long, List<LoanSchedulePeriodData>> scheduleDate,
-            boolean isInsertStatement) {
+    private List<ArrearsAgeing> calculateArrearsAgeing(final Map<Long, List<LoanSchedulePeriodData>> scheduleDate) {
+        final List<ArrearsAgeing> arrears = new ArrayList<>();
         for (Map.Entry<Long, List<LoanSchedulePeriodData>> entry : scheduleDate.entrySet()) {
             final Long loanId = entry.getKey();
             BigDecimal principalOverdue = BigDecimal.ZERO;
@@ -285,50 +420,11 @@ public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService, Bus
                 }
             }
             if (principalOverdue.compareTo(BigDecimal.ZERO) == 1) {
-                String sqlStatement = null;
-                if (isInsertStatement) {
-                    sqlStatement = constructInsertStatement(loanId, principalOverdue, interestOverdue, feeOverdue, penaltyOverdue,
-                            overDueSince);
-                } else {
-                    sqlStatement = constructUpdateStatement(loanId, principalOverdue, interestOverdue, feeOverdue, penaltyOverdue,
-                            overDueSince);
-                }
-                insertStatement.add(sqlStatement);
+                arrears.add(new ArrearsAgeing(loanId, principalOverdue, interestOverdue, feeOverdue, penaltyOverdue, overDueSince));
             }
 
         }
-    }
-
-    private String constructInsertStatement(final Long loanId, BigDecimal principalOverdue, BigDecimal interestOverdue,
-            BigDecimal feeOverdue, BigDecimal penaltyOverdue, LocalDate overDueSince) {
-        final StringBuilder insertStatementBuilder = new StringBuilder(900);
-        insertStatementBuilder
-                .append("INSERT INTO m_loan_arrears_aging(`loan_id`,`principal_overdue_derived`,`interest_overdue_derived`,")
-                .append("`fee_charges_overdue_derived`,`penalty_charges_overdue_derived`,`total_overdue_derived`,`overdue_since_date_derived`) VALUES(");
-        insertStatementBuilder.append(loanId).append(",");
-        insertStatementBuilder.append(principalOverdue).append(",");
-        insertStatementBuilder.append(interestOverdue).append(",");
-        insertStatementBuilder.append(feeOverdue).append(",");
-        insertStatementBuilder.append(penaltyOverdue).append(",");
-        BigDecimal totalOverDue = principalOverdue.add(interestOverdue).add(feeOverdue).add(penaltyOverdue);
-        insertStatementBuilder.append(totalOverDue).append(",'");
-        insertStatementBuilder.append(this.formatter.print(overDueSince)).append("')");
-        return insertStatementBuilder.toString();
-    }
-
-    private String constructUpdateStatement(final Long loanId, BigDecimal principalOverdue, BigDecimal interestOverdue,
-            BigDecimal feeOverdue, BigDecimal penaltyOverdue, LocalDate overDueSince) {
-        final StringBuilder insertStatementBuilder = new StringBuilder(900);
-        insertStatementBuilder.append("UPDATE m_loan_arrears_aging mla SET mla.principal_overdue_derived=");
-        insertStatementBuilder.append(principalOverdue).append(", mla.interest_overdue_derived=");
-        insertStatementBuilder.append(interestOverdue).append(", mla.fee_charges_overdue_derived=");
-        insertStatementBuilder.append(feeOverdue).append(", mla.penalty_charges_overdue_derived=");
-        insertStatementBuilder.append(penaltyOverdue).append(", mla.total_overdue_derived=");
-        BigDecimal totalOverDue = principalOverdue.add(interestOverdue).add(feeOverdue).add(penaltyOverdue);
-        insertStatementBuilder.append(totalOverDue).append(",mla.overdue_since_date_derived= '");
-        insertStatementBuilder.append(this.formatter.print(overDueSince)).append("' ");
-        insertStatementBuilder.append("WHERE  mla.loan_id=").append(loanId);
-        return insertStatementBuilder.toString();
+        return arrears;
     }
 
     private void updateSchheduleWithPaidDetail(Map<Long, List<LoanSchedulePeriodData>> scheduleDate, List<Map<String, Object>> loanSummary) {
@@ -402,6 +498,46 @@ public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService, Bus
         }
     }
 
+    private static final class ArrearsAgeing {
+
+        private final Long loanId;
+        private final BigDecimal principalOverdue;
+        private final BigDecimal interestOverdue;
+        private final BigDecimal feeOverdue;
+        private final BigDecimal penaltyOverdue;
+        private final LocalDate overdueSince;
+
+        ArrearsAgeing(final Long loanId, final BigDecimal principalOverdue, final BigDecimal interestOverdue,
+                final BigDecimal feeOverdue, final BigDecimal penaltyOverdue, final LocalDate overdueSince) {
+            this.loanId = loanId;
+            this.principalOverdue = principalOverdue;
+            this.interestOverdue = interestOverdue;
+            this.feeOverdue = feeOverdue;
+            this.penaltyOverdue = penaltyOverdue;
+            this.overdueSince = overdueSince;
+        }
+
+        Object[] toSqlParams() {
+            final BigDecimal totalOverdue = this.principalOverdue.add(this.interestOverdue).add(this.feeOverdue).add(this.penaltyOverdue);
+            return new Object[] { this.loanId, this.principalOverdue, this.interestOverdue, this.feeOverdue, this.penaltyOverdue,
+                    totalOverdue, java.sql.Date.valueOf(this.overdueSince) };
+        }
+    }
+
+    private static final class ArrearsAgeingMapper implements RowMapper<ArrearsAgeing> {
+
+        @Override
+        public ArrearsAgeing mapRow(final ResultSet rs, @SuppressWarnings("unused") final int rowNum) throws SQLException {
+            final Long loanId = rs.getLong("loanId");
+            final BigDecimal principalOverdue = JdbcSupport.getBigDecimalDefaultToZeroIfNull(rs, "principalOverdue");
+            final BigDecimal interestOverdue = JdbcSupport.getBigDecimalDefaultToZeroIfNull(rs, "interestOverdue");
+            final BigDecimal feeOverdue = JdbcSupport.getBigDecimalDefaultToZeroIfNull(rs, "feeOverdue");
+            final BigDecimal penaltyOverdue = JdbcSupport.getBigDecimalDefaultToZeroIfNull(rs, "penaltyOverdue");
+            final LocalDate overdueSince = JdbcSupport.getLocalDate(rs, "overdueSince");
+            return new ArrearsAgeing(loanId, principalOverdue, interestOverdue, feeOverdue, penaltyOverdue, overdueSince);
+        }
+    }
+
     private static final class OriginalScheduleExtractor implements ResultSetExtractor<Map<Long, List<LoanSchedulePeriodData>>> {
 
         private final String schema;
@@ -470,6 +606,17 @@ public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService, Bus
 
     @Override
     public void businessEventWasExecuted(Map<BUSINESS_ENTITY, Object> businessEventEntity) {
+        Object loanTransactionsEntity = businessEventEntity.get(BUSINESS_ENTITY.LOAN_TRANSACTIONS);
+        if (loanTransactionsEntity != null) {
+            final Set<Loan> loans = new LinkedHashSet<>();
+            for (Object loanTransaction : (Collection<?>) loanTransactionsEntity) {
+                loans.add(((LoanTransaction) loanTransaction).getLoan());
+            }
+            for (final Loan loan : loans) {
+                updateLoanArrearsAgeingDetailsOnEvent(loan);
+            }
+            return;
+        }
         Loan loan = null;
         Object loanEntity = businessEventEntity.get(BUSINESS_ENTITY.LOAN);
         Object loanTransactionEntity = businessEventEntity.get(BUSINESS_ENTITY.LOAN_TRANSACTION);
@@ -487,7 +634,13 @@ public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService, Bus
             LoanCharge loanCharge = (LoanCharge) loanChargeEntity;
             loan = loanCharge.getLoan();
         }
-        if (loan != null && loan.isOpen() && loan.repaymentScheduleDetail().isInterestRecalculationEnabled()
+        if (loan == null) { return; }
+        updateLoanArrearsAgeingDetailsOnEvent(loan);
+    }
+
+    private void updateLoanArrearsAgeingDetailsOnEvent(final Loan loan) {
+        markLoanForRecalculation(loan.getId());
+        if (loan.isOpen() && loan.repaymentScheduleDetail().isInterestRecalculationEnabled()
                 && loan.loanProduct().isArrearsBasedOnOriginalSchedule()) {
             updateLoanArrearsAgeingDetailsWithOriginalSchedule(loan);
         } else {
@@ -509,6 +662,7 @@ public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService, Bus
             Object loanEntity = businessEventEntity.get(BUSINESS_ENTITY.LOAN);
             if (loanEntity != null) {
                 Loan loan = (Loan) loanEntity;
+                markLoanForRecalculation(loan.getId());
                 updateLoanArrearsAgeingDetails(loan);
             }
 
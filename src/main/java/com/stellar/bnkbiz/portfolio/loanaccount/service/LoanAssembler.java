@@ -20,10 +20,12 @@ package com.stellar.bnkbiz.portfolio.loanaccount.service;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
@@ -149,6 +151,14 @@ public class LoanAssembler {
         return loanAccount;
     }
 
+    public Map<Long, Loan> assembleFrom(final Collection<Long> accountIds) {
+        final Map<Long, Loan> loanAccounts = this.loanRepository.findWithNotFoundDetection(accountIds);
+        for (final Loan loanAccount : loanAccounts.values()) {
+            setHelpers(loanAccount);
+        }
+        return loanAccounts;
+    }
+
     public void setHelpers(final Loan loanAccount) {
         loanAccount.setHelpers(defaultLoanLifecycleStateMachine(), this.loanSummaryWrapper,
                 this.loanRepaymentScheduleTransactionProcessorFactory);
@@ -0,0 +1,124 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.portfolio.loanaccount.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.stellar.bnkbiz.infrastructure.jobs.service.JobCheckpointService;
+import com.stellar.bnkbiz.infrastructure.jobs.service.JobName;
+import com.stellar.bnkbiz.organisation.holiday.domain.Holiday;
+import com.stellar.bnkbiz.organisation.holiday.domain.HolidayRepositoryWrapper;
+import com.stellar.bnkbiz.portfolio.loanaccount.domain.Loan;
+import com.stellar.bnkbiz.portfolio.loanaccount.domain.LoanRepository;
+import com.stellar.bnkbiz.portfolio.loanaccount.domain.LoanStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Moves the repayment schedule of one chunk of loans of the
+ * {@link JobName#APPLY_HOLIDAYS_TO_LOANS} job off a holiday.
+ *
+ * The chunk is first rescheduled in a single transaction. If any loan of the
+ * chunk fails the transaction is rolled back and the loans are rescheduled
+ * again one transaction each, so that only the failing loans are left out and
+ * recorded in <code>job_item_failure</code>.
+ */
+@Component
+public class LoanHolidayApplier {
+
+    static final Collection<Integer> LOAN_STATUSES = Arrays.asList(LoanStatus.SUBMITTED_AND_PENDING_APPROVAL.getValue(),
+            LoanStatus.APPROVED.getValue(), LoanStatus.ACTIVE.getValue());
+
+    private final LoanRepository loanRepository;
+    private final HolidayRepositoryWrapper holidayRepository;
+    private final JobCheckpointService jobCheckpointService;
+    private final LoanSummaryService loanSummaryService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public LoanHolidayApplier(final LoanRepository loanRepository, final HolidayRepositoryWrapper holidayRepository,
+            final JobCheckpointService jobCheckpointService, final LoanSummaryService loanSummaryService,
+            final PlatformTransactionManager transactionManager) {
+        this.loanRepository = loanRepository;
+        this.holidayRepository = holidayRepository;
+        this.jobCheckpointService = jobCheckpointService;
+        this.loanSummaryService = loanSummaryService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @return number of loans of the chunk the holiday could not be applied to
+     */
+    public int applyHoliday(final Long holidayId, final List<Long> loanIds, final String partitionKey) {
+        try {
+            applyHolidayInTransaction(holidayId, loanIds);
+            return 0;
+        } catch (final RuntimeException chunkFailure) {
+            int failed = 0;
+            for (final Long loanId : loanIds) {
+                try {
+                    applyHolidayInTransaction(holidayId, Collections.singletonList(loanId));
+                } catch (final RuntimeException e) {
+                    this.jobCheckpointService.recordFailure(JobName.APPLY_HOLIDAYS_TO_LOANS, partitionKey, loanId, e);
+                    failed++;
+                }
+            }
+            return failed;
+        }
+    }
+
+    public void markProcessed(final Long holidayId) {
+        this.transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+
+            @Override
+            protected void doInTransactionWithoutResult(@SuppressWarnings("unused") final TransactionStatus status) {
+                final Holiday holiday = LoanHolidayApplier.this.holidayRepository.findOneWithNotFoundDetection(holidayId);
+                holiday.processed();
+                LoanHolidayApplier.this.holidayRepository.save(holiday);
+            }
+        });
+    }
+
+    private void applyHolidayInTransaction(final Long holidayId, final List<Long> loanIds) {
+        this.transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+
+            @Override
+            protected void doInTransactionWithoutResult(@SuppressWarnings("unused") final TransactionStatus status) {
+                final Holiday holiday = LoanHolidayApplier.this.holidayRepository.findOneWithNotFoundDetection(holidayId);
+                // the status may have changed since the ids were read
+                final List<Loan> loans = LoanHolidayApplier.this.loanRepository.findByIdsAndLoanStatus(loanIds, LOAN_STATUSES);
+                final List<Long> rescheduledLoanIds = new ArrayList<>(loans.size());
+                for (final Loan loan : loans) {
+                    loan.applyHolidayToRepaymentScheduleDates(holiday);
+                    rescheduledLoanIds.add(loan.getId());
+                }
+                LoanHolidayApplier.this.loanRepository.save(loans);
+                LoanHolidayApplier.this.loanSummaryService.markLoansForRecalculation(rescheduledLoanIds);
+            }
+        });
+    }
+}
@@ -22,6 +22,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 
 import com.stellar.bnkbiz.infrastructure.core.service.Page;
 import com.stellar.bnkbiz.infrastructure.core.service.SearchParameters;
@@ -104,12 +105,28 @@ public interface LoanReadPlatformService {
 
     Collection<LoanScheduleAccrualData> retriveScheduleAccrualData();
 
+    List<Long> retrieveLoanIdsWithScheduleAccrualData(Long afterLoanId, int limit);
+
+    Collection<LoanScheduleAccrualData> retriveScheduleAccrualData(Collection<Long> loanIds);
+
     LoanTransactionData retrieveRecoveryPaymentTemplate(Long loanId);
 
     LoanTransactionData retrieveLoanWriteoffTemplate(Long loanId);
 
     Collection<LoanScheduleAccrualData> retrivePeriodicAccrualData(LocalDate tillDate);
 
+    List<Long> retrieveLoanIdsWithPeriodicAccrualData(LocalDate tillDate, Long afterLoanId, int limit);
+
+    Collection<LoanScheduleAccrualData> retrivePeriodicAccrualData(LocalDate tillDate, Collection<Long> loanIds);
+
+    /**
+     * Keyset page of the loans with the given statuses, of the offices a
+     * holiday applies to, that have an installment falling due within the
+     * holiday.
+     */
+    List<Long> retrieveLoanIdsWithInstallmentsDueOnHoliday(Long holidayId, LocalDate fromDate, LocalDate toDate,
+            Collection<Integer> loanStatuses, Long afterLoanId, int limit);
+
     Collection<Long> fetchLoansForInterestRecalculation();
 
     LoanTransactionData retrieveLoanPrePaymentTemplate(Long loanId, LocalDate onDate);
@@ -40,6 +40,7 @@ import com.stellar.bnkbiz.infrastructure.codes.service.CodeValueReadPlatformServ
 import com.stellar.bnkbiz.infrastructure.core.data.EnumOptionData;
 import com.stellar.bnkbiz.infrastructure.core.domain.JdbcSupport;
 import com.stellar.bnkbiz.infrastructure.core.service.DateUtils;
+import com.stellar.bnkbiz.infrastructure.core.service.KeysetPagination;
 import com.stellar.bnkbiz.infrastructure.core.service.Page;
 import com.stellar.bnkbiz.infrastructure.core.service.PaginationHelper;
 import com.stellar.bnkbiz.infrastructure.core.service.RoutingDataSource;
@@ -129,6 +130,14 @@ import org.springframework.util.CollectionUtils;
 @Service
 public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
 
+    // keyset paging seeks on the primary key or the unique account number;
+    // any other order is paged by offset
+    private final static Map<String, String> keysetSortColumns = new HashMap<>();
+    static {
+        keysetSortColumns.put("id", null);
+        keysetSortColumns.put("accountNo", "l.account_no");
+    }
+
     private final JdbcTemplate jdbcTemplate;
     private final PlatformSecurityContext context;
     private final LoanRepository loanRepository;
@@ -149,6 +158,16 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
 //    private final DateTimeFormatter formatter = DateTimeFormatter.forPattern("yyyy-MM-dd");
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
+    private static final String SCHEDULE_ACCRUAL_CONDITION = "((ls.fee_charges_amount <> if(ls.accrual_fee_charges_derived is null,0, ls.accrual_fee_charges_derived))"
+            + " or ( ls.penalty_charges_amount <> if(ls.accrual_penalty_charges_derived is null,0,ls.accrual_penalty_charges_derived))"
+            + " or ( ls.interest_amount <> if(ls.accrual_interest_derived is null,0,ls.accrual_interest_derived)))"
+            + "  and loan.loan_status_id=:active and mpl.accounting_type=:type and loan.is_npa=0 and ls.duedate <= CURDATE()";
+
+    private static final String PERIODIC_ACCRUAL_CONDITION = "((ls.fee_charges_amount <> if(ls.accrual_fee_charges_derived is null,0, ls.accrual_fee_charges_derived))"
+            + " or (ls.penalty_charges_amount <> if(ls.accrual_penalty_charges_derived is null,0,ls.accrual_penalty_charges_derived))"
+            + " or (ls.interest_amount <> if(ls.accrual_interest_derived is null,0,ls.accrual_interest_derived)))"
+            + "  and loan.loan_status_id=:active and mpl.accounting_type=:type and loan.is_npa=0 and (ls.duedate <= :tilldate or (ls.duedate > :tilldate and ls.fromdate < :tilldate))";
+
     private final PaymentTypeReadPlatformService paymentTypeReadPlatformService;
     private final LoanRepaymentScheduleTransactionProcessorFactory loanRepaymentScheduleTransactionProcessorFactory;
     private final FloatingRatesReadPlatformService floatingRatesReadPlatformService;
@@ -259,18 +278,16 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
         final String hierarchy = currentUser.getOffice().getHierarchy();
         final String hierarchySearchString = hierarchy + "%";
 
-        final StringBuilder sqlBuilder = new StringBuilder(200);
-        sqlBuilder.append("select SQL_CALC_FOUND_ROWS ");
-        sqlBuilder.append(this.loaanLoanMapper.loanSchema());
+        final StringBuilder criteriaBuilder = new StringBuilder(200);
 
         // TODO - for time being this will data scope list of loans returned to
         // only loans that have a client associated.
         // to support senario where loan has group_id only OR client_id will
         // probably require a UNION query
         // but that at present is an edge case
-        sqlBuilder.append(" join m_office o on o.id = c.office_id");
-        sqlBuilder.append(" left join m_office transferToOffice on transferToOffice.id = c.transfer_to_office_id ");
-        sqlBuilder.append(" where ( o.hierarchy like ? or transferToOffice.hierarchy like ?)");
+        criteriaBuilder.append(" join m_office o on o.id = c.office_id");
+        criteriaBuilder.append(" left join m_office transferToOffice on transferToOffice.id = c.transfer_to_office_id ");
+        criteriaBuilder.append(" where ( o.hierarchy like ? or transferToOffice.hierarchy like ?)");
 
         int arrayPos = 2;
         List<Object> extraCriterias = new ArrayList<>();
@@ -280,21 +297,35 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
         String sqlQueryCriteria = searchParameters.getSqlSearch();
         if (StringUtils.isNotBlank(sqlQueryCriteria)) {
             sqlQueryCriteria = sqlQueryCriteria.replaceAll("accountNo", "l.account_no");
-            sqlBuilder.append(" and (").append(sqlQueryCriteria).append(")");
+            criteriaBuilder.append(" and (").append(sqlQueryCriteria).append(")");
         }
 
         if (StringUtils.isNotBlank(searchParameters.getExternalId())) {
-            sqlBuilder.append(" and l.external_id = ?");
+            criteriaBuilder.append(" and l.external_id = ?");
             extraCriterias.add(searchParameters.getExternalId());
             arrayPos = arrayPos + 1;
         }
 
         if (StringUtils.isNotBlank(searchParameters.getAccountNo())) {
-            sqlBuilder.append(" and l.account_no = ?");
+            criteriaBuilder.append(" and l.account_no = ?");
             extraCriterias.add(searchParameters.getAccountNo());
             arrayPos = arrayPos + 1;
         }
 
+        final Object[] objectArray = extraCriterias.toArray();
+        final Object[] finalObjectArray = Arrays.copyOf(objectArray, arrayPos);
+        if (searchParameters.isKeysetPaged()) {
+            final KeysetPagination keyset = KeysetPagination.instance(keysetSortColumns, null, "l.id", searchParameters.getOrderBy(),
+                    searchParameters.getSortOrder(), searchParameters.getContinuationToken(), searchParameters.getLimit(),
+                    searchParameters.getCountMode());
+            if (keyset != null) { return retrieveAllAfter(criteriaBuilder.toString(), finalObjectArray, keyset); }
+        }
+
+        final StringBuilder sqlBuilder = new StringBuilder(200);
+        sqlBuilder.append("select SQL_CALC_FOUND_ROWS ");
+        sqlBuilder.append(this.loaanLoanMapper.loanSchema());
+        sqlBuilder.append(criteriaBuilder);
+
         if (searchParameters.isOrderByRequested()) {
             sqlBuilder.append(" order by ").append(searchParameters.getOrderBy());
 
@@ -310,13 +341,28 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
             }
         }
 
-        final Object[] objectArray = extraCriterias.toArray();
-        final Object[] finalObjectArray = Arrays.copyOf(objectArray, arrayPos);
         final String sqlCountRows = "SELECT FOUND_ROWS()";
         return this.paginationHelper.fetchPage(this.jdbcTemplate, sqlCountRows, sqlBuilder.toString(), finalObjectArray,
                 this.loaanLoanMapper);
     }
 
+    private Page<LoanAccountData> retrieveAllAfter(final String criteria, final Object[] criteriaArgs, final KeysetPagination keyset) {
+
+        final StringBuilder sqlBuilder = new StringBuilder(200);
+        sqlBuilder.append("select").append(keyset.selectColumnsSql());
+        sqlBuilder.append(this.loaanLoanMapper.loanSchema());
+        sqlBuilder.append(criteria);
+        if (keyset.hasPosition()) {
+            sqlBuilder.append(" and").append(keyset.positionSql());
+        }
+
+        // the search criteria may refer to any table of the page query
+        final String sqlCountFrom = this.loaanLoanMapper.loanFrom() + criteria;
+
+        return this.paginationHelper.fetchPage(this.jdbcTemplate, sqlCountFrom, criteriaArgs, sqlBuilder.toString(),
+                keyset.fetchArgs(criteriaArgs), keyset, this.loaanLoanMapper);
+    }
+
     @Override
     public LoanAccountData retrieveTemplateWithClientAndProductDetails(final Long clientId, final Long productId) {
 
@@ -608,7 +654,11 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
                     + " l.interest_rate_differential as interestRateDifferential, "
                     + " l.create_standing_instruction_at_disbursement as createStandingInstructionAtDisbursement, "
                     + " lpvi.minimum_gap as minimuminstallmentgap, lpvi.maximum_gap as maximuminstallmentgap "
-                    + " from m_loan l" //
+                    + loanFrom();
+        }
+
+        public String loanFrom() {
+            return " from m_loan l" //
                     + " join m_product_loan lp on lp.id = l.product_id" //
                     + " left join m_loan_recalculation_details lir on lir.loan_id = l.id "
                     + " join m_currency rc on rc.`code` = l.currency_code" //
@@ -1565,15 +1615,39 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
 
         LoanScheduleAccrualMapper mapper = new LoanScheduleAccrualMapper();
         final StringBuilder sqlBuilder = new StringBuilder(400);
-        sqlBuilder
-                .append("select ")
-                .append(mapper.schema())
-                .append(" where ((ls.fee_charges_amount <> if(ls.accrual_fee_charges_derived is null,0, ls.accrual_fee_charges_derived))")
-                .append(" or ( ls.penalty_charges_amount <> if(ls.accrual_penalty_charges_derived is null,0,ls.accrual_penalty_charges_derived))")
-                .append(" or ( ls.interest_amount <> if(ls.accrual_interest_derived is null,0,ls.accrual_interest_derived)))")
-                .append("  and loan.loan_status_id=? and mpl.accounting_type=? and loan.is_npa=0 and ls.duedate <= CURDATE() order by loan.id,ls.duedate");
-        return this.jdbcTemplate.query(sqlBuilder.toString(), mapper, new Object[] { LoanStatus.ACTIVE.getValue(),
-                AccountingRuleType.ACCRUAL_PERIODIC.getValue() });
+        sqlBuilder.append("select ").append(mapper.schema()).append(" where ").append(SCHEDULE_ACCRUAL_CONDITION)
+                .append(" order by loan.id,ls.duedate");
+        final Map<String, Object> paramMap = new HashMap<>(2);
+        paramMap.put("active", LoanStatus.ACTIVE.getValue());
+        paramMap.put("type", AccountingRuleType.ACCRUAL_PERIODIC.getValue());
+        return this.namedParameterJdbcTemplate.query(sqlBuilder.toString(), paramMap, mapper);
+    }
+
+    @Override
+    public List<Long> retrieveLoanIdsWithScheduleAccrualData(final Long afterLoanId, final int limit) {
+        final StringBuilder sqlBuilder = new StringBuilder(400);
+        sqlBuilder.append("select distinct loan.id from m_loan_repayment_schedule ls inner join m_loan loan on loan.id=ls.loan_id ")
+                .append(" inner join m_product_loan mpl on mpl.id = loan.product_id where ").append(SCHEDULE_ACCRUAL_CONDITION)
+                .append(" and loan.id > :afterLoanId order by loan.id limit :limit");
+        final Map<String, Object> paramMap = new HashMap<>(4);
+        paramMap.put("active", LoanStatus.ACTIVE.getValue());
+        paramMap.put("type", AccountingRuleType.ACCRUAL_PERIODIC.getValue());
+        paramMap.put("afterLoanId", afterLoanId);
+        paramMap.put("limit", limit);
+        return this.namedParameterJdbcTemplate.queryForList(sqlBuilder.toString(), paramMap, Long.class);
+    }
+
+    @Override
+    public Collection<LoanScheduleAccrualData> retriveScheduleAccrualData(final Collection<Long> loanIds) {
+        final LoanScheduleAccrualMapper mapper = new LoanScheduleAccrualMapper();
+        final StringBuilder sqlBuilder = new StringBuilder(400);
+        sqlBuilder.append("select ").append(mapper.schema()).append(" where ")
+                .append(SCHEDULE_ACCRUAL_CONDITION).append(" and loan.id in (:loanIds) order by loan.id,ls.duedate");
+        final Map<String, Object> paramMap = new HashMap<>(3);
+        paramMap.put("active", LoanStatus.ACTIVE.getValue());
+        paramMap.put("type", AccountingRuleType.ACCRUAL_PERIODIC.getValue());
+        paramMap.put("loanIds", loanIds);
+        return this.namedParameterJdbcTemplate.query(sqlBuilder.toString(), paramMap, mapper);
     }
 
     @Override
@@ -1581,13 +1655,8 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
 
         LoanSchedulePeriodicAccrualMapper mapper = new LoanSchedulePeriodicAccrualMapper();
         final StringBuilder sqlBuilder = new StringBuilder(400);
-        sqlBuilder
-                .append("select ")
-                .append(mapper.schema())
-                .append(" where ((ls.fee_charges_amount <> if(ls.accrual_fee_charges_derived is null,0, ls.accrual_fee_charges_derived))")
-                .append(" or (ls.penalty_charges_amount <> if(ls.accrual_penalty_charges_derived is null,0,ls.accrual_penalty_charges_derived))")
-                .append(" or (ls.interest_amount <> if(ls.accrual_interest_derived is null,0,ls.accrual_interest_derived)))")
-                .append("  and loan.loan_status_id=:active and mpl.accounting_type=:type and loan.is_npa=0 and (ls.duedate <= :tilldate or (ls.duedate > :tilldate and ls.fromdate < :tilldate)) order by loan.id,ls.duedate");
+        sqlBuilder.append("select ").append(mapper.schema()).append(" where ").append(PERIODIC_ACCRUAL_CONDITION)
+                .append(" order by loan.id,ls.duedate");
         Map<String, Object> paramMap = new HashMap<>(3);
         paramMap.put("active", LoanStatus.ACTIVE.getValue());
         paramMap.put("type", AccountingRuleType.ACCRUAL_PERIODIC.getValue());
@@ -1596,6 +1665,56 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
         return this.namedParameterJdbcTemplate.query(sqlBuilder.toString(), paramMap, mapper);
     }
 
+    @Override
+    public List<Long> retrieveLoanIdsWithPeriodicAccrualData(final LocalDate tillDate, final Long afterLoanId, final int limit) {
+        final StringBuilder sqlBuilder = new StringBuilder(400);
+        sqlBuilder.append("select distinct loan.id from m_loan_repayment_schedule ls inner join m_loan loan on loan.id=ls.loan_id ")
+                .append(" inner join m_product_loan mpl on mpl.id = loan.product_id where ").append(PERIODIC_ACCRUAL_CONDITION)
+                .append(" and loan.id > :afterLoanId order by loan.id limit :limit");
+        final Map<String, Object> paramMap = new HashMap<>(5);
+        paramMap.put("active", LoanStatus.ACTIVE.getValue());
+        paramMap.put("type", AccountingRuleType.ACCRUAL_PERIODIC.getValue());
+        paramMap.put("tilldate", formatter.format(tillDate));
+        paramMap.put("afterLoanId", afterLoanId);
+        paramMap.put("limit", limit);
+        return this.namedParameterJdbcTemplate.queryForList(sqlBuilder.toString(), paramMap, Long.class);
+    }
+
+    @Override
+    public Collection<LoanScheduleAccrualData> retrivePeriodicAccrualData(final LocalDate tillDate, final Collection<Long> loanIds) {
+        final LoanSchedulePeriodicAccrualMapper mapper = new LoanSchedulePeriodicAccrualMapper();
+        final StringBuilder sqlBuilder = new StringBuilder(400);
+        sqlBuilder.append("select ").append(mapper.schema()).append(" where ").append(PERIODIC_ACCRUAL_CONDITION)
+                .append(" and loan.id in (:loanIds) order by loan.id,ls.duedate");
+        final Map<String, Object> paramMap = new HashMap<>(4);
+        paramMap.put("active", LoanStatus.ACTIVE.getValue());
+        paramMap.put("type", AccountingRuleType.ACCRUAL_PERIODIC.getValue());
+        paramMap.put("tilldate", formatter.format(tillDate));
+        paramMap.put("loanIds", loanIds);
+        return this.namedParameterJdbcTemplate.query(sqlBuilder.toString(), paramMap, mapper);
+    }
+
+    @Override
+    public List<Long> retrieveLoanIdsWithInstallmentsDueOnHoliday(final Long holidayId, final LocalDate fromDate, final LocalDate toDate,
+            final Collection<Integer> loanStatuses, final Long afterLoanId, final int limit) {
+        final StringBuilder sqlBuilder = new StringBuilder(600);
+        sqlBuilder.append("select loan.id from m_loan loan left join m_client c on c.id = loan.client_id ")
+                .append(" left join m_group g on g.id = loan.group_id ")
+                .append(" where loan.loan_status_id in (:loanStatuses) and loan.id > :afterLoanId ")
+                .append(" and (c.office_id in (select ho.office_id from m_holiday_office ho where ho.holiday_id = :holidayId) ")
+                .append(" or g.office_id in (select ho.office_id from m_holiday_office ho where ho.holiday_id = :holidayId)) ")
+                .append(" and exists (select ls.id from m_loan_repayment_schedule ls where ls.loan_id = loan.id ")
+                .append(" and ls.duedate between :fromDate and :toDate) order by loan.id limit :limit");
+        final Map<String, Object> paramMap = new HashMap<>(6);
+        paramMap.put("holidayId", holidayId);
+        paramMap.put("fromDate", formatter.format(fromDate));
+        paramMap.put("toDate", formatter.format(toDate));
+        paramMap.put("loanStatuses", loanStatuses);
+        paramMap.put("afterLoanId", afterLoanId);
+        paramMap.put("limit", limit);
+        return this.namedParameterJdbcTemplate.queryForList(sqlBuilder.toString(), paramMap, Long.class);
+    }
+
     private static final class LoanSchedulePeriodicAccrualMapper implements RowMapper<LoanScheduleAccrualData> {
 
         public String schema() {
@@ -0,0 +1,411 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.portfolio.loanaccount.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+
+import com.stellar.bnkbiz.infrastructure.configuration.domain.ConfigurationDomainService;
+import com.stellar.bnkbiz.infrastructure.core.service.ContextAwareExecutor;
+import com.stellar.bnkbiz.infrastructure.core.service.RoutingDataSource;
+import com.stellar.bnkbiz.infrastructure.core.service.ThreadLocalContextUtil;
+import com.stellar.bnkbiz.infrastructure.jobs.annotation.CronTarget;
+import com.stellar.bnkbiz.infrastructure.jobs.exception.JobExecutionException;
+import com.stellar.bnkbiz.infrastructure.jobs.service.JobName;
+import com.stellar.bnkbiz.portfolio.common.BusinessEventNotificationConstants.BUSINESS_ENTITY;
+import com.stellar.bnkbiz.portfolio.common.BusinessEventNotificationConstants.BUSINESS_EVENTS;
+import com.stellar.bnkbiz.portfolio.common.service.BusinessEventListner;
+import com.stellar.bnkbiz.portfolio.common.service.BusinessEventNotifierService;
+import com.stellar.bnkbiz.portfolio.loanaccount.domain.Loan;
+import com.stellar.bnkbiz.portfolio.loanaccount.domain.LoanCharge;
+import com.stellar.bnkbiz.portfolio.loanaccount.domain.LoanTransaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Maintains the derived summary columns of m_loan and m_loan_paid_in_advance.
+ *
+ * The loan events this class listens to mark the loan in m_loan_summary_dirty
+ * as part of the transaction that changed it and recompute the summary and the
+ * amount paid in advance of the loan once that transaction has committed.
+ * Services that change the schedule or the transactions of a loan without
+ * raising an event mark the loan through
+ * {@link #markLoansForRecalculation(Collection)}. Loans whose recomputation
+ * failed stay marked, the scheduled jobs then only recompute the marked loans
+ * instead of rewriting every loan. The amount paid in advance also shrinks as
+ * installments fall due, so {@link JobName#UPDATE_LOAN_PAID_IN_ADVANCE}
+ * recomputes the loans that have a row in m_loan_paid_in_advance as well. The
+ * {@link JobName#REBUILD_LOAN_SUMMARY} job, inactive unless an operator turns
+ * it on, recomputes every disbursed loan and catches changes made by any path
+ * that marks nothing. Loans are processed in
+ * chunks, each in its own transaction, on a worker pool sized per tenant.
+ */
+@Service
+public class LoanSummaryServiceImpl implements LoanSummaryService, BusinessEventListner {
+
+    private final static Logger logger = LoggerFactory.getLogger(LoanSummaryServiceImpl.class);
+
+    /**
+     * Every mark bumps mark_version, a recomputation only clears the marks of
+     * the versions it read before recomputing.
+     */
+    private static final String MARK_SQL = "insert into m_loan_summary_dirty (loan_id, lastmodified_date, mark_version) values (?, ?, 1) "
+            + "on duplicate key update lastmodified_date = values(lastmodified_date), mark_version = mark_version + 1";
+
+    private static final String UPDATE_SUMMARY_SQL = buildUpdateSummarySql();
+
+    private static final String INSERT_PAID_IN_ADVANCE_SQL = buildInsertPaidInAdvanceSql();
+
+    private final BusinessEventNotifierService businessEventNotifierService;
+    private final ConfigurationDomainService configurationDomainService;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Loans marked by the current transaction, recomputed once it commits.
+     */
+    private final Object pendingLoansKey = new Object();
+
+    @Autowired
+    public LoanSummaryServiceImpl(final RoutingDataSource dataSource, final BusinessEventNotifierService businessEventNotifierService,
+            final ConfigurationDomainService configurationDomainService, final PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.businessEventNotifierService = businessEventNotifierService;
+        this.configurationDomainService = configurationDomainService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // also used after the commit of a transaction whose resources are
+        // still bound to the thread
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void registerForNotification() {
+        final BUSINESS_EVENTS[] events = { BUSINESS_EVENTS.LOAN_DISBURSAL, BUSINESS_EVENTS.LOAN_UNDO_DISBURSAL,
+                BUSINESS_EVENTS.LOAN_UNDO_LASTDISBURSAL, BUSINESS_EVENTS.LOAN_UNDO_TRANSACTION, BUSINESS_EVENTS.LOAN_ADJUST_TRANSACTION,
+                BUSINESS_EVENTS.LOAN_MAKE_REPAYMENT, BUSINESS_EVENTS.LOAN_BULK_REPAYMENT, BUSINESS_EVENTS.LOAN_WRITTEN_OFF,
+                BUSINESS_EVENTS.LOAN_UNDO_WRITTEN_OFF, BUSINESS_EVENTS.LOAN_WAIVE_INTEREST, BUSINESS_EVENTS.LOAN_CLOSE,
+                BUSINESS_EVENTS.LOAN_CLOSE_AS_RESCHEDULE, BUSINESS_EVENTS.LOAN_ADD_CHARGE, BUSINESS_EVENTS.LOAN_UPDATE_CHARGE,
+                BUSINESS_EVENTS.LOAN_WAIVE_CHARGE, BUSINESS_EVENTS.LOAN_DELETE_CHARGE, BUSINESS_EVENTS.LOAN_CHARGE_PAYMENT,
+                BUSINESS_EVENTS.LOAN_APPLY_OVERDUE_CHARGE, BUSINESS_EVENTS.LOAN_INTEREST_RECALCULATION, BUSINESS_EVENTS.LOAN_REFUND };
+        for (final BUSINESS_EVENTS event : events) {
+            this.businessEventNotifierService.addBusinessEventPostListners(event, this);
+        }
+    }
+
+    @Override
+    @CronTarget(jobName = JobName.UPDATE_LOAN_SUMMARY)
+    public void updateLoanSummaryDetails() throws JobExecutionException {
+        final List<Long> loanIds = this.jdbcTemplate.queryForList(
+                "select msd.loan_id from m_loan_summary_dirty msd order by msd.loan_id", Long.class);
+        recalculateLoanSummaries(loanIds);
+    }
+
+    @Override
+    @CronTarget(jobName = JobName.UPDATE_LOAN_PAID_IN_ADVANCE)
+    public void updateLoanPaidInAdvance() throws JobExecutionException {
+        final StringBuilder sqlBuilder = new StringBuilder(200);
+        sqlBuilder.append("select x.loanId from (");
+        sqlBuilder.append("select msd.loan_id as loanId from m_loan_summary_dirty msd ");
+        sqlBuilder.append("union select mpa.loan_id as loanId from m_loan_paid_in_advance mpa");
+        sqlBuilder.append(") x order by x.loanId");
+
+        final List<Long> loanIds = this.jdbcTemplate.queryForList(sqlBuilder.toString(), Long.class);
+        recalculateLoanSummaries(loanIds);
+    }
+
+    @Override
+    @CronTarget(jobName = JobName.REBUILD_LOAN_SUMMARY)
+    public void rebuildLoanSummaryDetails() throws JobExecutionException {
+        final StringBuilder sqlBuilder = new StringBuilder(300);
+        sqlBuilder.append("select x.loanId from (");
+        sqlBuilder.append("select ml.id as loanId from m_loan ml where ml.disbursedon_date is not null ");
+        sqlBuilder.append("union select mpa.loan_id as loanId from m_loan_paid_in_advance mpa ");
+        sqlBuilder.append("union select msd.loan_id as loanId from m_loan_summary_dirty msd");
+        sqlBuilder.append(") x order by x.loanId");
+
+        final List<Long> loanIds = this.jdbcTemplate.queryForList(sqlBuilder.toString(), Long.class);
+        recalculateLoanSummaries(loanIds);
+    }
+
+    @Override
+    public void markLoansForRecalculation(final Collection<Long> loanIds) {
+        final Date now = new Date();
+        final List<Object[]> markParams = new ArrayList<>(loanIds.size());
+        for (final Long loanId : loanIds) {
+            markParams.add(new Object[] { loanId, now });
+        }
+        this.jdbcTemplate.batchUpdate(MARK_SQL, markParams);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recalculateAfterCommit(loanIds);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Long> pendingLoanIds = (Set<Long>) TransactionSynchronizationManager.getResource(this.pendingLoansKey);
+        if (pendingLoanIds == null) {
+            final Set<Long> loanIdsOfTransaction = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this.pendingLoansKey, loanIdsOfTransaction);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCommit() {
+                    recalculateAfterCommit(loanIdsOfTransaction);
+                }
+
+                @Override
+                public void afterCompletion(@SuppressWarnings("unused") final int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(LoanSummaryServiceImpl.this.pendingLoansKey);
+                }
+            });
+            pendingLoanIds = loanIdsOfTransaction;
+        }
+        pendingLoanIds.addAll(loanIds);
+    }
+
+    private void recalculateAfterCommit(final Collection<Long> loanIds) {
+        try {
+            recalculateLoanSummariesForChunk(new ArrayList<>(loanIds));
+        } catch (final RuntimeException e) {
+            // the loans stay marked for the next run of the jobs
+            logger.warn("Summary not recomputed for loans " + loanIds + ": " + e.getMessage());
+        }
+    }
+
+    private void recalculateLoanSummaries(final List<Long> loanIds) throws JobExecutionException {
+        final int chunkSize = this.configurationDomainService.retrieveJobChunkSize();
+        final int threadPoolSize = this.configurationDomainService.retrieveJobThreadPoolSize();
+        final AtomicInteger failedChunks = new AtomicInteger();
+
+        try (ContextAwareExecutor executor = ContextAwareExecutor.newFixedPool("loan-summary", threadPoolSize, threadPoolSize * 2)) {
+            for (int fromIndex = 0; fromIndex < loanIds.size(); fromIndex += chunkSize) {
+                final List<Long> chunkIds = new ArrayList<>(loanIds.subList(fromIndex, Math.min(fromIndex + chunkSize, loanIds.size())));
+                executor.submit(new Callable<Void>() {
+
+                    @Override
+                    public Void call() {
+                        try {
+                            recalculateLoanSummariesForChunk(chunkIds);
+                        } catch (final RuntimeException e) {
+                            failedChunks.incrementAndGet();
+                            logger.error("Loan summary failed for loans " + chunkIds.get(0) + " to " + chunkIds.get(chunkIds.size() - 1), e);
+                        }
+                        return null;
+                    }
+                });
+            }
+        }
+
+        logger.info(ThreadLocalContextUtil.getTenant().getName() + ": Loan summaries recomputed: " + loanIds.size());
+
+        if (failedChunks.get() > 0) { throw new JobExecutionException("failed to update loan summary for " + failedChunks.get()
+                + " chunks of " + chunkSize + " loans"); }
+    }
+
+    private void recalculateLoanSummariesForChunk(final List<Long> loanIds) {
+        if (loanIds.isEmpty()) { return; }
+        final MapSqlParameterSource paramSource = new MapSqlParameterSource("loanIds", loanIds);
+
+        this.transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+
+            @Override
+            protected void doInTransactionWithoutResult(@SuppressWarnings("unused") final TransactionStatus status) {
+                final NamedParameterJdbcTemplate jdbcTemplate = LoanSummaryServiceImpl.this.namedParameterJdbcTemplate;
+                // marks made from here on carry a higher version and are left
+                // for the next recomputation
+                final List<Object[]> cleanParams = jdbcTemplate.query(
+                        "select msd.loan_id, msd.mark_version from m_loan_summary_dirty msd where msd.loan_id in (:loanIds)", paramSource,
+                        new RowMapper<Object[]>() {
+
+                            @Override
+                            public Object[] mapRow(final ResultSet rs, @SuppressWarnings("unused") final int rowNum) throws SQLException {
+                                return new Object[] { rs.getLong("loan_id"), rs.getLong("mark_version") };
+                            }
+                        });
+                jdbcTemplate.update(UPDATE_SUMMARY_SQL, paramSource);
+                jdbcTemplate.update("DELETE FROM m_loan_paid_in_advance WHERE loan_id in (:loanIds)", paramSource);
+                jdbcTemplate.update(INSERT_PAID_IN_ADVANCE_SQL, paramSource);
+                if (!cleanParams.isEmpty()) {
+                    LoanSummaryServiceImpl.this.jdbcTemplate.batchUpdate(
+                            "DELETE FROM m_loan_summary_dirty WHERE loan_id = ? and mark_version = ?", cleanParams);
+                }
+            }
+        });
+    }
+
+    @SuppressWarnings("unused")
+    @Override
+    public void businessEventToBeExecuted(Map<BUSINESS_ENTITY, Object> businessEventEntity) {
+        // the summary is only recomputed from the state after the event
+    }
+
+    @Override
+    public void businessEventWasExecuted(Map<BUSINESS_ENTITY, Object> businessEventEntity) {
+        final Set<Long> loanIds = new LinkedHashSet<>();
+        final Object loanTransactionsEntity = businessEventEntity.get(BUSINESS_ENTITY.LOAN_TRANSACTIONS);
+        if (loanTransactionsEntity != null) {
+            for (final Object loanTransaction : (Collection<?>) loanTransactionsEntity) {
+                loanIds.add(((LoanTransaction) loanTransaction).getLoan().getId());
+            }
+        }
+        final Object loansEntity = businessEventEntity.get(BUSINESS_ENTITY.LOANS);
+        if (loansEntity != null) {
+            for (final Object loan : (Collection<?>) loansEntity) {
+                loanIds.add(((Loan) loan).getId());
+            }
+        }
+        final Object loanEntity = businessEventEntity.get(BUSINESS_ENTITY.LOAN);
+        final Object loanTransactionEntity = businessEventEntity.get(BUSINESS_ENTITY.LOAN_TRANSACTION);
+        final Object loanAdjustTransactionEntity = businessEventEntity.get(BUSINESS_ENTITY.LOAN_ADJUSTED_TRANSACTION);
+        final Object loanChargeEntity = businessEventEntity.get(BUSINESS_ENTITY.LOAN_CHARGE);
+        if (loanEntity != null) {
+            loanIds.add(((Loan) loanEntity).getId());
+        } else if (loanTransactionEntity != null) {
+            loanIds.add(((LoanTransaction) loanTransactionEntity).getLoan().getId());
+        } else if (loanAdjustTransactionEntity != null) {
+            loanIds.add(((LoanTransaction) loanAdjustTransactionEntity).getLoan().getId());
+        } else if (loanChargeEntity != null) {
+            loanIds.add(((LoanCharge) loanChargeEntity).getLoan().getId());
+        }
+        if (loanIds.isEmpty()) { return; }
+        markLoansForRecalculation(loanIds);
+    }
+
+    private static String buildUpdateSummarySql() {
+        final StringBuilder updateSqlBuilder = new StringBuilder(900);
+        updateSqlBuilder.append("update m_loan ");
+        updateSqlBuilder.append("join (");
+        updateSqlBuilder.append("SELECT ml.id AS loanId,");
+        updateSqlBuilder.append("SUM(mr.principal_amount) as principal_disbursed_derived, ");
+        updateSqlBuilder.append("SUM(IFNULL(mr.principal_completed_derived,0)) as principal_repaid_derived, ");
+        updateSqlBuilder.append("SUM(IFNULL(mr.principal_writtenoff_derived,0)) as principal_writtenoff_derived,");
+        updateSqlBuilder.append("SUM(IFNULL(mr.interest_amount,0)) as interest_charged_derived,");
+        updateSqlBuilder.append("SUM(IFNULL(mr.interest_completed_derived,0)) as interest_repaid_derived,");
+        updateSqlBuilder.append("SUM(IFNULL(mr.interest_waived_derived,0)) as interest_waived_derived,");
+        updateSqlBuilder.append("SUM(IFNULL(mr.interest_writtenoff_derived,0)) as interest_writtenoff_derived,");
+        updateSqlBuilder
+                .append("SUM(IFNULL(mr.fee_charges_amount,0)) + IFNULL((select SUM(lc.amount) from  m_loan_charge lc where lc.loan_id=ml.id and lc.is_active=1 and lc.charge_time_enum=1),0) as fee_charges_charged_derived,");
+        updateSqlBuilder
+                .append("SUM(IFNULL(mr.fee_charges_completed_derived,0)) + IFNULL((select SUM(lc.amount_paid_derived) from  m_loan_charge lc where lc.loan_id=ml.id and lc.is_active=1 and lc.charge_time_enum=1),0) as fee_charges_repaid_derived,");
+        updateSqlBuilder.append("SUM(IFNULL(mr.fee_charges_waived_derived,0)) as fee_charges_waived_derived,");
+        updateSqlBuilder.append("SUM(IFNULL(mr.fee_charges_writtenoff_derived,0)) as fee_charges_writtenoff_derived,");
+        updateSqlBuilder.append("SUM(IFNULL(mr.penalty_charges_amount,0)) as penalty_charges_charged_derived,");
+        updateSqlBuilder.append("SUM(IFNULL(mr.penalty_charges_completed_derived,0)) as penalty_charges_repaid_derived,");
+        updateSqlBuilder.append("SUM(IFNULL(mr.penalty_charges_waived_derived,0)) as penalty_charges_waived_derived,");
+        updateSqlBuilder.append("SUM(IFNULL(mr.penalty_charges_writtenoff_derived,0)) as penalty_charges_writtenoff_derived ");
+        updateSqlBuilder.append(" FROM m_loan ml ");
+        updateSqlBuilder.append("INNER JOIN m_loan_repayment_schedule mr on mr.loan_id = ml.id ");
+        updateSqlBuilder.append("WHERE ml.id in (:loanIds) and ml.disbursedon_date is not null ");
+        updateSqlBuilder.append("GROUP BY ml.id ");
+        updateSqlBuilder.append(") x on x.loanId = m_loan.id ");
+
+        updateSqlBuilder.append("SET m_loan.principal_disbursed_derived = x.principal_disbursed_derived,");
+        updateSqlBuilder.append("m_loan.principal_repaid_derived = x.principal_repaid_derived,");
+        updateSqlBuilder.append("m_loan.principal_writtenoff_derived = x.principal_writtenoff_derived,");
+        updateSqlBuilder
+                .append("m_loan.principal_outstanding_derived = (x.principal_disbursed_derived - (x.principal_repaid_derived + x.principal_writtenoff_derived)),");
+        updateSqlBuilder.append("m_loan.interest_charged_derived = x.interest_charged_derived,");
+        updateSqlBuilder.append("m_loan.interest_repaid_derived = x.interest_repaid_derived,");
+        updateSqlBuilder.append("m_loan.interest_waived_derived = x.interest_waived_derived,");
+        updateSqlBuilder.append("m_loan.interest_writtenoff_derived = x.interest_writtenoff_derived,");
+        updateSqlBuilder
+                .append("m_loan.interest_outstanding_derived = (x.interest_charged_derived - (x.interest_repaid_derived + x.interest_waived_derived + x.interest_writtenoff_derived)),");
+        updateSqlBuilder.append("m_loan.fee_charges_charged_derived = x.fee_charges_charged_derived,");
+        updateSqlBuilder.append("m_loan.fee_charges_repaid_derived = x.fee_charges_repaid_derived,");
+        updateSqlBuilder.append("m_loan.fee_charges_waived_derived = x.fee_charges_waived_derived,");
+        updateSqlBuilder.append("m_loan.fee_charges_writtenoff_derived = x.fee_charges_writtenoff_derived,");
+        updateSqlBuilder
+                .append("m_loan.fee_charges_outstanding_derived = (x.fee_charges_charged_derived - (x.fee_charges_repaid_derived + x.fee_charges_waived_derived + x.fee_charges_writtenoff_derived)),");
+        updateSqlBuilder.append("m_loan.penalty_charges_charged_derived = x.penalty_charges_charged_derived,");
+        updateSqlBuilder.append("m_loan.penalty_charges_repaid_derived = x.penalty_charges_repaid_derived,");
+        updateSqlBuilder.append("m_loan.penalty_charges_waived_derived = x.penalty_charges_waived_derived,");
+        updateSqlBuilder.append("m_loan.penalty_charges_writtenoff_derived = x.penalty_charges_writtenoff_derived,");
+        updateSqlBuilder
+                .append("m_loan.penalty_charges_outstanding_derived = (x.penalty_charges_charged_derived - (x.penalty_charges_repaid_derived + x.penalty_charges_waived_derived + x.penalty_charges_writtenoff_derived)),");
+        updateSqlBuilder
+                .append("m_loan.total_expected_repayment_derived = (x.principal_disbursed_derived + x.interest_charged_derived + x.fee_charges_charged_derived + x.penalty_charges_charged_derived),");
+        updateSqlBuilder
+                .append("m_loan.total_repayment_derived = (x.principal_repaid_derived + x.interest_repaid_derived + x.fee_charges_repaid_derived + x.penalty_charges_repaid_derived),");
+        updateSqlBuilder
+                .append("m_loan.total_expected_costofloan_derived = (x.interest_charged_derived + x.fee_charges_charged_derived + x.penalty_charges_charged_derived),");
+        updateSqlBuilder
+                .append("m_loan.total_costofloan_derived = (x.interest_repaid_derived + x.fee_charges_repaid_derived + x.penalty_charges_repaid_derived),");
+        updateSqlBuilder
+                .append("m_loan.total_waived_derived = (x.interest_waived_derived + x.fee_charges_waived_derived + x.penalty_charges_waived_derived),");
+        updateSqlBuilder
+                .append("m_loan.total_writtenoff_derived = (x.interest_writtenoff_derived +  x.fee_charges_writtenoff_derived + x.penalty_charges_writtenoff_derived),");
+        updateSqlBuilder.append("m_loan.total_outstanding_derived=");
+        updateSqlBuilder.append(" (x.principal_disbursed_derived - (x.principal_repaid_derived + x.principal_writtenoff_derived)) + ");
+        updateSqlBuilder
+                .append(" (x.interest_charged_derived - (x.interest_repaid_derived + x.interest_waived_derived + x.interest_writtenoff_derived)) +");
+        updateSqlBuilder
+                .append(" (x.fee_charges_charged_derived - (x.fee_charges_repaid_derived + x.fee_charges_waived_derived + x.fee_charges_writtenoff_derived)) +");
+        updateSqlBuilder
+                .append(" (x.penalty_charges_charged_derived - (x.penalty_charges_repaid_derived + x.penalty_charges_waived_derived + x.penalty_charges_writtenoff_derived))");
+        return updateSqlBuilder.toString();
+    }
+
+    private static String buildInsertPaidInAdvanceSql() {
+        final StringBuilder updateSqlBuilder = new StringBuilder(900);
+        updateSqlBuilder
+                .append("INSERT INTO m_loan_paid_in_advance(loan_id, principal_in_advance_derived, interest_in_advance_derived, fee_charges_in_advance_derived, penalty_charges_in_advance_derived, total_in_advance_derived)");
+        updateSqlBuilder.append(" select ml.id as loanId,");
+        updateSqlBuilder.append(" SUM(ifnull(mr.principal_completed_derived, 0)) as principal_in_advance_derived,");
+        updateSqlBuilder.append(" SUM(ifnull(mr.interest_completed_derived, 0)) as interest_in_advance_derived,");
+        updateSqlBuilder.append(" SUM(ifnull(mr.fee_charges_completed_derived, 0)) as fee_charges_in_advance_derived,");
+        updateSqlBuilder.append(" SUM(ifnull(mr.penalty_charges_completed_derived, 0)) as penalty_charges_in_advance_derived,");
+        updateSqlBuilder
+                .append(" (SUM(ifnull(mr.principal_completed_derived, 0)) + SUM(ifnull(mr.interest_completed_derived, 0)) + SUM(ifnull(mr.fee_charges_completed_derived, 0)) + SUM(ifnull(mr.penalty_charges_completed_derived, 0))) as total_in_advance_derived");
+        updateSqlBuilder.append(" FROM m_loan ml ");
+        updateSqlBuilder.append(" INNER JOIN m_loan_repayment_schedule mr on mr.loan_id = ml.id ");
+        updateSqlBuilder.append(" WHERE ml.id in (:loanIds) and ml.loan_status_id = 300 ");
+        updateSqlBuilder.append(" and mr.duedate >= CURDATE() ");
+        updateSqlBuilder.append(" GROUP BY ml.id");
+        updateSqlBuilder
+                .append(" HAVING (SUM(ifnull(mr.principal_completed_derived, 0)) + SUM(ifnull(mr.interest_completed_derived, 0)) +");
+        updateSqlBuilder
+                .append(" SUM(ifnull(mr.fee_charges_completed_derived, 0)) + SUM(ifnull(mr.penalty_charges_completed_derived, 0))) > 0.0");
+        return updateSqlBuilder.toString();
+    }
+}
@@ -30,6 +30,8 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.StringUtils;
 import com.stellar.bnkbiz.accounting.journalentry.service.JournalEntryWritePlatformService;
@@ -42,10 +44,16 @@ import com.stellar.bnkbiz.infrastructure.core.data.DataValidatorBuilder;
 import com.stellar.bnkbiz.infrastructure.core.exception.PlatformApiDataValidationException;
 import com.stellar.bnkbiz.infrastructure.core.exception.PlatformServiceUnavailableException;
 import com.stellar.bnkbiz.infrastructure.core.serialization.FromJsonHelper;
+import com.stellar.bnkbiz.infrastructure.core.service.ContextAwareExecutor;
 import com.stellar.bnkbiz.infrastructure.core.service.DateUtils;
+import com.stellar.bnkbiz.infrastructure.core.service.ThreadLocalContextUtil;
 import com.stellar.bnkbiz.infrastructure.jobs.annotation.CronTarget;
 import com.stellar.bnkbiz.infrastructure.jobs.exception.JobExecutionException;
+import com.stellar.bnkbiz.infrastructure.jobs.service.ChunkWatermark;
+import com.stellar.bnkbiz.infrastructure.jobs.service.JobCheckpointService;
 import com.stellar.bnkbiz.infrastructure.jobs.service.JobName;
+import com.stellar.bnkbiz.infrastructure.jobs.service.JobRunProgress;
+import com.stellar.bnkbiz.infrastructure.jobs.service.JobRunProgressService;
 import com.stellar.bnkbiz.infrastructure.security.service.PlatformSecurityContext;
 import com.stellar.bnkbiz.organisation.holiday.domain.Holiday;
 import com.stellar.bnkbiz.organisation.holiday.domain.HolidayRepositoryWrapper;
@@ -219,6 +227,9 @@ public class LoanWritePlatformServiceJpaRepositoryImpl implements LoanWritePlatf
     private final BusinessEventNotifierService businessEventNotifierService;
     private final GuarantorDomainService guarantorDomainService;
     private final LoanUtilService loanUtilService;
+    private final LoanHolidayApplier loanHolidayApplier;
+    private final JobCheckpointService jobCheckpointService;
+    private final JobRunProgressService jobRunProgressService;
 
     @Autowired
     public LoanWritePlatformServiceJpaRepositoryImpl(final PlatformSecurityContext context,
@@ -245,7 +256,8 @@ public class LoanWritePlatformServiceJpaRepositoryImpl implements LoanWritePlatf
             final AccountAssociationsRepository accountAssociationRepository,
             final AccountTransferDetailRepository accountTransferDetailRepository,
             final BusinessEventNotifierService businessEventNotifierService, final GuarantorDomainService guarantorDomainService,
-            final LoanUtilService loanUtilService) {
+            final LoanUtilService loanUtilService, final LoanHolidayApplier loanHolidayApplier,
+            final JobCheckpointService jobCheckpointService, final JobRunProgressService jobRunProgressService) {
         this.context = context;
         this.loanEventApiJsonValidator = loanEventApiJsonValidator;
         this.loanAssembler = loanAssembler;
@@ -280,6 +292,9 @@ public class LoanWritePlatformServiceJpaRepositoryImpl implements LoanWritePlatf
         this.businessEventNotifierService = businessEventNotifierService;
         this.guarantorDomainService = guarantorDomainService;
         this.loanUtilService = loanUtilService;
+        this.loanHolidayApplier = loanHolidayApplier;
+        this.jobCheckpointService = jobCheckpointService;
+        this.jobRunProgressService = jobRunProgressService;
     }
 
     private LoanLifecycleStateMachine defaultLoanLifecycleStateMachine() {
@@ -736,49 +751,50 @@ public class LoanWritePlatformServiceJpaRepositoryImpl implements LoanWritePlatf
 
         final SingleRepaymentCommand[] repaymentCommand = bulkRepaymentCommand.getLoanTransactions();
         final Map<String, Object> changes = new LinkedHashMap<>();
-        final boolean isRecoveryRepayment = false;
 
         if (repaymentCommand == null) { return changes; }
-        List<Long> transactionIds = new ArrayList<>();
-        boolean isAccountTransfer = false;
-        HolidayDetailDTO holidayDetailDTO = null;
-        Boolean isHolidayValidationDone = false;
-        final boolean allowTransactionsOnHoliday = this.configurationDomainService.allowTransactionsOnHolidayEnabled();
+        final List<SingleRepaymentCommand> repaymentCommands = new ArrayList<>(repaymentCommand.length);
+        final Set<Long> loanIds = new HashSet<>(repaymentCommand.length);
         for (final SingleRepaymentCommand singleLoanRepaymentCommand : repaymentCommand) {
             if (singleLoanRepaymentCommand != null) {
-                Loan loans = this.loanRepository.findOne(singleLoanRepaymentCommand.getLoanId());
-                final List<Holiday> holidays = this.holidayRepository.findByOfficeIdAndGreaterThanDate(loans.getOfficeId(),
-                        singleLoanRepaymentCommand.getTransactionDate().toDate());
-                final WorkingDays workingDays = this.workingDaysRepository.findOne();
-                final boolean allowTransactionsOnNonWorkingDay = this.configurationDomainService.allowTransactionsOnNonWorkingDayEnabled();
-                boolean isHolidayEnabled = false;
-                isHolidayEnabled = this.configurationDomainService.isRescheduleRepaymentsOnHolidaysEnabled();
-                holidayDetailDTO = new HolidayDetailDTO(isHolidayEnabled, holidays, workingDays, allowTransactionsOnHoliday,
-                        allowTransactionsOnNonWorkingDay);
-                loans.validateRepaymentDateIsOnHoliday(singleLoanRepaymentCommand.getTransactionDate(),
-                        holidayDetailDTO.isAllowTransactionsOnHoliday(), holidayDetailDTO.getHolidays());
-                loans.validateRepaymentDateIsOnNonWorkingDay(singleLoanRepaymentCommand.getTransactionDate(),
-                        holidayDetailDTO.getWorkingDays(), holidayDetailDTO.isAllowTransactionsOnNonWorkingDay());
-                isHolidayValidationDone = true;
-                break;
+                repaymentCommands.add(singleLoanRepaymentCommand);
+                loanIds.add(singleLoanRepaymentCommand.getLoanId());
             }
-
         }
-        for (final SingleRepaymentCommand singleLoanRepaymentCommand : repaymentCommand) {
-            if (singleLoanRepaymentCommand != null) {
-                final Loan loan = this.loanAssembler.assembleFrom(singleLoanRepaymentCommand.getLoanId());
-                final PaymentDetail paymentDetail = singleLoanRepaymentCommand.getPaymentDetail();
-                if (paymentDetail != null && paymentDetail.getId() == null) {
-                    this.paymentDetailWritePlatformService.persistPaymentDetail(paymentDetail);
-                }
-                final CommandProcessingResultBuilder commandProcessingResultBuilder = new CommandProcessingResultBuilder();
-                LoanTransaction loanTransaction = this.loanAccountDomainService.makeRepayment(loan, commandProcessingResultBuilder,
-                        bulkRepaymentCommand.getTransactionDate(), singleLoanRepaymentCommand.getTransactionAmount(), paymentDetail,
-                        bulkRepaymentCommand.getNote(), null, isRecoveryRepayment, isAccountTransfer, holidayDetailDTO,
-                        isHolidayValidationDone);
-                transactionIds.add(loanTransaction.getId());
+        List<Long> transactionIds = new ArrayList<>();
+        if (repaymentCommands.isEmpty()) {
+            changes.put("loanTransactions", transactionIds);
+            return changes;
+        }
+        final Map<Long, Loan> loans = this.loanAssembler.assembleFrom(loanIds);
+
+        final SingleRepaymentCommand firstRepaymentCommand = repaymentCommands.get(0);
+        final Loan firstLoan = loans.get(firstRepaymentCommand.getLoanId());
+        final boolean allowTransactionsOnHoliday = this.configurationDomainService.allowTransactionsOnHolidayEnabled();
+        final List<Holiday> holidays = this.holidayRepository.findByOfficeIdAndGreaterThanDate(firstLoan.getOfficeId(),
+                firstRepaymentCommand.getTransactionDate().toDate());
+        final WorkingDays workingDays = this.workingDaysRepository.findOne();
+        final boolean allowTransactionsOnNonWorkingDay = this.configurationDomainService.allowTransactionsOnNonWorkingDayEnabled();
+        final boolean isHolidayEnabled = this.configurationDomainService.isRescheduleRepaymentsOnHolidaysEnabled();
+        final HolidayDetailDTO holidayDetailDTO = new HolidayDetailDTO(isHolidayEnabled, holidays, workingDays, allowTransactionsOnHoliday,
+                allowTransactionsOnNonWorkingDay);
+        firstLoan.validateRepaymentDateIsOnHoliday(firstRepaymentCommand.getTransactionDate(),
+                holidayDetailDTO.isAllowTransactionsOnHoliday(), holidayDetailDTO.getHolidays());
+        firstLoan.validateRepaymentDateIsOnNonWorkingDay(firstRepaymentCommand.getTransactionDate(), holidayDetailDTO.getWorkingDays(),
+                holidayDetailDTO.isAllowTransactionsOnNonWorkingDay());
+        final Boolean isHolidayValidationDone = true;
+
+        for (final SingleRepaymentCommand singleLoanRepaymentCommand : repaymentCommands) {
+            final PaymentDetail paymentDetail = singleLoanRepaymentCommand.getPaymentDetail();
+            if (paymentDetail != null && paymentDetail.getId() == null) {
+                this.paymentDetailWritePlatformService.persistPaymentDetail(paymentDetail);
             }
         }
+        final List<LoanTransaction> loanTransactions = this.loanAccountDomainService.makeBulkRepayment(loans, repaymentCommands,
+                bulkRepaymentCommand.getTransactionDate(), bulkRepaymentCommand.getNote(), holidayDetailDTO, isHolidayValidationDone);
+        for (final LoanTransaction loanTransaction : loanTransactions) {
+            transactionIds.add(loanTransaction.getId());
+        }
         changes.put("loanTransactions", transactionIds);
         return changes;
     }
@@ -2135,46 +2151,113 @@ public class LoanWritePlatformServiceJpaRepositoryImpl implements LoanWritePlatf
         this.loanRepository.save(loansToUpdate);
     }
 
-    @Transactional
+    /**
+     * Loans are read per holiday in keyset paged chunks, restricted to those
+     * of the holiday's offices with an installment falling due within the
+     * holiday. Every chunk is rescheduled in its own transaction on a worker
+     * pool sized per tenant; the highest loan id below which all chunks have
+     * committed is stored as checkpoint of the holiday so that an interrupted
+     * run resumes from there. A holiday is marked processed only once it was
+     * applied to all of its loans.
+     */
     @Override
     @CronTarget(jobName = JobName.APPLY_HOLIDAYS_TO_LOANS)
-    public void applyHolidaysToLoans() {
+    public void applyHolidaysToLoans() throws JobExecutionException {
 
         final boolean isHolidayEnabled = this.configurationDomainService.isRescheduleRepaymentsOnHolidaysEnabled();
 
         if (!isHolidayEnabled) { return; }
 
-        final Collection<Integer> loanStatuses = new ArrayList<>(Arrays.asList(LoanStatus.SUBMITTED_AND_PENDING_APPROVAL.getValue(),
-                LoanStatus.APPROVED.getValue(), LoanStatus.ACTIVE.getValue()));
+        final JobRunProgress progress = this.jobRunProgressService.start(JobName.APPLY_HOLIDAYS_TO_LOANS, "loans");
+        final StringBuilder errors = new StringBuilder();
         // Get all Holidays which are active and not processed
         final List<Holiday> holidays = this.holidayRepository.findUnprocessed();
 
         // Loop through all holidays
         for (final Holiday holiday : holidays) {
-            // All offices to which holiday is applied
-            final Set<Office> offices = holiday.getOffices();
-            final Collection<Long> officeIds = new ArrayList<>(offices.size());
-            for (final Office office : offices) {
-                officeIds.add(office.getId());
-            }
-
-            // get all loans
-            final List<Loan> loans = new ArrayList<>();
-            // get all individual and jlg loans
-            loans.addAll(this.loanRepository.findByClientOfficeIdsAndLoanStatus(officeIds, loanStatuses));
-            // FIXME: AA optimize to get all client and group loans belongs to a
-            // office id
-            // get all group loans
-            loans.addAll(this.loanRepository.findByGroupOfficeIdsAndLoanStatus(officeIds, loanStatuses));
-
-            for (final Loan loan : loans) {
-                // apply holiday
-                loan.applyHolidayToRepaymentScheduleDates(holiday);
-            }
-            this.loanRepository.save(loans);
-            holiday.processed();
-        }
-        this.holidayRepository.save(holidays);
+            progress.updateDetail("holiday " + holiday.getId());
+            final String partitionKey = "holiday-" + holiday.getId();
+            final Long checkpoint = this.jobCheckpointService.retrieveCheckpoint(JobName.APPLY_HOLIDAYS_TO_LOANS, partitionKey);
+            if (checkpoint != null) {
+                logger.info(ThreadLocalContextUtil.getTenant().getName() + ": resuming holiday " + holiday.getId() + " after loan "
+                        + checkpoint);
+            }
+            int failures = applyHolidayToLoans(holiday, partitionKey, checkpoint == null ? Long.valueOf(0) : checkpoint, progress);
+            if (checkpoint != null && failures == 0) {
+                // loans that failed before the interruption lie behind the
+                // checkpoint, loans already rescheduled no longer match
+                failures = applyHolidayToLoans(holiday, partitionKey, Long.valueOf(0), progress);
+            }
+
+            // a rerun starts over, rescheduled loans drop out of the selection
+            this.jobCheckpointService.deleteCheckpoint(JobName.APPLY_HOLIDAYS_TO_LOANS, partitionKey);
+            if (failures == 0) {
+                this.loanHolidayApplier.markProcessed(holiday.getId());
+            } else {
+                errors.append("failed to apply holiday ").append(holiday.getId()).append(" to ").append(failures)
+                        .append(" loans or chunks of loans, see job_item_failure with partition key ").append(partitionKey).append("\n");
+            }
+        }
+
+        logger.info(ThreadLocalContextUtil.getTenant().getName() + ": holidays applied, " + progress.summary());
+        if (errors.length() > 0) { throw new JobExecutionException(errors.toString()); }
+    }
+
+    /**
+     * @return number of loans and chunks of loans the holiday could not be
+     *         applied to
+     */
+    private int applyHolidayToLoans(final Holiday holiday, final String partitionKey, final Long afterLoanId,
+            final JobRunProgress progress) {
+        final int chunkSize = this.configurationDomainService.retrieveJobChunkSize();
+        final int threadPoolSize = this.configurationDomainService.retrieveJobThreadPoolSize();
+        final LocalDate fromDate = holiday.getFromDateLocalDate();
+        final LocalDate toDate = holiday.getToDateLocalDate();
+        final ChunkWatermark watermark = new ChunkWatermark(afterLoanId);
+        final AtomicInteger failures = new AtomicInteger();
+
+        try (ContextAwareExecutor executor = ContextAwareExecutor.newFixedPool("holiday-loans", threadPoolSize, threadPoolSize * 2)) {
+            Long lastLoanId = watermark.current();
+            List<Long> loanIds = this.loanReadPlatformService.retrieveLoanIdsWithInstallmentsDueOnHoliday(holiday.getId(), fromDate,
+                    toDate, LoanHolidayApplier.LOAN_STATUSES, lastLoanId, chunkSize);
+            while (!loanIds.isEmpty()) {
+                final List<Long> chunkIds = loanIds;
+                lastLoanId = chunkIds.get(chunkIds.size() - 1);
+                final Object chunk = watermark.register(lastLoanId);
+                executor.submit(new Callable<Void>() {
+
+                    @Override
+                    public Void call() {
+                        applyHolidayToChunk(holiday.getId(), chunkIds, partitionKey, watermark, chunk, progress, failures);
+                        return null;
+                    }
+                });
+                loanIds = this.loanReadPlatformService.retrieveLoanIdsWithInstallmentsDueOnHoliday(holiday.getId(), fromDate, toDate,
+                        LoanHolidayApplier.LOAN_STATUSES, lastLoanId, chunkSize);
+            }
+        }
+        return failures.get();
+    }
+
+    private void applyHolidayToChunk(final Long holidayId, final List<Long> chunkIds, final String partitionKey,
+            final ChunkWatermark watermark, final Object chunk, final JobRunProgress progress, final AtomicInteger failures) {
+        try {
+            final int failed = this.loanHolidayApplier.applyHoliday(holidayId, chunkIds, partitionKey);
+            progress.addProcessed(chunkIds.size() - failed);
+            progress.addFailed(failed);
+            failures.addAndGet(failed);
+            if (watermark.complete(chunk) != null) {
+                synchronized (watermark) {
+                    this.jobCheckpointService.saveCheckpoint(JobName.APPLY_HOLIDAYS_TO_LOANS, partitionKey, watermark.current());
+                }
+            }
+        } catch (final RuntimeException e) {
+            // leave the watermark behind this chunk so that a rerun picks it up
+            // again
+            failures.incrementAndGet();
+            logger.error("Applying holiday " + holidayId + " failed for loans " + chunkIds.get(0) + " to "
+                    + chunkIds.get(chunkIds.size() - 1), e);
+        }
     }
 
     private void checkForProductMixRestrictions(final Loan loan) {
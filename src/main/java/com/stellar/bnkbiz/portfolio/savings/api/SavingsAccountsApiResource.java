@@ -48,6 +48,7 @@ import com.stellar.bnkbiz.infrastructure.core.exception.UnrecognizedQueryParamEx
 import com.stellar.bnkbiz.infrastructure.core.serialization.ApiRequestJsonSerializationSettings;
 import com.stellar.bnkbiz.infrastructure.core.serialization.DefaultToApiJsonSerializer;
 import com.stellar.bnkbiz.infrastructure.core.service.Page;
+import com.stellar.bnkbiz.infrastructure.core.service.PageCountMode;
 import com.stellar.bnkbiz.infrastructure.core.service.SearchParameters;
 import com.stellar.bnkbiz.infrastructure.security.service.PlatformSecurityContext;
 import com.stellar.bnkbiz.portfolio.savings.DepositAccountType;
@@ -113,11 +114,13 @@ public class SavingsAccountsApiResource {
             @QueryParam("externalId") final String externalId,
             // @QueryParam("underHierarchy") final String hierarchy,
             @QueryParam("offset") final Integer offset, @QueryParam("limit") final Integer limit,
-            @QueryParam("orderBy") final String orderBy, @QueryParam("sortOrder") final String sortOrder) {
+            @QueryParam("orderBy") final String orderBy, @QueryParam("sortOrder") final String sortOrder,
+            @QueryParam("continuationToken") final String continuationToken, @QueryParam("countMode") final String countMode) {
 
         this.context.authenticatedUser().validateHasReadPermission(SavingsApiConstants.SAVINGS_ACCOUNT_RESOURCE_NAME);
 
-        final SearchParameters searchParameters = SearchParameters.forSavings(sqlSearch, externalId, offset, limit, orderBy, sortOrder);
+        final SearchParameters searchParameters = SearchParameters.forSavings(sqlSearch, externalId, offset, limit, orderBy, sortOrder)
+                .withContinuation(continuationToken, PageCountMode.fromString(countMode));
 
         final Page<SavingsAccountData> products = this.savingsAccountReadPlatformService.retrieveAll(searchParameters);
 
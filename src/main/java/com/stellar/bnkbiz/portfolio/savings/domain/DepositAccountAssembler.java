@@ -55,6 +55,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
@@ -337,6 +338,14 @@ public class DepositAccountAssembler {
         return account;
     }
 
+    public Map<Long, SavingsAccount> assembleFrom(final Collection<Long> savingsIds, final DepositAccountType depositAccountType) {
+        final Map<Long, SavingsAccount> accounts = this.savingsAccountRepository.findWithNotFoundDetection(savingsIds, depositAccountType);
+        for (final SavingsAccount account : accounts.values()) {
+            account.setHelpers(this.savingsAccountTransactionSummaryWrapper, this.savingsHelper);
+        }
+        return accounts;
+    }
+
     public void assignSavingAccountHelpers(final SavingsAccount savingsAccount) {
         savingsAccount.setHelpers(this.savingsAccountTransactionSummaryWrapper, this.savingsHelper);
     }
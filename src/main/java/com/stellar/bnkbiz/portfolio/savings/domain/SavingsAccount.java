@@ -37,9 +37,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
@@ -297,12 +299,18 @@ public class SavingsAccount extends AbstractPersistable<Long> {
     @OneToMany(cascade = CascadeType.ALL, mappedBy = "savingsAccount", orphanRemoval = true)
     private Set<SavingsOfficerAssignmentHistory> savingsOfficerHistory;
 
+    @OrderBy(value = "periodEndDate")
+    @OneToMany(cascade = CascadeType.ALL, mappedBy = "savingsAccount", orphanRemoval = true)
+    protected final List<SavingsAccountInterestCheckpoint> interestCheckpoints = new ArrayList<>();
+
     @Transient
     protected boolean accountNumberRequiresAutoGeneration = false;
     @Transient
     protected SavingsAccountTransactionSummaryWrapper savingsAccountTransactionSummaryWrapper;
     @Transient
     protected SavingsHelper savingsHelper;
+    @Transient
+    private SavingsAccountInterestCheckpoint interestCheckpointResumedFrom;
 
     @Column(name = "deposit_type_enum", insertable = false, updatable = false)
     private Integer depositType;
@@ -511,8 +519,9 @@ public class SavingsAccount extends AbstractPersistable<Long> {
             final Money openingAccountBalance = Money.zero(this.currency);
 
             // update existing transactions so derived balance fields are
-            // correct.
-            recalculateDailyBalances(openingAccountBalance, interestPostingUpToDate);
+            // correct; the new postings all fall after the checkpoint the
+            // interest was calculated from.
+            recalculateDailyBalances(openingAccountBalance, interestPostingUpToDate, this.interestCheckpointResumedFrom);
         }
 
         this.summary.updateSummary(this.currency, this.savingsAccountTransactionSummaryWrapper, this.transactions);
@@ -562,6 +571,11 @@ public class SavingsAccount extends AbstractPersistable<Long> {
      * period check if an existing 'interest posting' transaction exists for
      * date and matches the amount posted
      * 
+     * The calculation carries on from the latest interest checkpoint whose
+     * transactions are unchanged, so only the posting periods after it are
+     * calculated and returned. Checkpoints are then taken again for the
+     * closed posting periods that were calculated.
+     * 
      * @param isInterestTransfer
      *            TODO
      */
@@ -572,9 +586,14 @@ public class SavingsAccount extends AbstractPersistable<Long> {
         // for migrations.
         final Money openingAccountBalance = Money.zero(this.currency);
 
+        final String calculationTerms = interestCalculationTerms(isSavingsInterestPostingAtCurrentPeriodEnd, financialYearBeginningMonth);
+        final SavingsAccountInterestCheckpoint checkpoint = findInterestCheckpointToResumeFrom(upToInterestCalculationDate,
+                calculationTerms);
+        this.interestCheckpointResumedFrom = checkpoint;
+
         // update existing transactions so derived balance fields are
         // correct.
-        recalculateDailyBalances(openingAccountBalance, upToInterestCalculationDate);
+        recalculateDailyBalances(openingAccountBalance, upToInterestCalculationDate, checkpoint);
 
         // 1. default to calculate interest based on entire history OR
         // 2. determine latest 'posting period' and find interest credited to
@@ -589,13 +608,23 @@ public class SavingsAccount extends AbstractPersistable<Long> {
         final SavingsInterestCalculationDaysInYearType daysInYearType = SavingsInterestCalculationDaysInYearType
                 .fromInt(this.interestCalculationDaysInYearType);
 
-        final List<LocalDateInterval> postingPeriodIntervals = this.savingsHelper.determineInterestPostingPeriods(
-                getStartInterestCalculationDate(), upToInterestCalculationDate, postingPeriodType, financialYearBeginningMonth);
+        final LocalDate calculationStartDate = checkpoint == null ? getStartInterestCalculationDate() : checkpoint.getPostingDate();
+        final List<LocalDateInterval> postingPeriodIntervals = this.savingsHelper.determineInterestPostingPeriods(calculationStartDate,
+                upToInterestCalculationDate, postingPeriodType, financialYearBeginningMonth);
 
         final List<PostingPeriod> allPostingPeriods = new ArrayList<>();
 
+        List<SavingsAccountTransaction> orderedNonInterestPostingTransactions = retreiveOrderedNonInterestPostingTransactions();
+        Money interestEarnedBeforePeriods = Money.zero(this.currency);
+        BigDecimal interestCarriedForward = BigDecimal.ZERO;
         Money periodStartingBalance;
-        if (this.startInterestCalculationDate != null) {
+        if (checkpoint != null) {
+            orderedNonInterestPostingTransactions = transactionsWithBalanceFrom(orderedNonInterestPostingTransactions,
+                    calculationStartDate);
+            interestEarnedBeforePeriods = checkpoint.getInterestEarned(this.currency);
+            interestCarriedForward = checkpoint.getInterestCompounded();
+            periodStartingBalance = checkpoint.getClosingBalance(this.currency);
+        } else if (this.startInterestCalculationDate != null) {
             LocalDate startInterestCalculationDate = new LocalDate(this.startInterestCalculationDate);
             final SavingsAccountTransaction transaction = findLastTransaction(startInterestCalculationDate);
 
@@ -628,7 +657,7 @@ public class SavingsAccount extends AbstractPersistable<Long> {
         for (final LocalDateInterval periodInterval : postingPeriodIntervals) {
 
             final PostingPeriod postingPeriod = PostingPeriod.createFrom(periodInterval, periodStartingBalance,
-                    retreiveOrderedNonInterestPostingTransactions(), this.currency, compoundingPeriodType, interestCalculationType,
+                    orderedNonInterestPostingTransactions, this.currency, compoundingPeriodType, interestCalculationType,
                     interestRateAsFraction, daysInYearType.getValue(), upToInterestCalculationDate, interestPostTransactions,
                     isInterestTransfer, minBalanceForInterestCalculation, isSavingsInterestPostingAtCurrentPeriodEnd,
                     overdraftInterestRateAsFraction, minOverdraftForInterestCalculation);
@@ -639,14 +668,198 @@ public class SavingsAccount extends AbstractPersistable<Long> {
         }
 
         this.savingsHelper.calculateInterestForAllPostingPeriods(this.currency, allPostingPeriods, getLockedInUntilLocalDate(),
-                isTransferInterestToOtherAccount());
+                isTransferInterestToOtherAccount(), interestCarriedForward);
 
-        this.summary.updateFromInterestPeriodSummaries(this.currency, allPostingPeriods);
+        this.summary.updateFromInterestPeriodSummaries(this.currency, allPostingPeriods, interestEarnedBeforePeriods);
         this.summary.updateSummary(this.currency, this.savingsAccountTransactionSummaryWrapper, this.transactions);
 
+        if (isInterestCheckpointingSupported()) {
+            updateInterestCheckpoints(checkpoint, allPostingPeriods, interestEarnedBeforePeriods, upToInterestCalculationDate,
+                    calculationTerms);
+        }
+
         return allPostingPeriods;
     }
 
+    /**
+     * Interest checkpoints are only kept for plain savings accounts, fixed and
+     * recurring deposits calculate their interest over their own terms.
+     */
+    protected boolean isInterestCheckpointingSupported() {
+        return depositAccountType().isSavingsDeposit();
+    }
+
+    /**
+     * Everything the interest of a posting period depends on besides the
+     * transactions; a checkpoint taken under other terms is not used.
+     */
+    private String interestCalculationTerms(final boolean isSavingsInterestPostingAtCurrentPeriodEnd,
+            final Integer financialYearBeginningMonth) {
+        return StringUtils.join(new Object[] { getStartInterestCalculationDate(), this.nominalAnnualInterestRate,
+                this.interestCompoundingPeriodType, this.interestPostingPeriodType, this.interestCalculationType,
+                this.interestCalculationDaysInYearType, minBalanceForInterestCalculation(), this.nominalAnnualInterestRateOverdraft,
+                this.minOverdraftForInterestCalculation, getLockedInUntilLocalDate(), isTransferInterestToOtherAccount(),
+                isSavingsInterestPostingAtCurrentPeriodEnd, financialYearBeginningMonth }, '|');
+    }
+
+    /**
+     * The latest checkpoint taken under the same terms whose transactions up
+     * to its posting date are still the ones it was taken from; any
+     * transaction added or reversed on or before that date since makes it
+     * unusable, so the calculation carries on from before the earliest
+     * affected transaction.
+     */
+    private SavingsAccountInterestCheckpoint findInterestCheckpointToResumeFrom(final LocalDate upToInterestCalculationDate,
+            final String calculationTerms) {
+
+        if (!isInterestCheckpointingSupported() || this.interestCheckpoints.isEmpty()) { return null; }
+
+        SavingsAccountInterestCheckpoint resumeFrom = null;
+        final TransactionsUpTo transactionsUpTo = new TransactionsUpTo(retreiveListOfTransactions(), this.currency);
+        for (final SavingsAccountInterestCheckpoint checkpoint : this.interestCheckpoints) {
+            if (checkpoint.getPostingDate().isAfter(upToInterestCalculationDate)) {
+                break;
+            }
+            transactionsUpTo.advanceTo(checkpoint.getPostingDate());
+            if (transactionsUpTo.hasUnsavedTransactions()) {
+                break;
+            }
+            if (checkpoint.isTakenFrom(calculationTerms, transactionsUpTo.count(), transactionsUpTo.lastTransactionId())) {
+                resumeFrom = checkpoint;
+            }
+        }
+        return resumeFrom;
+    }
+
+    /**
+     * Replaces the checkpoints between the one the calculation carried on
+     * from and the calculation date by checkpoints of the posting periods
+     * just calculated. Periods whose
+     * posting date lies after the calculation date are still open, and
+     * periods with transactions not saved yet up to their posting date get
+     * their checkpoint once those are.
+     */
+    private void updateInterestCheckpoints(final SavingsAccountInterestCheckpoint resumedFrom, final List<PostingPeriod> postingPeriods,
+            final Money interestEarnedBeforePeriods, final LocalDate upToInterestCalculationDate, final String calculationTerms) {
+
+        final Map<LocalDate, SavingsAccountInterestCheckpoint> outdatedCheckpoints = new HashMap<>();
+        final Iterator<SavingsAccountInterestCheckpoint> checkpoints = this.interestCheckpoints.iterator();
+        while (checkpoints.hasNext()) {
+            final SavingsAccountInterestCheckpoint checkpoint = checkpoints.next();
+            if ((resumedFrom == null || checkpoint.getPeriodEndDate().isAfter(resumedFrom.getPeriodEndDate()))
+                    && !checkpoint.getPostingDate().isAfter(upToInterestCalculationDate)) {
+                outdatedCheckpoints.put(checkpoint.getPeriodEndDate(), checkpoint);
+                checkpoints.remove();
+            }
+        }
+
+        Money interestEarned = interestEarnedBeforePeriods;
+        final TransactionsUpTo transactionsUpTo = new TransactionsUpTo(retreiveListOfTransactions(), this.currency);
+        for (final PostingPeriod postingPeriod : postingPeriods) {
+            if (postingPeriod.interest() != null) {
+                interestEarned = interestEarned.plus(postingPeriod.interest());
+            }
+
+            final LocalDate periodEndDate = postingPeriod.getPeriodEndDate();
+            if (periodEndDate.plusDays(1).isAfter(upToInterestCalculationDate)) {
+                break;
+            }
+            transactionsUpTo.advanceTo(periodEndDate);
+            final Money runningBalance = transactionsUpTo.runningBalance();
+            transactionsUpTo.advanceTo(periodEndDate.plusDays(1));
+            if (transactionsUpTo.hasUnsavedTransactions()) {
+                break;
+            }
+
+            SavingsAccountInterestCheckpoint checkpoint = outdatedCheckpoints.get(periodEndDate);
+            if (checkpoint == null) {
+                checkpoint = SavingsAccountInterestCheckpoint.createNew(this, periodEndDate);
+            }
+            checkpoint.update(calculationTerms, transactionsUpTo.count(), transactionsUpTo.lastTransactionId(), runningBalance,
+                    postingPeriod.closingBalance(), interestEarned, postingPeriod.getInterestCarriedForward());
+            this.interestCheckpoints.add(checkpoint);
+        }
+
+        // checkpoints after the calculation date are left for a later one
+        Collections.sort(this.interestCheckpoints, new Comparator<SavingsAccountInterestCheckpoint>() {
+
+            @Override
+            public int compare(final SavingsAccountInterestCheckpoint first, final SavingsAccountInterestCheckpoint second) {
+                return first.getPeriodEndDate().compareTo(second.getPeriodEndDate());
+            }
+        });
+    }
+
+    /**
+     * The transactions dated on or after <code>fromDate</code> together with
+     * the last one before it, whose balance carries on into the period.
+     */
+    private static List<SavingsAccountTransaction> transactionsWithBalanceFrom(final List<SavingsAccountTransaction> orderedTransactions,
+            final LocalDate fromDate) {
+        int first = orderedTransactions.size();
+        while (first > 0 && !orderedTransactions.get(first - 1).transactionLocalDate().isBefore(fromDate)) {
+            first--;
+        }
+        if (first > 0) {
+            first--;
+        }
+        return orderedTransactions.subList(first, orderedTransactions.size());
+    }
+
+    /**
+     * Walks the ordered transactions of the account forward once, keeping
+     * count of the transactions not reversed up to the date reached.
+     */
+    private static final class TransactionsUpTo {
+
+        private final List<SavingsAccountTransaction> orderedTransactions;
+        private int next = 0;
+        private int count = 0;
+        private Long lastTransactionId;
+        private boolean unsavedTransactions = false;
+        private Money runningBalance;
+
+        TransactionsUpTo(final List<SavingsAccountTransaction> orderedTransactions, final MonetaryCurrency currency) {
+            this.orderedTransactions = orderedTransactions;
+            this.runningBalance = Money.zero(currency);
+        }
+
+        void advanceTo(final LocalDate date) {
+            while (this.next < this.orderedTransactions.size()
+                    && !this.orderedTransactions.get(this.next).transactionLocalDate().isAfter(date)) {
+                final SavingsAccountTransaction transaction = this.orderedTransactions.get(this.next++);
+                if (transaction.isReversed()) {
+                    continue;
+                }
+                if (transaction.getId() == null) {
+                    this.unsavedTransactions = true;
+                } else {
+                    this.count++;
+                    if (this.lastTransactionId == null || transaction.getId() > this.lastTransactionId) {
+                        this.lastTransactionId = transaction.getId();
+                    }
+                }
+                this.runningBalance = transaction.getRunningBalance(this.runningBalance.getCurrency());
+            }
+        }
+
+        int count() {
+            return this.count;
+        }
+
+        Long lastTransactionId() {
+            return this.lastTransactionId;
+        }
+
+        boolean hasUnsavedTransactions() {
+            return this.unsavedTransactions;
+        }
+
+        Money runningBalance() {
+            return this.runningBalance;
+        }
+    }
+
     private BigDecimal getEffectiveOverdraftInterestRateAsFraction(MathContext mc) {
         return this.nominalAnnualInterestRateOverdraft.divide(BigDecimal.valueOf(100l), mc);
     }
@@ -681,12 +894,30 @@ public class SavingsAccount extends AbstractPersistable<Long> {
     }
 
     protected void recalculateDailyBalances(final Money openingAccountBalance, final LocalDate interestPostingUpToDate) {
+        recalculateDailyBalances(openingAccountBalance, interestPostingUpToDate, null);
+    }
+
+    /**
+     * @param resumeFrom
+     *            checkpoint whose transactions are unchanged; balances carry
+     *            on from its period end date instead of the opening balance
+     */
+    protected void recalculateDailyBalances(final Money openingAccountBalance, final LocalDate interestPostingUpToDate,
+            final SavingsAccountInterestCheckpoint resumeFrom) {
 
         Money runningBalance = openingAccountBalance.copy();
+        LocalDate resumeAfterDate = null;
+        if (resumeFrom != null) {
+            runningBalance = resumeFrom.getRunningBalance(this.currency);
+            resumeAfterDate = resumeFrom.getPeriodEndDate();
+        }
 
         List<SavingsAccountTransaction> accountTransactionsSorted = retreiveListOfTransactions();
         boolean isTransactionsModified = false;
         for (final SavingsAccountTransaction transaction : accountTransactionsSorted) {
+            if (resumeAfterDate != null && !transaction.transactionLocalDate().isAfter(resumeAfterDate)) {
+                continue;
+            }
             if (transaction.isReversed()) {
                 transaction.zeroBalanceFields();
             } else {
@@ -733,11 +964,21 @@ public class SavingsAccount extends AbstractPersistable<Long> {
         if (isTransactionsModified) {
             accountTransactionsSorted = retreiveListOfTransactions();
         }
-        resetAccountTransactionsEndOfDayBalances(accountTransactionsSorted, interestPostingUpToDate);
+        resetAccountTransactionsEndOfDayBalances(accountTransactionsSorted, interestPostingUpToDate, resumeAfterDate);
     }
 
     protected void resetAccountTransactionsEndOfDayBalances(final List<SavingsAccountTransaction> accountTransactionsSorted,
             final LocalDate interestPostingUpToDate) {
+        resetAccountTransactionsEndOfDayBalances(accountTransactionsSorted, interestPostingUpToDate, null);
+    }
+
+    /**
+     * @param resumeAfterDate
+     *            when set, transactions before the last one on or before
+     *            this date keep their end of day balances
+     */
+    protected void resetAccountTransactionsEndOfDayBalances(final List<SavingsAccountTransaction> accountTransactionsSorted,
+            final LocalDate interestPostingUpToDate, final LocalDate resumeAfterDate) {
         // loop over transactions in reverse
         LocalDate endOfBalanceDate = interestPostingUpToDate;
         for (int i = accountTransactionsSorted.size() - 1; i >= 0; i--) {
@@ -745,6 +986,9 @@ public class SavingsAccount extends AbstractPersistable<Long> {
             if (transaction.isNotReversed()
                     && !(transaction.isInterestPostingAndNotReversed() || transaction.isOverdraftInterestAndNotReversed())) {
                 transaction.updateCumulativeBalanceAndDates(this.currency, endOfBalanceDate);
+                if (resumeAfterDate != null && !transaction.transactionLocalDate().isAfter(resumeAfterDate)) {
+                    break;
+                }
                 // this transactions transaction date is end of balance date for
                 // previous transaction.
                 endOfBalanceDate = transaction.transactionLocalDate().minusDays(1);
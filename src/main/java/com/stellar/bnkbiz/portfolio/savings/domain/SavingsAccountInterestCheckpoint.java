@@ -0,0 +1,154 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.portfolio.savings.domain;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+import jakarta.persistence.UniqueConstraint;
+
+import com.stellar.bnkbiz.organisation.monetary.domain.MonetaryCurrency;
+import com.stellar.bnkbiz.organisation.monetary.domain.Money;
+import java.time.LocalDate;
+import org.springframework.data.jpa.domain.AbstractPersistable;
+
+/**
+ * State of the interest calculation of a {@link SavingsAccount} at the end of
+ * a closed posting period, from which a later calculation can carry on
+ * instead of replaying the whole account history.
+ *
+ * A checkpoint stays usable as long as the transactions up to and including
+ * the posting date of its period are the ones it was taken from; since
+ * transaction ids only grow, the number of those transactions together with
+ * the highest id among them tells whether any was added or reversed since.
+ */
+@Entity
+@Table(name = "m_savings_account_interest_checkpoint", uniqueConstraints = { @UniqueConstraint(columnNames = { "savings_account_id",
+        "period_end_date" }, name = "uk_savings_interest_checkpoint") })
+public class SavingsAccountInterestCheckpoint extends AbstractPersistable<Long> {
+
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "savings_account_id", nullable = false)
+    private SavingsAccount savingsAccount;
+
+    @Temporal(TemporalType.DATE)
+    @Column(name = "period_end_date", nullable = false)
+    private Date periodEndDate;
+
+    @Column(name = "calculation_terms", length = 500, nullable = false)
+    private String calculationTerms;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Integer transactionCount;
+
+    @Column(name = "last_transaction_id", nullable = true)
+    private Long lastTransactionId;
+
+    @Column(name = "running_balance_derived", scale = 6, precision = 19, nullable = false)
+    private BigDecimal runningBalance;
+
+    @Column(name = "closing_balance_derived", scale = 6, precision = 19, nullable = false)
+    private BigDecimal closingBalance;
+
+    @Column(name = "interest_earned_derived", scale = 6, precision = 19, nullable = false)
+    private BigDecimal interestEarned;
+
+    @Column(name = "interest_compounded_derived", scale = 6, precision = 19, nullable = false)
+    private BigDecimal interestCompounded;
+
+    public static SavingsAccountInterestCheckpoint createNew(final SavingsAccount savingsAccount, final LocalDate periodEndDate) {
+        return new SavingsAccountInterestCheckpoint(savingsAccount, periodEndDate.toDate());
+    }
+
+    protected SavingsAccountInterestCheckpoint() {
+        //
+    }
+
+    private SavingsAccountInterestCheckpoint(final SavingsAccount savingsAccount, final Date periodEndDate) {
+        this.savingsAccount = savingsAccount;
+        this.periodEndDate = periodEndDate;
+    }
+
+    /**
+     * @param transactionCount
+     *            number of transactions not reversed up to and including the
+     *            posting date of the period
+     * @param lastTransactionId
+     *            highest id among those transactions
+     * @param runningBalance
+     *            account balance at the end of the period end date
+     * @param closingBalance
+     *            balance the next posting period starts from
+     * @param interestEarned
+     *            interest earned by this and all previous posting periods
+     * @param interestCompounded
+     *            interest of this and previous periods that compounds into
+     *            the next posting period
+     */
+    public void update(final String calculationTerms, final int transactionCount, final Long lastTransactionId, final Money runningBalance,
+            final Money closingBalance, final Money interestEarned, final BigDecimal interestCompounded) {
+        this.calculationTerms = calculationTerms;
+        this.transactionCount = transactionCount;
+        this.lastTransactionId = lastTransactionId;
+        this.runningBalance = runningBalance.getAmount();
+        this.closingBalance = closingBalance.getAmount();
+        this.interestEarned = interestEarned.getAmount();
+        this.interestCompounded = interestCompounded;
+    }
+
+    public boolean isTakenFrom(final String calculationTerms, final int transactionCount, final Long lastTransactionId) {
+        return this.calculationTerms.equals(calculationTerms) && this.transactionCount.intValue() == transactionCount
+                && (this.lastTransactionId == null ? lastTransactionId == null : this.lastTransactionId.equals(lastTransactionId));
+    }
+
+    public LocalDate getPeriodEndDate() {
+        return new LocalDate(this.periodEndDate);
+    }
+
+    /**
+     * Transactions dated up to and including this date make up the state of
+     * the checkpoint; interest posted for the period falls on it.
+     */
+    public LocalDate getPostingDate() {
+        return getPeriodEndDate().plusDays(1);
+    }
+
+    public Money getRunningBalance(final MonetaryCurrency currency) {
+        return Money.of(currency, this.runningBalance);
+    }
+
+    public Money getClosingBalance(final MonetaryCurrency currency) {
+        return Money.of(currency, this.closingBalance);
+    }
+
+    public Money getInterestEarned(final MonetaryCurrency currency) {
+        return Money.of(currency, this.interestEarned);
+    }
+
+    public BigDecimal getInterestCompounded() {
+        return this.interestCompounded;
+    }
+}
@@ -18,6 +18,7 @@
  */
 package com.stellar.bnkbiz.portfolio.savings.domain;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -33,6 +34,9 @@ public interface SavingsAccountRepository extends JpaRepository<SavingsAccount,
     @Query("from SavingsAccount s_acc where s_acc.status = :status")
     List<SavingsAccount> findSavingAccountByStatus(@Param("status") Integer status);
 
+    @Query("from SavingsAccount s_acc where s_acc.id in :ids order by s_acc.id")
+    List<SavingsAccount> findSavingAccountsByIds(@Param("ids") Collection<Long> ids);
+
     @Query("from SavingsAccount sa where sa.client.id = :clientId and sa.group.id = :groupId")
     List<SavingsAccount> findByClientIdAndGroupId(@Param("clientId") Long clientId, @Param("groupId") Long groupId);
 
@@ -45,4 +49,8 @@ public interface SavingsAccountRepository extends JpaRepository<SavingsAccount,
     @Query("from SavingsAccount sa where sa.id = :accountId and sa.depositType = :depositAccountTypeId")
     SavingsAccount findByIdAndDepositAccountType(@Param("accountId") Long accountId,
             @Param("depositAccountTypeId") Integer depositAccountTypeId);
+
+    @Query("from SavingsAccount sa where sa.id in :accountIds and sa.depositType = :depositAccountTypeId order by sa.id")
+    List<SavingsAccount> findByIdsAndDepositAccountType(@Param("accountIds") Collection<Long> accountIds,
+            @Param("depositAccountTypeId") Integer depositAccountTypeId);
 }
\ No newline at end of file
@@ -18,6 +18,10 @@
  */
 package com.stellar.bnkbiz.portfolio.savings.domain;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 import com.stellar.bnkbiz.portfolio.savings.DepositAccountType;
 import com.stellar.bnkbiz.portfolio.savings.exception.SavingsAccountNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -57,6 +61,21 @@ public class SavingsAccountRepositoryWrapper {
         return account;
     }
 
+    /**
+     * Loads the accounts in one query, keyed by id.
+     */
+    public Map<Long, SavingsAccount> findWithNotFoundDetection(final Collection<Long> savingsIds,
+            final DepositAccountType depositAccountType) {
+        final Map<Long, SavingsAccount> accounts = new HashMap<>(savingsIds.size());
+        for (final SavingsAccount account : this.repository.findByIdsAndDepositAccountType(savingsIds, depositAccountType.getValue())) {
+            accounts.put(account.getId(), account);
+        }
+        for (final Long savingsId : savingsIds) {
+            if (!accounts.containsKey(savingsId)) { throw new SavingsAccountNotFoundException(savingsId); }
+        }
+        return accounts;
+    }
+
     public void save(final SavingsAccount account) {
         this.repository.save(account);
     }
@@ -97,8 +97,13 @@ public final class SavingsAccountSummary {
     }
 
     public void updateFromInterestPeriodSummaries(final MonetaryCurrency currency, final List<PostingPeriod> allPostingPeriods) {
+        updateFromInterestPeriodSummaries(currency, allPostingPeriods, Money.zero(currency));
+    }
+
+    public void updateFromInterestPeriodSummaries(final MonetaryCurrency currency, final List<PostingPeriod> allPostingPeriods,
+            final Money interestEarnedBeforePeriods) {
 
-        Money totalEarned = Money.zero(currency);
+        Money totalEarned = interestEarnedBeforePeriods;
 
         for (final PostingPeriod period : allPostingPeriods) {
             Money interestEarned = period.interest();
@@ -34,7 +34,6 @@ import java.time.LocalDate;
 
 public class PostingPeriod {
 
-    @SuppressWarnings("unused")
     private final LocalDateInterval periodInterval;
     private final MonetaryCurrency currency;
     private final SavingsCompoundingInterestPeriodType interestCompoundingType;
@@ -46,6 +45,8 @@ public class PostingPeriod {
     private final LocalDate dateOfPostingTransaction;
     private BigDecimal interestEarnedUnrounded;
     private Money interestEarnedRounded;
+    // interest of this and previous periods compounding into the next period
+    private BigDecimal interestCarriedForward;
 
     // opening/closing details
     private final Money openingBalance;
@@ -218,6 +219,18 @@ public class PostingPeriod {
         return this.interestEarnedRounded;
     }
 
+    void carryForwardInterest(final BigDecimal interestCarriedForward) {
+        this.interestCarriedForward = interestCarriedForward;
+    }
+
+    public BigDecimal getInterestCarriedForward() {
+        return this.interestCarriedForward;
+    }
+
+    public LocalDate getPeriodEndDate() {
+        return this.periodInterval.endDate();
+    }
+
     private static List<CompoundingPeriod> compoundingPeriodsInPostingPeriod(final LocalDateInterval postingPeriodInterval,
             final SavingsCompoundingInterestPeriodType interestPeriodType, final List<EndOfDayBalance> allEndOfDayBalances,
             final LocalDate upToInterestCalculationDate) {
@@ -18,6 +18,9 @@
  */
 package com.stellar.bnkbiz.portfolio.savings.service;
 
+import java.util.Collection;
+import java.util.List;
+
 import com.stellar.bnkbiz.infrastructure.core.api.JsonCommand;
 import com.stellar.bnkbiz.infrastructure.core.data.CommandProcessingResult;
 import com.stellar.bnkbiz.infrastructure.jobs.exception.JobExecutionException;
@@ -90,4 +93,10 @@ public interface DepositAccountWritePlatformService {
     void transferInterestToSavings() throws JobExecutionException;
 
     SavingsAccountTransaction mandatorySavingsAccountDeposit(final SavingsAccountTransactionDTO accountTransactionDTO);
+
+    /**
+     * Makes the deposits of a collection sheet, loading all recurring deposit
+     * accounts up front in one query.
+     */
+    List<SavingsAccountTransaction> mandatorySavingsAccountDeposits(final Collection<SavingsAccountTransactionDTO> accountTransactionDTOs);
 }
\ No newline at end of file
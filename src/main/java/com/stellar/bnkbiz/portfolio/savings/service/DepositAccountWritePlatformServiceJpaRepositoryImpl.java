@@ -1349,6 +1349,31 @@ public class DepositAccountWritePlatformServiceJpaRepositoryImpl implements Depo
                 isRegularTransaction);
     }
 
+    @Transactional
+    @Override
+    public List<SavingsAccountTransaction> mandatorySavingsAccountDeposits(final Collection<SavingsAccountTransactionDTO> accountTransactionDTOs) {
+        final boolean isRegularTransaction = false;
+        final Collection<Long> savingsIds = new HashSet<>(accountTransactionDTOs.size());
+        for (final SavingsAccountTransactionDTO accountTransactionDTO : accountTransactionDTOs) {
+            savingsIds.add(accountTransactionDTO.getSavingsAccountId());
+        }
+        final Map<Long, SavingsAccount> accounts = this.depositAccountAssembler.assembleFrom(savingsIds,
+                DepositAccountType.RECURRING_DEPOSIT);
+
+        final List<SavingsAccountTransaction> deposits = new ArrayList<>(accountTransactionDTOs.size());
+        for (final SavingsAccountTransactionDTO accountTransactionDTO : accountTransactionDTOs) {
+            final RecurringDepositAccount account = (RecurringDepositAccount) accounts.get(accountTransactionDTO.getSavingsAccountId());
+            final PaymentDetail paymentDetail = accountTransactionDTO.getPaymentDetail();
+            if (paymentDetail != null && paymentDetail.getId() == null) {
+                this.paymentDetailWritePlatformService.persistPaymentDetail(paymentDetail);
+            }
+            deposits.add(this.depositAccountDomainService.handleRDDeposit(account, accountTransactionDTO.getFormatter(),
+                    accountTransactionDTO.getTransactionDate(), accountTransactionDTO.getTransactionAmount(), paymentDetail,
+                    isRegularTransaction));
+        }
+        return deposits;
+    }
+
     private AppUser getAppUserIfPresent() {
         AppUser user = null;
         if (this.context != null) {
@@ -24,11 +24,14 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
 import com.stellar.bnkbiz.infrastructure.core.data.EnumOptionData;
 import com.stellar.bnkbiz.infrastructure.core.domain.JdbcSupport;
 import com.stellar.bnkbiz.infrastructure.core.service.DateUtils;
+import com.stellar.bnkbiz.infrastructure.core.service.KeysetPagination;
 import com.stellar.bnkbiz.infrastructure.core.service.Page;
 import com.stellar.bnkbiz.infrastructure.core.service.PaginationHelper;
 import com.stellar.bnkbiz.infrastructure.core.service.RoutingDataSource;
@@ -73,6 +76,14 @@ import org.springframework.util.CollectionUtils;
 @Service
 public class SavingsAccountReadPlatformServiceImpl implements SavingsAccountReadPlatformService {
 
+    // keyset paging seeks on the primary key or the unique account number;
+    // any other order is paged by offset
+    private final static Map<String, String> keysetSortColumns = new HashMap<>();
+    static {
+        keysetSortColumns.put("id", null);
+        keysetSortColumns.put("accountNo", "sa.account_no");
+    }
+
     private final PlatformSecurityContext context;
     private final JdbcTemplate jdbcTemplate;
     private final ClientReadPlatformService clientReadPlatformService;
@@ -138,12 +149,9 @@ public class SavingsAccountReadPlatformServiceImpl implements SavingsAccountRead
         final String hierarchy = currentUser.getOffice().getHierarchy();
         final String hierarchySearchString = hierarchy + "%";
 
-        final StringBuilder sqlBuilder = new StringBuilder(200);
-        sqlBuilder.append("select SQL_CALC_FOUND_ROWS ");
-        sqlBuilder.append(this.savingAccountMapper.schema());
-
-        sqlBuilder.append(" join m_office o on o.id = c.office_id");
-        sqlBuilder.append(" where o.hierarchy like ?");
+        final StringBuilder criteriaBuilder = new StringBuilder(200);
+        criteriaBuilder.append(" join m_office o on o.id = c.office_id");
+        criteriaBuilder.append(" where o.hierarchy like ?");
 
         final Object[] objectArray = new Object[2];
         objectArray[0] = hierarchySearchString;
@@ -152,15 +160,28 @@ public class SavingsAccountReadPlatformServiceImpl implements SavingsAccountRead
         String sqlQueryCriteria = searchParameters.getSqlSearch();
         if (StringUtils.isNotBlank(sqlQueryCriteria)) {
             sqlQueryCriteria = sqlQueryCriteria.replaceAll("accountNo", "sa.account_no");
-            sqlBuilder.append(" and (").append(sqlQueryCriteria).append(")");
+            criteriaBuilder.append(" and (").append(sqlQueryCriteria).append(")");
         }
 
         if (StringUtils.isNotBlank(searchParameters.getExternalId())) {
-            sqlBuilder.append(" and sa.external_id = ?");
+            criteriaBuilder.append(" and sa.external_id = ?");
             objectArray[arrayPos] = searchParameters.getExternalId();
             arrayPos = arrayPos + 1;
         }
 
+        final Object[] finalObjectArray = Arrays.copyOf(objectArray, arrayPos);
+        if (searchParameters.isKeysetPaged()) {
+            final KeysetPagination keyset = KeysetPagination.instance(keysetSortColumns, null, "sa.id", searchParameters.getOrderBy(),
+                    searchParameters.getSortOrder(), searchParameters.getContinuationToken(), searchParameters.getLimit(),
+                    searchParameters.getCountMode());
+            if (keyset != null) { return retrieveAllAfter(criteriaBuilder.toString(), finalObjectArray, keyset); }
+        }
+
+        final StringBuilder sqlBuilder = new StringBuilder(200);
+        sqlBuilder.append("select SQL_CALC_FOUND_ROWS ");
+        sqlBuilder.append(this.savingAccountMapper.schema());
+        sqlBuilder.append(criteriaBuilder);
+
         if (searchParameters.isOrderByRequested()) {
             sqlBuilder.append(" order by ").append(searchParameters.getOrderBy());
 
@@ -176,12 +197,29 @@ public class SavingsAccountReadPlatformServiceImpl implements SavingsAccountRead
             }
         }
 
-        final Object[] finalObjectArray = Arrays.copyOf(objectArray, arrayPos);
         final String sqlCountRows = "SELECT FOUND_ROWS()";
         return this.paginationHelper.fetchPage(this.jdbcTemplate, sqlCountRows, sqlBuilder.toString(), finalObjectArray,
                 this.savingAccountMapper);
     }
 
+    private Page<SavingsAccountData> retrieveAllAfter(final String criteria, final Object[] criteriaArgs,
+            final KeysetPagination keyset) {
+
+        final StringBuilder sqlBuilder = new StringBuilder(200);
+        sqlBuilder.append("select").append(keyset.selectColumnsSql());
+        sqlBuilder.append(this.savingAccountMapper.schema());
+        sqlBuilder.append(criteria);
+        if (keyset.hasPosition()) {
+            sqlBuilder.append(" and").append(keyset.positionSql());
+        }
+
+        // the search criteria may refer to any table of the page query
+        final String sqlCountFrom = " " + this.savingAccountMapper.from() + criteria;
+
+        return this.paginationHelper.fetchPage(this.jdbcTemplate, sqlCountFrom, criteriaArgs, sqlBuilder.toString(),
+                keyset.fetchArgs(criteriaArgs), keyset, this.savingAccountMapper);
+    }
+
     @Override
     public SavingsAccountData retrieveOne(final Long accountId) {
 
@@ -197,6 +235,7 @@ public class SavingsAccountReadPlatformServiceImpl implements SavingsAccountRead
     private static final class SavingAccountMapper implements RowMapper<SavingsAccountData> {
 
         private final String schemaSql;
+        private final String fromSql;
 
         public SavingAccountMapper() {
             final StringBuilder sqlBuilder = new StringBuilder(400);
@@ -270,6 +309,7 @@ public class SavingsAccountReadPlatformServiceImpl implements SavingsAccountRead
             sqlBuilder.append("sa.min_required_balance as minRequiredBalance, ");
             sqlBuilder.append("sa.enforce_min_required_balance as enforceMinRequiredBalance, ");
             sqlBuilder.append("sa.on_hold_funds_derived as onHoldFunds ");
+            final int fromAt = sqlBuilder.length();
             sqlBuilder.append("from m_savings_account sa ");
             sqlBuilder.append("join m_savings_product sp ON sa.product_id = sp.id ");
             sqlBuilder.append("join m_currency curr on curr.code = sa.currency_code ");
@@ -284,12 +324,17 @@ public class SavingsAccountReadPlatformServiceImpl implements SavingsAccountRead
             sqlBuilder.append("left join m_appuser cbu on cbu.id = sa.closedon_userid ");
 
             this.schemaSql = sqlBuilder.toString();
+            this.fromSql = sqlBuilder.substring(fromAt);
         }
 
         public String schema() {
             return this.schemaSql;
         }
 
+        public String from() {
+            return this.fromSql;
+        }
+
         @Override
         public SavingsAccountData mapRow(final ResultSet rs, @SuppressWarnings("unused") final int rowNum) throws SQLException {
 
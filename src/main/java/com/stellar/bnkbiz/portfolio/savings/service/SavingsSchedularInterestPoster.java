@@ -0,0 +1,102 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.portfolio.savings.service;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.stellar.bnkbiz.infrastructure.jobs.service.JobCheckpointService;
+import com.stellar.bnkbiz.infrastructure.jobs.service.JobName;
+import com.stellar.bnkbiz.portfolio.savings.domain.SavingsAccount;
+import com.stellar.bnkbiz.portfolio.savings.domain.SavingsAccountAssembler;
+import com.stellar.bnkbiz.portfolio.savings.domain.SavingsAccountRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Posts interest for one chunk of savings accounts of the
+ * {@link JobName#POST_INTEREST_FOR_SAVINGS} job.
+ * 
+ * The chunk is first posted in a single transaction. If any account of the
+ * chunk fails the transaction is rolled back and the accounts are posted again
+ * one transaction each, so that only the failing accounts are left out and
+ * recorded in <code>job_item_failure</code>.
+ */
+@Component
+public class SavingsSchedularInterestPoster {
+
+    private final SavingsAccountAssembler savingAccountAssembler;
+    private final SavingsAccountWritePlatformService savingsAccountWritePlatformService;
+    private final SavingsAccountRepository savingAccountRepository;
+    private final JobCheckpointService jobCheckpointService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public SavingsSchedularInterestPoster(final SavingsAccountAssembler savingAccountAssembler,
+            final SavingsAccountWritePlatformService savingsAccountWritePlatformService,
+            final SavingsAccountRepository savingAccountRepository, final JobCheckpointService jobCheckpointService,
+            final PlatformTransactionManager transactionManager) {
+        this.savingAccountAssembler = savingAccountAssembler;
+        this.savingsAccountWritePlatformService = savingsAccountWritePlatformService;
+        this.savingAccountRepository = savingAccountRepository;
+        this.jobCheckpointService = jobCheckpointService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @return number of accounts of the chunk for which interest could not be
+     *         posted
+     */
+    public int postInterest(final List<Long> savingsAccountIds, final String partitionKey) {
+        try {
+            postInterestInTransaction(savingsAccountIds);
+            return 0;
+        } catch (final RuntimeException chunkFailure) {
+            int failed = 0;
+            for (final Long savingsAccountId : savingsAccountIds) {
+                try {
+                    postInterestInTransaction(Collections.singletonList(savingsAccountId));
+                } catch (final RuntimeException e) {
+                    this.jobCheckpointService.recordFailure(JobName.POST_INTEREST_FOR_SAVINGS, partitionKey, savingsAccountId, e);
+                    failed++;
+                }
+            }
+            return failed;
+        }
+    }
+
+    private void postInterestInTransaction(final List<Long> savingsAccountIds) {
+        this.transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+
+            @Override
+            protected void doInTransactionWithoutResult(@SuppressWarnings("unused") final TransactionStatus status) {
+                final List<SavingsAccount> savingsAccounts = SavingsSchedularInterestPoster.this.savingAccountRepository
+                        .findSavingAccountsByIds(savingsAccountIds);
+                for (final SavingsAccount savingsAccount : savingsAccounts) {
+                    SavingsSchedularInterestPoster.this.savingAccountAssembler.assignSavingAccountHelpers(savingsAccount);
+                    SavingsSchedularInterestPoster.this.savingsAccountWritePlatformService.postInterest(savingsAccount);
+                }
+            }
+        });
+    }
+}
@@ -19,53 +19,119 @@
 package com.stellar.bnkbiz.portfolio.savings.service;
 
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import com.stellar.bnkbiz.infrastructure.configuration.domain.ConfigurationDomainService;
+import com.stellar.bnkbiz.infrastructure.core.service.ContextAwareExecutor;
+import com.stellar.bnkbiz.infrastructure.core.service.DateUtils;
+import com.stellar.bnkbiz.infrastructure.core.service.RoutingDataSource;
+import com.stellar.bnkbiz.infrastructure.core.service.ThreadLocalContextUtil;
 import com.stellar.bnkbiz.infrastructure.jobs.annotation.CronTarget;
 import com.stellar.bnkbiz.infrastructure.jobs.exception.JobExecutionException;
+import com.stellar.bnkbiz.infrastructure.jobs.service.ChunkWatermark;
+import com.stellar.bnkbiz.infrastructure.jobs.service.JobCheckpointService;
 import com.stellar.bnkbiz.infrastructure.jobs.service.JobName;
-import com.stellar.bnkbiz.portfolio.savings.domain.SavingsAccount;
-import com.stellar.bnkbiz.portfolio.savings.domain.SavingsAccountAssembler;
-import com.stellar.bnkbiz.portfolio.savings.domain.SavingsAccountRepository;
 import com.stellar.bnkbiz.portfolio.savings.domain.SavingsAccountStatusType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+/**
+ * Posts interest for all active savings accounts.
+ * 
+ * Account ids are read in keyset paged chunks (<code>id > lastId</code>) so
+ * that no more than a few chunks are held in memory. Every chunk is posted in
+ * its own transaction on a worker pool that is sized per tenant (see
+ * {@link ConfigurationDomainService#retrieveJobThreadPoolSize()}). The highest
+ * id below which all chunks have committed is stored as checkpoint for the
+ * posting date, a restarted job resumes from there.
+ */
 @Service
 public class SavingsSchedularServiceImpl implements SavingsSchedularService {
 
-    private final SavingsAccountAssembler savingAccountAssembler;
-    private final SavingsAccountWritePlatformService savingsAccountWritePlatformService;
-    private final SavingsAccountRepository savingAccountRepository;
+    private final static Logger logger = LoggerFactory.getLogger(SavingsSchedularServiceImpl.class);
+
+    private final SavingsSchedularInterestPoster interestPoster;
+    private final JobCheckpointService jobCheckpointService;
+    private final ConfigurationDomainService configurationDomainService;
+    private final JdbcTemplate jdbcTemplate;
 
     @Autowired
-    public SavingsSchedularServiceImpl(final SavingsAccountAssembler savingAccountAssembler,
-            final SavingsAccountWritePlatformService savingsAccountWritePlatformService,
-            final SavingsAccountRepository savingAccountRepository) {
-        this.savingAccountAssembler = savingAccountAssembler;
-        this.savingsAccountWritePlatformService = savingsAccountWritePlatformService;
-        this.savingAccountRepository = savingAccountRepository;
+    public SavingsSchedularServiceImpl(final SavingsSchedularInterestPoster interestPoster,
+            final JobCheckpointService jobCheckpointService, final ConfigurationDomainService configurationDomainService,
+            final RoutingDataSource dataSource) {
+        this.interestPoster = interestPoster;
+        this.jobCheckpointService = jobCheckpointService;
+        this.configurationDomainService = configurationDomainService;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
     }
 
     @CronTarget(jobName = JobName.POST_INTEREST_FOR_SAVINGS)
     @Override
     public void postInterestForAccounts() throws JobExecutionException {
-        final List<SavingsAccount> savingsAccounts = this.savingAccountRepository.findSavingAccountByStatus(SavingsAccountStatusType.ACTIVE
-                .getValue());
-        StringBuffer sb = new StringBuffer();
-        for (final SavingsAccount savingsAccount : savingsAccounts) {
-            try {
-                this.savingAccountAssembler.assignSavingAccountHelpers(savingsAccount);
-                this.savingsAccountWritePlatformService.postInterest(savingsAccount);
-            } catch (Exception e) {
-                Throwable realCause = e;
-                if (e.getCause() != null) {
-                    realCause = e.getCause();
+        final JobName jobName = JobName.POST_INTEREST_FOR_SAVINGS;
+        final String partitionKey = DateUtils.getLocalDateOfTenant().toString();
+        final int chunkSize = this.configurationDomainService.retrieveJobChunkSize();
+        final int threadPoolSize = this.configurationDomainService.retrieveJobThreadPoolSize();
+
+        final Long checkpoint = this.jobCheckpointService.retrieveCheckpoint(jobName, partitionKey);
+        if (checkpoint != null) {
+            logger.info(ThreadLocalContextUtil.getTenant().getName() + ": resuming interest posting after savings account " + checkpoint);
+        }
+        final ChunkWatermark watermark = new ChunkWatermark(checkpoint == null ? Long.valueOf(0) : checkpoint);
+        final AtomicInteger failedAccounts = new AtomicInteger();
+        final AtomicInteger failedChunks = new AtomicInteger();
+
+        try (ContextAwareExecutor executor = ContextAwareExecutor.newFixedPool("savings-interest-posting", threadPoolSize,
+                threadPoolSize * 2)) {
+            Long lastId = watermark.current();
+            List<Long> accountIds = retrieveActiveAccountIds(lastId, chunkSize);
+            while (!accountIds.isEmpty()) {
+                final List<Long> chunkIds = accountIds;
+                lastId = chunkIds.get(chunkIds.size() - 1);
+                final Object chunk = watermark.register(lastId);
+                executor.submit(new Callable<Void>() {
+
+                    @Override
+                    public Void call() {
+                        postInterestForChunk(chunkIds, partitionKey, watermark, chunk, failedAccounts, failedChunks);
+                        return null;
+                    }
+                });
+                accountIds = retrieveActiveAccountIds(lastId, chunkSize);
+            }
+        }
+
+        if (failedChunks.get() == 0) {
+            this.jobCheckpointService.deleteCheckpoint(jobName, partitionKey);
+        }
+        if (failedAccounts.get() > 0 || failedChunks.get() > 0) { throw new JobExecutionException("failed to post interest for "
+                + failedAccounts.get() + " savings accounts and " + failedChunks.get() + " chunks of " + chunkSize
+                + " accounts, see job_item_failure with partition key " + partitionKey); }
+    }
+
+    private void postInterestForChunk(final List<Long> chunkIds, final String partitionKey, final ChunkWatermark watermark,
+            final Object chunk, final AtomicInteger failedAccounts, final AtomicInteger failedChunks) {
+        try {
+            failedAccounts.addAndGet(this.interestPoster.postInterest(chunkIds, partitionKey));
+            if (watermark.complete(chunk) != null) {
+                synchronized (watermark) {
+                    this.jobCheckpointService.saveCheckpoint(JobName.POST_INTEREST_FOR_SAVINGS, partitionKey, watermark.current());
                 }
-                sb.append("failed to post interest for Savings with id " + savingsAccount.getId() + " with message "
-                        + realCause.getMessage());
             }
+        } catch (final RuntimeException e) {
+            // leave the watermark behind this chunk so that a rerun picks it up
+            // again
+            failedChunks.incrementAndGet();
+            logger.error("Interest posting failed for savings accounts " + chunkIds.get(0) + " to " + chunkIds.get(chunkIds.size() - 1), e);
         }
-        
-        if (sb.length() > 0) { throw new JobExecutionException(sb.toString()); }
+    }
+
+    private List<Long> retrieveActiveAccountIds(final Long afterId, final int limit) {
+        final String sql = "select sa.id from m_savings_account sa where sa.status_enum = ? and sa.id > ? order by sa.id limit ?";
+        return this.jdbcTemplate.queryForList(sql, Long.class, SavingsAccountStatusType.ACTIVE.getValue(), afterId, limit);
     }
 }
@@ -0,0 +1,201 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.portfolio.search.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import javax.annotation.PreDestroy;
+
+import com.stellar.bnkbiz.infrastructure.core.serialization.FromJsonHelper;
+import com.stellar.bnkbiz.infrastructure.core.service.ContextAwareExecutor;
+import com.stellar.bnkbiz.infrastructure.hooks.event.HookEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.gson.JsonElement;
+
+/**
+ * Keeps the search index current from the events published for every
+ * processed command. Only commands that can change an indexed field, such as
+ * creating, activating or closing an entity or updating its account number
+ * or external id, reindex it; loan transactions, which may close or reopen
+ * the loan, reindex it only if its status moved. The entity is reindexed on a
+ * background worker once the command has committed, so the index never holds
+ * changes that were rolled back and the command does not wait for it; if
+ * reindexing fails the entry stays stale until the next rebuild, the command
+ * itself is not affected.
+ */
+@Component
+public class SearchIndexEventListener implements ApplicationListener<HookEvent> {
+
+    private final static Logger logger = LoggerFactory.getLogger(SearchIndexEventListener.class);
+
+    private static final int WORKER_THREADS = 2;
+    private static final int MAX_IN_FLIGHT = 1000;
+
+    private static final Set<String> lifecycleActions = new HashSet<>(Arrays.asList("CREATE", "UPDATE", "DELETE", "ACTIVATE",
+            "REACTIVATE", "CLOSE", "REJECT", "WITHDRAW", "APPROVE", "APPROVALUNDO"));
+
+    /**
+     * Actions per entity that can change a field of the index, on top of the
+     * {@link #lifecycleActions}.
+     */
+    private static final Map<String, Set<String>> indexedActions = new HashMap<>();
+
+    static {
+        indexedActions.put("CLIENT", new HashSet<>(Arrays.asList("ACCEPTTRANSFER", "PROPOSEANDACCEPTTRANSFER")));
+        indexedActions.put("CLIENTIDENTIFIER", new HashSet<String>());
+        indexedActions.put("GROUP", new HashSet<>(Arrays.asList("ASSOCIATECLIENTS", "DISASSOCIATECLIENTS", "TRANSFERCLIENTS")));
+        indexedActions.put("CENTER", new HashSet<>(Arrays.asList("ASSOCIATEGROUPS", "DISASSOCIATEGROUPS")));
+        indexedActions.put("LOAN", new HashSet<>(Arrays.asList("DISBURSE", "DISBURSETOSAVINGS", "DISBURSALUNDO", "DISBURSALLASTUNDO",
+                "CLOSEASRESCHEDULED", "WRITEOFF", "UNDOWRITEOFF")));
+        indexedActions.put("SAVINGSACCOUNT", new HashSet<String>());
+    }
+
+    private final SearchIndexWritePlatformService searchIndexWritePlatformService;
+    private final FromJsonHelper fromJsonHelper;
+    private final ContextAwareExecutor workers;
+
+    @Autowired
+    public SearchIndexEventListener(final SearchIndexWritePlatformService searchIndexWritePlatformService,
+            final FromJsonHelper fromJsonHelper) {
+        this.searchIndexWritePlatformService = searchIndexWritePlatformService;
+        this.fromJsonHelper = fromJsonHelper;
+        this.workers = ContextAwareExecutor.newFixedPool("search-index", WORKER_THREADS, MAX_IN_FLIGHT);
+    }
+
+    @PreDestroy
+    public void stop() {
+        this.workers.close();
+    }
+
+    @Override
+    public void onApplicationEvent(final HookEvent event) {
+        final String entityName = event.getSource().getEntityName();
+        final Set<String> entityActions = indexedActions.get(entityName);
+        if (entityActions == null) { return; }
+
+        final String actionName = event.getSource().getActionName();
+        final boolean indexedAction = lifecycleActions.contains(actionName) || entityActions.contains(actionName);
+        // any other loan command is a transaction that may close or reopen
+        // the loan
+        final boolean statusMayChange = !indexedAction && entityName.equals("LOAN");
+        if (!indexedAction && !statusMayChange) { return; }
+
+        final JsonElement result = this.fromJsonHelper.parse(event.getPayload());
+        final Long resourceId = this.fromJsonHelper.extractLongNamed("resourceId", result);
+        Long clientId = this.fromJsonHelper.extractLongNamed("clientId", result);
+        Long groupId = this.fromJsonHelper.extractLongNamed("groupId", result);
+        Long loanId = this.fromJsonHelper.extractLongNamed("loanId", result);
+        Long savingsId = this.fromJsonHelper.extractLongNamed("savingsId", result);
+
+        // not every command fills in the id of the entity it acted on
+        if (entityName.equals("CLIENT") && clientId == null) {
+            clientId = resourceId;
+        } else if ((entityName.equals("GROUP") || entityName.equals("CENTER")) && groupId == null) {
+            groupId = resourceId;
+        } else if (entityName.equals("LOAN") && loanId == null) {
+            loanId = resourceId;
+        } else if (entityName.equals("SAVINGSACCOUNT") && savingsId == null) {
+            savingsId = resourceId;
+        }
+
+        // an account command reindexes the account only, not its client
+        final Reindex reindex;
+        if (entityName.equals("LOAN")) {
+            reindex = new Reindex(null, null, loanId, null, statusMayChange);
+        } else if (entityName.equals("SAVINGSACCOUNT")) {
+            reindex = new Reindex(null, null, null, savingsId, false);
+        } else if (entityName.equals("CLIENT") || entityName.equals("CLIENTIDENTIFIER")) {
+            reindex = new Reindex(clientId, null, null, null, false);
+        } else {
+            reindex = new Reindex(null, groupId, null, null, false);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCommit() {
+                    submit(reindex);
+                }
+            });
+        } else {
+            submit(reindex);
+        }
+    }
+
+    private void submit(final Reindex reindex) {
+        this.workers.submit(new Callable<Void>() {
+
+            @Override
+            public Void call() {
+                reindex.run();
+                return null;
+            }
+        });
+    }
+
+    private final class Reindex implements Runnable {
+
+        private final Long clientId;
+        private final Long groupId;
+        private final Long loanId;
+        private final Long savingsId;
+        private final boolean onlyIfStatusChanged;
+
+        Reindex(final Long clientId, final Long groupId, final Long loanId, final Long savingsId, final boolean onlyIfStatusChanged) {
+            this.clientId = clientId;
+            this.groupId = groupId;
+            this.loanId = loanId;
+            this.savingsId = savingsId;
+            this.onlyIfStatusChanged = onlyIfStatusChanged;
+        }
+
+        @Override
+        public void run() {
+            try {
+                // a client or group reindex covers its accounts as well
+                if (this.clientId != null) {
+                    SearchIndexEventListener.this.searchIndexWritePlatformService.reindexClient(this.clientId);
+                } else if (this.groupId != null) {
+                    SearchIndexEventListener.this.searchIndexWritePlatformService.reindexGroup(this.groupId);
+                } else if (this.loanId != null && this.onlyIfStatusChanged) {
+                    SearchIndexEventListener.this.searchIndexWritePlatformService.reindexLoanIfStatusChanged(this.loanId);
+                } else if (this.loanId != null) {
+                    SearchIndexEventListener.this.searchIndexWritePlatformService.reindexLoan(this.loanId);
+                } else if (this.savingsId != null) {
+                    SearchIndexEventListener.this.searchIndexWritePlatformService.reindexSavingsAccount(this.savingsId);
+                }
+            } catch (final RuntimeException e) {
+                logger.warn("Search index not updated for client " + this.clientId + ", group " + this.groupId + ", loan " + this.loanId
+                        + ", savings " + this.savingsId + ": " + e.getMessage());
+            }
+        }
+    }
+}
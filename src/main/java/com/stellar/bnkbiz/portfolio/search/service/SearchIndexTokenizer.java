@@ -0,0 +1,95 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.portfolio.search.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Turns searchable values and search queries into the tokens of the search
+ * index. Both sides go through {@link #normalise(String)} so that case,
+ * accents and punctuation never decide a match.
+ */
+public final class SearchIndexTokenizer {
+
+    /** the whole normalised value, for exact and prefix matching */
+    public static final String VALUE_TOKEN = "V";
+    /** one word of a value, for prefix matching */
+    public static final String WORD_TOKEN = "W";
+    /** three consecutive characters of a value, for contains matching */
+    public static final String TRIGRAM_TOKEN = "T";
+
+    public static final int MAX_TOKEN_LENGTH = 100;
+    public static final int TRIGRAM_LENGTH = 3;
+
+    private SearchIndexTokenizer() {
+        //
+    }
+
+    /**
+     * Lower case, accents removed, anything but letters and digits turned
+     * into single spaces.
+     */
+    public static String normalise(final String value) {
+        if (StringUtils.isBlank(value)) { return ""; }
+        final String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return decomposed.toLowerCase().replaceAll("[^\\p{L}\\p{Nd}]+", " ").trim();
+    }
+
+    public static String truncate(final String token) {
+        if (token.length() <= MAX_TOKEN_LENGTH) { return token; }
+        return token.substring(0, MAX_TOKEN_LENGTH);
+    }
+
+    public static List<String> words(final String normalisedValue) {
+        final List<String> words = new ArrayList<>();
+        for (final String word : StringUtils.split(normalisedValue, ' ')) {
+            words.add(truncate(word));
+        }
+        return words;
+    }
+
+    public static Set<String> trigrams(final String normalisedValue) {
+        final Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + TRIGRAM_LENGTH <= normalisedValue.length(); i++) {
+            trigrams.add(normalisedValue.substring(i, i + TRIGRAM_LENGTH));
+        }
+        return trigrams;
+    }
+
+    /**
+     * At most <code>max</code> trigrams spread evenly over the query; they
+     * narrow the candidates as well as all of them would for typical
+     * queries while bounding the work of the lookup.
+     */
+    public static List<String> queryTrigrams(final String normalisedQuery, final int max) {
+        final List<String> all = new ArrayList<>(trigrams(normalisedQuery));
+        if (all.size() <= max) { return all; }
+        final List<String> spread = new ArrayList<>(max);
+        for (int i = 0; i < max; i++) {
+            spread.add(all.get(i * (all.size() - 1) / (max - 1)));
+        }
+        return spread;
+    }
+}
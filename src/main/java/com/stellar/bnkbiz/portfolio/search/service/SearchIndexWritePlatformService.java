@@ -0,0 +1,53 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.portfolio.search.service;
+
+/**
+ * Keeps <code>m_search_index</code> in step with the clients, groups,
+ * centers, loans, savings accounts and client identifiers it is built from.
+ *
+ * Every reindex runs in its own transaction and re-reads its entities from
+ * their tables, so it also drops entries of entities that no longer exist.
+ */
+public interface SearchIndexWritePlatformService {
+
+    /**
+     * Reindexes the client together with its identifiers, loans and savings
+     * accounts, whose entries carry the name and office of the client.
+     */
+    void reindexClient(Long clientId);
+
+    /**
+     * Reindexes the group or center together with its loans and savings
+     * accounts.
+     */
+    void reindexGroup(Long groupId);
+
+    void reindexLoan(Long loanId);
+
+    /**
+     * Reindexes the loan only if its status differs from the indexed one, for
+     * transactions that may close or reopen the loan.
+     */
+    void reindexLoanIfStatusChanged(Long loanId);
+
+    void reindexSavingsAccount(Long savingsId);
+
+    void rebuildSearchIndex();
+}
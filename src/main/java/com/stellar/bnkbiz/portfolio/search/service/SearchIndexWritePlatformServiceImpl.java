@@ -0,0 +1,397 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.stellar.bnkbiz.portfolio.search.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import com.stellar.bnkbiz.infrastructure.configuration.domain.ConfigurationDomainService;
+import com.stellar.bnkbiz.infrastructure.core.domain.JdbcSupport;
+import com.stellar.bnkbiz.infrastructure.core.service.RoutingDataSource;
+import com.stellar.bnkbiz.infrastructure.core.service.ThreadLocalContextUtil;
+import com.stellar.bnkbiz.infrastructure.jobs.annotation.CronTarget;
+import com.stellar.bnkbiz.infrastructure.jobs.service.JobName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+public class SearchIndexWritePlatformServiceImpl implements SearchIndexWritePlatformService {
+
+    private final static Logger logger = LoggerFactory.getLogger(SearchIndexWritePlatformServiceImpl.class);
+
+    private static final int MAX_SEARCH_TEXT_LENGTH = 1000;
+    private static final String SEARCH_TEXT_SEPARATOR = "|";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConfigurationDomainService configurationDomainService;
+
+    @Autowired
+    public SearchIndexWritePlatformServiceImpl(final RoutingDataSource dataSource, final PlatformTransactionManager transactionManager,
+            final ConfigurationDomainService configurationDomainService) {
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        // callers are typically past the commit of the command that changed
+        // the entity, so the index is always written in a transaction of its
+        // own
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.configurationDomainService = configurationDomainService;
+    }
+
+    @Override
+    public void reindexClient(final Long clientId) {
+        this.transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+
+            @Override
+            protected void doInTransactionWithoutResult(@SuppressWarnings("unused") final TransactionStatus status) {
+                reindex(IndexSource.CLIENT, Arrays.asList(clientId));
+                reindex(IndexSource.CLIENT_IDENTIFIER, childIds(IndexSource.CLIENT_IDENTIFIER, "client_id", clientId, null));
+                reindex(IndexSource.LOAN, childIds(IndexSource.LOAN, "client_id", clientId, "client"));
+                reindex(IndexSource.SAVINGS_ACCOUNT, childIds(IndexSource.SAVINGS_ACCOUNT, "client_id", clientId, "client"));
+            }
+        });
+    }
+
+    @Override
+    public void reindexGroup(final Long groupId) {
+        this.transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+
+            @Override
+            protected void doInTransactionWithoutResult(@SuppressWarnings("unused") final TransactionStatus status) {
+                reindex(IndexSource.GROUP, Arrays.asList(groupId));
+                reindex(IndexSource.LOAN, childIds(IndexSource.LOAN, "group_id", groupId, "group"));
+                reindex(IndexSource.SAVINGS_ACCOUNT, childIds(IndexSource.SAVINGS_ACCOUNT, "group_id", groupId, "group"));
+            }
+        });
+    }
+
+    @Override
+    public void reindexLoan(final Long loanId) {
+        reindexInTransaction(IndexSource.LOAN, Arrays.asList(loanId));
+    }
+
+    @Override
+    public void reindexLoanIfStatusChanged(final Long loanId) {
+        final MapSqlParameterSource params = new MapSqlParameterSource("loanId", loanId);
+        params.addValue("entityTypes", IndexSource.LOAN.entityTypes);
+        final Long changed = this.namedParameterJdbcTemplate.queryForObject("select count(*) from m_loan l "
+                + "left join m_search_index i on i.entity_type in (:entityTypes) and i.entity_id = l.id "
+                + "where l.id = :loanId and (i.entity_id is null or i.entity_status_enum <> l.loan_status_id)", params, Long.class);
+        if (changed != null && changed > 0) {
+            reindexLoan(loanId);
+        }
+    }
+
+    @Override
+    public void reindexSavingsAccount(final Long savingsId) {
+        reindexInTransaction(IndexSource.SAVINGS_ACCOUNT, Arrays.asList(savingsId));
+    }
+
+    @Override
+    @CronTarget(jobName = JobName.REBUILD_SEARCH_INDEX)
+    public void rebuildSearchIndex() {
+        final int chunkSize = this.configurationDomainService.retrieveJobChunkSize();
+        for (final IndexSource source : IndexSource.values()) {
+            final String sql = "select id from " + source.table + " where id > :lastId order by id limit " + chunkSize;
+            Long lastId = 0L;
+            List<Long> ids;
+            int indexed = 0;
+            do {
+                ids = this.namedParameterJdbcTemplate.queryForList(sql, new MapSqlParameterSource("lastId", lastId), Long.class);
+                if (!ids.isEmpty()) {
+                    reindexInTransaction(source, ids);
+                    lastId = ids.get(ids.size() - 1);
+                    indexed += ids.size();
+                }
+            } while (ids.size() == chunkSize);
+
+            purgeOrphans(source);
+            logger.info(ThreadLocalContextUtil.getTenant().getName() + ": search index rebuilt for " + indexed + " rows of "
+                    + source.table);
+        }
+    }
+
+    private void reindexInTransaction(final IndexSource source, final Collection<Long> ids) {
+        this.transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+
+            @Override
+            protected void doInTransactionWithoutResult(@SuppressWarnings("unused") final TransactionStatus status) {
+                reindex(source, ids);
+            }
+        });
+    }
+
+    /**
+     * Ids of the children the parent has now together with those the index
+     * still holds for it, so that children that were deleted or moved away
+     * lose their entries too.
+     */
+    private Collection<Long> childIds(final IndexSource source, final String parentColumn, final Long parentId, final String parentType) {
+        final MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("parentId", parentId);
+        params.addValue("entityTypes", source.entityTypes);
+        params.addValue("parentType", parentType);
+
+        final Set<Long> ids = new LinkedHashSet<>(this.namedParameterJdbcTemplate.queryForList("select id from " + source.table + " where "
+                + parentColumn + " = :parentId", params, Long.class));
+        String indexedSql = "select entity_id from m_search_index where entity_type in (:entityTypes) and parent_id = :parentId";
+        if (parentType != null) {
+            indexedSql += " and parent_type = :parentType";
+        }
+        ids.addAll(this.namedParameterJdbcTemplate.queryForList(indexedSql, params, Long.class));
+        return ids;
+    }
+
+    private void reindex(final IndexSource source, final Collection<Long> ids) {
+        if (ids.isEmpty()) { return; }
+
+        final MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("ids", ids);
+        params.addValue("entityTypes", source.entityTypes);
+
+        final IndexEntryMapper rm = new IndexEntryMapper();
+        final List<IndexEntry> entries = this.namedParameterJdbcTemplate.query(source.sql + " where " + source.idColumn + " in (:ids)",
+                params, rm);
+
+        this.namedParameterJdbcTemplate.update(
+                "delete from m_search_index_token where entity_type in (:entityTypes) and entity_id in (:ids)", params);
+        this.namedParameterJdbcTemplate.update("delete from m_search_index where entity_type in (:entityTypes) and entity_id in (:ids)",
+                params);
+        if (entries.isEmpty()) { return; }
+
+        final List<SqlParameterSource> indexRows = new ArrayList<>(entries.size());
+        final List<SqlParameterSource> tokenRows = new ArrayList<>();
+        for (final IndexEntry entry : entries) {
+            indexRows.add(entry.toParameters());
+            for (final String[] token : entry.tokens()) {
+                final MapSqlParameterSource tokenRow = new MapSqlParameterSource();
+                tokenRow.addValue("tokenType", token[0]);
+                tokenRow.addValue("token", token[1]);
+                tokenRow.addValue("entityType", entry.entityType);
+                tokenRow.addValue("entityId", entry.entityId);
+                tokenRows.add(tokenRow);
+            }
+        }
+
+        this.namedParameterJdbcTemplate.batchUpdate("insert into m_search_index (entity_type, entity_id, entity_name, entity_external_id, "
+                + "entity_account_no, entity_mobile_no, entity_status_enum, parent_id, parent_name, parent_type, office_hierarchy, search_text) "
+                + "values (:entityType, :entityId, :entityName, :entityExternalId, :entityAccountNo, :entityMobileNo, :entityStatusEnum, "
+                + ":parentId, :parentName, :parentType, :officeHierarchy, :searchText)", indexRows.toArray(new SqlParameterSource[0]));
+        if (!tokenRows.isEmpty()) {
+            this.namedParameterJdbcTemplate.batchUpdate("insert into m_search_index_token (token_type, token, entity_type, entity_id) "
+                    + "values (:tokenType, :token, :entityType, :entityId)", tokenRows.toArray(new SqlParameterSource[0]));
+        }
+    }
+
+    private void purgeOrphans(final IndexSource source) {
+        final MapSqlParameterSource params = new MapSqlParameterSource("entityTypes", source.entityTypes);
+        this.namedParameterJdbcTemplate.update("delete t from m_search_index_token t left join " + source.table
+                + " s on s.id = t.entity_id where t.entity_type in (:entityTypes) and s.id is null", params);
+        this.namedParameterJdbcTemplate.update("delete i from m_search_index i left join " + source.table
+                + " s on s.id = i.entity_id where i.entity_type in (:entityTypes) and s.id is null", params);
+    }
+
+    /**
+     * Where the entries of each entity type are read from; the select lists
+     * match the columns returned by the search itself.
+     */
+    private enum IndexSource {
+
+        CLIENT("m_client", "c.id", "select 'CLIENT' as entityType, c.id as entityId, c.display_name as entityName, "
+                + "c.external_id as entityExternalId, c.account_no as entityAccountNo, c.office_id as parentId, o.name as parentName, "
+                + "c.mobile_no as entityMobileNo, c.status_enum as entityStatusEnum, null as parentType, o.hierarchy as officeHierarchy "
+                + "from m_client c join m_office o on o.id = c.office_id", "CLIENT"), //
+        CLIENT_IDENTIFIER("m_client_identifier", "ci.id", "select 'CLIENTIDENTIFIER' as entityType, ci.id as entityId, "
+                + "ci.document_key as entityName, null as entityExternalId, null as entityAccountNo, c.id as parentId, "
+                + "c.display_name as parentName, null as entityMobileNo, c.status_enum as entityStatusEnum, null as parentType, "
+                + "o.hierarchy as officeHierarchy from m_client_identifier ci join m_client c on ci.client_id = c.id "
+                + "join m_office o on o.id = c.office_id", "CLIENTIDENTIFIER"), //
+        GROUP("m_group", "g.id", "select IF(g.level_id = 1, 'CENTER', 'GROUP') as entityType, g.id as entityId, "
+                + "g.display_name as entityName, g.external_id as entityExternalId, g.account_no as entityAccountNo, "
+                + "g.office_id as parentId, o.name as parentName, null as entityMobileNo, g.status_enum as entityStatusEnum, "
+                + "null as parentType, o.hierarchy as officeHierarchy from m_group g join m_office o on o.id = g.office_id", "GROUP",
+                "CENTER"), //
+        LOAN("m_loan", "l.id", "select 'LOAN' as entityType, l.id as entityId, pl.name as entityName, l.external_id as entityExternalId, "
+                + "l.account_no as entityAccountNo, IFNULL(c.id, g.id) as parentId, IFNULL(c.display_name, g.display_name) as parentName, "
+                + "null as entityMobileNo, l.loan_status_id as entityStatusEnum, IF(g.id is null, 'client', 'group') as parentType, "
+                + "o.hierarchy as officeHierarchy from m_loan l left join m_client c on l.client_id = c.id "
+                + "left join m_group g on l.group_id = g.id left join m_office o on o.id = c.office_id "
+                + "left join m_product_loan pl on pl.id = l.product_id", "LOAN"), //
+        SAVINGS_ACCOUNT("m_savings_account", "s.id", "select 'SAVING' as entityType, s.id as entityId, sp.name as entityName, "
+                + "s.external_id as entityExternalId, s.account_no as entityAccountNo, IFNULL(c.id, g.id) as parentId, "
+                + "IFNULL(c.display_name, g.display_name) as parentName, null as entityMobileNo, s.status_enum as entityStatusEnum, "
+                + "IF(g.id is null, 'client', 'group') as parentType, o.hierarchy as officeHierarchy from m_savings_account s "
+                + "left join m_client c on s.client_id = c.id left join m_group g on s.group_id = g.id "
+                + "left join m_office o on o.id = c.office_id left join m_savings_product sp on sp.id = s.product_id", "SAVING");
+
+        private final String table;
+        private final String idColumn;
+        private final String sql;
+        private final List<String> entityTypes;
+
+        private IndexSource(final String table, final String idColumn, final String sql, final String... entityTypes) {
+            this.table = table;
+            this.idColumn = idColumn;
+            this.sql = sql;
+            this.entityTypes = Arrays.asList(entityTypes);
+        }
+    }
+
+    private static final class IndexEntry {
+
+        private final String entityType;
+        private final Long entityId;
+        private final String entityName;
+        private final String entityExternalId;
+        private final String entityAccountNo;
+        private final String entityMobileNo;
+        private final Integer entityStatusEnum;
+        private final Long parentId;
+        private final String parentName;
+        private final String parentType;
+        private final String officeHierarchy;
+
+        IndexEntry(final String entityType, final Long entityId, final String entityName, final String entityExternalId,
+                final String entityAccountNo, final String entityMobileNo, final Integer entityStatusEnum, final Long parentId,
+                final String parentName, final String parentType, final String officeHierarchy) {
+            this.entityType = entityType;
+            this.entityId = entityId;
+            this.entityName = entityName;
+            this.entityExternalId = entityExternalId;
+            this.entityAccountNo = entityAccountNo;
+            this.entityMobileNo = entityMobileNo;
+            this.entityStatusEnum = entityStatusEnum;
+            this.parentId = parentId;
+            this.parentName = parentName;
+            this.parentType = parentType;
+            this.officeHierarchy = officeHierarchy;
+        }
+
+        /**
+         * The values a search can match on, the same columns the like based
+         * search looked at for each type.
+         */
+        List<String> searchableValues() {
+            final List<String> values = new ArrayList<>();
+            switch (this.entityType) {
+                case "CLIENT":
+                    values.addAll(Arrays.asList(this.entityAccountNo, this.entityName, this.entityExternalId, this.entityMobileNo));
+                break;
+                case "CLIENTIDENTIFIER":
+                    values.add(this.entityName);
+                break;
+                case "GROUP":
+                case "CENTER":
+                    values.addAll(Arrays.asList(this.entityAccountNo, this.entityName, this.entityExternalId, String.valueOf(this.entityId)));
+                break;
+                default:
+                    values.addAll(Arrays.asList(this.entityAccountNo, this.entityExternalId));
+                break;
+            }
+            final List<String> normalised = new ArrayList<>();
+            for (final String value : values) {
+                final String normalisedValue = SearchIndexTokenizer.normalise(value);
+                if (!normalisedValue.isEmpty()) {
+                    normalised.add(normalisedValue);
+                }
+            }
+            return normalised;
+        }
+
+        List<String[]> tokens() {
+            final Set<String> seen = new LinkedHashSet<>();
+            final List<String[]> tokens = new ArrayList<>();
+            for (final String value : searchableValues()) {
+                addToken(tokens, seen, SearchIndexTokenizer.VALUE_TOKEN, SearchIndexTokenizer.truncate(value));
+                final List<String> words = SearchIndexTokenizer.words(value);
+                if (words.size() > 1) {
+                    for (final String word : words) {
+                        addToken(tokens, seen, SearchIndexTokenizer.WORD_TOKEN, word);
+                    }
+                }
+                for (final String trigram : SearchIndexTokenizer.trigrams(value)) {
+                    addToken(tokens, seen, SearchIndexTokenizer.TRIGRAM_TOKEN, trigram);
+                }
+            }
+            return tokens;
+        }
+
+        private static void addToken(final List<String[]> tokens, final Set<String> seen, final String tokenType, final String token) {
+            if (seen.add(tokenType + token)) {
+                tokens.add(new String[] { tokenType, token });
+            }
+        }
+
+        MapSqlParameterSource toParameters() {
+            final MapSqlParameterSource params = new MapSqlParameterSource();
+            params.addValue("entityType", this.entityType);
+            params.addValue("entityId", this.entityId);
+            params.addValue("entityName", this.entityName);
+            params.addValue("entityExternalId", this.entityExternalId);
+            params.addValue("entityAccountNo", this.entityAccountNo);
+            params.addValue("entityMobileNo", this.entityMobileNo);
+            params.addValue("entityStatusEnum", this.entityStatusEnum);
+            params.addValue("parentId", this.parentId);
+            params.addValue("parentName", this.parentName);
+            params.addValue("parentType", this.parentType);
+            params.addValue("officeHierarchy", this.officeHierarchy);
+            params.addValue("searchText", StringUtils.left(StringUtils.join(searchableValues(), SEARCH_TEXT_SEPARATOR),
+                    MAX_SEARCH_TEXT_LENGTH));
+            return params;
+        }
+    }
+
+    private static final class IndexEntryMapper implements RowMapper<IndexEntry> {
+
+        @Override
+        public IndexEntry mapRow(final ResultSet rs, @SuppressWarnings("unused") final int rowNum) throws SQLException {
+            final String entityType = rs.getString("entityType");
+            final Long entityId = JdbcSupport.getLong(rs, "entityId");
+            final String entityName = rs.getString("entityName");
+            final String entityExternalId = rs.getString("entityExternalId");
+            final String entityAccountNo = rs.getString("entityAccountNo");
+            final String entityMobileNo = rs.getString("entityMobileNo");
+            final Integer entityStatusEnum = JdbcSupport.getInteger(rs, "entityStatusEnum");
+            final Long parentId = JdbcSupport.getLong(rs, "parentId");
+            final String parentName = rs.getString("parentName");
+            final String parentType = rs.getString("parentType");
+            final String officeHierarchy = rs.getString("officeHierarchy");
+            return new IndexEntry(entityType, entityId, entityName, entityExternalId, entityAccountNo, entityMobileNo, entityStatusEnum,
+                    parentId, parentName, parentType, officeHierarchy);
+        }
+    }
+}
@@ -22,9 +22,14 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
+import com.stellar.bnkbiz.infrastructure.configuration.domain.ConfigurationDomainService;
 import com.stellar.bnkbiz.infrastructure.core.data.EnumOptionData;
 import com.stellar.bnkbiz.infrastructure.core.domain.JdbcSupport;
 import com.stellar.bnkbiz.infrastructure.core.service.RoutingDataSource;
@@ -52,18 +57,29 @@ import org.springframework.stereotype.Service;
 @Service
 public class SearchReadPlatformServiceImpl implements SearchReadPlatformService {
 
+    private static final int MAX_INDEX_SEARCH_RESULTS = 200;
+    // token lookups stop after this many entities, so that a short prefix
+    // reads no more of the token index than a page of results needs; more
+    // than the results are read as some are outside the office hierarchy
+    // of the user
+    private static final int MAX_INDEX_SEARCH_CANDIDATES = 5 * MAX_INDEX_SEARCH_RESULTS;
+    private static final int MAX_QUERY_TRIGRAMS = 4;
+
     private final NamedParameterJdbcTemplate namedParameterjdbcTemplate;
     private final PlatformSecurityContext context;
     private final LoanProductReadPlatformService loanProductReadPlatformService;
     private final OfficeReadPlatformService officeReadPlatformService;
+    private final ConfigurationDomainService configurationDomainService;
 
     @Autowired
     public SearchReadPlatformServiceImpl(final PlatformSecurityContext context, final RoutingDataSource dataSource,
-            final LoanProductReadPlatformService loanProductReadPlatformService, final OfficeReadPlatformService officeReadPlatformService) {
+            final LoanProductReadPlatformService loanProductReadPlatformService, final OfficeReadPlatformService officeReadPlatformService,
+            final ConfigurationDomainService configurationDomainService) {
         this.context = context;
         this.namedParameterjdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
         this.loanProductReadPlatformService = loanProductReadPlatformService;
         this.officeReadPlatformService = officeReadPlatformService;
+        this.configurationDomainService = configurationDomainService;
     }
 
     @Override
@@ -72,6 +88,7 @@ public class SearchReadPlatformServiceImpl implements SearchReadPlatformService
         final String hierarchy = currentUser.getOffice().getHierarchy();
 
         final SearchMapper rm = new SearchMapper();
+        if (this.configurationDomainService.isSearchIndexEnabled()) { return retrieveMatchingDataFromIndex(searchConditions, hierarchy, rm); }
 
         final MapSqlParameterSource params = new MapSqlParameterSource();
         params.addValue("hierarchy", hierarchy + "%");
@@ -83,6 +100,100 @@ public class SearchReadPlatformServiceImpl implements SearchReadPlatformService
         return this.namedParameterjdbcTemplate.query(rm.searchSchema(searchConditions), params, rm);
     }
 
+    /**
+     * Looks the query up in <code>m_search_index</code>: exact searches on
+     * whole values, other searches on value and word prefixes first and,
+     * for queries of three characters or more, on values containing the
+     * query through their trigrams. Every lookup is an index range scan, so
+     * unlike the like based union its cost does not grow with the number of
+     * clients and accounts.
+     */
+    private Collection<SearchData> retrieveMatchingDataFromIndex(final SearchConditions searchConditions, final String hierarchy,
+            final SearchMapper rm) {
+        final String query = SearchIndexTokenizer.normalise(searchConditions.getSearchQuery());
+        final List<String> entityTypes = indexedEntityTypes(searchConditions);
+        if (query.isEmpty() || entityTypes.isEmpty()) { return new ArrayList<>(); }
+
+        final MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("hierarchy", hierarchy + "%");
+        params.addValue("entityTypes", entityTypes);
+
+        final String select = "select si.entity_type as entityType, si.entity_id as entityId, si.entity_name as entityName, "
+                + "si.entity_external_id as entityExternalId, si.entity_account_no as entityAccountNo, si.parent_id as parentId, "
+                + "si.parent_name as parentName, si.entity_mobile_no as entityMobileNo, si.entity_status_enum as entityStatusEnum, "
+                + "si.parent_type as parentType from m_search_index si ";
+        final String hierarchyCriteria = " where (si.office_hierarchy is null or si.office_hierarchy like :hierarchy)";
+        final String limit = " limit " + MAX_INDEX_SEARCH_RESULTS;
+        final String candidateLimit = " limit " + MAX_INDEX_SEARCH_CANDIDATES;
+
+        final Map<String, SearchData> matches = new LinkedHashMap<>();
+        if (searchConditions.getExactMatch()) {
+            params.addValue("token", SearchIndexTokenizer.truncate(query));
+            final String sql = select + " join (select distinct t.entity_type, t.entity_id from m_search_index_token t "
+                    + "where t.token_type = '" + SearchIndexTokenizer.VALUE_TOKEN + "' and t.token = :token "
+                    + "and t.entity_type in (:entityTypes)" + candidateLimit + ") m on m.entity_type = si.entity_type and m.entity_id = si.entity_id"
+                    + hierarchyCriteria + limit;
+            addMatches(matches, this.namedParameterjdbcTemplate.query(sql, params, rm));
+            return matches.values();
+        }
+
+        params.addValue("prefix", SearchIndexTokenizer.truncate(query) + "%");
+        final String prefixSql = select + " join (select distinct t.entity_type, t.entity_id from m_search_index_token t "
+                + "where t.token_type in ('" + SearchIndexTokenizer.VALUE_TOKEN + "', '" + SearchIndexTokenizer.WORD_TOKEN + "') "
+                + "and t.token like :prefix and t.entity_type in (:entityTypes)" + candidateLimit + ") m "
+                + "on m.entity_type = si.entity_type and m.entity_id = si.entity_id" + hierarchyCriteria + limit;
+        addMatches(matches, this.namedParameterjdbcTemplate.query(prefixSql, params, rm));
+
+        if (matches.size() < MAX_INDEX_SEARCH_RESULTS && query.length() >= SearchIndexTokenizer.TRIGRAM_LENGTH) {
+            final List<String> trigrams = SearchIndexTokenizer.queryTrigrams(query, MAX_QUERY_TRIGRAMS);
+            params.addValue("trigrams", trigrams);
+            params.addValue("trigramCount", trigrams.size());
+            params.addValue("contains", "%" + query + "%");
+            // the trigrams only narrow down the candidates, the search text
+            // decides whether the query really is part of a value
+            final String containsSql = select + " join (select t.entity_type, t.entity_id from m_search_index_token t "
+                    + "where t.token_type = '" + SearchIndexTokenizer.TRIGRAM_TOKEN + "' and t.token in (:trigrams) "
+                    + "and t.entity_type in (:entityTypes) group by t.entity_type, t.entity_id having count(*) = :trigramCount) m "
+                    + "on m.entity_type = si.entity_type and m.entity_id = si.entity_id" + hierarchyCriteria
+                    + " and si.search_text like :contains" + limit;
+            addMatches(matches, this.namedParameterjdbcTemplate.query(containsSql, params, rm));
+        }
+
+        final List<SearchData> results = new ArrayList<>(matches.values());
+        if (results.size() > MAX_INDEX_SEARCH_RESULTS) { return results.subList(0, MAX_INDEX_SEARCH_RESULTS); }
+        return results;
+    }
+
+    private static void addMatches(final Map<String, SearchData> matches, final List<SearchData> found) {
+        for (final SearchData data : found) {
+            final String key = data.getEntityType() + ":" + data.getEntityId();
+            if (!matches.containsKey(key)) {
+                matches.put(key, data);
+            }
+        }
+    }
+
+    private static List<String> indexedEntityTypes(final SearchConditions searchConditions) {
+        final List<String> entityTypes = new ArrayList<>();
+        if (searchConditions.isClientSearch()) {
+            entityTypes.add("CLIENT");
+        }
+        if (searchConditions.isLoanSeach()) {
+            entityTypes.add("LOAN");
+        }
+        if (searchConditions.isSavingSeach()) {
+            entityTypes.add("SAVING");
+        }
+        if (searchConditions.isClientIdentifierSearch()) {
+            entityTypes.add("CLIENTIDENTIFIER");
+        }
+        if (searchConditions.isGroupSearch()) {
+            entityTypes.add("GROUP");
+            entityTypes.add("CENTER");
+        }
+        return entityTypes;
+    }
+
     private static final class SearchMapper implements RowMapper<SearchData> {
 
         public String searchSchema(final SearchConditions searchConditions) {
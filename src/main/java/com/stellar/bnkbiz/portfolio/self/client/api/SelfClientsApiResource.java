@@ -92,9 +92,11 @@ public class SelfClientsApiResource {
 		final String externalId = null;
 		final String hierarchy = null;
 		final Boolean orphansOnly = null;
+		final String continuationToken = null;
+		final String countMode = null;
 		return this.clientApiResource.retrieveAll(uriInfo, sqlSearch, officeId,
 				externalId, displayName, firstname, lastname, hierarchy,
-				offset, limit, orderBy, sortOrder, orphansOnly, true);
+				offset, limit, orderBy, sortOrder, orphansOnly, true, continuationToken, countMode);
 	}
 
 	@GET
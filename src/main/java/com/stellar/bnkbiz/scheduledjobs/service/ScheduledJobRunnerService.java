@@ -22,10 +22,6 @@ import com.stellar.bnkbiz.infrastructure.jobs.exception.JobExecutionException;
 
 public interface ScheduledJobRunnerService {
 
-    void updateLoanSummaryDetails();
-
-    void updateLoanPaidInAdvance();
-
     void applyAnnualFeeForSavings();
 
     void applyDueChargesForSavings() throws JobExecutionException;
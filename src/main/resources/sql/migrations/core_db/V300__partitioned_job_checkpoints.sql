@@ -0,0 +1,25 @@
+CREATE TABLE `job_partition_checkpoint` (
+	`id` BIGINT(20) NOT NULL AUTO_INCREMENT,
+	`job_name` VARCHAR(100) NOT NULL,
+	`partition_key` VARCHAR(100) NOT NULL,
+	`last_processed_id` BIGINT(20) NOT NULL,
+	`lastmodified_date` DATETIME NOT NULL,
+	PRIMARY KEY (`id`),
+	UNIQUE INDEX `UQ_job_partition_checkpoint` (`job_name`, `partition_key`)
+) COLLATE='utf8_general_ci' ENGINE=InnoDB;
+
+CREATE TABLE `job_item_failure` (
+	`id` BIGINT(20) NOT NULL AUTO_INCREMENT,
+	`job_name` VARCHAR(100) NOT NULL,
+	`partition_key` VARCHAR(100) NOT NULL,
+	`entity_id` BIGINT(20) NOT NULL,
+	`error_message` VARCHAR(500) NULL DEFAULT NULL,
+	`created_date` DATETIME NOT NULL,
+	PRIMARY KEY (`id`),
+	INDEX `IX_job_item_failure_job_partition` (`job_name`, `partition_key`)
+) COLLATE='utf8_general_ci' ENGINE=InnoDB;
+
+INSERT INTO `c_configuration` (`name`, `value`, `enabled`, `is_trap_door`, `description`)
+VALUES ('job-thread-pool-size', 4, 0, 0, 'Number of worker threads used by partitioned batch jobs, capped at half of the tenants connection pool');
+INSERT INTO `c_configuration` (`name`, `value`, `enabled`, `is_trap_door`, `description`)
+VALUES ('job-chunk-size', 500, 0, 0, 'Number of records processed per transaction by partitioned batch jobs');
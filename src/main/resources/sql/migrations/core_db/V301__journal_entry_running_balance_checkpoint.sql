@@ -0,0 +1,2 @@
+-- running balances are recalculated per gl account in (entry_date, id) order
+ALTER TABLE `acc_gl_journal_entry` ADD INDEX `IX_acc_gl_journal_entry_account_date_id` (`account_id`, `entry_date`, `id`);
@@ -0,0 +1,8 @@
+CREATE TABLE `m_loan_arrears_aging_dirty` (
+	`loan_id` BIGINT(20) NOT NULL,
+	`lastmodified_date` DATETIME NOT NULL,
+	PRIMARY KEY (`loan_id`)
+) COLLATE='utf8_general_ci' ENGINE=InnoDB;
+
+INSERT INTO `job` (`name`, `display_name`, `cron_expression`, `create_time`, `task_priority`, `group_name`, `previous_run_start_time`, `next_run_time`, `job_key`, `initializing_errorlog`, `is_active`, `currently_running`, `updates_allowed`, `scheduler_group`, `is_misfired`)
+VALUES ('Rebuild Loan Arrears Ageing', 'Rebuild Loan Arrears Ageing', '0 0 2 ? * SUN *', NOW(), 5, NULL, NULL, NULL, 'Rebuild Loan Arrears AgeingJobDetail1 _ DEFAULT', NULL, 0, 0, 1, 0, 0);
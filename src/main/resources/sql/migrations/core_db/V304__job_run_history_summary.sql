@@ -0,0 +1,2 @@
+ALTER TABLE `job_run_history`
+	ADD COLUMN `run_summary` VARCHAR(500) NULL DEFAULT NULL AFTER `error_log`;
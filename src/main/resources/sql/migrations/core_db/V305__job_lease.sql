@@ -0,0 +1,4 @@
+ALTER TABLE `job`
+	ADD COLUMN `lease_owner` VARCHAR(100) NULL DEFAULT NULL AFTER `is_misfired`,
+	ADD COLUMN `lease_expiry_time` DATETIME NULL DEFAULT NULL AFTER `lease_owner`,
+	ADD COLUMN `fencing_token` BIGINT(20) NOT NULL DEFAULT '0' AFTER `lease_expiry_time`;
@@ -0,0 +1,9 @@
+CREATE TABLE `c_configuration_version` (
+	`id` INT(11) NOT NULL,
+	`version` BIGINT(20) NOT NULL DEFAULT '0',
+	PRIMARY KEY (`id`)
+)
+COLLATE='utf8_general_ci'
+ENGINE=InnoDB;
+
+INSERT INTO `c_configuration_version` (`id`, `version`) VALUES (1, 0);
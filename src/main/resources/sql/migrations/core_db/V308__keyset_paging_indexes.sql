@@ -0,0 +1,5 @@
+ALTER TABLE `m_portfolio_command_source`
+	ADD INDEX `made_on_date_id` (`made_on_date`, `id`);
+
+ALTER TABLE `acc_gl_journal_entry`
+	ADD INDEX `entry_date_id` (`entry_date`, `id`);
@@ -0,0 +1,35 @@
+CREATE TABLE `m_search_index` (
+	`entity_type` VARCHAR(20) NOT NULL,
+	`entity_id` BIGINT(20) NOT NULL,
+	`entity_name` VARCHAR(200) NULL DEFAULT NULL,
+	`entity_external_id` VARCHAR(100) NULL DEFAULT NULL,
+	`entity_account_no` VARCHAR(50) NULL DEFAULT NULL,
+	`entity_mobile_no` VARCHAR(50) NULL DEFAULT NULL,
+	`entity_status_enum` INT(5) NULL DEFAULT NULL,
+	`parent_id` BIGINT(20) NULL DEFAULT NULL,
+	`parent_name` VARCHAR(200) NULL DEFAULT NULL,
+	`parent_type` VARCHAR(10) NULL DEFAULT NULL,
+	`office_hierarchy` VARCHAR(100) NULL DEFAULT NULL,
+	`search_text` VARCHAR(1000) NOT NULL,
+	PRIMARY KEY (`entity_type`, `entity_id`),
+	INDEX `search_index_parent` (`parent_id`, `entity_type`)
+)
+COLLATE='utf8_general_ci'
+ENGINE=InnoDB;
+
+CREATE TABLE `m_search_index_token` (
+	`token_type` CHAR(1) NOT NULL,
+	`token` VARCHAR(100) NOT NULL,
+	`entity_type` VARCHAR(20) NOT NULL,
+	`entity_id` BIGINT(20) NOT NULL,
+	PRIMARY KEY (`token_type`, `token`, `entity_type`, `entity_id`),
+	INDEX `search_index_token_entity` (`entity_type`, `entity_id`)
+)
+COLLATE='utf8_general_ci'
+ENGINE=InnoDB;
+
+INSERT INTO `job` (`name`, `display_name`, `cron_expression`, `create_time`, `task_priority`, `group_name`, `previous_run_start_time`, `next_run_time`, `job_key`, `initializing_errorlog`, `is_active`, `currently_running`, `updates_allowed`, `scheduler_group`, `is_misfired`)
+VALUES ('Rebuild Search Index', 'Rebuild Search Index', '0 0 2 ? * SUN *', NOW(), 5, NULL, NULL, NULL, 'Rebuild Search IndexJobDetail1 _ DEFAULT', NULL, 0, 0, 1, 0, 0);
+
+INSERT INTO `c_configuration` (`name`, `value`, `enabled`, `is_trap_door`, `description`)
+VALUES ('search-index', NULL, 0, 0, 'Serve the global search from the search index; run the Rebuild Search Index job once before enabling');
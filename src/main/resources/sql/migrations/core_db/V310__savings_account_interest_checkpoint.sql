@@ -0,0 +1,17 @@
+CREATE TABLE `m_savings_account_interest_checkpoint` (
+	`id` BIGINT(20) NOT NULL AUTO_INCREMENT,
+	`savings_account_id` BIGINT(20) NOT NULL,
+	`period_end_date` DATE NOT NULL,
+	`calculation_terms` VARCHAR(500) NOT NULL,
+	`transaction_count` INT(11) NOT NULL,
+	`last_transaction_id` BIGINT(20) NULL DEFAULT NULL,
+	`running_balance_derived` DECIMAL(19,6) NOT NULL,
+	`closing_balance_derived` DECIMAL(19,6) NOT NULL,
+	`interest_earned_derived` DECIMAL(19,6) NOT NULL,
+	`interest_compounded_derived` DECIMAL(19,6) NOT NULL,
+	PRIMARY KEY (`id`),
+	UNIQUE INDEX `uk_savings_interest_checkpoint` (`savings_account_id`, `period_end_date`),
+	CONSTRAINT `FK_savings_interest_checkpoint_account` FOREIGN KEY (`savings_account_id`) REFERENCES `m_savings_account` (`id`)
+)
+COLLATE='utf8_general_ci'
+ENGINE=InnoDB;
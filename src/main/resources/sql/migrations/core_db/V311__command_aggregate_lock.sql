@@ -0,0 +1,6 @@
+CREATE TABLE `m_command_aggregate_lock` (
+	`aggregate_key` VARCHAR(50) NOT NULL,
+	PRIMARY KEY (`aggregate_key`)
+)
+COLLATE='utf8_general_ci'
+ENGINE=InnoDB;
@@ -0,0 +1,9 @@
+CREATE TABLE `m_loan_summary_dirty` (
+	`loan_id` BIGINT(20) NOT NULL,
+	`lastmodified_date` DATETIME NOT NULL,
+	PRIMARY KEY (`loan_id`)
+) COLLATE='utf8_general_ci' ENGINE=InnoDB;
+
+-- the first run of the summary jobs reconciles every disbursed loan once
+INSERT INTO `m_loan_summary_dirty` (`loan_id`, `lastmodified_date`)
+SELECT `id`, NOW() FROM `m_loan` WHERE `disbursedon_date` IS NOT NULL;
@@ -0,0 +1,2 @@
+INSERT INTO `job` (`name`, `display_name`, `cron_expression`, `create_time`, `task_priority`, `group_name`, `previous_run_start_time`, `next_run_time`, `job_key`, `initializing_errorlog`, `is_active`, `currently_running`, `updates_allowed`, `scheduler_group`, `is_misfired`)
+VALUES ('Rebuild Loan Summary', 'Rebuild Loan Summary', '0 0 3 ? * SUN *', NOW(), 5, NULL, NULL, NULL, 'Rebuild Loan SummaryJobDetail1 _ DEFAULT', NULL, 0, 0, 1, 0, 0);
@@ -0,0 +1,234 @@
+package com.stellar.bnkbiz.infrastructure.hooks.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.stellar.bnkbiz.infrastructure.core.domain.FineractPlatformTenant;
+import com.stellar.bnkbiz.infrastructure.hooks.data.HookDeliveryData;
+import com.stellar.bnkbiz.infrastructure.hooks.processor.WebHookDeliveryClient;
+import com.stellar.bnkbiz.infrastructure.security.service.TenantDetailsService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Delivers outbox rows to a stub HTTP server on a local port and checks what
+ * the dispatcher records for each answer.
+ */
+class HookDeliveryDispatcherTest {
+
+    private static final long VERIFY_TIMEOUT_MILLIS = 5000;
+
+    private final AtomicInteger status = new AtomicInteger(200);
+    private final AtomicInteger received = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile CountDownLatch releaseResponses = new CountDownLatch(0);
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private String payloadUrl;
+    private HookDeliveryOutboxService outbox;
+    private HookDeliveryDispatcher dispatcher;
+
+    @BeforeEach
+    void start() throws IOException {
+        this.serverThreads = Executors.newCachedThreadPool();
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.setExecutor(this.serverThreads);
+        this.server.createContext("/", new HttpHandler() {
+
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                final int concurrent = HookDeliveryDispatcherTest.this.inFlight.incrementAndGet();
+                HookDeliveryDispatcherTest.this.maxInFlight.accumulateAndGet(concurrent, Math::max);
+                HookDeliveryDispatcherTest.this.received.incrementAndGet();
+                try (InputStream body = exchange.getRequestBody()) {
+                    body.readAllBytes();
+                    HookDeliveryDispatcherTest.this.releaseResponses.await(VERIFY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    exchange.sendResponseHeaders(HookDeliveryDispatcherTest.this.status.get(), -1);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    HookDeliveryDispatcherTest.this.inFlight.decrementAndGet();
+                    exchange.close();
+                }
+            }
+        });
+        this.server.start();
+        this.payloadUrl = "http://127.0.0.1:" + this.server.getAddress().getPort();
+
+        this.outbox = mock(HookDeliveryOutboxService.class);
+        when(this.outbox.claim(any(HookDeliveryData.class), any(Date.class))).thenReturn(true);
+        final TenantDetailsService tenantDetailsService = mock(TenantDetailsService.class);
+        when(tenantDetailsService.findAllTenants()).thenReturn(
+                Arrays.asList(new FineractPlatformTenant(Long.valueOf(1), "default", "Default", "UTC", null)));
+
+        this.dispatcher = new HookDeliveryDispatcher(this.outbox, tenantDetailsService, WebHookDeliveryClient.create(2, 2));
+        this.dispatcher.start();
+    }
+
+    @AfterEach
+    void stop() {
+        this.releaseResponses.countDown();
+        this.dispatcher.stop();
+        this.server.stop(0);
+        this.serverThreads.shutdownNow();
+    }
+
+    @Test
+    void marksAnAcceptedCallDelivered() {
+        queue(delivery(1, 0));
+
+        this.dispatcher.requestDispatch();
+
+        verify(this.outbox, timeout(VERIFY_TIMEOUT_MILLIS)).markDelivered(Long.valueOf(1));
+        verify(this.outbox, never()).reschedule(anyLong(), any(Date.class), anyString());
+        assertEquals(1, this.received.get());
+    }
+
+    @Test
+    void reschedulesAServerErrorWithBackoff() {
+        this.status.set(503);
+        queue(delivery(1, 2));
+
+        final long before = System.currentTimeMillis();
+        this.dispatcher.requestDispatch();
+
+        final ArgumentCaptor<Date> nextAttemptTime = ArgumentCaptor.forClass(Date.class);
+        verify(this.outbox, timeout(VERIFY_TIMEOUT_MILLIS)).reschedule(eq(Long.valueOf(1)), nextAttemptTime.capture(), anyString());
+        final long after = System.currentTimeMillis();
+        // third attempt
+        final long backoffMillis = TimeUnit.SECONDS.toMillis(HookDeliveryDispatcher.backoffSeconds(3));
+        assertTrue(nextAttemptTime.getValue().getTime() >= before + backoffMillis);
+        assertTrue(nextAttemptTime.getValue().getTime() <= after + backoffMillis);
+        verify(this.outbox, never()).markFailed(anyLong(), anyString());
+    }
+
+    @Test
+    void abandonsAServerErrorOnTheLastAttempt() {
+        this.status.set(503);
+        queue(delivery(1, HookDeliveryDispatcher.MAX_ATTEMPTS - 1));
+
+        this.dispatcher.requestDispatch();
+
+        verify(this.outbox, timeout(VERIFY_TIMEOUT_MILLIS)).markFailed(eq(Long.valueOf(1)), anyString());
+        verify(this.outbox, never()).reschedule(anyLong(), any(Date.class), anyString());
+    }
+
+    @Test
+    void doesNotRetryAClientError() {
+        this.status.set(404);
+        queue(delivery(1, 0));
+
+        this.dispatcher.requestDispatch();
+
+        verify(this.outbox, timeout(VERIFY_TIMEOUT_MILLIS)).markFailed(eq(Long.valueOf(1)), anyString());
+        verify(this.outbox, never()).reschedule(anyLong(), any(Date.class), anyString());
+    }
+
+    @Test
+    void retriesATooManyRequestsAnswer() {
+        this.status.set(429);
+        queue(delivery(1, 0));
+
+        this.dispatcher.requestDispatch();
+
+        verify(this.outbox, timeout(VERIFY_TIMEOUT_MILLIS)).reschedule(eq(Long.valueOf(1)), any(Date.class), anyString());
+    }
+
+    @Test
+    void doublesTheBackoffUpToAnHour() {
+        assertEquals(10, HookDeliveryDispatcher.backoffSeconds(1));
+        assertEquals(20, HookDeliveryDispatcher.backoffSeconds(2));
+        assertEquals(40, HookDeliveryDispatcher.backoffSeconds(3));
+        assertEquals(2560, HookDeliveryDispatcher.backoffSeconds(9));
+        assertEquals(3600, HookDeliveryDispatcher.backoffSeconds(10));
+        assertEquals(3600, HookDeliveryDispatcher.backoffSeconds(HookDeliveryDispatcher.MAX_ATTEMPTS));
+    }
+
+    @Test
+    void limitsTheCallsInFlightPerEndpoint() throws InterruptedException {
+        this.releaseResponses = new CountDownLatch(1);
+        final List<HookDeliveryData> deliveries = new ArrayList<>();
+        for (int id = 1; id <= 3 * HookDeliveryDispatcher.MAX_CONCURRENT_CALLS_PER_ENDPOINT; id++) {
+            deliveries.add(delivery(id, 0));
+        }
+        queue(deliveries.toArray(new HookDeliveryData[deliveries.size()]));
+
+        this.dispatcher.requestDispatch();
+
+        // the rows beyond the limit are left for the next poll
+        verify(this.outbox, timeout(VERIFY_TIMEOUT_MILLIS).times(HookDeliveryDispatcher.MAX_CONCURRENT_CALLS_PER_ENDPOINT)).claim(
+                any(HookDeliveryData.class), any(Date.class));
+        awaitReceived(HookDeliveryDispatcher.MAX_CONCURRENT_CALLS_PER_ENDPOINT);
+        verify(this.outbox, after(200).times(HookDeliveryDispatcher.MAX_CONCURRENT_CALLS_PER_ENDPOINT)).claim(
+                any(HookDeliveryData.class), any(Date.class));
+        assertEquals(1, this.dispatcher.trackedEndpointCount());
+
+        this.releaseResponses.countDown();
+        verify(this.outbox, timeout(VERIFY_TIMEOUT_MILLIS).times(HookDeliveryDispatcher.MAX_CONCURRENT_CALLS_PER_ENDPOINT))
+                .markDelivered(anyLong());
+        assertEquals(HookDeliveryDispatcher.MAX_CONCURRENT_CALLS_PER_ENDPOINT, this.maxInFlight.get());
+
+        // an endpoint with nothing in flight is forgotten by the next poll
+        awaitNoTrackedEndpoints();
+    }
+
+    private void queue(final HookDeliveryData... deliveries) {
+        when(this.outbox.retrieveDueDeliveries(any(Date.class), anyLong(), anyInt())).thenReturn(Arrays.asList(deliveries),
+                Collections.<HookDeliveryData> emptyList());
+    }
+
+    private HookDeliveryData delivery(final long id, final int attempts) {
+        return new HookDeliveryData(Long.valueOf(id), Long.valueOf(1), this.payloadUrl, "json", "CLIENT", "CREATE",
+                "{\"clientId\":" + id + "}", attempts, new Date());
+    }
+
+    private void awaitReceived(final int expected) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + VERIFY_TIMEOUT_MILLIS;
+        while (this.received.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, this.received.get());
+    }
+
+    private void awaitNoTrackedEndpoints() throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + VERIFY_TIMEOUT_MILLIS;
+        while (this.dispatcher.trackedEndpointCount() > 0 && System.currentTimeMillis() < deadline) {
+            // the last permit may come back after the poll that was meant to see it
+            this.dispatcher.requestDispatch();
+            Thread.sleep(20);
+        }
+        assertEquals(0, this.dispatcher.trackedEndpointCount());
+    }
+}